@@ -0,0 +1,81 @@
+package com.financeiro.benchmarks;
+
+import com.financeiro.analise.Dimensao;
+import com.financeiro.analise.Grupo;
+import com.financeiro.analise.InstantaneoColunar;
+import com.financeiro.cambio.Cotacoes;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agrupamentos sobre o instantâneo colunar de um usuário (sem banco); as contas 2 e 3 estão em USD e EUR,
+ * convertidas para BRL pela cotação diária nas variantes "Convertido"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnaliseColunarBenchmark {
+
+    @Param({"5000", "100000"})
+    private int quantidadeTransacoes;
+
+    @Param({"MES", "TIPO", "CONTA"})
+    private Dimensao dimensao;
+
+    private static final int BRL = 986;
+
+    private InstantaneoColunar instantaneo;
+    private Cotacoes cotacoes;
+    private int diaInicio;
+    private int diaFim;
+
+    @Setup
+    public void setup() throws IOException {
+        SplittableRandom random = new SplittableRandom(42L);
+        int inicio = (int) LocalDate.of(2023, 1, 1).toEpochDay();
+        StringBuilder arquivo = new StringBuilder();
+        for (int dia = 0; dia < 3 * 365; dia++) {
+            LocalDate data = LocalDate.ofEpochDay(inicio + dia);
+            arquivo.append(data).append(";USD;").append(5 + random.nextDouble()).append('\n')
+                    .append(data).append(";EUR;").append(5.5 + random.nextDouble()).append('\n');
+        }
+        cotacoes = Cotacoes.ler(new BufferedReader(new StringReader(arquivo.toString())), "BRL");
+
+        instantaneo = new InstantaneoColunar(quantidadeTransacoes, BRL);
+        instantaneo.definirMoeda(2, 840);
+        instantaneo.definirMoeda(3, 978);
+        for (int i = 0; i < quantidadeTransacoes; i++) {
+            byte tipo = random.nextInt(10) < 3 ? InstantaneoColunar.RECEITA : InstantaneoColunar.DESPESA;
+            int cartao = random.nextInt(3);
+            instantaneo.adicionar(i + 1, inicio + random.nextInt(3 * 365), random.nextLong(1, 500_000),
+                    tipo, 1 + random.nextInt(3), cartao);
+        }
+        diaInicio = inicio;
+        diaFim = inicio + 365 - 1;
+    }
+
+    @Benchmark
+    public List<Grupo> agruparPeriodoTodo() {
+        return instantaneo.agrupar(dimensao, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public List<Grupo> agruparUmAno() {
+        return instantaneo.agrupar(dimensao, diaInicio, diaFim);
+    }
+
+    @Benchmark
+    public List<Grupo> agruparPeriodoTodoConvertido() {
+        return instantaneo.agrupar(dimensao, Integer.MIN_VALUE, Integer.MAX_VALUE, cotacoes, BRL);
+    }
+}
@@ -0,0 +1,31 @@
+package com.financeiro.benchmarks;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ponto de entrada do benchmarks.jar.
+ *
+ * Aceita as mesmas opções do JMH; quando nenhum formato de resultado é informado,
+ * grava JSON em target/jmh-result.json para comparação com {@link CompararResultados}.
+ */
+public class BenchmarkRunner {
+
+    private static final String ARQUIVO_PADRAO = "target/jmh-result.json";
+
+    public static void main(String[] args) throws Exception {
+        List<String> argumentos = new ArrayList<>(Arrays.asList(args));
+
+        if (!argumentos.contains("-rf")) {
+            argumentos.addAll(List.of("-rf", "json"));
+        }
+        if (!argumentos.contains("-rff")) {
+            argumentos.addAll(List.of("-rff", ARQUIVO_PADRAO));
+        }
+
+        Main.main(argumentos.toArray(String[]::new));
+    }
+}
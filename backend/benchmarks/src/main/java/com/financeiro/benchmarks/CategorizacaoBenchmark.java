@@ -0,0 +1,90 @@
+package com.financeiro.benchmarks;
+
+import com.financeiro.categorizacao.AutomatoCategorias;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Categorização de 100k descrições (uma importação): contains regra a regra x autômato Aho-Corasick.
+ *
+ * O tempo por operação é o de 100k linhas; abaixo de 1 s, a taxa passa de 100k linhas por segundo.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CategorizacaoBenchmark {
+
+    private static final int LINHAS = 100_000;
+    private static final String LETRAS = "abcdefghijklmnopqrstuvwxyz";
+
+    @Param({"50", "1000", "5000"})
+    private int quantidadeRegras;
+
+    private List<AutomatoCategorias.Regra> regras;
+    private String[] termos;
+    private String[] descricoes;
+    private AutomatoCategorias automato;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42L);
+        regras = new ArrayList<>(quantidadeRegras);
+        termos = new String[quantidadeRegras];
+        for (int i = 0; i < quantidadeRegras; i++) {
+            termos[i] = palavra(random, 4 + random.nextInt(7));
+            regras.add(new AutomatoCategorias.Regra(termos[i], 1 + random.nextInt(30), random.nextInt(2)));
+        }
+        // ~60% das descrições contêm um termo, no meio de texto aleatório
+        descricoes = new String[LINHAS];
+        for (int i = 0; i < LINHAS; i++) {
+            String termo = random.nextInt(10) < 6 ? termos[random.nextInt(quantidadeRegras)].toUpperCase(Locale.ROOT) : "";
+            descricoes[i] = "PAG*" + palavra(random, 6) + " " + termo + " " + palavra(random, 8) + " " + (i % 97);
+        }
+        automato = AutomatoCategorias.compilar(regras);
+    }
+
+    @Benchmark
+    public void containsPorRegra(Blackhole bh) {
+        for (String descricao : descricoes) {
+            String normalizada = descricao.toLowerCase(Locale.ROOT);
+            long categoria = AutomatoCategorias.SEM_CATEGORIA;
+            int melhorComprimento = -1;
+            for (int r = 0; r < termos.length; r++) {
+                if (termos[r].length() > melhorComprimento && normalizada.contains(termos[r])) {
+                    categoria = regras.get(r).categoriaId();
+                    melhorComprimento = termos[r].length();
+                }
+            }
+            bh.consume(categoria);
+        }
+    }
+
+    @Benchmark
+    public void automato(Blackhole bh) {
+        for (String descricao : descricoes) {
+            bh.consume(automato.categorizar(descricao));
+        }
+    }
+
+    @Benchmark
+    public AutomatoCategorias compilar() {
+        return AutomatoCategorias.compilar(regras);
+    }
+
+    private static String palavra(SplittableRandom random, int tamanho) {
+        StringBuilder palavra = new StringBuilder(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            palavra.append(LETRAS.charAt(random.nextInt(LETRAS.length())));
+        }
+        return palavra.toString();
+    }
+}
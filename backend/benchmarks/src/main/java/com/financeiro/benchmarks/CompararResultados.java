@@ -0,0 +1,87 @@
+package com.financeiro.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compara dois resultados JSON do JMH (ex.: commit base x commit atual).
+ *
+ * Uso: java -cp target/benchmarks.jar com.financeiro.benchmarks.CompararResultados base.json atual.json [limite%]
+ *
+ * Sai com código 1 se algum benchmark piorar mais que o limite (padrão 10%).
+ */
+public class CompararResultados {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: CompararResultados <base.json> <atual.json> [limite%]");
+            System.exit(2);
+        }
+        double limite = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        Map<String, JsonNode> base = carregar(new File(args[0]));
+        Map<String, JsonNode> atual = carregar(new File(args[1]));
+
+        int regressoes = 0;
+        System.out.printf("%-90s %14s %14s %9s%n", "benchmark", "base", "atual", "variação");
+        for (Map.Entry<String, JsonNode> entrada : atual.entrySet()) {
+            JsonNode anterior = base.get(entrada.getKey());
+            JsonNode metricaAtual = entrada.getValue().get("primaryMetric");
+            String unidade = metricaAtual.get("scoreUnit").asText();
+            double scoreAtual = metricaAtual.get("score").asDouble();
+
+            if (anterior == null) {
+                System.out.printf("%-90s %14s %14.3f %9s  %s%n", entrada.getKey(), "-", scoreAtual, "novo", unidade);
+                continue;
+            }
+
+            double scoreBase = anterior.get("primaryMetric").get("score").asDouble();
+            double variacao = (scoreAtual - scoreBase) / scoreBase * 100.0;
+            // Em modos de vazão (ops/tempo) maior é melhor; nos demais, menor é melhor
+            boolean vazao = unidade.startsWith("ops/");
+            double piora = vazao ? -variacao : variacao;
+            boolean regressao = piora > limite;
+            if (regressao) {
+                regressoes++;
+            }
+
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%  %s%s%n", entrada.getKey(), scoreBase, scoreAtual,
+                    variacao, unidade, regressao ? "  << REGRESSÃO" : "");
+        }
+
+        if (regressoes > 0) {
+            System.out.printf("%d benchmark(s) pioraram mais de %.1f%%%n", regressoes, limite);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Indexa os resultados por nome do benchmark + parâmetros
+     */
+    private static Map<String, JsonNode> carregar(File arquivo) throws IOException {
+        JsonNode resultados = new ObjectMapper().readTree(arquivo);
+        Map<String, JsonNode> porChave = new LinkedHashMap<>();
+        for (JsonNode resultado : resultados) {
+            StringBuilder chave = new StringBuilder(resultado.get("benchmark").asText());
+            JsonNode params = resultado.get("params");
+            if (params != null) {
+                Map<String, String> ordenados = new TreeMap<>();
+                Iterator<Map.Entry<String, JsonNode>> campos = params.fields();
+                while (campos.hasNext()) {
+                    Map.Entry<String, JsonNode> campo = campos.next();
+                    ordenados.put(campo.getKey(), campo.getValue().asText());
+                }
+                chave.append(ordenados);
+            }
+            porChave.put(chave.toString(), resultado);
+        }
+        return porChave;
+    }
+}
@@ -0,0 +1,75 @@
+package com.financeiro.benchmarks;
+
+import com.financeiro.conciliacao.ConciliadorExtrato;
+import com.financeiro.conciliacao.Movimentos;
+import com.financeiro.conciliacao.ResultadoConciliacao;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conciliação de um extrato contra as transações de um ano (sem banco), n linhas x n transações.
+ *
+ * O extrato é o próprio sistema com datas deslocadas em até 2 dias e descrições no formato do banco; 5% das
+ * transações faltam no extrato e 5% das linhas não existem no sistema. Valores repetem bastante (200 comerciantes,
+ * preços em 2 mil faixas), o que exercita o desempate por descrição.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConciliacaoBenchmark {
+
+    private static final String LETRAS = "abcdefghijklmnopqrstuvwxyz";
+
+    @Param({"10000", "100000"})
+    private int quantidade;
+
+    private Movimentos extrato;
+    private Movimentos sistema;
+    private ConciliadorExtrato conciliador;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42L);
+        String[] comerciantes = new String[200];
+        for (int i = 0; i < comerciantes.length; i++) {
+            comerciantes[i] = palavra(random, 4 + random.nextInt(8)) + " " + palavra(random, 3 + random.nextInt(5));
+        }
+        int inicio = (int) LocalDate.of(2025, 1, 1).toEpochDay();
+        extrato = new Movimentos(quantidade);
+        sistema = new Movimentos(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            int dia = inicio + random.nextInt(365);
+            long centavos = -(random.nextInt(2_000) * 50L + 100);
+            String comerciante = comerciantes[random.nextInt(comerciantes.length)];
+            int sorteio = random.nextInt(20);
+            if (sorteio != 0) {
+                sistema.adicionar(i + 1, dia, centavos, comerciante);
+            }
+            if (sorteio != 1) {
+                extrato.adicionar(i + 1, dia + random.nextInt(3), centavos,
+                        "COMPRA CARTAO " + comerciante.toUpperCase(Locale.ROOT) + " " + random.nextInt(10_000));
+            }
+        }
+        conciliador = new ConciliadorExtrato(3, 0.15);
+    }
+
+    @Benchmark
+    public ResultadoConciliacao conciliar() {
+        return conciliador.conciliar(extrato, sistema);
+    }
+
+    private static String palavra(SplittableRandom random, int tamanho) {
+        StringBuilder palavra = new StringBuilder(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            palavra.append(LETRAS.charAt(random.nextInt(LETRAS.length())));
+        }
+        return palavra.toString();
+    }
+}
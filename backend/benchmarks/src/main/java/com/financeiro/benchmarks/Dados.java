@@ -0,0 +1,55 @@
+package com.financeiro.benchmarks;
+
+import com.financeiro.model.Cartao;
+import com.financeiro.model.Conta;
+import com.financeiro.model.Transacao;
+import com.financeiro.model.enums.TipoConta;
+import com.financeiro.model.enums.TipoTransacao;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Massa de dados determinística para os benchmarks (sem banco)
+ */
+final class Dados {
+
+    private static final long SEMENTE = 42L;
+
+    private Dados() {
+    }
+
+    static Conta conta(long id) {
+        Conta conta = new Conta("Conta " + id, TipoConta.CORRENTE, new BigDecimal("1500.00"), "Banco Benchmark", null);
+        conta.setId(id);
+        return conta;
+    }
+
+    static Cartao cartao(long id) {
+        Cartao cartao = new Cartao("Cartão " + id, "VISA", new BigDecimal("10000.00"), 5, 15, null);
+        cartao.setId(id);
+        return cartao;
+    }
+
+    /**
+     * Gera transações com valores entre 0,01 e 5.000,00 e ~30% de receitas
+     */
+    static List<Transacao> transacoes(int quantidade, Conta conta, Cartao cartao) {
+        SplittableRandom random = new SplittableRandom(SEMENTE);
+        LocalDate inicio = LocalDate.of(2020, 1, 1);
+        List<Transacao> transacoes = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            BigDecimal valor = BigDecimal.valueOf(random.nextLong(1, 500_000), 2);
+            TipoTransacao tipo = random.nextInt(10) < 3 ? TipoTransacao.RECEITA : TipoTransacao.DESPESA;
+            Transacao transacao = new Transacao("Transação " + i, valor, inicio.plusDays(i % 1500),
+                    tipo, false, conta, null);
+            transacao.setId((long) i + 1);
+            transacao.setCartao(cartao);
+            transacoes.add(transacao);
+        }
+        return transacoes;
+    }
+}
@@ -0,0 +1,79 @@
+package com.financeiro.benchmarks;
+
+import com.financeiro.model.Dinheiro;
+import com.financeiro.model.Transacao;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Soma de 1M valores: BigDecimal (implementação anterior) x Dinheiro em centavos.
+ *
+ * Rodar com -prof gc para ver a alocação por operação (gc.alloc.rate.norm).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DinheiroBenchmark {
+
+    @Param({"1000000"})
+    private int quantidade;
+
+    private BigDecimal[] valoresBigDecimal;
+    private Dinheiro[] valoresDinheiro;
+    private List<Transacao> transacoes;
+
+    @Setup
+    public void setup() {
+        transacoes = Dados.transacoes(quantidade, Dados.conta(1L), null);
+        valoresBigDecimal = transacoes.stream().map(Transacao::getValor).toArray(BigDecimal[]::new);
+        valoresDinheiro = Arrays.stream(valoresBigDecimal).map(Dinheiro::de).toArray(Dinheiro[]::new);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalReduce() {
+        return Arrays.stream(valoresBigDecimal).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalLaco() {
+        BigDecimal soma = BigDecimal.ZERO;
+        for (BigDecimal valor : valoresBigDecimal) {
+            soma = soma.add(valor);
+        }
+        return soma;
+    }
+
+    @Benchmark
+    public Dinheiro dinheiroSomarObjetos() {
+        Dinheiro soma = Dinheiro.ZERO;
+        for (Dinheiro valor : valoresDinheiro) {
+            soma = soma.somar(valor);
+        }
+        return soma;
+    }
+
+    @Benchmark
+    public Dinheiro dinheiroCentavos() {
+        long soma = 0;
+        for (Dinheiro valor : valoresDinheiro) {
+            soma = Dinheiro.somar(soma, valor.getCentavos());
+        }
+        return Dinheiro.deCentavos(soma);
+    }
+
+    @Benchmark
+    public Dinheiro transacoesEmCentavos() {
+        long soma = 0;
+        for (Transacao transacao : transacoes) {
+            soma = Dinheiro.somar(soma, transacao.getValorEmCentavos());
+        }
+        return Dinheiro.deCentavos(soma);
+    }
+}
@@ -0,0 +1,64 @@
+package com.financeiro.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.financeiro.model.Conta;
+import com.financeiro.model.Transacao;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização de páginas de Conta e Transacao com a mesma configuração do Jackson da aplicação
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JacksonBenchmark {
+
+    @Param({"20", "100"})
+    private int tamanhoPagina;
+
+    private ObjectMapper objectMapper;
+    private Page<Conta> paginaContas;
+    private Page<Transacao> paginaTransacoes;
+
+    @Setup
+    public void setup() {
+        objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        List<Conta> contas = new ArrayList<>(tamanhoPagina);
+        for (int i = 0; i < tamanhoPagina; i++) {
+            contas.add(Dados.conta(i + 1L));
+        }
+        // A conta referenciada pelas transações não carrega a coleção, evitando ciclos
+        List<Transacao> transacoes = Dados.transacoes(tamanhoPagina, Dados.conta(1L), null);
+
+        PageRequest pageRequest = PageRequest.of(0, tamanhoPagina);
+        paginaContas = new PageImpl<>(contas, pageRequest, 10L * tamanhoPagina);
+        paginaTransacoes = new PageImpl<>(transacoes, pageRequest, 10L * tamanhoPagina);
+    }
+
+    @Benchmark
+    public byte[] serializarPaginaContas() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(paginaContas);
+    }
+
+    @Benchmark
+    public byte[] serializarPaginaTransacoes() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(paginaTransacoes);
+    }
+}
@@ -0,0 +1,59 @@
+package com.financeiro.benchmarks;
+
+import com.financeiro.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Geração e validação de tokens JWT (HS256)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtUtil = new JwtUtil();
+        definirCampo("secret", "minha-chave-secreta-super-segura-para-jwt-tokens-2024");
+        definirCampo("expiration", 86_400_000L);
+        definirCampo("meterRegistry", new SimpleMeterRegistry());
+        Method registrarMetricas = ReflectionUtils.findMethod(JwtUtil.class, "registrarMetricas");
+        ReflectionUtils.makeAccessible(registrarMetricas);
+        ReflectionUtils.invokeMethod(registrarMetricas, jwtUtil);
+
+        userDetails = new User("benchmark@financeiro.com", "senha", List.of());
+        token = jwtUtil.generateTokenWithUserInfo(userDetails.getUsername(), 1L, "USER");
+    }
+
+    private void definirCampo(String nome, Object valor) {
+        Field campo = ReflectionUtils.findField(JwtUtil.class, nome);
+        ReflectionUtils.makeAccessible(campo);
+        ReflectionUtils.setField(campo, jwtUtil, valor);
+    }
+
+    @Benchmark
+    public String generateTokenWithUserInfo() {
+        return jwtUtil.generateTokenWithUserInfo(userDetails.getUsername(), 1L, "USER");
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token, userDetails);
+    }
+}
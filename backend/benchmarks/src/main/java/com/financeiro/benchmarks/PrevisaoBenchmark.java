@@ -0,0 +1,118 @@
+package com.financeiro.benchmarks;
+
+import com.financeiro.model.enums.TipoTransacao;
+import com.financeiro.previsao.Previsao;
+import com.financeiro.previsao.PrevisaoFluxoCaixa;
+import com.financeiro.previsao.ProjecaoFluxoCaixa;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Previsão de fluxo de caixa de 24 meses (sem banco): alimenta a projeção com as linhas que o
+ * PrevisaoFluxoCaixa leria e projeta as contas. Alvo do pedido: 20 contas e 200 recorrências em menos de 50 ms.
+ *
+ * Cada conta tem histórico consolidado e 50 lançamentos entre as faturas em aberto e o futuro; 5 cartões com
+ * fechamentos diferentes recebem 30% dos lançamentos e das recorrências. Cada regra chega com 3 ocorrências
+ * (a mais recente vale), como na consulta de recorrentes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrevisaoBenchmark {
+
+    private static final int CARTOES = 5;
+    private static final int LANCAMENTOS_POR_CONTA = 50;
+    private static final int OCORRENCIAS_POR_REGRA = 3;
+    private static final LocalDate HOJE = LocalDate.of(2026, 1, 10);
+
+    @Param({"20"})
+    private int contas;
+
+    @Param({"200"})
+    private int regras;
+
+    private long[] lancamentoConta;
+    private long[] lancamentoCartao;
+    private LocalDate[] lancamentoData;
+    private TipoTransacao[] lancamentoTipo;
+    private long[] lancamentoCentavos;
+
+    private String[] regraDescricao;
+    private long[] regraConta;
+    private long[] regraCartao;
+    private TipoTransacao[] regraTipo;
+    private long[] regraCentavos;
+    private LocalDate[] regraData;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42L);
+
+        int lancamentos = contas * LANCAMENTOS_POR_CONTA;
+        lancamentoConta = new long[lancamentos];
+        lancamentoCartao = new long[lancamentos];
+        lancamentoData = new LocalDate[lancamentos];
+        lancamentoTipo = new TipoTransacao[lancamentos];
+        lancamentoCentavos = new long[lancamentos];
+        for (int i = 0; i < lancamentos; i++) {
+            lancamentoConta[i] = 1 + random.nextInt(contas);
+            lancamentoCartao[i] = random.nextInt(10) < 3 ? 1 + random.nextInt(CARTOES) : 0;
+            // Da janela de faturas em aberto (3 meses) até 6 meses à frente
+            lancamentoData[i] = HOJE.plusDays(random.nextInt(-90, 180));
+            lancamentoTipo[i] = random.nextInt(10) < 2 ? TipoTransacao.RECEITA : TipoTransacao.DESPESA;
+            lancamentoCentavos[i] = random.nextLong(100, 200_000);
+        }
+
+        int ocorrencias = regras * OCORRENCIAS_POR_REGRA;
+        regraDescricao = new String[ocorrencias];
+        regraConta = new long[ocorrencias];
+        regraCartao = new long[ocorrencias];
+        regraTipo = new TipoTransacao[ocorrencias];
+        regraCentavos = new long[ocorrencias];
+        regraData = new LocalDate[ocorrencias];
+        for (int r = 0; r < regras; r++) {
+            long conta = 1 + random.nextInt(contas);
+            long cartao = random.nextInt(10) < 3 ? 1 + random.nextInt(CARTOES) : 0;
+            TipoTransacao tipo = random.nextInt(10) < 2 ? TipoTransacao.RECEITA : TipoTransacao.DESPESA;
+            long centavos = random.nextLong(1_000, 500_000);
+            LocalDate ultima = HOJE.minusDays(random.nextInt(1, 60));
+            for (int o = 0; o < OCORRENCIAS_POR_REGRA; o++) {
+                int i = r * OCORRENCIAS_POR_REGRA + o;
+                regraDescricao[i] = "Regra " + r;
+                regraConta[i] = conta;
+                regraCartao[i] = cartao;
+                regraTipo[i] = tipo;
+                regraCentavos[i] = centavos;
+                regraData[i] = ultima.minusMonths(o);
+            }
+        }
+    }
+
+    @Benchmark
+    public Previsao prever() {
+        ProjecaoFluxoCaixa projecao = new ProjecaoFluxoCaixa(HOJE, PrevisaoFluxoCaixa.MAXIMO_MESES);
+        for (int c = 1; c <= contas; c++) {
+            projecao.conta(c, "Conta " + c, "BRL", 1_000_000);
+            projecao.historico(c, TipoTransacao.RECEITA, 50_000_000);
+            projecao.historico(c, TipoTransacao.DESPESA, 48_000_000);
+        }
+        for (int k = 1; k <= CARTOES; k++) {
+            projecao.cartao(k, 1 + k * 5, 10 + k * 3);
+        }
+        for (int i = 0; i < lancamentoConta.length; i++) {
+            projecao.lancamento(lancamentoConta[i], lancamentoCartao[i], lancamentoData[i], lancamentoTipo[i],
+                    lancamentoCentavos[i]);
+        }
+        for (int i = 0; i < regraDescricao.length; i++) {
+            projecao.recorrente(regraDescricao[i], regraConta[i], regraCartao[i], regraTipo[i], regraCentavos[i],
+                    regraData[i]);
+        }
+        return projecao.projetar();
+    }
+}
@@ -0,0 +1,44 @@
+package com.financeiro.benchmarks;
+
+import com.financeiro.model.Cartao;
+import com.financeiro.model.Conta;
+import com.financeiro.model.Dinheiro;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agregações em memória: saldo da conta e limite utilizado do cartão
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SaldoBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int quantidadeTransacoes;
+
+    private Conta conta;
+    private Cartao cartao;
+
+    @Setup
+    public void setup() {
+        conta = Dados.conta(1L);
+        cartao = Dados.cartao(1L);
+        conta.setTransacoes(Dados.transacoes(quantidadeTransacoes, conta, null));
+        cartao.setTransacoes(Dados.transacoes(quantidadeTransacoes, conta, cartao));
+    }
+
+    @Benchmark
+    public Dinheiro contaCalcularSaldoAtual() {
+        return conta.calcularSaldoAtual();
+    }
+
+    @Benchmark
+    public Dinheiro cartaoCalcularLimiteUtilizado() {
+        return cartao.calcularLimiteUtilizado();
+    }
+}
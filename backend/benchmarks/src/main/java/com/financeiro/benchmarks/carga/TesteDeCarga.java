@@ -0,0 +1,357 @@
+package com.financeiro.benchmarks.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Teste de carga HTTP ponta a ponta contra um backend já em execução.
+ *
+ * Cada usuário virtual faz login com um usuário da massa sintética (perfil "carga") e repete
+ * uma mistura ponderada de operações até o fim da duração:
+ * <ul>
+ *   <li>login: POST /auth/login</li>
+ *   <li>dashboard: as chamadas do dashboard do frontend em paralelo (contas, cartões, resumo e a primeira
+ *       página de /transacoes/paginado com 5 itens)</li>
+ *   <li>lista: página aleatória de /transacoes/paginado</li>
+ *   <li>filtro: /transacoes/filtrar com tipo e período aleatórios</li>
+ *   <li>resumo: /transacoes/resumo-financeiro de um ano aleatório</li>
+ * </ul>
+ *
+ * Uso: java -cp target/benchmarks.jar com.financeiro.benchmarks.carga.TesteDeCarga
+ *        [--url=http://localhost:8080/api] [--usuarios=100] [--concorrencia=50] [--duracao=60]
+ *        [--aquecimento=10] [--mix=login:1,dashboard:4,lista:3,filtro:2,resumo:2]
+ *        [--ano-final=2025] [--anos=3] [--saida=target/carga-result.json]
+ */
+public class TesteDeCarga {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String SENHA = "carga123";
+
+    private final String url;
+    private final int usuarios;
+    private final int anoFinal;
+    private final int anos;
+    private final String[] operacoes;
+    private final int[] pesosAcumulados;
+    private final HttpClient cliente;
+
+    private final Map<String, Latencias> latencias = new ConcurrentHashMap<>();
+    private volatile boolean medindo;
+
+    public TesteDeCarga(String url, int usuarios, int anoFinal, int anos, Map<String, Integer> mix) {
+        this.url = url;
+        this.usuarios = usuarios;
+        this.anoFinal = anoFinal;
+        this.anos = anos;
+        this.operacoes = mix.keySet().toArray(String[]::new);
+        this.pesosAcumulados = new int[operacoes.length];
+        int soma = 0;
+        for (int i = 0; i < operacoes.length; i++) {
+            soma += mix.get(operacoes[i]);
+            pesosAcumulados[i] = soma;
+        }
+        this.cliente = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = lerOpcoes(args);
+        int concorrencia = Integer.parseInt(opcoes.getOrDefault("concorrencia", "50"));
+        int duracao = Integer.parseInt(opcoes.getOrDefault("duracao", "60"));
+        int aquecimento = Integer.parseInt(opcoes.getOrDefault("aquecimento", "10"));
+
+        TesteDeCarga teste = new TesteDeCarga(
+                opcoes.getOrDefault("url", "http://localhost:8080/api"),
+                Integer.parseInt(opcoes.getOrDefault("usuarios", "100")),
+                Integer.parseInt(opcoes.getOrDefault("ano-final", "2025")),
+                Integer.parseInt(opcoes.getOrDefault("anos", "3")),
+                lerMix(opcoes.getOrDefault("mix", "login:1,dashboard:4,lista:3,filtro:2,resumo:2")));
+
+        System.out.printf("Carga: %d usuários virtuais, %ds de aquecimento + %ds de medição%n",
+                concorrencia, aquecimento, duracao);
+        teste.executar(concorrencia, aquecimento, duracao);
+
+        ObjectNode resultado = teste.relatorio(duracao);
+        File saida = new File(opcoes.getOrDefault("saida", "target/carga-result.json"));
+        if (saida.getParentFile() != null) {
+            saida.getParentFile().mkdirs();
+        }
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(saida, resultado);
+        System.out.println("Resultado gravado em " + saida.getPath());
+    }
+
+    /**
+     * Executa os usuários virtuais; latências só são registradas após o aquecimento
+     */
+    public void executar(int concorrencia, int aquecimento, int duracao) throws Exception {
+        long fimAquecimento = System.nanoTime() + Duration.ofSeconds(aquecimento).toNanos();
+        long fim = fimAquecimento + Duration.ofSeconds(duracao).toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int i = 0; i < concorrencia; i++) {
+                int indice = i;
+                tarefas.add(executor.submit(() -> {
+                    usuarioVirtual(indice, fim);
+                    return null;
+                }));
+            }
+
+            Thread.sleep(Math.max(0, (fimAquecimento - System.nanoTime()) / 1_000_000));
+            medindo = true;
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get();
+            }
+        }
+    }
+
+    private void usuarioVirtual(int indice, long fim) throws Exception {
+        SplittableRandom aleatorio = new SplittableRandom(indice);
+        Sessao sessao = login(indice % usuarios + 1);
+        if (sessao == null) {
+            return;
+        }
+
+        while (System.nanoTime() < fim) {
+            switch (sortear(aleatorio)) {
+                case "login" -> {
+                    Sessao nova = login(indice % usuarios + 1);
+                    if (nova != null) {
+                        sessao = nova;
+                    }
+                }
+                case "dashboard" -> dashboard(sessao);
+                case "lista" -> get("lista", sessao, "/transacoes/paginado?usuarioId=" + sessao.usuarioId
+                        + "&page=" + aleatorio.nextInt(20) + "&size=20");
+                case "filtro" -> {
+                    int ano = anoFinal - aleatorio.nextInt(anos);
+                    int mes = 1 + aleatorio.nextInt(12);
+                    String tipo = aleatorio.nextBoolean() ? "DESPESA" : "RECEITA";
+                    get("filtro", sessao, "/transacoes/filtrar?usuarioId=" + sessao.usuarioId + "&tipo=" + tipo
+                            + "&dataInicio=" + String.format("%d-%02d-01", ano, mes)
+                            + "&dataFim=" + String.format("%d-%02d-28", ano, mes) + "&size=20");
+                }
+                case "resumo" -> {
+                    int ano = anoFinal - aleatorio.nextInt(anos);
+                    get("resumo", sessao, "/transacoes/resumo-financeiro?usuarioId=" + sessao.usuarioId
+                            + "&dataInicio=" + ano + "-01-01&dataFim=" + ano + "-12-31");
+                }
+                default -> throw new IllegalStateException("Operação desconhecida");
+            }
+        }
+    }
+
+    private String sortear(SplittableRandom aleatorio) {
+        int sorteio = aleatorio.nextInt(pesosAcumulados[pesosAcumulados.length - 1]);
+        for (int i = 0; i < pesosAcumulados.length; i++) {
+            if (sorteio < pesosAcumulados[i]) {
+                return operacoes[i];
+            }
+        }
+        return operacoes[operacoes.length - 1];
+    }
+
+    private Sessao login(int usuario) throws Exception {
+        String corpo = "{\"email\":\"usuario" + usuario + "@carga.financeiro\",\"senha\":\"" + SENHA + "\"}";
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create(url + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(corpo))
+                .build();
+
+        long inicio = System.nanoTime();
+        HttpResponse<String> resposta = enviar(requisicao);
+        registrar("login", inicio, resposta);
+        if (resposta == null || resposta.statusCode() != 200) {
+            return null;
+        }
+
+        JsonNode json = MAPPER.readTree(resposta.body());
+        return new Sessao(json.get("token").asText(), json.get("usuario").get("id").asLong());
+    }
+
+    private void dashboard(Sessao sessao) throws Exception {
+        long inicio = System.nanoTime();
+        String[] caminhos = {
+                "/contas?usuarioId=" + sessao.usuarioId,
+                "/cartoes?usuarioId=" + sessao.usuarioId,
+                "/transacoes/paginado?usuarioId=" + sessao.usuarioId + "&page=0&size=5&sort=data,desc",
+                "/transacoes/resumo-financeiro?usuarioId=" + sessao.usuarioId
+        };
+        String[] nomes = {"dashboard.contas", "dashboard.cartoes", "dashboard.recentes", "dashboard.resumo"};
+
+        List<CompletableFuture<Boolean>> chamadas = new ArrayList<>();
+        for (int i = 0; i < caminhos.length; i++) {
+            String nome = nomes[i];
+            long inicioChamada = System.nanoTime();
+            chamadas.add(cliente.sendAsync(requisicaoGet(sessao, caminhos[i]), HttpResponse.BodyHandlers.ofString())
+                    .handle((resposta, erro) -> {
+                        registrar(nome, inicioChamada, erro == null ? resposta : null);
+                        return erro == null && resposta.statusCode() == 200;
+                    }));
+        }
+
+        boolean sucesso = true;
+        for (CompletableFuture<Boolean> chamada : chamadas) {
+            sucesso &= chamada.get();
+        }
+        registrar("dashboard", inicio, sucesso);
+    }
+
+    private void get(String nome, Sessao sessao, String caminho) {
+        long inicio = System.nanoTime();
+        registrar(nome, inicio, enviar(requisicaoGet(sessao, caminho)));
+    }
+
+    private HttpRequest requisicaoGet(Sessao sessao, String caminho) {
+        return HttpRequest.newBuilder(URI.create(url + caminho))
+                .header("Authorization", "Bearer " + sessao.token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private HttpResponse<String> enviar(HttpRequest requisicao) {
+        try {
+            return cliente.send(requisicao, HttpResponse.BodyHandlers.ofString());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private void registrar(String nome, long inicio, HttpResponse<String> resposta) {
+        registrar(nome, inicio, resposta != null && resposta.statusCode() / 100 == 2);
+    }
+
+    private void registrar(String nome, long inicio, boolean sucesso) {
+        if (medindo) {
+            latencias.computeIfAbsent(nome, n -> new Latencias()).registrar(System.nanoTime() - inicio, sucesso);
+        }
+    }
+
+    /**
+     * Imprime a tabela por endpoint e devolve o mesmo conteúdo em JSON
+     */
+    public ObjectNode relatorio(int duracao) {
+        ObjectNode resultado = MAPPER.createObjectNode();
+        resultado.put("url", url);
+        resultado.put("duracaoSegundos", duracao);
+        ArrayNode endpoints = resultado.putArray("endpoints");
+
+        System.out.printf("%n%-20s %10s %8s %10s %10s %10s %10s %10s%n",
+                "endpoint", "requisições", "erros", "req/s", "p50 ms", "p90 ms", "p99 ms", "máx ms");
+        latencias.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(entrada -> {
+            Latencias l = entrada.getValue();
+            long[] amostras = l.ordenadas();
+            double porSegundo = (double) amostras.length / duracao;
+            System.out.printf("%-20s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n", entrada.getKey(),
+                    amostras.length, l.erros(), porSegundo, ms(percentil(amostras, 50)), ms(percentil(amostras, 90)),
+                    ms(percentil(amostras, 99)), ms(amostras.length == 0 ? 0 : amostras[amostras.length - 1]));
+
+            ObjectNode endpoint = endpoints.addObject();
+            endpoint.put("endpoint", entrada.getKey());
+            endpoint.put("requisicoes", amostras.length);
+            endpoint.put("erros", l.erros());
+            endpoint.put("requisicoesPorSegundo", porSegundo);
+            endpoint.put("p50Ms", ms(percentil(amostras, 50)));
+            endpoint.put("p90Ms", ms(percentil(amostras, 90)));
+            endpoint.put("p99Ms", ms(percentil(amostras, 99)));
+            endpoint.put("maximoMs", ms(amostras.length == 0 ? 0 : amostras[amostras.length - 1]));
+        });
+        return resultado;
+    }
+
+    private static long percentil(long[] ordenadas, double percentil) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int posicao = (int) Math.ceil(percentil / 100.0 * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, Math.min(posicao, ordenadas.length - 1))];
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static Map<String, String> lerOpcoes(String[] args) {
+        Map<String, String> opcoes = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Opção inválida: " + arg + " (use --nome=valor)");
+            }
+            int igual = arg.indexOf('=');
+            opcoes.put(arg.substring(2, igual), arg.substring(igual + 1));
+        }
+        return opcoes;
+    }
+
+    private static Map<String, Integer> lerMix(String mix) {
+        Map<String, Integer> pesos = new LinkedHashMap<>();
+        for (String item : mix.split(",")) {
+            String[] partes = item.split(":");
+            int peso = Integer.parseInt(partes[1].trim());
+            if (peso > 0) {
+                pesos.put(partes[0].trim(), peso);
+            }
+        }
+        if (pesos.isEmpty()) {
+            throw new IllegalArgumentException("Mix vazio: " + mix);
+        }
+        return pesos;
+    }
+
+    private record Sessao(String token, long usuarioId) {
+    }
+
+    /**
+     * Amostras de latência (ns) de um endpoint
+     */
+    private static final class Latencias {
+
+        private long[] amostras = new long[1024];
+        private int tamanho;
+        private long erros;
+
+        synchronized void registrar(long nanos, boolean sucesso) {
+            if (tamanho == amostras.length) {
+                amostras = Arrays.copyOf(amostras, tamanho * 2);
+            }
+            amostras[tamanho++] = nanos;
+            if (!sucesso) {
+                erros++;
+            }
+        }
+
+        synchronized long[] ordenadas() {
+            long[] copia = Arrays.copyOf(amostras, tamanho);
+            Arrays.sort(copia);
+            return copia;
+        }
+
+        synchronized long erros() {
+            return erros;
+        }
+    }
+}
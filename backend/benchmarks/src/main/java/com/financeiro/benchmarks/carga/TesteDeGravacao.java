@@ -0,0 +1,275 @@
+package com.financeiro.benchmarks.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Teste de vazão de inclusões de transações (POST /transacoes) contra um backend já em execução.
+ *
+ * Os usuários da massa sintética (perfil "carga") fazem login antes da medição; cada cliente virtual usa a
+ * sessão de um deles e inclui transações na primeira conta do usuário até o fim da duração.
+ * Compara linhas gravadas por segundo com commits por segundo, lidos dos contadores financeiro.lancamentos.*
+ * do actuator: com o pipeline de group commit (financeiro.lancamentos.pipeline=true) ou a coalescência por
+ * conta, muitas linhas dividem um commit; no modo direto os contadores não se movem e cada linha é um commit.
+ *
+ * Uso: java -cp target/benchmarks.jar com.financeiro.benchmarks.carga.TesteDeGravacao
+ *        [--url=http://localhost:8080/api] [--metricas=http://localhost:8081/actuator/metrics]
+ *        [--usuarios=3] [--concorrencia=64] [--duracao=30] [--saida=target/gravacao-result.json]
+ */
+public class TesteDeGravacao {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String SENHA = "carga123";
+
+    private final String url;
+    private final String metricas;
+    private final int usuarios;
+    private final HttpClient cliente;
+
+    private final Latencias latencias = new Latencias();
+
+    public TesteDeGravacao(String url, String metricas, int usuarios) {
+        this.url = url;
+        this.metricas = metricas;
+        this.usuarios = usuarios;
+        this.cliente = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = lerOpcoes(args);
+        int concorrencia = Integer.parseInt(opcoes.getOrDefault("concorrencia", "64"));
+        int duracao = Integer.parseInt(opcoes.getOrDefault("duracao", "30"));
+
+        TesteDeGravacao teste = new TesteDeGravacao(
+                opcoes.getOrDefault("url", "http://localhost:8080/api"),
+                opcoes.getOrDefault("metricas", "http://localhost:8081/actuator/metrics"),
+                Integer.parseInt(opcoes.getOrDefault("usuarios", "3")));
+
+        System.out.printf("Gravação: %d clientes por %ds%n", concorrencia, duracao);
+        double commitsAntes = teste.contador("financeiro.lancamentos.commits");
+        double linhasAntes = teste.contador("financeiro.lancamentos.linhas");
+        teste.executar(concorrencia, duracao);
+        double commits = teste.contador("financeiro.lancamentos.commits") - commitsAntes;
+        double linhasEmLote = teste.contador("financeiro.lancamentos.linhas") - linhasAntes;
+
+        ObjectNode resultado = teste.relatorio(duracao, commits, linhasEmLote);
+        File saida = new File(opcoes.getOrDefault("saida", "target/gravacao-result.json"));
+        if (saida.getParentFile() != null) {
+            saida.getParentFile().mkdirs();
+        }
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(saida, resultado);
+        System.out.println("Resultado gravado em " + saida.getPath());
+    }
+
+    /**
+     * Faz login dos usuários e executa os clientes virtuais durante a duração
+     */
+    public void executar(int concorrencia, int duracao) throws Exception {
+        List<Sessao> sessoes = new ArrayList<>();
+        for (int usuario = 1; usuario <= usuarios; usuario++) {
+            Sessao sessao = login(usuario);
+            if (sessao != null) {
+                sessoes.add(sessao);
+            }
+        }
+        if (sessoes.isEmpty()) {
+            throw new IllegalStateException("Nenhum usuário da massa de carga conseguiu fazer login");
+        }
+
+        long fim = System.nanoTime() + Duration.ofSeconds(duracao).toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int i = 0; i < concorrencia; i++) {
+                int indice = i;
+                Sessao sessao = sessoes.get(i % sessoes.size());
+                tarefas.add(executor.submit(() -> {
+                    cliente(indice, sessao, fim);
+                    return null;
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get();
+            }
+        }
+    }
+
+    private void cliente(int indice, Sessao sessao, long fim) {
+        SplittableRandom aleatorio = new SplittableRandom(indice);
+        LocalDate hoje = LocalDate.now();
+        while (System.nanoTime() < fim) {
+            String corpo = "{\"descricao\":\"Gravação " + indice + "\",\"valor\":" + (1 + aleatorio.nextInt(500))
+                    + ".00,\"data\":\"" + hoje.minusDays(aleatorio.nextInt(30)) + "\",\"tipo\":\""
+                    + (aleatorio.nextInt(4) == 0 ? "RECEITA" : "DESPESA") + "\",\"recorrente\":false}";
+            HttpRequest requisicao = HttpRequest.newBuilder(URI.create(url + "/transacoes?usuarioId="
+                            + sessao.usuarioId + "&contaId=" + sessao.contaId))
+                    .header("Authorization", "Bearer " + sessao.token)
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(30))
+                    .POST(HttpRequest.BodyPublishers.ofString(corpo))
+                    .build();
+
+            long inicio = System.nanoTime();
+            HttpResponse<String> resposta = enviar(requisicao);
+            latencias.registrar(System.nanoTime() - inicio, resposta != null && resposta.statusCode() == 201);
+        }
+    }
+
+    private Sessao login(int usuario) throws Exception {
+        String corpo = "{\"email\":\"usuario" + usuario + "@carga.financeiro\",\"senha\":\"" + SENHA + "\"}";
+        HttpResponse<String> resposta = enviar(HttpRequest.newBuilder(URI.create(url + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(corpo))
+                .build());
+        if (resposta == null || resposta.statusCode() != 200) {
+            return null;
+        }
+        JsonNode json = MAPPER.readTree(resposta.body());
+        String token = json.get("token").asText();
+        long usuarioId = json.get("usuario").get("id").asLong();
+
+        HttpResponse<String> contas = enviar(HttpRequest.newBuilder(URI.create(url + "/contas?usuarioId=" + usuarioId
+                        + "&fields=id"))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build());
+        if (contas == null || contas.statusCode() != 200 || MAPPER.readTree(contas.body()).isEmpty()) {
+            return null;
+        }
+        return new Sessao(token, usuarioId, MAPPER.readTree(contas.body()).get(0).get("id").asLong());
+    }
+
+    /**
+     * Valor atual de um contador do actuator (0 enquanto o medidor ainda não existe)
+     */
+    private double contador(String nome) throws Exception {
+        HttpResponse<String> resposta = enviar(HttpRequest.newBuilder(URI.create(metricas + "/" + nome)).GET().build());
+        if (resposta == null || resposta.statusCode() != 200) {
+            return 0;
+        }
+        for (JsonNode medida : MAPPER.readTree(resposta.body()).get("measurements")) {
+            if ("COUNT".equals(medida.get("statistic").asText())) {
+                return medida.get("value").asDouble();
+            }
+        }
+        return 0;
+    }
+
+    private HttpResponse<String> enviar(HttpRequest requisicao) {
+        try {
+            return cliente.send(requisicao, HttpResponse.BodyHandlers.ofString());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Imprime linhas/s contra commits/s e devolve o mesmo conteúdo em JSON
+     */
+    public ObjectNode relatorio(int duracao, double commitsEmLote, double linhasEmLote) {
+        long[] amostras = latencias.ordenadas();
+        long linhas = amostras.length - latencias.erros();
+        // Sem lotes registrados o backend está no modo direto: um commit por linha
+        boolean emLote = commitsEmLote > 0;
+        double commits = emLote ? commitsEmLote : linhas;
+        String modo = emLote ? "lote" : "direto";
+
+        System.out.printf("%n%-8s %10s %8s %10s %10s %12s %10s %10s%n",
+                "modo", "linhas", "erros", "linhas/s", "commits/s", "linhas/commit", "p50 ms", "p99 ms");
+        System.out.printf("%-8s %10d %8d %10.1f %10.1f %12.1f %10.2f %10.2f%n", modo, linhas, latencias.erros(),
+                (double) linhas / duracao, commits / duracao, commits == 0 ? 0 : linhas / commits,
+                ms(percentil(amostras, 50)), ms(percentil(amostras, 99)));
+
+        ObjectNode resultado = MAPPER.createObjectNode();
+        resultado.put("url", url);
+        resultado.put("duracaoSegundos", duracao);
+        resultado.put("modo", modo);
+        resultado.put("linhas", linhas);
+        resultado.put("linhasEmLote", linhasEmLote);
+        resultado.put("erros", latencias.erros());
+        resultado.put("commits", commits);
+        resultado.put("linhasPorSegundo", (double) linhas / duracao);
+        resultado.put("commitsPorSegundo", commits / duracao);
+        resultado.put("linhasPorCommit", commits == 0 ? 0 : linhas / commits);
+        resultado.put("p50Ms", ms(percentil(amostras, 50)));
+        resultado.put("p99Ms", ms(percentil(amostras, 99)));
+        return resultado;
+    }
+
+    private static long percentil(long[] ordenadas, double percentil) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int posicao = (int) Math.ceil(percentil / 100.0 * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, Math.min(posicao, ordenadas.length - 1))];
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static Map<String, String> lerOpcoes(String[] args) {
+        Map<String, String> opcoes = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Opção inválida: " + arg + " (use --nome=valor)");
+            }
+            int igual = arg.indexOf('=');
+            opcoes.put(arg.substring(2, igual), arg.substring(igual + 1));
+        }
+        return opcoes;
+    }
+
+    private record Sessao(String token, long usuarioId, long contaId) {
+    }
+
+    /**
+     * Amostras de latência (ns) das inclusões
+     */
+    private static final class Latencias {
+
+        private long[] amostras = new long[1024];
+        private int tamanho;
+        private long erros;
+
+        synchronized void registrar(long nanos, boolean sucesso) {
+            if (tamanho == amostras.length) {
+                amostras = Arrays.copyOf(amostras, tamanho * 2);
+            }
+            amostras[tamanho++] = nanos;
+            if (!sucesso) {
+                erros++;
+            }
+        }
+
+        synchronized long[] ordenadas() {
+            long[] copia = Arrays.copyOf(amostras, tamanho);
+            Arrays.sort(copia);
+            return copia;
+        }
+
+        synchronized long erros() {
+            return erros;
+        }
+    }
+}
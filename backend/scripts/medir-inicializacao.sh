@@ -0,0 +1,51 @@
+#!/usr/bin/env bash
+# Compara a inicialização do build atual com o build de inicialização rápida (AOT + AppCDS + perfil rapido).
+#
+# Pré-requisito: mvn -B -Pinicio-rapido package -DskipTests
+# Uso: scripts/medir-inicializacao.sh [execucoes]
+#
+# Por padrão usa um H2 em arquivo (criado pela primeira execução do build atual com ddl-auto=update);
+# para medir contra o PostgreSQL, exporte DB_URL, DB_USUARIO, DB_SENHA e DB_DRIVER.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+EXECUCOES=${1:-3}
+JAR=target/controle-financeiro-backend-1.0.0.jar
+CDS=target/app-cds.jsa
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+DB_URL=${DB_URL:-jdbc:h2:file:./target/medicao/financeiro}
+DB_USUARIO=${DB_USUARIO:-sa}
+DB_SENHA=${DB_SENHA:-}
+DB_DRIVER=${DB_DRIVER:-org.h2.Driver}
+DIALETO=${DIALETO:-org.hibernate.dialect.H2Dialect}
+LOG=target/medicao/app.log
+
+[[ -f $JAR && -f $CDS ]] || { echo "Gere o build com: mvn -B -Pinicio-rapido package -DskipTests"; exit 1; }
+mkdir -p target/medicao
+
+comum=(-Dspring.datasource.url="$DB_URL" -Dspring.datasource.username="$DB_USUARIO" -Dspring.datasource.password="$DB_SENHA"
+       -Dspring.datasource.driver-class-name="$DB_DRIVER" -Dspring.jpa.properties.hibernate.dialect="$DIALETO"
+       -Dspring.jpa.show-sql=false)
+
+medir() {
+  local nome=$1; shift
+  "$JAVA" "$@" "${comum[@]}" -jar "$JAR" > "$LOG" 2>&1 &
+  local pid=$!
+  until grep -q "Aplicação pronta em" "$LOG" 2>/dev/null; do
+    kill -0 $pid 2>/dev/null || { echo "$nome: a aplicação terminou (veja $LOG)"; exit 1; }
+    sleep 0.05
+  done
+  curl -s -o /dev/null -X POST localhost:8080/api/auth/login -H 'Content-Type: application/json' \
+       -d '{"email":"medicao@financeiro","senha":"medicao"}'
+  until grep -q "Primeira requisição" "$LOG"; do sleep 0.05; done
+  local pronto primeira
+  pronto=$(grep -o "pronta em [0-9]* ms" "$LOG" | grep -o "[0-9]*")
+  primeira=$(grep -o "atendida em [0-9]* ms" "$LOG" | grep -o "[0-9]*")
+  kill $pid; wait $pid 2>/dev/null || true
+  printf "%-20s pronto: %6s ms   primeira requisição: %6s ms\n" "$nome" "$pronto" "$primeira"
+}
+
+for i in $(seq 1 "$EXECUCOES"); do
+  medir "atual" -Dspring.profiles.active=prod -Dspring.jpa.hibernate.ddl-auto=update
+  medir "inicio-rapido" -XX:SharedArchiveFile="$CDS" -Dspring.aot.enabled=true -Dspring.profiles.active=prod,rapido
+done
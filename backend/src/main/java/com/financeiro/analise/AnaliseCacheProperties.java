@@ -0,0 +1,41 @@
+package com.financeiro.analise;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Cache analítico colunar por usuário.
+ *
+ * Exemplo:
+ * <pre>
+ * financeiro.analise.cache.orcamento-memoria-mb=64
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "financeiro.analise.cache")
+public class AnaliseCacheProperties {
+
+    /** Desliga o cache (cada agregação carrega as colunas do banco) */
+    private boolean habilitado = true;
+
+    /** Memória máxima somada de todos os usuários em cache; acima disso os menos usados são descartados */
+    private int orcamentoMemoriaMb = 64;
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    public void setHabilitado(boolean habilitado) {
+        this.habilitado = habilitado;
+    }
+
+    public int getOrcamentoMemoriaMb() {
+        return orcamentoMemoriaMb;
+    }
+
+    public void setOrcamentoMemoriaMb(int orcamentoMemoriaMb) {
+        this.orcamentoMemoriaMb = orcamentoMemoriaMb;
+    }
+
+    public long getOrcamentoMemoriaBytes() {
+        return orcamentoMemoriaMb * 1024L * 1024L;
+    }
+}
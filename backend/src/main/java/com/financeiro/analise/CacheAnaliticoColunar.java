@@ -0,0 +1,265 @@
+package com.financeiro.analise;
+
+import com.financeiro.arquivo.RepositorioSegmentos;
+import com.financeiro.arquivo.TransacaoArquivada;
+import com.financeiro.cambio.Cotacoes;
+import com.financeiro.cambio.TabelaCambio;
+import com.financeiro.model.Dinheiro;
+import com.financeiro.model.Transacao;
+import com.financeiro.model.enums.TipoTransacao;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Cache analítico colunar por usuário (LRU com orçamento de memória).
+ *
+ * O instantâneo de um usuário é carregado na primeira agregação e mantido atualizado pelos deltas
+ * de escrita do TransacaoService, aplicados após o commit. Uma versão por faixa de usuários detecta
+ * escritas concorrentes com a carga: se mudar durante a leitura do banco, a carga é refeita. A versão é
+ * conferida de novo na publicação, sob o lock em que as escritas procuram o instantâneo: uma escrita que
+ * termina entre a leitura e a publicação impede a publicação ou encontra o instantâneo já publicado.
+ */
+@Component
+@EnableConfigurationProperties(AnaliseCacheProperties.class)
+public class CacheAnaliticoColunar {
+
+    private static final int FAIXAS_VERSAO = 256;
+    private static final int TENTATIVAS_CARGA = 3;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AnaliseCacheProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RepositorioSegmentos repositorioSegmentos;
+
+    @Autowired
+    private TabelaCambio tabelaCambio;
+
+    private final LinkedHashMap<Long, InstantaneoColunar> instantaneos = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLongArray versoes = new AtomicLongArray(FAIXAS_VERSAO);
+
+    private Counter acertos;
+    private Counter faltas;
+    private Counter descartes;
+
+    @PostConstruct
+    void registrarMetricas() {
+        acertos = Counter.builder("financeiro.analise.cache.requests").tag("result", "hit").register(meterRegistry);
+        faltas = Counter.builder("financeiro.analise.cache.requests").tag("result", "miss").register(meterRegistry);
+        descartes = Counter.builder("financeiro.analise.cache.evictions").register(meterRegistry);
+        Gauge.builder("financeiro.analise.cache.bytes", this, CacheAnaliticoColunar::bytesEmUso)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("financeiro.analise.cache.usuarios", this, CacheAnaliticoColunar::usuariosEmCache)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Agrupa as transações do usuário pela dimensão no período (datas nulas = sem limite), com os valores
+     * convertidos para a moeda informada pela cotação do dia de cada transação
+     */
+    public List<Grupo> agrupar(Long usuarioId, Dimensao dimensao, LocalDate dataInicio, LocalDate dataFim, String moeda) {
+        int diaInicio = dataInicio != null ? (int) dataInicio.toEpochDay() : Integer.MIN_VALUE;
+        int diaFim = dataFim != null ? (int) dataFim.toEpochDay() : Integer.MAX_VALUE;
+        return obter(usuarioId).agrupar(dimensao, diaInicio, diaFim, tabelaCambio.cotacoes(), Cotacoes.codigo(moeda));
+    }
+
+    /**
+     * Aplica a inclusão/alteração de uma transação após o commit
+     */
+    public void transacaoSalva(Transacao transacao) {
+        long usuarioId = transacao.getUsuario().getId();
+        long id = transacao.getId();
+        int dia = (int) transacao.getData().toEpochDay();
+        long valorCentavos = transacao.getValorEmCentavos();
+        byte tipo = transacao.getTipo() == TipoTransacao.RECEITA ? InstantaneoColunar.RECEITA : InstantaneoColunar.DESPESA;
+        long contaId = transacao.idDaConta();
+        long cartaoId = transacao.idDoCartao() != null ? transacao.idDoCartao() : InstantaneoColunar.SEM_CARTAO;
+
+        aposCommit(usuarioId, instantaneo -> instantaneo.gravar(id, dia, valorCentavos, tipo, contaId, cartaoId));
+    }
+
+    /**
+     * Aplica a exclusão de uma transação após o commit
+     */
+    public void transacaoExcluida(Long usuarioId, Long transacaoId) {
+        aposCommit(usuarioId, instantaneo -> instantaneo.remover(transacaoId));
+    }
+
+    /**
+     * Registra a moeda de uma conta criada ou alterada após o commit
+     */
+    public void contaSalva(Long usuarioId, Long contaId, String moeda) {
+        int codigo = Cotacoes.codigo(moeda);
+        aposCommit(usuarioId, instantaneo -> instantaneo.definirMoeda(contaId, codigo));
+    }
+
+    /**
+     * Descarta o instantâneo do usuário após o commit (escritas em massa)
+     */
+    public void invalidar(Long usuarioId) {
+        executarAposCommit(() -> {
+            versoes.incrementAndGet(faixa(usuarioId));
+            synchronized (this) {
+                instantaneos.remove(usuarioId);
+            }
+        });
+    }
+
+    public synchronized long bytesEmUso() {
+        long total = 0;
+        for (InstantaneoColunar instantaneo : instantaneos.values()) {
+            total += instantaneo.bytesEstimados();
+        }
+        return total;
+    }
+
+    public synchronized int usuariosEmCache() {
+        return instantaneos.size();
+    }
+
+    private InstantaneoColunar obter(Long usuarioId) {
+        if (properties.isHabilitado()) {
+            synchronized (this) {
+                InstantaneoColunar instantaneo = instantaneos.get(usuarioId);
+                if (instantaneo != null) {
+                    acertos.increment();
+                    return instantaneo;
+                }
+            }
+        }
+        faltas.increment();
+
+        for (int tentativa = 1; ; tentativa++) {
+            long versao = versoes.get(faixa(usuarioId));
+            InstantaneoColunar instantaneo = carregar(usuarioId);
+            boolean estavel = properties.isHabilitado()
+                    ? publicar(usuarioId, instantaneo, versao)
+                    : versoes.get(faixa(usuarioId)) == versao;
+            if (estavel || tentativa == TENTATIVAS_CARGA) {
+                // Sem estabilidade após as tentativas, responde com a leitura atual sem guardá-la
+                return instantaneo;
+            }
+        }
+    }
+
+    /**
+     * Guarda o instantâneo se nenhuma escrita do usuário aconteceu desde versao (false = leitura desatualizada)
+     */
+    private synchronized boolean publicar(Long usuarioId, InstantaneoColunar instantaneo, long versao) {
+        if (versoes.get(faixa(usuarioId)) != versao) {
+            return false;
+        }
+        long orcamento = properties.getOrcamentoMemoriaBytes();
+        if (instantaneo.bytesEstimados() > orcamento) {
+            return true;
+        }
+        instantaneos.putIfAbsent(usuarioId, instantaneo);
+
+        long total = bytesEmUso();
+        Iterator<Map.Entry<Long, InstantaneoColunar>> iterador = instantaneos.entrySet().iterator();
+        while (total > orcamento && iterador.hasNext()) {
+            Map.Entry<Long, InstantaneoColunar> maisAntigo = iterador.next();
+            if (maisAntigo.getKey().equals(usuarioId)) {
+                continue;
+            }
+            total -= maisAntigo.getValue().bytesEstimados();
+            iterador.remove();
+            descartes.increment();
+        }
+        return true;
+    }
+
+    private InstantaneoColunar carregar(Long usuarioId) {
+        Integer quantidade = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transacoes WHERE usuario_id = ?", Integer.class, usuarioId);
+        List<TransacaoArquivada> arquivadas = repositorioSegmentos.ler(usuarioId, a -> true);
+        InstantaneoColunar instantaneo = new InstantaneoColunar((quantidade != null ? quantidade : 0) + arquivadas.size(),
+                Cotacoes.codigo(tabelaCambio.cotacoes().getReferencia()));
+        jdbcTemplate.query("SELECT id, moeda FROM contas WHERE usuario_id = ?",
+                rs -> {
+                    instantaneo.definirMoeda(rs.getLong(1), Cotacoes.codigo(rs.getString(2)));
+                },
+                usuarioId);
+        Set<Long> idsQuentes = new HashSet<>();
+
+        jdbcTemplate.query("SELECT id, data, valor, tipo, conta_id, cartao_id FROM transacoes WHERE usuario_id = ?",
+                rs -> {
+                    if (!arquivadas.isEmpty()) {
+                        idsQuentes.add(rs.getLong("id"));
+                    }
+                    instantaneo.adicionar(
+                            rs.getLong("id"),
+                            (int) rs.getObject("data", LocalDate.class).toEpochDay(),
+                            Dinheiro.centavosDe(rs.getBigDecimal("valor")),
+                            "RECEITA".equals(rs.getString("tipo")) ? InstantaneoColunar.RECEITA : InstantaneoColunar.DESPESA,
+                            rs.getLong("conta_id"),
+                            rs.getLong("cartao_id"));
+                },
+                usuarioId);
+
+        // Histórico frio: ids ainda presentes na tabela (arquivamento interrompido) não entram duas vezes
+        for (TransacaoArquivada arquivada : arquivadas) {
+            if (!idsQuentes.contains(arquivada.id())) {
+                instantaneo.adicionar(arquivada.id(), arquivada.dia(), arquivada.centavos(),
+                        arquivada.tipo() == TipoTransacao.RECEITA ? InstantaneoColunar.RECEITA : InstantaneoColunar.DESPESA,
+                        arquivada.contaId(), arquivada.cartaoId());
+            }
+        }
+        return instantaneo;
+    }
+
+    private void aposCommit(long usuarioId, Consumer<InstantaneoColunar> delta) {
+        executarAposCommit(() -> {
+            versoes.incrementAndGet(faixa(usuarioId));
+            InstantaneoColunar instantaneo;
+            synchronized (this) {
+                instantaneo = instantaneos.get(usuarioId);
+            }
+            if (instantaneo != null) {
+                delta.accept(instantaneo);
+            }
+        });
+    }
+
+    private static void executarAposCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+
+    private static int faixa(long usuarioId) {
+        return (int) (usuarioId & (FAIXAS_VERSAO - 1));
+    }
+}
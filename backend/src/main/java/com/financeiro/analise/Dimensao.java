@@ -0,0 +1,12 @@
+package com.financeiro.analise;
+
+/**
+ * Dimensões de agrupamento do cache analítico
+ */
+public enum Dimensao {
+    DIA,
+    MES,
+    TIPO,
+    CONTA,
+    CARTAO
+}
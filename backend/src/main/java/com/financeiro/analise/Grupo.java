@@ -0,0 +1,9 @@
+package com.financeiro.analise;
+
+import com.financeiro.model.Dinheiro;
+
+/**
+ * Totais de um grupo (dia, mês, tipo, conta ou cartão); chave null = sem cartão
+ */
+public record Grupo(String chave, Dinheiro receitas, Dinheiro despesas, Dinheiro saldo, int quantidade) {
+}
@@ -0,0 +1,545 @@
+package com.financeiro.analise;
+
+import com.financeiro.cambio.Cotacoes;
+import com.financeiro.model.Dinheiro;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Transações de um usuário em colunas primitivas.
+ *
+ * Cada linha ocupa uma posição em todas as colunas; agrupamentos percorrem os arrays em um laço
+ * sem criar objetos por linha. Escritas (inclusão, alteração e exclusão) são idempotentes por id,
+ * o que permite aplicar o mesmo delta mais de uma vez sem corromper os totais. Cada linha guarda a moeda
+ * da sua conta (código numérico ISO 4217); agrupamentos em outra moeda convertem cada valor pela cotação
+ * do dia da transação, uma leitura na tabela densa de câmbio. Um índice aberto id → posição (só ints, sobre a
+ * própria coluna de ids) localiza a linha de um delta sem percorrer as colunas.
+ *
+ * Contas e cartões (ids bigint) entram nas colunas por um código denso deste instantâneo: o id cresce sem limite,
+ * o código só até o número de contas e cartões do usuário, e os rótulos voltam para o id original.
+ */
+public final class InstantaneoColunar {
+
+    public static final byte RECEITA = 0;
+    public static final byte DESPESA = 1;
+
+    /** Sem cartão (cartao_id nulo); também é o código dele no dicionário */
+    public static final long SEM_CARTAO = 0;
+
+    /** Bytes por linha: id (8) + dia (4) + centavos (8) + tipo (1) + conta (4) + cartão (4) + moeda (2) */
+    private static final int BYTES_POR_LINHA = 31;
+
+    /** Faixa máxima de chaves acumulada em arrays indexados; acima disso usa tabela hash */
+    private static final int LIMITE_DENSO = 1 << 16;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] ids;
+    private int[] dias;
+    private long[] centavos;
+    private byte[] tipos;
+    private int[] contas;
+    private int[] cartoes;
+    private short[] moedas;
+    private int tamanho;
+
+    /** Índice por id: posição + 1 de cada linha (0 = livre), sondagem linear, no máximo metade ocupado */
+    private int[] posicoes;
+    private int deslocamento;
+
+    /** Dicionário id de conta ou cartão → código das colunas contas/cartoes, e o inverso (código 0 = sem cartão) */
+    private final Map<Long, Integer> codigos = new HashMap<>();
+    private long[] idsPorCodigo = new long[16];
+
+    /** Moeda das contas do usuário (por código); contas desconhecidas usam a moeda padrão */
+    private final Map<Integer, Short> moedaPorConta = new HashMap<>();
+    private final short moedaPadrao;
+
+    // Limites das chaves (só crescem; remoções não os recalculam)
+    private int menorDia = Integer.MAX_VALUE;
+    private int maiorDia = Integer.MIN_VALUE;
+    private int menorConta = Integer.MAX_VALUE;
+    private int maiorConta = Integer.MIN_VALUE;
+    private int menorCartao = Integer.MAX_VALUE;
+    private int maiorCartao = Integer.MIN_VALUE;
+
+    public InstantaneoColunar(int capacidade) {
+        this(capacidade, 0);
+    }
+
+    public InstantaneoColunar(int capacidade, int moedaPadrao) {
+        this.moedaPadrao = (short) moedaPadrao;
+        int inicial = Math.max(16, capacidade);
+        ids = new long[inicial];
+        dias = new int[inicial];
+        centavos = new long[inicial];
+        tipos = new byte[inicial];
+        contas = new int[inicial];
+        cartoes = new int[inicial];
+        moedas = new short[inicial];
+        codigos.put(SEM_CARTAO, 0);
+        reindexar();
+    }
+
+    /**
+     * Registra a moeda de uma conta (vale para as linhas gravadas a partir daqui)
+     */
+    public void definirMoeda(long contaId, int moeda) {
+        lock.writeLock().lock();
+        try {
+            moedaPorConta.put(codigo(contaId), (short) moeda);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Acrescenta uma linha sem verificar duplicidade (usado na carga inicial, antes da publicação)
+     */
+    public void adicionar(long id, int dia, long valorCentavos, byte tipo, long contaId, long cartaoId) {
+        adicionarCodificada(id, dia, valorCentavos, tipo, codigo(contaId), codigo(cartaoId));
+    }
+
+    private void adicionarCodificada(long id, int dia, long valorCentavos, byte tipo, int contaId, int cartaoId) {
+        if (tamanho == ids.length) {
+            crescer();
+        }
+        ids[tamanho] = id;
+        dias[tamanho] = dia;
+        centavos[tamanho] = valorCentavos;
+        tipos[tamanho] = tipo;
+        contas[tamanho] = contaId;
+        cartoes[tamanho] = cartaoId;
+        moedas[tamanho] = moedaPorConta.getOrDefault(contaId, moedaPadrao);
+        indexar(tamanho);
+        tamanho++;
+        atualizarLimites(dia, contaId, cartaoId);
+    }
+
+    /**
+     * Inclui ou substitui a linha com o id informado
+     */
+    void gravar(long id, int dia, long valorCentavos, byte tipo, long idConta, long idCartao) {
+        lock.writeLock().lock();
+        try {
+            int contaId = codigo(idConta);
+            int cartaoId = codigo(idCartao);
+            int posicao = posicaoDe(id);
+            if (posicao < 0) {
+                adicionarCodificada(id, dia, valorCentavos, tipo, contaId, cartaoId);
+            } else {
+                dias[posicao] = dia;
+                centavos[posicao] = valorCentavos;
+                tipos[posicao] = tipo;
+                contas[posicao] = contaId;
+                cartoes[posicao] = cartaoId;
+                moedas[posicao] = moedaPorConta.getOrDefault(contaId, moedaPadrao);
+                atualizarLimites(dia, contaId, cartaoId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a linha com o id informado (a última linha ocupa o lugar da removida)
+     */
+    void remover(long id) {
+        lock.writeLock().lock();
+        try {
+            int posicao = posicaoDe(id);
+            if (posicao >= 0) {
+                desindexar(id);
+                int ultima = --tamanho;
+                if (posicao != ultima) {
+                    posicoes[vagaDe(ids[ultima])] = posicao + 1;
+                }
+                ids[posicao] = ids[ultima];
+                dias[posicao] = dias[ultima];
+                centavos[posicao] = centavos[ultima];
+                tipos[posicao] = tipos[ultima];
+                contas[posicao] = contas[ultima];
+                cartoes[posicao] = cartoes[ultima];
+                moedas[posicao] = moedas[ultima];
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Agrupa receitas e despesas pela dimensão no intervalo de dias (epochDay, inclusivo), sem conversão de moeda
+     */
+    public List<Grupo> agrupar(Dimensao dimensao, int diaInicio, int diaFim) {
+        return agrupar(dimensao, diaInicio, diaFim, null, 0);
+    }
+
+    /**
+     * Agrupa convertendo cada valor para a moeda de destino pela cotação do dia (cotacoes null = sem conversão)
+     */
+    public List<Grupo> agrupar(Dimensao dimensao, int diaInicio, int diaFim, Cotacoes cotacoes, int moedaDestino) {
+        lock.readLock().lock();
+        try {
+            int primeiroDia = Math.max(diaInicio, menorDia);
+            int ultimoDia = Math.min(diaFim, maiorDia);
+            if (tamanho == 0 || primeiroDia > ultimoDia) {
+                return List.of();
+            }
+
+            // Faixa de chaves da dimensão; MES usa uma tabela dia → mês calculada uma vez por consulta
+            int menorChave;
+            int maiorChave;
+            int[] mesPorDia = null;
+            switch (dimensao) {
+                case DIA -> {
+                    menorChave = primeiroDia;
+                    maiorChave = ultimoDia;
+                }
+                case MES -> {
+                    menorChave = mesDoDia(primeiroDia);
+                    maiorChave = mesDoDia(ultimoDia);
+                    mesPorDia = new int[ultimoDia - primeiroDia + 1];
+                    LocalDate inicioDoMes = LocalDate.ofEpochDay(primeiroDia).withDayOfMonth(1);
+                    for (int mes = menorChave; mes <= maiorChave; mes++) {
+                        int de = Math.max(0, (int) inicioDoMes.toEpochDay() - primeiroDia);
+                        inicioDoMes = inicioDoMes.plusMonths(1);
+                        int ate = Math.min(mesPorDia.length, (int) inicioDoMes.toEpochDay() - primeiroDia);
+                        Arrays.fill(mesPorDia, de, ate, mes);
+                    }
+                }
+                case TIPO -> {
+                    menorChave = RECEITA;
+                    maiorChave = DESPESA;
+                }
+                case CONTA -> {
+                    menorChave = menorConta;
+                    maiorChave = maiorConta;
+                }
+                default -> {
+                    menorChave = menorCartao;
+                    maiorChave = maiorCartao;
+                }
+            }
+
+            Cotacoes.Conversor conversor = cotacoes != null ? cotacoes.conversor(moedaDestino) : null;
+            Acumulador acumulador = (long) maiorChave - menorChave < LIMITE_DENSO
+                    ? new AcumuladorDenso(menorChave, maiorChave)
+                    : new TabelaGrupos();
+
+            for (int i = 0; i < tamanho; i++) {
+                int dia = dias[i];
+                if (dia < primeiroDia || dia > ultimoDia) {
+                    continue;
+                }
+                int chave = switch (dimensao) {
+                    case DIA -> dia;
+                    case MES -> mesPorDia[dia - primeiroDia];
+                    case TIPO -> tipos[i];
+                    case CONTA -> contas[i];
+                    case CARTAO -> cartoes[i];
+                };
+                long valor = conversor != null ? conversor.converter(centavos[i], moedas[i], dia) : centavos[i];
+                acumulador.acumular(chave, tipos[i], valor);
+            }
+            List<Grupo> grupos = acumulador.paraGrupos(dimensao, idsPorCodigo);
+            if (dimensao == Dimensao.CONTA || dimensao == Dimensao.CARTAO) {
+                // Os códigos seguem a ordem de chegada; a resposta segue a ordem dos ids
+                grupos.sort(Comparator.comparingLong(
+                        grupo -> grupo.chave() != null ? Long.parseLong(grupo.chave()) : SEM_CARTAO));
+            }
+            return grupos;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getTamanho() {
+        lock.readLock().lock();
+        try {
+            return tamanho;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Memória ocupada pelas colunas (capacidade alocada, não apenas as linhas em uso)
+     */
+    public long bytesEstimados() {
+        return (long) ids.length * BYTES_POR_LINHA + (long) posicoes.length * Integer.BYTES;
+    }
+
+    /**
+     * Código denso do id de conta ou cartão neste instantâneo (criado no primeiro uso)
+     */
+    private int codigo(long id) {
+        Integer codigo = codigos.get(id);
+        if (codigo == null) {
+            codigo = codigos.size();
+            if (codigo == idsPorCodigo.length) {
+                idsPorCodigo = Arrays.copyOf(idsPorCodigo, codigo * 2);
+            }
+            idsPorCodigo[codigo] = id;
+            codigos.put(id, codigo);
+        }
+        return codigo;
+    }
+
+    private void atualizarLimites(int dia, int contaId, int cartaoId) {
+        menorDia = Math.min(menorDia, dia);
+        maiorDia = Math.max(maiorDia, dia);
+        menorConta = Math.min(menorConta, contaId);
+        maiorConta = Math.max(maiorConta, contaId);
+        menorCartao = Math.min(menorCartao, cartaoId);
+        maiorCartao = Math.max(maiorCartao, cartaoId);
+    }
+
+    private int posicaoDe(long id) {
+        int vaga = vagaDe(id);
+        return vaga >= 0 ? posicoes[vaga] - 1 : -1;
+    }
+
+    /** Vaga do índice que aponta para a linha do id, ou -1 */
+    private int vagaDe(long id) {
+        int mascara = posicoes.length - 1;
+        for (int vaga = vagaIdeal(id); ; vaga = (vaga + 1) & mascara) {
+            int posicao = posicoes[vaga];
+            if (posicao == 0) {
+                return -1;
+            }
+            if (ids[posicao - 1] == id) {
+                return vaga;
+            }
+        }
+    }
+
+    private int vagaIdeal(long id) {
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> deslocamento);
+    }
+
+    private void indexar(int posicao) {
+        int mascara = posicoes.length - 1;
+        int vaga = vagaIdeal(ids[posicao]);
+        while (posicoes[vaga] != 0) {
+            vaga = (vaga + 1) & mascara;
+        }
+        posicoes[vaga] = posicao + 1;
+    }
+
+    /**
+     * Libera a vaga do id e recua as entradas seguintes da sequência, para que nenhuma busca pare antes delas
+     */
+    private void desindexar(long id) {
+        int mascara = posicoes.length - 1;
+        int livre = vagaDe(id);
+        for (int vaga = (livre + 1) & mascara; posicoes[vaga] != 0; vaga = (vaga + 1) & mascara) {
+            int ideal = vagaIdeal(ids[posicoes[vaga] - 1]);
+            if (((vaga - ideal) & mascara) >= ((vaga - livre) & mascara)) {
+                posicoes[livre] = posicoes[vaga];
+                livre = vaga;
+            }
+        }
+        posicoes[livre] = 0;
+    }
+
+    /** Refaz o índice com ao menos o dobro de vagas da capacidade das colunas */
+    private void reindexar() {
+        int vagas = Integer.highestOneBit(ids.length) << 2;
+        posicoes = new int[vagas];
+        deslocamento = Long.SIZE - Integer.numberOfTrailingZeros(vagas);
+        for (int i = 0; i < tamanho; i++) {
+            indexar(i);
+        }
+    }
+
+    private void crescer() {
+        int capacidade = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacidade);
+        dias = Arrays.copyOf(dias, capacidade);
+        centavos = Arrays.copyOf(centavos, capacidade);
+        tipos = Arrays.copyOf(tipos, capacidade);
+        contas = Arrays.copyOf(contas, capacidade);
+        cartoes = Arrays.copyOf(cartoes, capacidade);
+        moedas = Arrays.copyOf(moedas, capacidade);
+        reindexar();
+    }
+
+    /**
+     * Ano * 12 + (mês - 1) a partir do epochDay, sem criar LocalDate (algoritmo civil_from_days)
+     */
+    static int mesDoDia(int epochDay) {
+        int z = epochDay + 719468;
+        int era = (z >= 0 ? z : z - 146096) / 146097;
+        int diaDaEra = z - era * 146097;
+        int anoDaEra = (diaDaEra - diaDaEra / 1460 + diaDaEra / 36524 - diaDaEra / 146096) / 365;
+        int diaDoAno = diaDaEra - (365 * anoDaEra + anoDaEra / 4 - anoDaEra / 100);
+        int mp = (5 * diaDoAno + 2) / 153;
+        int mes = mp < 10 ? mp + 3 : mp - 9;
+        int ano = anoDaEra + era * 400 + (mes <= 2 ? 1 : 0);
+        return ano * 12 + mes - 1;
+    }
+
+    private interface Acumulador {
+
+        void acumular(int chave, byte tipo, long valorCentavos);
+
+        List<Grupo> paraGrupos(Dimensao dimensao, long[] idsPorCodigo);
+    }
+
+    /**
+     * Acumula em arrays indexados por (chave - menorChave); usado quando a faixa de chaves é pequena
+     */
+    private static final class AcumuladorDenso implements Acumulador {
+
+        private final int menorChave;
+        /** Posição 2 * índice + tipo: receitas nas pares, despesas nas ímpares (sem desvio por tipo) */
+        private final long[] totais;
+        private final int[] quantidades;
+
+        AcumuladorDenso(int menorChave, int maiorChave) {
+            this.menorChave = menorChave;
+            int faixa = maiorChave - menorChave + 1;
+            totais = new long[faixa * 2];
+            quantidades = new int[faixa];
+        }
+
+        @Override
+        public void acumular(int chave, byte tipo, long valorCentavos) {
+            int indice = chave - menorChave;
+            int posicao = (indice << 1) | tipo;
+            totais[posicao] = Dinheiro.somar(totais[posicao], valorCentavos);
+            quantidades[indice]++;
+        }
+
+        @Override
+        public List<Grupo> paraGrupos(Dimensao dimensao, long[] idsPorCodigo) {
+            List<Grupo> grupos = new ArrayList<>();
+            for (int i = 0; i < quantidades.length; i++) {
+                if (quantidades[i] > 0) {
+                    grupos.add(grupo(dimensao, menorChave + i, totais[i << 1], totais[(i << 1) | 1], quantidades[i],
+                            idsPorCodigo));
+                }
+            }
+            return grupos;
+        }
+    }
+
+    /**
+     * Tabela hash de endereçamento aberto chave int → (receitas, despesas, quantidade)
+     */
+    private static final class TabelaGrupos implements Acumulador {
+
+        private int[] chaves = new int[64];
+        private boolean[] usados = new boolean[64];
+        private long[] receitas = new long[64];
+        private long[] despesas = new long[64];
+        private int[] quantidades = new int[64];
+        private int ocupados;
+
+        @Override
+        public void acumular(int chave, byte tipo, long valorCentavos) {
+            int posicao = localizar(chave);
+            if (!usados[posicao]) {
+                usados[posicao] = true;
+                chaves[posicao] = chave;
+                if (++ocupados * 2 > chaves.length) {
+                    redimensionar();
+                    posicao = localizar(chave);
+                }
+            }
+            if (tipo == RECEITA) {
+                receitas[posicao] = Dinheiro.somar(receitas[posicao], valorCentavos);
+            } else {
+                despesas[posicao] = Dinheiro.somar(despesas[posicao], valorCentavos);
+            }
+            quantidades[posicao]++;
+        }
+
+        private int localizar(int chave) {
+            int mascara = chaves.length - 1;
+            int hash = chave * 0x9E3779B9;
+            int posicao = (hash ^ (hash >>> 16)) & mascara;
+            while (usados[posicao] && chaves[posicao] != chave) {
+                posicao = (posicao + 1) & mascara;
+            }
+            return posicao;
+        }
+
+        private void redimensionar() {
+            int[] chavesAntigas = chaves;
+            boolean[] usadosAntigos = usados;
+            long[] receitasAntigas = receitas;
+            long[] despesasAntigas = despesas;
+            int[] quantidadesAntigas = quantidades;
+
+            int capacidade = chavesAntigas.length * 2;
+            chaves = new int[capacidade];
+            usados = new boolean[capacidade];
+            receitas = new long[capacidade];
+            despesas = new long[capacidade];
+            quantidades = new int[capacidade];
+
+            for (int i = 0; i < chavesAntigas.length; i++) {
+                if (usadosAntigos[i]) {
+                    int posicao = localizar(chavesAntigas[i]);
+                    usados[posicao] = true;
+                    chaves[posicao] = chavesAntigas[i];
+                    receitas[posicao] = receitasAntigas[i];
+                    despesas[posicao] = despesasAntigas[i];
+                    quantidades[posicao] = quantidadesAntigas[i];
+                }
+            }
+        }
+
+        @Override
+        public List<Grupo> paraGrupos(Dimensao dimensao, long[] idsPorCodigo) {
+            int[] posicoes = new int[ocupados];
+            int n = 0;
+            for (int i = 0; i < chaves.length; i++) {
+                if (usados[i]) {
+                    posicoes[n++] = i;
+                }
+            }
+            // Ordena as posições pela chave (ordem cronológica / por código)
+            Integer[] ordem = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                ordem[i] = posicoes[i];
+            }
+            Arrays.sort(ordem, (a, b) -> Integer.compare(chaves[a], chaves[b]));
+
+            List<Grupo> grupos = new ArrayList<>(n);
+            for (int posicao : ordem) {
+                grupos.add(grupo(dimensao, chaves[posicao], receitas[posicao], despesas[posicao], quantidades[posicao],
+                        idsPorCodigo));
+            }
+            return grupos;
+        }
+    }
+
+    private static Grupo grupo(Dimensao dimensao, int chave, long receitas, long despesas, int quantidade,
+                               long[] idsPorCodigo) {
+        return new Grupo(rotulo(dimensao, chave, idsPorCodigo),
+                Dinheiro.deCentavos(receitas),
+                Dinheiro.deCentavos(despesas),
+                Dinheiro.deCentavos(Dinheiro.subtrair(receitas, despesas)),
+                quantidade);
+    }
+
+    private static String rotulo(Dimensao dimensao, int chave, long[] idsPorCodigo) {
+        return switch (dimensao) {
+            case DIA -> LocalDate.ofEpochDay(chave).toString();
+            case MES -> YearMonth.of(Math.floorDiv(chave, 12), Math.floorMod(chave, 12) + 1).toString();
+            case TIPO -> chave == RECEITA ? "RECEITA" : "DESPESA";
+            case CONTA -> String.valueOf(idsPorCodigo[chave]);
+            case CARTAO -> idsPorCodigo[chave] == SEM_CARTAO ? null : String.valueOf(idsPorCodigo[chave]);
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package com.financeiro.arquivo;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Arquivo de histórico frio (segmentos comprimidos fora da tabela transacoes).
+ *
+ * Exemplo:
+ * <pre>
+ * financeiro.arquivo.habilitado=true
+ * financeiro.arquivo.diretorio=/var/lib/financeiro/arquivo
+ * financeiro.arquivo.anos-retencao=3
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "financeiro.arquivo")
+public class ArquivoProperties {
+
+    /** Liga o arquivamento agendado (a leitura de segmentos existentes é sempre feita) */
+    private boolean habilitado = false;
+
+    /** Diretório raiz dos segmentos (um subdiretório por usuário) */
+    private String diretorio = "dados/arquivo";
+
+    /** Anos completos mantidos na tabela quente; meses anteriores a isso são arquivados */
+    private int anosRetencao = 3;
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    public void setHabilitado(boolean habilitado) {
+        this.habilitado = habilitado;
+    }
+
+    public String getDiretorio() {
+        return diretorio;
+    }
+
+    public void setDiretorio(String diretorio) {
+        this.diretorio = diretorio;
+    }
+
+    public int getAnosRetencao() {
+        return anosRetencao;
+    }
+
+    public void setAnosRetencao(int anosRetencao) {
+        this.anosRetencao = anosRetencao;
+    }
+}
@@ -0,0 +1,189 @@
+package com.financeiro.arquivo;
+
+import com.financeiro.analise.CacheAnaliticoColunar;
+import com.financeiro.cambio.ConversorMoedaBase;
+import com.financeiro.duplicidade.DetectorDuplicatas;
+import com.financeiro.model.Dinheiro;
+import com.financeiro.model.enums.TipoTransacao;
+import com.financeiro.plataforma.EstatisticasPlataforma;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Move o histórico frio da tabela transacoes para segmentos comprimidos.
+ *
+ * Cada execução por usuário gera um segmento imutável com as transações anteriores ao corte
+ * (primeiro dia do mês, {@code anos-retencao} anos atrás). O segmento é gravado e sincronizado em disco
+ * antes da exclusão das linhas; se a exclusão falhar, a próxima execução ignora os ids já arquivados
+ * e as leituras preferem a linha quente enquanto ela existir.
+ */
+@Service
+@Lazy(false)
+@Timed(value = "financeiro.service", histogram = true)
+public class ArquivoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArquivoService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private RepositorioSegmentos repositorioSegmentos;
+
+    @Autowired
+    private CacheAnaliticoColunar cacheAnalitico;
+
+    @Autowired
+    private DetectorDuplicatas detectorDuplicatas;
+
+    @Autowired
+    private EstatisticasPlataforma estatisticasPlataforma;
+
+    @Autowired
+    private ConversorMoedaBase conversorMoedaBase;
+
+    @Autowired
+    private ArquivoProperties properties;
+
+    /**
+     * Arquiva o histórico frio de todos os usuários (agendado; ativo somente com financeiro.arquivo.habilitado)
+     */
+    @Scheduled(cron = "${financeiro.arquivo.cron:0 0 3 1 * *}")
+    public void arquivarTodos() {
+        if (!properties.isHabilitado()) {
+            return;
+        }
+        List<Long> usuarios = jdbcTemplate.queryForList(
+                "SELECT DISTINCT usuario_id FROM transacoes WHERE data < ?", Long.class, dataDeCorte());
+        long total = 0;
+        for (Long usuarioId : usuarios) {
+            try {
+                total += arquivar(usuarioId);
+            } catch (RuntimeException e) {
+                logger.error("Falha ao arquivar transações do usuário {}", usuarioId, e);
+            }
+        }
+        logger.info("Arquivamento concluído: {} transações de {} usuários", total, usuarios.size());
+    }
+
+    /**
+     * Arquiva as transações do usuário anteriores à data de corte e devolve quantas saíram da tabela quente
+     */
+    public synchronized int arquivar(Long usuarioId) {
+        LocalDate corte = dataDeCorte();
+        Integer arquivadas = transactionTemplate.execute(status -> {
+            List<TransacaoArquivada> linhas = jdbcTemplate.query(
+                    "SELECT id, data, valor, tipo, recorrente, conta_id, cartao_id, categoria_id, descricao FROM transacoes " +
+                            "WHERE usuario_id = ? AND data < ? ORDER BY data, id FOR UPDATE",
+                    (rs, i) -> new TransacaoArquivada(
+                            rs.getLong("id"),
+                            (int) rs.getObject("data", LocalDate.class).toEpochDay(),
+                            Dinheiro.centavosDe(rs.getBigDecimal("valor")),
+                            TipoTransacao.valueOf(rs.getString("tipo")),
+                            rs.getBoolean("recorrente"),
+                            rs.getLong("conta_id"),
+                            rs.getLong("cartao_id"),
+                            rs.getLong("categoria_id"),
+                            rs.getString("descricao")),
+                    usuarioId, corte);
+            if (linhas.isEmpty()) {
+                return 0;
+            }
+
+            Set<Long> jaArquivadas = new HashSet<>();
+            for (TransacaoArquivada linha : repositorioSegmentos.ler(usuarioId, linhas.get(0).data(),
+                    linhas.get(linhas.size() - 1).data(), l -> true)) {
+                jaArquivadas.add(linha.id());
+            }
+            List<TransacaoArquivada> novas = new ArrayList<>(linhas.size());
+            List<Object[]> ids = new ArrayList<>(linhas.size());
+            for (TransacaoArquivada linha : linhas) {
+                if (!jaArquivadas.contains(linha.id())) {
+                    novas.add(linha);
+                }
+                ids.add(new Object[]{linha.id()});
+            }
+            if (!novas.isEmpty()) {
+                Segmento.Cabecalho segmento = repositorioSegmentos.gravar(usuarioId, novas);
+                logger.info("Usuário {}: {} transações arquivadas em {} ({} bytes comprimidos)",
+                        usuarioId, novas.size(), segmento.arquivo().getFileName(), segmento.tamanhoComprimido());
+            }
+
+            // Saldos e limites continuam contando as linhas que saem da tabela quente (o limite na moeda do cartão)
+            Map<Long, Long> saldoPorConta = new HashMap<>();
+            Map<Long, Long> limitePorCartao = new HashMap<>();
+            ConversorMoedaBase.Conversao conversao = conversorMoedaBase.paraUsuario(usuarioId);
+            for (TransacaoArquivada linha : linhas) {
+                long efeito = linha.tipo() == TipoTransacao.RECEITA ? linha.centavos() : -linha.centavos();
+                saldoPorConta.merge(linha.contaId(), efeito, Dinheiro::somar);
+                if (linha.cartaoId() != 0) {
+                    limitePorCartao.merge(linha.cartaoId(), conversao.paraCartao(linha.cartaoId(), linha.contaId(),
+                            linha.centavos(), linha.data()), Dinheiro::somar);
+                }
+            }
+            jdbcTemplate.batchUpdate("UPDATE contas SET saldo_arquivado = COALESCE(saldo_arquivado, 0) + ? WHERE id = ?",
+                    deltas(saldoPorConta));
+            jdbcTemplate.batchUpdate("UPDATE cartoes SET limite_arquivado = COALESCE(limite_arquivado, 0) + ? WHERE id = ?",
+                    deltas(limitePorCartao));
+            jdbcTemplate.batchUpdate("DELETE FROM transacoes WHERE id = ?", ids);
+            cacheAnalitico.invalidar(usuarioId);
+            detectorDuplicatas.invalidar(usuarioId);
+            return linhas.size();
+        });
+        int total = arquivadas != null ? arquivadas : 0;
+        if (total > 0) {
+            estatisticasPlataforma.usuarioAlterado(usuarioId);
+        }
+        return total;
+    }
+
+    /**
+     * Segmentos arquivados do usuário (intervalo, quantidade e tamanhos)
+     */
+    public List<Map<String, Object>> listarSegmentos(Long usuarioId) {
+        List<Map<String, Object>> segmentos = new ArrayList<>();
+        for (Segmento.Cabecalho cabecalho : repositorioSegmentos.segmentos(usuarioId)) {
+            Map<String, Object> segmento = new LinkedHashMap<>();
+            segmento.put("sequencia", cabecalho.sequencia());
+            segmento.put("inicio", LocalDate.ofEpochDay(cabecalho.menorDia()));
+            segmento.put("fim", LocalDate.ofEpochDay(cabecalho.maiorDia()));
+            segmento.put("quantidade", cabecalho.quantidade());
+            segmento.put("bytesComprimidos", cabecalho.tamanhoComprimido());
+            segmento.put("bytesOriginais", cabecalho.tamanhoOriginal());
+            segmentos.add(segmento);
+        }
+        return segmentos;
+    }
+
+    private static List<Object[]> deltas(Map<Long, Long> centavosPorId) {
+        List<Object[]> parametros = new ArrayList<>(centavosPorId.size());
+        centavosPorId.forEach((id, centavos) -> parametros.add(new Object[]{Dinheiro.deCentavos(centavos).paraBigDecimal(), id}));
+        return parametros;
+    }
+
+    /**
+     * Primeiro dia do mês, anos-retencao anos atrás; transações anteriores a esta data são arquivadas
+     */
+    public LocalDate dataDeCorte() {
+        return LocalDate.now().minusYears(properties.getAnosRetencao()).withDayOfMonth(1);
+    }
+}
@@ -0,0 +1,136 @@
+package com.financeiro.arquivo;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Segmentos de arquivo por usuário: {diretorio}/{usuarioId}/segmento-{sequencia}.seg
+ *
+ * Mantém em memória o índice de cabeçalhos (intervalo de dias e quantidade) de cada usuário, de modo que
+ * consultas fora do intervalo arquivado não abrem nenhum arquivo.
+ */
+@Component
+@EnableConfigurationProperties(ArquivoProperties.class)
+public class RepositorioSegmentos {
+
+    private static final String PREFIXO = "segmento-";
+    private static final String EXTENSAO = ".seg";
+
+    @Autowired
+    private ArquivoProperties properties;
+
+    private final Map<Long, List<Segmento.Cabecalho>> indice = new ConcurrentHashMap<>();
+
+    /**
+     * Linhas arquivadas do usuário no período (datas nulas = sem limite), ordenadas por data e id decrescentes
+     */
+    public List<TransacaoArquivada> ler(Long usuarioId, LocalDate dataInicio, LocalDate dataFim,
+                                        Predicate<TransacaoArquivada> filtro) {
+        List<Segmento.Cabecalho> segmentos = segmentos(usuarioId);
+        if (segmentos.isEmpty()) {
+            return List.of();
+        }
+        int diaInicio = dataInicio != null ? (int) dataInicio.toEpochDay() : Integer.MIN_VALUE;
+        int diaFim = dataFim != null ? (int) dataFim.toEpochDay() : Integer.MAX_VALUE;
+
+        List<TransacaoArquivada> linhas = new ArrayList<>();
+        for (Segmento.Cabecalho segmento : segmentos) {
+            if (segmento.sobrepoe(diaInicio, diaFim)) {
+                Segmento.ler(segmento, diaInicio, diaFim, filtro, linhas);
+            }
+        }
+        linhas.sort(Comparator.comparingInt(TransacaoArquivada::dia).thenComparingLong(TransacaoArquivada::id).reversed());
+        return linhas;
+    }
+
+    public List<TransacaoArquivada> ler(Long usuarioId, Predicate<TransacaoArquivada> filtro) {
+        return ler(usuarioId, null, null, filtro);
+    }
+
+    /**
+     * Se alguma linha arquivada do usuário é aceita pelo filtro, parando no primeiro segmento em que encontrar
+     */
+    public boolean existe(Long usuarioId, Predicate<TransacaoArquivada> filtro) {
+        for (Segmento.Cabecalho segmento : segmentos(usuarioId)) {
+            if (Segmento.existe(segmento, filtro)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Total de transações arquivadas do usuário (somente cabeçalhos)
+     */
+    public long contar(Long usuarioId) {
+        long total = 0;
+        for (Segmento.Cabecalho segmento : segmentos(usuarioId)) {
+            total += segmento.quantidade();
+        }
+        return total;
+    }
+
+    public boolean possuiTransacoes(Long usuarioId) {
+        return !segmentos(usuarioId).isEmpty();
+    }
+
+    /**
+     * Grava um novo segmento com as linhas e o publica no índice
+     */
+    synchronized Segmento.Cabecalho gravar(Long usuarioId, List<TransacaoArquivada> linhas) {
+        List<Segmento.Cabecalho> atuais = segmentos(usuarioId);
+        int sequencia = atuais.isEmpty() ? 1 : atuais.get(atuais.size() - 1).sequencia() + 1;
+        Path destino = diretorioDo(usuarioId).resolve(String.format("%s%06d%s", PREFIXO, sequencia, EXTENSAO));
+
+        Segmento.Cabecalho cabecalho = Segmento.gravar(destino, sequencia, linhas);
+        List<Segmento.Cabecalho> novos = new ArrayList<>(atuais);
+        novos.add(cabecalho);
+        indice.put(usuarioId, List.copyOf(novos));
+        return cabecalho;
+    }
+
+    /**
+     * Cabeçalhos dos segmentos do usuário em ordem de sequência (carregados do disco na primeira consulta)
+     */
+    List<Segmento.Cabecalho> segmentos(Long usuarioId) {
+        return indice.computeIfAbsent(usuarioId, this::carregarIndice);
+    }
+
+    private List<Segmento.Cabecalho> carregarIndice(Long usuarioId) {
+        Path diretorio = diretorioDo(usuarioId);
+        if (!Files.isDirectory(diretorio)) {
+            return List.of();
+        }
+        List<Segmento.Cabecalho> cabecalhos = new ArrayList<>();
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(diretorio, PREFIXO + "*" + EXTENSAO)) {
+            for (Path arquivo : arquivos) {
+                String nome = arquivo.getFileName().toString();
+                int sequencia = Integer.parseInt(nome.substring(PREFIXO.length(), nome.length() - EXTENSAO.length()));
+                cabecalhos.add(Segmento.lerCabecalho(arquivo, sequencia));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao listar segmentos de " + diretorio, e);
+        }
+        cabecalhos.sort(Comparator.comparingInt(Segmento.Cabecalho::sequencia));
+        return List.copyOf(cabecalhos);
+    }
+
+    private Path diretorioDo(Long usuarioId) {
+        return Paths.get(properties.getDiretorio()).resolve(String.valueOf(usuarioId));
+    }
+}
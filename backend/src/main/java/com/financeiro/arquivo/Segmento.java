@@ -0,0 +1,215 @@
+package com.financeiro.arquivo;
+
+import com.financeiro.model.enums.TipoTransacao;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Formato de um segmento de arquivo: arquivo imutável com cabeçalho fixo e corpo comprimido (Deflate).
+ *
+ * <pre>
+ * cabeçalho (32 bytes): magico, versao, menorDia, maiorDia, quantidade, tamanhoComprimido, tamanhoOriginal, reservado
+ * corpo: linhas (id, dia, centavos, tipo, recorrente, contaId, cartaoId, categoriaId, descricao) ordenadas por dia e id
+ * </pre>
+ *
+ * Segmentos da versão 1 não têm categoriaId; são lidos com a linha sem categoria.
+ *
+ * A leitura mapeia o arquivo em memória (MappedByteBuffer) e descomprime direto do mapeamento.
+ */
+final class Segmento {
+
+    static final int MAGICO = 0x46534547; // "FSEG"
+    static final int VERSAO = 2;
+    static final int VERSAO_SEM_CATEGORIA = 1;
+    static final int TAMANHO_CABECALHO = 32;
+
+    private static final TipoTransacao[] TIPOS = TipoTransacao.values();
+
+    /**
+     * Cabeçalho de um segmento, mantido no índice em memória
+     */
+    record Cabecalho(Path arquivo, int sequencia, int versao, int menorDia, int maiorDia, int quantidade,
+                     int tamanhoComprimido, int tamanhoOriginal) {
+
+        boolean sobrepoe(int diaInicio, int diaFim) {
+            return menorDia <= diaFim && maiorDia >= diaInicio;
+        }
+    }
+
+    private Segmento() {
+    }
+
+    /**
+     * Grava as linhas (já ordenadas) em um arquivo temporário, força o disco e o move atomicamente para o destino
+     */
+    static Cabecalho gravar(Path destino, int sequencia, List<TransacaoArquivada> linhas) {
+        try {
+            ByteArrayOutputStream bruto = new ByteArrayOutputStream(linhas.size() * 40);
+            DataOutputStream saida = new DataOutputStream(bruto);
+            int menorDia = Integer.MAX_VALUE;
+            int maiorDia = Integer.MIN_VALUE;
+            for (TransacaoArquivada linha : linhas) {
+                saida.writeLong(linha.id());
+                saida.writeInt(linha.dia());
+                saida.writeLong(linha.centavos());
+                saida.writeByte(linha.tipo().ordinal());
+                saida.writeBoolean(linha.recorrente());
+                saida.writeLong(linha.contaId());
+                saida.writeLong(linha.cartaoId());
+                saida.writeLong(linha.categoriaId());
+                saida.writeUTF(linha.descricao());
+                menorDia = Math.min(menorDia, linha.dia());
+                maiorDia = Math.max(maiorDia, linha.dia());
+            }
+            saida.flush();
+            byte[] original = bruto.toByteArray();
+            byte[] comprimido = comprimir(original);
+
+            ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO)
+                    .putInt(MAGICO).putInt(VERSAO).putInt(menorDia).putInt(maiorDia).putInt(linhas.size())
+                    .putInt(comprimido.length).putInt(original.length).putInt(0)
+                    .flip();
+
+            Files.createDirectories(destino.getParent());
+            Path temporario = destino.resolveSibling(destino.getFileName() + ".tmp");
+            try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer corpo = ByteBuffer.wrap(comprimido);
+                while (cabecalho.hasRemaining() || corpo.hasRemaining()) {
+                    canal.write(new ByteBuffer[]{cabecalho, corpo});
+                }
+                canal.force(true);
+            }
+            Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE);
+            return new Cabecalho(destino, sequencia, VERSAO, menorDia, maiorDia, linhas.size(), comprimido.length, original.length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar segmento " + destino, e);
+        }
+    }
+
+    /**
+     * Lê apenas o cabeçalho do segmento
+     */
+    static Cabecalho lerCabecalho(Path arquivo, int sequencia) {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO);
+            while (cabecalho.hasRemaining() && canal.read(cabecalho) >= 0) {
+                // lê até completar o cabeçalho
+            }
+            cabecalho.flip();
+            if (cabecalho.remaining() < TAMANHO_CABECALHO || cabecalho.getInt() != MAGICO) {
+                throw new IllegalStateException("Segmento inválido: " + arquivo);
+            }
+            int versao = cabecalho.getInt();
+            if (versao != VERSAO && versao != VERSAO_SEM_CATEGORIA) {
+                throw new IllegalStateException("Versão de segmento não suportada (" + versao + "): " + arquivo);
+            }
+            return new Cabecalho(arquivo, sequencia, versao, cabecalho.getInt(), cabecalho.getInt(), cabecalho.getInt(),
+                    cabecalho.getInt(), cabecalho.getInt());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler segmento " + arquivo, e);
+        }
+    }
+
+    /**
+     * Descomprime o segmento a partir do mapeamento em memória e devolve as linhas do período aceitas pelo filtro
+     */
+    static void ler(Cabecalho segmento, int diaInicio, int diaFim, Predicate<TransacaoArquivada> filtro,
+                    List<TransacaoArquivada> destino) {
+        ler(segmento, diaInicio, diaFim, filtro, destino, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Se alguma linha do segmento é aceita pelo filtro; a decodificação para na primeira
+     */
+    static boolean existe(Cabecalho segmento, Predicate<TransacaoArquivada> filtro) {
+        List<TransacaoArquivada> encontrada = new ArrayList<>(1);
+        ler(segmento, Integer.MIN_VALUE, Integer.MAX_VALUE, filtro, encontrada, 1);
+        return !encontrada.isEmpty();
+    }
+
+    private static void ler(Cabecalho segmento, int diaInicio, int diaFim, Predicate<TransacaoArquivada> filtro,
+                            List<TransacaoArquivada> destino, int limite) {
+        byte[] original = new byte[segmento.tamanhoOriginal()];
+        try (FileChannel canal = FileChannel.open(segmento.arquivo(), StandardOpenOption.READ)) {
+            MappedByteBuffer mapeado = canal.map(FileChannel.MapMode.READ_ONLY,
+                    TAMANHO_CABECALHO, segmento.tamanhoComprimido());
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(mapeado);
+                int lidos = 0;
+                while (lidos < original.length && !inflater.finished()) {
+                    lidos += inflater.inflate(original, lidos, original.length - lidos);
+                }
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Segmento corrompido: " + segmento.arquivo(), e);
+            } finally {
+                inflater.end();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler segmento " + segmento.arquivo(), e);
+        }
+
+        boolean comCategoria = segmento.versao() != VERSAO_SEM_CATEGORIA;
+        int aceitas = 0;
+        try (DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(original))) {
+            for (int i = 0; i < segmento.quantidade() && aceitas < limite; i++) {
+                long id = entrada.readLong();
+                int dia = entrada.readInt();
+                long centavos = entrada.readLong();
+                TipoTransacao tipo = TIPOS[entrada.readByte()];
+                boolean recorrente = entrada.readBoolean();
+                long contaId = entrada.readLong();
+                long cartaoId = entrada.readLong();
+                long categoriaId = comCategoria ? entrada.readLong() : 0;
+                String descricao = entrada.readUTF();
+                if (dia < diaInicio || dia > diaFim) {
+                    continue;
+                }
+                TransacaoArquivada linha = new TransacaoArquivada(id, dia, centavos, tipo, recorrente, contaId, cartaoId,
+                        categoriaId, descricao);
+                if (filtro.test(linha)) {
+                    destino.add(linha);
+                    aceitas++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao decodificar segmento " + segmento.arquivo(), e);
+        }
+    }
+
+    private static byte[] comprimir(byte[] original) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(original);
+            deflater.finish();
+            ByteArrayOutputStream saida = new ByteArrayOutputStream(Math.max(64, original.length / 4));
+            byte[] bloco = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(bloco);
+                saida.write(bloco, 0, n);
+            }
+            return saida.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.financeiro.arquivo;
+
+import com.financeiro.model.Cartao;
+import com.financeiro.model.Categoria;
+import com.financeiro.model.Conta;
+import com.financeiro.model.Dinheiro;
+import com.financeiro.model.Transacao;
+import com.financeiro.model.enums.TipoTransacao;
+
+import java.time.LocalDate;
+
+/**
+ * Linha de um segmento de arquivo (transação imutável fora da tabela quente)
+ *
+ * @param cartaoId 0 quando a transação não é de cartão
+ * @param categoriaId 0 quando a transação não tem categoria (ou veio de um segmento da versão 1)
+ */
+public record TransacaoArquivada(long id, int dia, long centavos, TipoTransacao tipo, boolean recorrente,
+                                 long contaId, long cartaoId, long categoriaId, String descricao) {
+
+    public LocalDate data() {
+        return LocalDate.ofEpochDay(dia);
+    }
+
+    /**
+     * Transação destacada (não gerenciada pelo JPA) para as respostas da API
+     */
+    public Transacao paraTransacao() {
+        Conta conta = new Conta();
+        conta.setId(contaId);
+        Transacao transacao = new Transacao(descricao, Dinheiro.deCentavos(centavos).paraBigDecimal(), data(),
+                tipo, recorrente, conta, null);
+        transacao.setId(id);
+        if (cartaoId != 0) {
+            Cartao cartao = new Cartao();
+            cartao.setId(cartaoId);
+            transacao.setCartao(cartao);
+        }
+        if (categoriaId != 0) {
+            Categoria categoria = new Categoria();
+            categoria.setId(categoriaId);
+            transacao.setCategoria(categoria);
+        }
+        transacao.setArquivada(true);
+        return transacao;
+    }
+}
@@ -0,0 +1,50 @@
+package com.financeiro.cambio;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Cotações de câmbio para contas e cartões em outras moedas.
+ *
+ * Exemplo:
+ * <pre>
+ * financeiro.cambio.arquivo=file:/etc/financeiro/cotacoes.csv
+ * financeiro.cambio.moeda-referencia=BRL
+ * financeiro.cambio.verificacao-ms=60000
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "financeiro.cambio")
+public class CambioProperties {
+
+    /** Arquivo de cotações (data;moeda;taxa), em file: ou classpath: */
+    private String arquivo = "classpath:cambio/cotacoes.csv";
+
+    /** Moeda em que as taxas do arquivo estão expressas; também a moeda base padrão dos usuários */
+    private String moedaReferencia = "BRL";
+
+    /** Intervalo em que o arquivo é verificado e recarregado se tiver mudado */
+    private long verificacaoMs = 60_000;
+
+    public String getArquivo() {
+        return arquivo;
+    }
+
+    public void setArquivo(String arquivo) {
+        this.arquivo = arquivo;
+    }
+
+    public String getMoedaReferencia() {
+        return moedaReferencia;
+    }
+
+    public void setMoedaReferencia(String moedaReferencia) {
+        this.moedaReferencia = moedaReferencia;
+    }
+
+    public long getVerificacaoMs() {
+        return verificacaoMs;
+    }
+
+    public void setVerificacaoMs(long verificacaoMs) {
+        this.verificacaoMs = verificacaoMs;
+    }
+}
@@ -0,0 +1,103 @@
+package com.financeiro.cambio;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Converte valores lançados nas contas de um usuário para a moeda base dele, ou para a moeda do cartão em que
+ * foram lançados, pela cotação do dia de cada valor (a mesma regra do cache analítico: contas e cartões
+ * desconhecidos estão na moeda de referência)
+ */
+@Component
+public class ConversorMoedaBase {
+
+    // Contas e cartões na mesma ida ao banco; a moeda base vem só na primeira parte
+    private static final String MOEDAS = "SELECT u.moeda_base, FALSE, c.id, c.moeda FROM usuarios u " +
+            "LEFT JOIN contas c ON c.usuario_id = u.id WHERE u.id = ? " +
+            "UNION ALL SELECT NULL, TRUE, k.id, k.moeda FROM cartoes k WHERE k.usuario_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TabelaCambio tabelaCambio;
+
+    /**
+     * Moeda base e moedas das contas e cartões do usuário, lidas em uma consulta
+     */
+    public Conversao paraUsuario(Long usuarioId) {
+        Cotacoes cotacoes = tabelaCambio.cotacoes();
+        Map<Long, Integer> moedas = new HashMap<>();
+        Map<Long, Integer> moedasCartoes = new HashMap<>();
+        String[] moedaBase = {cotacoes.getReferencia()};
+        jdbcTemplate.query(MOEDAS, rs -> {
+            boolean cartao = rs.getBoolean(2);
+            if (!cartao) {
+                moedaBase[0] = rs.getString(1);
+            }
+            long id = rs.getLong(3);
+            if (!rs.wasNull()) {
+                (cartao ? moedasCartoes : moedas).put(id, Cotacoes.codigo(rs.getString(4)));
+            }
+        }, usuarioId, usuarioId);
+        return new Conversao(moedaBase[0], moedas, moedasCartoes, cotacoes);
+    }
+
+    /**
+     * Conversão para a moeda base de um usuário e dos cartões dele (uma por operação; não é thread-safe)
+     */
+    public static final class Conversao {
+
+        private final String moedaBase;
+        private final Map<Long, Integer> moedas;
+        private final Map<Long, Integer> moedasCartoes;
+        private final int referencia;
+        private final Cotacoes cotacoes;
+        private final Cotacoes.Conversor conversor;
+
+        private Conversao(String moedaBase, Map<Long, Integer> moedas, Map<Long, Integer> moedasCartoes,
+                          Cotacoes cotacoes) {
+            this.moedaBase = moedaBase;
+            this.moedas = moedas;
+            this.moedasCartoes = moedasCartoes;
+            this.referencia = Cotacoes.codigo(cotacoes.getReferencia());
+            this.cotacoes = cotacoes;
+            this.conversor = cotacoes.conversor(Cotacoes.codigo(moedaBase));
+        }
+
+        /**
+         * Centavos lançados na conta, convertidos para a moeda base pela cotação da data
+         */
+        public long converter(Long contaId, long centavos, LocalDate data) {
+            return conversor.converter(centavos, moedaDaConta(contaId), (int) data.toEpochDay());
+        }
+
+        /**
+         * Centavos lançados na conta, convertidos para a moeda do cartão pela cotação da data (limite utilizado)
+         */
+        public long paraCartao(Long cartaoId, Long contaId, long centavos, LocalDate data) {
+            return cotacoes.converter(centavos, moedaDaConta(contaId), moedasCartoes.getOrDefault(cartaoId, referencia),
+                    (int) data.toEpochDay());
+        }
+
+        /**
+         * Se as duas contas estão na mesma moeda (valores de uma valem o mesmo na outra)
+         */
+        public boolean mesmaMoeda(Long contaId, Long outraContaId) {
+            return moedaDaConta(contaId) == moedaDaConta(outraContaId);
+        }
+
+        private int moedaDaConta(Long contaId) {
+            return contaId != null ? moedas.getOrDefault(contaId, referencia) : referencia;
+        }
+
+        public String getMoedaBase() {
+            return moedaBase;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.financeiro.cambio;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Tabela de câmbio imutável em um único array denso indexado por (moeda, dia).
+ *
+ * Cada moeda ocupa uma linha com uma taxa por dia entre a primeira e a última data do arquivo: o valor de uma
+ * unidade da moeda na moeda de referência. Dias sem cotação (fins de semana, feriados) repetem a anterior e os
+ * anteriores à primeira cotação da moeda usam a primeira. Datas fora do intervalo usam a ponta mais próxima.
+ * As moedas são identificadas pelo código numérico ISO 4217 (BRL = 986), que indexa a linha diretamente; a
+ * conversão de um valor é uma leitura de duas taxas, sem busca nem objeto por linha.
+ */
+public final class Cotacoes {
+
+    /** Códigos numéricos ISO 4217 vão de 0 a 999 */
+    private static final int CODIGOS = 1000;
+
+    private final String referencia;
+    private final int primeiroDia;
+    private final int dias;
+    private final String[] moedas;
+    /** Código numérico -> linha em taxas (-1 sem cotação) */
+    private final short[] linhaPorCodigo;
+    private final double[] taxas;
+
+    private Cotacoes(String referencia, int primeiroDia, int dias, String[] moedas, short[] linhaPorCodigo, double[] taxas) {
+        this.referencia = referencia;
+        this.primeiroDia = primeiroDia;
+        this.dias = dias;
+        this.moedas = moedas;
+        this.linhaPorCodigo = linhaPorCodigo;
+        this.taxas = taxas;
+    }
+
+    /**
+     * Somente a moeda de referência (sem arquivo de cotações)
+     */
+    public static Cotacoes somente(String referencia) {
+        return montar(referencia, Map.of());
+    }
+
+    /**
+     * Lê linhas data;moeda;taxa (cabeçalho opcional, # inicia comentário), taxa = valor de 1 unidade da moeda
+     * na moeda de referência
+     */
+    public static Cotacoes ler(BufferedReader leitor, String referencia) throws IOException {
+        Map<String, TreeMap<Integer, Double>> porMoeda = new TreeMap<>();
+        String linha;
+        int numero = 0;
+        while ((linha = leitor.readLine()) != null) {
+            numero++;
+            linha = linha.strip();
+            if (linha.isEmpty() || linha.startsWith("#") || linha.toLowerCase(Locale.ROOT).startsWith("data;")) {
+                continue;
+            }
+            String[] campos = linha.split(";");
+            if (campos.length != 3) {
+                throw new RuntimeException("Linha " + numero + ": esperado data;moeda;taxa");
+            }
+            try {
+                int dia = (int) LocalDate.parse(campos[0].strip()).toEpochDay();
+                String moeda = normalizar(campos[1]);
+                double taxa = new BigDecimal(campos[2].strip().replace(',', '.')).doubleValue();
+                if (!(taxa > 0)) {
+                    throw new RuntimeException("Linha " + numero + ": taxa deve ser positiva");
+                }
+                porMoeda.computeIfAbsent(moeda, m -> new TreeMap<>()).put(dia, taxa);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new RuntimeException("Linha " + numero + ": " + e.getMessage());
+            }
+        }
+        return montar(normalizar(referencia), porMoeda);
+    }
+
+    private static Cotacoes montar(String referencia, Map<String, TreeMap<Integer, Double>> porMoeda) {
+        int primeiroDia = Integer.MAX_VALUE;
+        int ultimoDia = Integer.MIN_VALUE;
+        for (TreeMap<Integer, Double> serie : porMoeda.values()) {
+            primeiroDia = Math.min(primeiroDia, serie.firstKey());
+            ultimoDia = Math.max(ultimoDia, serie.lastKey());
+        }
+        if (primeiroDia > ultimoDia) {
+            primeiroDia = ultimoDia = (int) LocalDate.now().toEpochDay();
+        }
+        int dias = ultimoDia - primeiroDia + 1;
+
+        List<String> moedas = new ArrayList<>();
+        moedas.add(referencia);
+        for (String moeda : porMoeda.keySet()) {
+            if (!moeda.equals(referencia)) {
+                moedas.add(moeda);
+            }
+        }
+        short[] linhaPorCodigo = new short[CODIGOS];
+        Arrays.fill(linhaPorCodigo, (short) -1);
+        double[] taxas = new double[moedas.size() * dias];
+        for (int linha = 0; linha < moedas.size(); linha++) {
+            String moeda = moedas.get(linha);
+            linhaPorCodigo[codigo(moeda)] = (short) linha;
+            int base = linha * dias;
+            TreeMap<Integer, Double> serie = porMoeda.get(moeda);
+            if (linha == 0 || serie == null) {
+                Arrays.fill(taxas, base, base + dias, 1.0);
+                continue;
+            }
+            double taxa = serie.firstEntry().getValue();
+            for (int dia = 0; dia < dias; dia++) {
+                Double cotacao = serie.get(primeiroDia + dia);
+                if (cotacao != null) {
+                    taxa = cotacao;
+                }
+                taxas[base + dia] = taxa;
+            }
+        }
+        return new Cotacoes(referencia, primeiroDia, dias, moedas.toArray(String[]::new), linhaPorCodigo, taxas);
+    }
+
+    /**
+     * Converte centavos da moeda de origem para a de destino pela cotação do dia (epochDay), arredondando HALF_EVEN
+     */
+    public long converter(long centavos, int origem, int destino, int dia) {
+        if (origem == destino || centavos == 0) {
+            return centavos;
+        }
+        int indice = Math.min(Math.max(dia - primeiroDia, 0), dias - 1);
+        double fator = taxas[linha(origem) * dias + indice] / taxas[linha(destino) * dias + indice];
+        return (long) Math.rint(centavos * fator);
+    }
+
+    /**
+     * Conversor para a moeda de destino, para laços de agregação (um por agregação; não é thread-safe)
+     */
+    public Conversor conversor(int destino) {
+        return new Conversor(destino);
+    }
+
+    /**
+     * Guarda, por moeda de origem, o fator de cada dia para a moeda de destino: cada valor convertido custa uma
+     * leitura e uma multiplicação, sem divisão nem busca da linha da moeda
+     */
+    public final class Conversor {
+
+        private final int destino;
+        private final double[][] fatores = new double[CODIGOS][];
+
+        private Conversor(int destino) {
+            this.destino = destino;
+            linha(destino);
+        }
+
+        public long converter(long centavos, int origem, int dia) {
+            if (origem == destino) {
+                return centavos;
+            }
+            double[] fator = fatores[origem];
+            if (fator == null) {
+                fator = fatores[origem] = fatores(origem, destino);
+            }
+            return (long) Math.rint(centavos * fator[Math.min(Math.max(dia - primeiroDia, 0), dias - 1)]);
+        }
+    }
+
+    private double[] fatores(int origem, int destino) {
+        double[] fator = new double[dias];
+        int baseOrigem = linha(origem) * dias;
+        int baseDestino = linha(destino) * dias;
+        for (int dia = 0; dia < dias; dia++) {
+            fator[dia] = taxas[baseOrigem + dia] / taxas[baseDestino + dia];
+        }
+        return fator;
+    }
+
+    /**
+     * Valor de uma unidade da moeda na moeda de referência no dia
+     */
+    public double taxa(int moeda, int dia) {
+        int indice = Math.min(Math.max(dia - primeiroDia, 0), dias - 1);
+        return taxas[linha(moeda) * dias + indice];
+    }
+
+    public boolean possui(int moeda) {
+        return moeda >= 0 && moeda < CODIGOS && linhaPorCodigo[moeda] >= 0;
+    }
+
+    public String getReferencia() {
+        return referencia;
+    }
+
+    public List<String> getMoedas() {
+        return List.of(moedas);
+    }
+
+    public LocalDate getPrimeiraData() {
+        return LocalDate.ofEpochDay(primeiroDia);
+    }
+
+    public LocalDate getUltimaData() {
+        return LocalDate.ofEpochDay(primeiroDia + dias - 1L);
+    }
+
+    public long bytesEstimados() {
+        return (long) taxas.length * Double.BYTES + (long) linhaPorCodigo.length * Short.BYTES;
+    }
+
+    private int linha(int moeda) {
+        short linha = moeda >= 0 && moeda < CODIGOS ? linhaPorCodigo[moeda] : -1;
+        if (linha < 0) {
+            throw new RuntimeException("Moeda sem cotação: " + sigla(moeda));
+        }
+        return linha;
+    }
+
+    /**
+     * Código numérico ISO 4217 da moeda (BRL -> 986)
+     */
+    public static int codigo(String moeda) {
+        try {
+            int codigo = Currency.getInstance(normalizar(moeda)).getNumericCode();
+            if (codigo <= 0 || codigo >= CODIGOS) {
+                throw new IllegalArgumentException();
+            }
+            return codigo;
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Moeda inválida: " + moeda);
+        }
+    }
+
+    /**
+     * Código alfabético do código numérico (só no caminho de erro)
+     */
+    static String sigla(int codigo) {
+        for (Currency moeda : Currency.getAvailableCurrencies()) {
+            if (moeda.getNumericCode() == codigo) {
+                return moeda.getCurrencyCode();
+            }
+        }
+        return String.valueOf(codigo);
+    }
+
+    /**
+     * Código alfabético ISO 4217 em maiúsculas
+     */
+    public static String normalizar(String moeda) {
+        if (moeda == null || moeda.isBlank()) {
+            throw new RuntimeException("Moeda é obrigatória");
+        }
+        return moeda.strip().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,122 @@
+package com.financeiro.cambio;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Cotações de câmbio carregadas do arquivo local para a memória.
+ *
+ * As agregações leem a tabela densa atual sem ir ao banco; quando o arquivo muda, uma tabela nova é montada
+ * e trocada inteira, então uma agregação em andamento nunca mistura cotações de duas versões. Se o arquivo não
+ * existir, só a moeda de referência fica disponível; se a releitura falhar, a tabela anterior continua valendo.
+ */
+@Component
+@Lazy(false)
+@EnableConfigurationProperties(CambioProperties.class)
+public class TabelaCambio {
+
+    private static final Logger logger = LoggerFactory.getLogger(TabelaCambio.class);
+
+    @Autowired
+    private CambioProperties properties;
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private volatile Cotacoes cotacoes;
+
+    private volatile long versaoArquivo = -1;
+
+    @PostConstruct
+    void carregar() {
+        cotacoes = Cotacoes.somente(properties.getMoedaReferencia());
+        recarregar();
+        Gauge.builder("financeiro.cambio.moedas", this, tabela -> tabela.cotacoes.getMoedas().size())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Relê o arquivo se ele mudou desde a última leitura
+     */
+    @Scheduled(fixedDelayString = "${financeiro.cambio.verificacao-ms:60000}")
+    public void recarregar() {
+        Resource arquivo = resourceLoader.getResource(properties.getArquivo());
+        if (!arquivo.exists()) {
+            if (versaoArquivo == -1) {
+                logger.warn("Arquivo de cotações {} não encontrado; somente {} disponível",
+                        properties.getArquivo(), properties.getMoedaReferencia());
+                versaoArquivo = 0;
+            }
+            return;
+        }
+        try {
+            long versao = ultimaModificacao(arquivo);
+            if (versao == versaoArquivo) {
+                return;
+            }
+            try (BufferedReader leitor = new BufferedReader(
+                    new InputStreamReader(arquivo.getInputStream(), StandardCharsets.UTF_8))) {
+                Cotacoes novas = Cotacoes.ler(leitor, properties.getMoedaReferencia());
+                cotacoes = novas;
+                versaoArquivo = versao;
+                logger.info("Cotações carregadas: {} moedas de {} a {} ({} bytes)", novas.getMoedas().size(),
+                        novas.getPrimeiraData(), novas.getUltimaData(), novas.bytesEstimados());
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Falha ao ler as cotações de {}; mantidas as anteriores", properties.getArquivo(), e);
+        }
+    }
+
+    /**
+     * Tabela atual; quem agrega usa a mesma instância do início ao fim
+     */
+    public Cotacoes cotacoes() {
+        return cotacoes;
+    }
+
+    /**
+     * Normaliza a moeda e confirma que há cotação para ela
+     */
+    public String validar(String moeda) {
+        String codigo = Cotacoes.normalizar(moeda);
+        if (!cotacoes.possui(Cotacoes.codigo(codigo))) {
+            throw new RuntimeException("Moeda sem cotação: " + codigo);
+        }
+        return codigo;
+    }
+
+    /**
+     * Converte centavos entre moedas (códigos alfabéticos) pela cotação da data
+     */
+    public long converter(long centavos, String origem, String destino, LocalDate data) {
+        return cotacoes.converter(centavos, Cotacoes.codigo(origem), Cotacoes.codigo(destino), (int) data.toEpochDay());
+    }
+
+    private static long ultimaModificacao(Resource arquivo) {
+        try {
+            return arquivo.lastModified();
+        } catch (IOException e) {
+            // Recurso sem data (dentro de um jar): lido uma vez
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.financeiro.carga;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Gerador determinístico de massa de dados para testes de carga (perfil "carga").
+ *
+ * Cria usuários com contas, cartões e anos de transações com distribuições realistas:
+ * salário recorrente no dia 5, contas fixas mensais, compras no cartão concentradas nos dias
+ * anteriores ao fechamento e despesas no débito com valores log-normais.
+ * A mesma semente produz sempre o mesmo conjunto de dados.
+ *
+ * Os usuários gerados são usuario{n}@carga.financeiro com a senha "carga123".
+ */
+@Component
+@Profile("carga")
+public class GeradorDadosSinteticos implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeradorDadosSinteticos.class);
+
+    public static final String SENHA = "carga123";
+    private static final int TAMANHO_LOTE = 1000;
+
+    private static final String[] INSTITUICOES = {"Nubank", "Itaú", "Bradesco", "Banco do Brasil", "Caixa", "Inter"};
+    private static final String[] TIPOS_CONTA = {"CORRENTE", "POUPANCA", "INVESTIMENTO"};
+    private static final String[] BANDEIRAS = {"Visa", "Mastercard", "Elo"};
+    private static final String[] CONTAS_FIXAS = {"ALUGUEL", "ENERGIA ELETRICA", "INTERNET", "AGUA E ESGOTO", "PLANO DE SAUDE"};
+    private static final double[] VALORES_CONTAS_FIXAS = {1800, 180, 120, 90, 450};
+    private static final String[] COMPRAS_CARTAO = {"IFOOD", "UBER", "AMAZON", "MERCADO LIVRE", "NETFLIX", "SPOTIFY",
+            "POSTO SHELL", "RENNER", "MAGALU", "RAPPI", "99APP", "DROGASIL"};
+    private static final String[] DESPESAS_DEBITO = {"SUPERMERCADO EXTRA", "PADARIA", "FARMACIA", "PIX ENVIADO",
+            "ACOUGUE", "FEIRA", "ESTACIONAMENTO", "SAQUE"};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Value("${financeiro.carga.usuarios:100}")
+    private int usuarios;
+
+    @Value("${financeiro.carga.anos:3}")
+    private int anos;
+
+    @Value("${financeiro.carga.semente:42}")
+    private long semente;
+
+    @Value("${financeiro.carga.data-final:2025-12-31}")
+    private LocalDate dataFinal;
+
+    @Override
+    public void run(String... args) {
+        Integer existentes = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM usuarios WHERE email = ?", Integer.class, email(1));
+        if (existentes != null && existentes > 0) {
+            logger.info("Massa de carga já existe; geração ignorada");
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        String senhaCriptografada = passwordEncoder.encode(SENHA);
+        long totalTransacoes = 0;
+
+        for (int i = 1; i <= usuarios; i++) {
+            totalTransacoes += gerarUsuario(i, senhaCriptografada, new SplittableRandom(semente + i));
+        }
+
+        logger.info("Massa de carga gerada: {} usuários, {} transações em {} ms",
+                usuarios, totalTransacoes, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    static String email(int indice) {
+        return "usuario" + indice + "@carga.financeiro";
+    }
+
+    private long gerarUsuario(int indice, String senhaCriptografada, SplittableRandom aleatorio) {
+        LocalDateTime agora = LocalDateTime.now();
+        long usuarioId = inserir("INSERT INTO usuarios (nome, email, senha, perfil, ativo, data_criacao, data_atualizacao) " +
+                        "VALUES (?, ?, ?, 'USER', TRUE, ?, ?)",
+                "Usuário Carga " + indice, email(indice), senhaCriptografada, Timestamp.valueOf(agora), Timestamp.valueOf(agora));
+
+        int quantidadeContas = 1 + aleatorio.nextInt(3);
+        long[] contas = new long[quantidadeContas];
+        for (int c = 0; c < quantidadeContas; c++) {
+            contas[c] = inserir("INSERT INTO contas (nome, tipo, saldo_inicial, instituicao, usuario_id, data_criacao, data_atualizacao) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                    "Conta " + (c + 1), TIPOS_CONTA[c % TIPOS_CONTA.length], dinheiro(500 + aleatorio.nextDouble() * 9500),
+                    INSTITUICOES[aleatorio.nextInt(INSTITUICOES.length)], usuarioId,
+                    Timestamp.valueOf(agora), Timestamp.valueOf(agora));
+        }
+
+        int quantidadeCartoes = aleatorio.nextInt(3);
+        long[] cartoes = new long[quantidadeCartoes];
+        int[] fechamentos = new int[quantidadeCartoes];
+        for (int c = 0; c < quantidadeCartoes; c++) {
+            fechamentos[c] = 1 + aleatorio.nextInt(28);
+            cartoes[c] = inserir("INSERT INTO cartoes (nome_do_cartao, bandeira, limite_total, dia_de_fechamento, dia_de_vencimento, " +
+                            "usuario_id, data_criacao, data_atualizacao) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                    "Cartão " + (c + 1), BANDEIRAS[aleatorio.nextInt(BANDEIRAS.length)],
+                    dinheiro(1000 + aleatorio.nextInt(20) * 1000), fechamentos[c], (fechamentos[c] + 9) % 28 + 1,
+                    usuarioId, Timestamp.valueOf(agora), Timestamp.valueOf(agora));
+        }
+
+        double salario = Math.exp(8.8 + aleatorio.nextGaussian() * 0.4);
+        List<Object[]> transacoes = new ArrayList<>();
+        long total = 0;
+        LocalDate mes = dataFinal.minusYears(anos).withDayOfMonth(1).plusMonths(1);
+
+        while (!mes.isAfter(dataFinal)) {
+            long contaPrincipal = contas[0];
+
+            // Salário e contas fixas (recorrentes)
+            transacoes.add(transacao("SALARIO", salario, mes.withDayOfMonth(5), "RECEITA", true, contaPrincipal, null, usuarioId));
+            for (int f = 0; f < CONTAS_FIXAS.length; f++) {
+                if (f == 0 || aleatorio.nextInt(4) > 0) {
+                    double variacao = 1 + aleatorio.nextGaussian() * 0.08;
+                    transacoes.add(transacao(CONTAS_FIXAS[f], VALORES_CONTAS_FIXAS[f] * variacao,
+                            mes.withDayOfMonth(8 + f * 2), "DESPESA", true, contaPrincipal, null, usuarioId));
+                }
+            }
+
+            // Compras no cartão concentradas antes do fechamento
+            for (int c = 0; c < quantidadeCartoes; c++) {
+                int compras = 5 + aleatorio.nextInt(20);
+                for (int k = 0; k < compras; k++) {
+                    int antesDoFechamento = (int) Math.min(27, Math.abs(aleatorio.nextGaussian()) * 6);
+                    int dia = Math.floorMod(fechamentos[c] - 1 - antesDoFechamento, mes.lengthOfMonth()) + 1;
+                    transacoes.add(transacao(COMPRAS_CARTAO[aleatorio.nextInt(COMPRAS_CARTAO.length)],
+                            Math.exp(4.0 + aleatorio.nextGaussian() * 0.9), mes.withDayOfMonth(dia), "DESPESA", false,
+                            contaPrincipal, cartoes[c], usuarioId));
+                }
+            }
+
+            // Despesas no débito com valores log-normais
+            int despesas = 10 + aleatorio.nextInt(21);
+            for (int k = 0; k < despesas; k++) {
+                transacoes.add(transacao(DESPESAS_DEBITO[aleatorio.nextInt(DESPESAS_DEBITO.length)],
+                        Math.exp(3.5 + aleatorio.nextGaussian() * 1.0), mes.withDayOfMonth(1 + aleatorio.nextInt(mes.lengthOfMonth())),
+                        "DESPESA", false, contas[aleatorio.nextInt(quantidadeContas)], null, usuarioId));
+            }
+
+            if (transacoes.size() >= TAMANHO_LOTE) {
+                total += gravarTransacoes(transacoes);
+            }
+            mes = mes.plusMonths(1);
+        }
+
+        return total + gravarTransacoes(transacoes);
+    }
+
+    private Object[] transacao(String descricao, double valor, LocalDate data, String tipo, boolean recorrente,
+                               long contaId, Long cartaoId, long usuarioId) {
+        return new Object[]{descricao, dinheiro(Math.max(0.01, valor)), Date.valueOf(data), tipo, recorrente,
+                contaId, cartaoId, usuarioId};
+    }
+
+    private int gravarTransacoes(List<Object[]> transacoes) {
+        if (transacoes.isEmpty()) {
+            return 0;
+        }
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> linhas = new ArrayList<>(transacoes.size());
+        for (Object[] t : transacoes) {
+            Object[] linha = new Object[t.length + 2];
+            System.arraycopy(t, 0, linha, 0, t.length);
+            linha[t.length] = agora;
+            linha[t.length + 1] = agora;
+            linhas.add(linha);
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO transacoes (descricao, valor, data, tipo, recorrente, conta_id, cartao_id, " +
+                "usuario_id, data_criacao, data_atualizacao) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", linhas);
+        int quantidade = transacoes.size();
+        transacoes.clear();
+        return quantidade;
+    }
+
+    private long inserir(String sql, Object... parametros) {
+        KeyHolder chave = new GeneratedKeyHolder();
+        jdbcTemplate.update(conexao -> {
+            PreparedStatement ps = conexao.prepareStatement(sql, new String[]{"id"});
+            for (int i = 0; i < parametros.length; i++) {
+                ps.setObject(i + 1, parametros[i]);
+            }
+            return ps;
+        }, chave);
+        return chave.getKey().longValue();
+    }
+
+    private static BigDecimal dinheiro(double valor) {
+        return BigDecimal.valueOf(valor).setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,221 @@
+package com.financeiro.categorizacao;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Autômato de Aho-Corasick que reconhece, em uma única passada pela descrição, a regra de categoria que ela contém.
+ *
+ * A comparação ignora maiúsculas e acentos. O autômato é determinizado na compilação: cada estado tem a transição
+ * de todos os símbolos do alfabeto (os caracteres que aparecem nos termos, mais um símbolo para todos os demais),
+ * então a varredura é uma leitura de tabela por caractere, sem seguir links de falha nem alocar. A saída de cada
+ * estado já é a melhor regra entre o próprio termo e os seus sufixos. Entre as regras encontradas vence a de maior
+ * prioridade, depois o termo mais longo, depois a que terminou primeiro. Imutável e seguro entre threads.
+ */
+public final class AutomatoCategorias {
+
+    /** Resultado de {@link #categorizar} quando nenhuma regra é encontrada */
+    public static final long SEM_CATEGORIA = -1;
+
+    /** Caractere -> forma normalizada (minúscula, sem acento) */
+    private static final char[] NORMALIZACAO = new char[Character.MAX_VALUE + 1];
+
+    static {
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            char minuscula = Character.toLowerCase((char) c);
+            if (minuscula >= 0xC0 && minuscula < 0x250) {
+                String decomposta = Normalizer.normalize(String.valueOf(minuscula), Normalizer.Form.NFD);
+                minuscula = decomposta.charAt(0);
+            }
+            NORMALIZACAO[c] = minuscula;
+        }
+    }
+
+    /**
+     * Termo a reconhecer; entre regras encontradas na mesma descrição, vence a de maior prioridade
+     */
+    public record Regra(String termo, long categoriaId, int prioridade) {
+    }
+
+    private static final AutomatoCategorias VAZIO = compilar(List.of());
+
+    /** Caractere normalizado -> símbolo do alfabeto (0 = caractere que não aparece em nenhum termo) */
+    private final char[] simbolos;
+    private final int tamanhoAlfabeto;
+    /** estado * tamanhoAlfabeto + símbolo -> próximo estado */
+    private final int[] transicoes;
+    /** Estado -> índice da melhor regra reconhecida ao chegar nele (-1 = nenhuma) */
+    private final int[] saidas;
+    private final long[] pesos;
+    private final long[] categorias;
+    private final int estados;
+
+    private AutomatoCategorias(char[] simbolos, int tamanhoAlfabeto, int[] transicoes, int[] saidas, long[] pesos,
+                               long[] categorias, int estados) {
+        this.simbolos = simbolos;
+        this.tamanhoAlfabeto = tamanhoAlfabeto;
+        this.transicoes = transicoes;
+        this.saidas = saidas;
+        this.pesos = pesos;
+        this.categorias = categorias;
+        this.estados = estados;
+    }
+
+    public static AutomatoCategorias vazio() {
+        return VAZIO;
+    }
+
+    /**
+     * Compila as regras (termos vazios são ignorados; termos repetidos ficam com a regra de maior peso)
+     */
+    public static AutomatoCategorias compilar(List<Regra> regras) {
+        List<String> termos = new ArrayList<>(regras.size());
+        List<Regra> validas = new ArrayList<>(regras.size());
+        int caracteres = 0;
+        char maiorCaractere = 0;
+        for (Regra regra : regras) {
+            String termo = normalizar(regra.termo());
+            if (termo.isEmpty()) {
+                continue;
+            }
+            termos.add(termo);
+            validas.add(regra);
+            caracteres += termo.length();
+            for (int i = 0; i < termo.length(); i++) {
+                maiorCaractere = (char) Math.max(maiorCaractere, termo.charAt(i));
+            }
+        }
+
+        // Alfabeto compacto: só os caracteres presentes nos termos
+        char[] simbolos = new char[maiorCaractere + 1];
+        int tamanhoAlfabeto = 1;
+        for (String termo : termos) {
+            for (int i = 0; i < termo.length(); i++) {
+                char c = termo.charAt(i);
+                if (simbolos[c] == 0) {
+                    simbolos[c] = (char) tamanhoAlfabeto++;
+                }
+            }
+        }
+
+        // Trie: -1 marca transição ainda inexistente
+        int capacidade = caracteres + 1;
+        int[] transicoes = new int[capacidade * tamanhoAlfabeto];
+        Arrays.fill(transicoes, -1);
+        int[] saidas = new int[capacidade];
+        Arrays.fill(saidas, -1);
+        long[] pesos = new long[validas.size()];
+        long[] categorias = new long[validas.size()];
+        int estados = 1;
+        for (int r = 0; r < termos.size(); r++) {
+            String termo = termos.get(r);
+            pesos[r] = ((long) validas.get(r).prioridade() << 32) | termo.length();
+            categorias[r] = validas.get(r).categoriaId();
+            int estado = 0;
+            for (int i = 0; i < termo.length(); i++) {
+                int indice = estado * tamanhoAlfabeto + simbolos[termo.charAt(i)];
+                if (transicoes[indice] < 0) {
+                    transicoes[indice] = estados++;
+                }
+                estado = transicoes[indice];
+            }
+            if (saidas[estado] < 0 || pesos[r] > pesos[saidas[estado]]) {
+                saidas[estado] = r;
+            }
+        }
+
+        // Links de falha em largura; cada transição ausente herda a do estado de falha
+        int[] falhas = new int[estados];
+        int[] fila = new int[estados];
+        int inicio = 0;
+        int fim = 0;
+        for (int simbolo = 0; simbolo < tamanhoAlfabeto; simbolo++) {
+            int filho = transicoes[simbolo];
+            if (filho < 0) {
+                transicoes[simbolo] = 0;
+            } else {
+                falhas[filho] = 0;
+                fila[fim++] = filho;
+            }
+        }
+        while (inicio < fim) {
+            int estado = fila[inicio++];
+            int falha = falhas[estado];
+            int melhorDoSufixo = saidas[falha];
+            if (melhorDoSufixo >= 0 && (saidas[estado] < 0 || pesos[melhorDoSufixo] > pesos[saidas[estado]])) {
+                saidas[estado] = melhorDoSufixo;
+            }
+            int base = estado * tamanhoAlfabeto;
+            int baseFalha = falha * tamanhoAlfabeto;
+            for (int simbolo = 0; simbolo < tamanhoAlfabeto; simbolo++) {
+                int filho = transicoes[base + simbolo];
+                if (filho < 0) {
+                    transicoes[base + simbolo] = transicoes[baseFalha + simbolo];
+                } else {
+                    falhas[filho] = transicoes[baseFalha + simbolo];
+                    fila[fim++] = filho;
+                }
+            }
+        }
+
+        return new AutomatoCategorias(simbolos, tamanhoAlfabeto,
+                Arrays.copyOf(transicoes, estados * tamanhoAlfabeto), Arrays.copyOf(saidas, estados),
+                pesos, categorias, estados);
+    }
+
+    /**
+     * Categoria da melhor regra contida na descrição, ou {@link #SEM_CATEGORIA}
+     */
+    public long categorizar(CharSequence descricao) {
+        if (descricao == null) {
+            return SEM_CATEGORIA;
+        }
+        int estado = 0;
+        int melhor = -1;
+        long melhorPeso = -1;
+        for (int i = 0, n = descricao.length(); i < n; i++) {
+            char c = NORMALIZACAO[descricao.charAt(i)];
+            int simbolo = c < simbolos.length ? simbolos[c] : 0;
+            estado = transicoes[estado * tamanhoAlfabeto + simbolo];
+            int saida = saidas[estado];
+            if (saida >= 0 && pesos[saida] > melhorPeso) {
+                melhor = saida;
+                melhorPeso = pesos[saida];
+            }
+        }
+        return melhor >= 0 ? categorias[melhor] : SEM_CATEGORIA;
+    }
+
+    public int getEstados() {
+        return estados;
+    }
+
+    public int getRegras() {
+        return pesos.length;
+    }
+
+    public long bytesEstimados() {
+        return 64 + simbolos.length * 2L + transicoes.length * 4L + saidas.length * 4L + pesos.length * 16L;
+    }
+
+    /**
+     * Forma do caractere usada nas comparações (minúscula, sem acento)
+     */
+    public static char normalizar(char c) {
+        return NORMALIZACAO[c];
+    }
+
+    static String normalizar(String termo) {
+        if (termo == null) {
+            return "";
+        }
+        String aparado = termo.strip();
+        char[] normalizado = new char[aparado.length()];
+        for (int i = 0; i < normalizado.length; i++) {
+            normalizado[i] = NORMALIZACAO[aparado.charAt(i)];
+        }
+        return new String(normalizado);
+    }
+}
@@ -0,0 +1,54 @@
+package com.financeiro.categorizacao;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Categorização automática de transações pela descrição.
+ *
+ * Exemplo:
+ * <pre>
+ * financeiro.categorizacao.habilitada=true
+ * financeiro.categorizacao.orcamento-memoria-mb=32
+ * financeiro.categorizacao.maximo-regras-por-usuario=5000
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "financeiro.categorizacao")
+public class CategorizacaoProperties {
+
+    /** Desliga a categorização automática (a categoria informada na requisição continua valendo) */
+    private boolean habilitada = true;
+
+    /** Memória máxima somada dos autômatos em cache; acima disso os dos usuários menos ativos são descartados */
+    private int orcamentoMemoriaMb = 32;
+
+    /** Regras próprias que um usuário pode cadastrar (limita o tamanho do autômato) */
+    private int maximoRegrasPorUsuario = 5000;
+
+    public boolean isHabilitada() {
+        return habilitada;
+    }
+
+    public void setHabilitada(boolean habilitada) {
+        this.habilitada = habilitada;
+    }
+
+    public int getOrcamentoMemoriaMb() {
+        return orcamentoMemoriaMb;
+    }
+
+    public void setOrcamentoMemoriaMb(int orcamentoMemoriaMb) {
+        this.orcamentoMemoriaMb = orcamentoMemoriaMb;
+    }
+
+    public long getOrcamentoMemoriaBytes() {
+        return orcamentoMemoriaMb * 1024L * 1024L;
+    }
+
+    public int getMaximoRegrasPorUsuario() {
+        return maximoRegrasPorUsuario;
+    }
+
+    public void setMaximoRegrasPorUsuario(int maximoRegrasPorUsuario) {
+        this.maximoRegrasPorUsuario = maximoRegrasPorUsuario;
+    }
+}
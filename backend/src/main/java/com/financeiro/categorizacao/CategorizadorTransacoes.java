@@ -0,0 +1,186 @@
+package com.financeiro.categorizacao;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Autômatos de categorização por usuário (LRU com orçamento de memória).
+ *
+ * O autômato de um usuário junta as regras dele (prioridade maior) às regras globais, que apontam para a categoria
+ * do usuário com o mesmo nome. É compilado na primeira categorização e descartado após o commit de qualquer
+ * mudança em regras ou categorias; uma versão por faixa de usuários (mais uma global) impede que uma compilação
+ * concorrente com a mudança seja guardada.
+ */
+@Component
+@EnableConfigurationProperties(CategorizacaoProperties.class)
+public class CategorizadorTransacoes {
+
+    private static final int FAIXAS_VERSAO = 256;
+
+    private static final int PRIORIDADE_USUARIO = 1;
+    private static final int PRIORIDADE_GLOBAL = 0;
+
+    private static final String REGRAS = "SELECT r.termo, r.categoria_id, " + PRIORIDADE_USUARIO + " FROM regras_categorias r " +
+            "WHERE r.usuario_id = ? " +
+            "UNION ALL SELECT r.termo, c.id, " + PRIORIDADE_GLOBAL + " FROM regras_categorias r " +
+            "JOIN categorias c ON c.usuario_id = ? AND LOWER(c.nome) = LOWER(r.nome_categoria) " +
+            "WHERE r.usuario_id IS NULL";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CategorizacaoProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final LinkedHashMap<Long, AutomatoCategorias> automatos = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLongArray versoes = new AtomicLongArray(FAIXAS_VERSAO);
+    private final AtomicLong versaoGlobal = new AtomicLong();
+
+    private Counter acertos;
+    private Counter faltas;
+    private Timer compilacoes;
+
+    @PostConstruct
+    void registrarMetricas() {
+        acertos = Counter.builder("financeiro.categorizacao.cache.requests").tag("result", "hit").register(meterRegistry);
+        faltas = Counter.builder("financeiro.categorizacao.cache.requests").tag("result", "miss").register(meterRegistry);
+        compilacoes = Timer.builder("financeiro.categorizacao.compilacao").register(meterRegistry);
+        Gauge.builder("financeiro.categorizacao.cache.bytes", this, CategorizadorTransacoes::bytesEmUso)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isHabilitada() {
+        return properties.isHabilitada();
+    }
+
+    /**
+     * Categoria sugerida pelas regras para a descrição (null se nenhuma regra se aplica ou a categorização está desligada)
+     */
+    public Long categorizar(Long usuarioId, String descricao) {
+        if (!properties.isHabilitada()) {
+            return null;
+        }
+        long categoriaId = automato(usuarioId).categorizar(descricao);
+        return categoriaId != AutomatoCategorias.SEM_CATEGORIA ? categoriaId : null;
+    }
+
+    /**
+     * Autômato atual do usuário, para categorizar muitas descrições sem passar pelo cache a cada uma
+     */
+    public AutomatoCategorias automato(Long usuarioId) {
+        if (!properties.isHabilitada()) {
+            return AutomatoCategorias.vazio();
+        }
+        synchronized (this) {
+            AutomatoCategorias automato = automatos.get(usuarioId);
+            if (automato != null) {
+                acertos.increment();
+                return automato;
+            }
+        }
+        faltas.increment();
+
+        long versao = versoes.get(faixa(usuarioId));
+        long global = versaoGlobal.get();
+        AutomatoCategorias automato = compilacoes.record(() -> compilar(usuarioId));
+        if (versoes.get(faixa(usuarioId)) == versao && versaoGlobal.get() == global) {
+            publicar(usuarioId, automato);
+        }
+        return automato;
+    }
+
+    /**
+     * Descarta o autômato do usuário após o commit (regras ou categorias dele mudaram)
+     */
+    public void invalidar(Long usuarioId) {
+        executarAposCommit(() -> {
+            versoes.incrementAndGet(faixa(usuarioId));
+            synchronized (this) {
+                automatos.remove(usuarioId);
+            }
+        });
+    }
+
+    /**
+     * Descarta todos os autômatos após o commit (regras globais mudaram)
+     */
+    public void invalidarTodos() {
+        executarAposCommit(() -> {
+            versaoGlobal.incrementAndGet();
+            synchronized (this) {
+                automatos.clear();
+            }
+        });
+    }
+
+    public synchronized long bytesEmUso() {
+        long total = 0;
+        for (AutomatoCategorias automato : automatos.values()) {
+            total += automato.bytesEstimados();
+        }
+        return total;
+    }
+
+    private AutomatoCategorias compilar(Long usuarioId) {
+        List<AutomatoCategorias.Regra> regras = jdbcTemplate.query(REGRAS,
+                (rs, i) -> new AutomatoCategorias.Regra(rs.getString(1), rs.getLong(2), rs.getInt(3)),
+                usuarioId, usuarioId);
+        return AutomatoCategorias.compilar(regras);
+    }
+
+    private synchronized void publicar(Long usuarioId, AutomatoCategorias automato) {
+        long orcamento = properties.getOrcamentoMemoriaBytes();
+        if (automato.bytesEstimados() > orcamento) {
+            return;
+        }
+        automatos.putIfAbsent(usuarioId, automato);
+
+        long total = bytesEmUso();
+        Iterator<Map.Entry<Long, AutomatoCategorias>> iterador = automatos.entrySet().iterator();
+        while (total > orcamento && iterador.hasNext()) {
+            Map.Entry<Long, AutomatoCategorias> maisAntigo = iterador.next();
+            if (maisAntigo.getKey().equals(usuarioId)) {
+                continue;
+            }
+            total -= maisAntigo.getValue().bytesEstimados();
+            iterador.remove();
+        }
+    }
+
+    private static void executarAposCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+
+    private static int faixa(long usuarioId) {
+        return (int) (usuarioId & (FAIXAS_VERSAO - 1));
+    }
+}
@@ -0,0 +1,347 @@
+package com.financeiro.conciliacao;
+
+import com.financeiro.categorizacao.AutomatoCategorias;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Conciliação de extrato por ordenação e intercalação, sem comparar cada linha com todas as transações.
+ *
+ * Cada lado vira um long[] de chaves (posto do valor, dia, índice) ordenado por Arrays.sort. A intercalação anda
+ * pelos grupos de mesmo valor; dentro de um grupo, cada linha do extrato (em ordem de dia) olha apenas as transações
+ * livres na janela de tolerância, cujo início só avança. Entre várias candidatas, similaridades de descrição
+ * (coeficiente de Dice sobre bigramas de caracteres, sem acento nem pontuação) dentro da margem empatam e o
+ * desempate é a menor distância em dias. Se ainda assim sobrarem transações distinguíveis, a linha é ambígua e não
+ * consome nenhuma; as ambíguas são reavaliadas depois que as demais linhas do grupo escolheram, pois as candidatas
+ * podem ter se reduzido a uma. Custo O((n + m) log(n + m)) mais o tamanho das janelas. Não guarda estado entre
+ * chamadas e pode ser compartilhado entre threads.
+ */
+public final class ConciliadorExtrato {
+
+    /** Limite de movimentos somando os dois lados (e de dias no período): cada parte da chave ocupa 21 bits */
+    public static final int LIMITE = 1 << 21;
+
+    private static final int BITS = 21;
+    private static final long MASCARA = LIMITE - 1;
+    private static final int PASSADAS = 3;
+    private static final int NENHUMA = -1;
+    private static final int AMBIGUA = -2;
+    private static final int[] SEM_BIGRAMAS = new int[0];
+
+    private final int toleranciaDias;
+    private final double margemSimilaridade;
+
+    /**
+     * @param toleranciaDias diferença máxima, em dias, entre a linha do extrato e a transação
+     * @param margemSimilaridade diferença de similaridade (0 a 1) abaixo da qual duas candidatas empatam
+     */
+    public ConciliadorExtrato(int toleranciaDias, double margemSimilaridade) {
+        this.toleranciaDias = toleranciaDias;
+        this.margemSimilaridade = margemSimilaridade;
+    }
+
+    public ResultadoConciliacao conciliar(Movimentos extrato, Movimentos sistema) {
+        int n = extrato.tamanho();
+        int m = sistema.tamanho();
+        if ((long) n + m >= LIMITE) {
+            throw new RuntimeException("Conciliação limitada a " + (LIMITE - 1) + " movimentos");
+        }
+        long[] valores = new long[n + m];
+        int diaMinimo = Integer.MAX_VALUE;
+        int diaMaximo = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            valores[i] = extrato.centavos(i);
+            diaMinimo = Math.min(diaMinimo, extrato.dia(i));
+            diaMaximo = Math.max(diaMaximo, extrato.dia(i));
+        }
+        for (int i = 0; i < m; i++) {
+            valores[n + i] = sistema.centavos(i);
+            diaMinimo = Math.min(diaMinimo, sistema.dia(i));
+            diaMaximo = Math.max(diaMaximo, sistema.dia(i));
+        }
+        if (n + m > 0 && (long) diaMaximo - diaMinimo >= LIMITE) {
+            throw new RuntimeException("Período da conciliação muito longo");
+        }
+
+        // Postos densos dos valores dos dois lados, para a chave caber em um long
+        Arrays.sort(valores);
+        int distintos = 0;
+        for (int i = 0; i < valores.length; i++) {
+            if (distintos == 0 || valores[i] != valores[distintos - 1]) {
+                valores[distintos++] = valores[i];
+            }
+        }
+        long[] chavesExtrato = chaves(extrato, valores, distintos, diaMinimo);
+        long[] chavesSistema = chaves(sistema, valores, distintos, diaMinimo);
+
+        Execucao execucao = new Execucao(extrato, sistema);
+        int a = 0;
+        int b = 0;
+        while (a < n && b < m) {
+            long postoExtrato = chavesExtrato[a] >>> (2 * BITS);
+            long postoSistema = chavesSistema[b] >>> (2 * BITS);
+            if (postoExtrato < postoSistema) {
+                a = fimDoGrupo(chavesExtrato, a);
+            } else if (postoSistema < postoExtrato) {
+                b = fimDoGrupo(chavesSistema, b);
+            } else {
+                int fimExtrato = fimDoGrupo(chavesExtrato, a);
+                int fimSistema = fimDoGrupo(chavesSistema, b);
+                execucao.conciliarGrupo(chavesExtrato, a, fimExtrato, chavesSistema, b, fimSistema);
+                a = fimExtrato;
+                b = fimSistema;
+            }
+        }
+        return execucao.resultado();
+    }
+
+    private static long[] chaves(Movimentos lado, long[] valores, int distintos, int diaMinimo) {
+        long[] chaves = new long[lado.tamanho()];
+        for (int i = 0; i < chaves.length; i++) {
+            long posto = Arrays.binarySearch(valores, 0, distintos, lado.centavos(i));
+            chaves[i] = posto << (2 * BITS) | (long) (lado.dia(i) - diaMinimo) << BITS | i;
+        }
+        Arrays.sort(chaves);
+        return chaves;
+    }
+
+    private static int fimDoGrupo(long[] chaves, int inicio) {
+        long posto = chaves[inicio] >>> (2 * BITS);
+        int fim = inicio + 1;
+        while (fim < chaves.length && chaves[fim] >>> (2 * BITS) == posto) {
+            fim++;
+        }
+        return fim;
+    }
+
+    private static int indice(long chave) {
+        return (int) (chave & MASCARA);
+    }
+
+    /**
+     * Bigramas dos caracteres normalizados que são letras ou dígitos, ordenados (multiconjunto)
+     */
+    static int[] bigramas(String descricao) {
+        int[] codigos = new int[descricao.length()];
+        int quantidade = 0;
+        char anterior = 0;
+        for (int i = 0; i < descricao.length(); i++) {
+            char c = AutomatoCategorias.normalizar(descricao.charAt(i));
+            if (!Character.isLetterOrDigit(c)) {
+                continue;
+            }
+            if (anterior != 0) {
+                codigos[quantidade++] = anterior << 16 | c;
+            }
+            anterior = c;
+        }
+        if (quantidade == 0) {
+            return SEM_BIGRAMAS;
+        }
+        int[] bigramas = Arrays.copyOf(codigos, quantidade);
+        Arrays.sort(bigramas);
+        return bigramas;
+    }
+
+    /**
+     * Coeficiente de Dice: 2 * |a ∩ b| / (|a| + |b|)
+     */
+    static double similaridade(int[] a, int[] b) {
+        if (a.length + b.length == 0) {
+            return 0;
+        }
+        int comuns = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                comuns++;
+                i++;
+                j++;
+            }
+        }
+        return 2.0 * comuns / (a.length + b.length);
+    }
+
+    /**
+     * Estado de uma conciliação: pares escolhidos, transações consumidas e bigramas já calculados
+     */
+    private final class Execucao {
+
+        private final Movimentos extrato;
+        private final Movimentos sistema;
+        private final int[] pares;
+        private final double[] similaridades;
+        private final int[][] ambiguas;
+        private final boolean[] usadas;
+        private final int[][] bigramasExtrato;
+        private final int[][] bigramasSistema;
+        private int[] candidatas = new int[8];
+        private double[] similaridadesCandidatas = new double[8];
+        private double similaridadeEscolhida;
+
+        Execucao(Movimentos extrato, Movimentos sistema) {
+            this.extrato = extrato;
+            this.sistema = sistema;
+            pares = new int[extrato.tamanho()];
+            Arrays.fill(pares, NENHUMA);
+            similaridades = new double[extrato.tamanho()];
+            ambiguas = new int[extrato.tamanho()][];
+            usadas = new boolean[sistema.tamanho()];
+            bigramasExtrato = new int[extrato.tamanho()][];
+            bigramasSistema = new int[sistema.tamanho()][];
+        }
+
+        void conciliarGrupo(long[] chavesExtrato, int inicioExtrato, int fimExtrato,
+                            long[] chavesSistema, int inicioSistema, int fimSistema) {
+            int[] pendentes = new int[fimExtrato - inicioExtrato];
+            int quantidade = 0;
+            for (int p = inicioExtrato; p < fimExtrato; p++) {
+                pendentes[quantidade++] = indice(chavesExtrato[p]);
+            }
+            for (int passada = 0; passada < PASSADAS && quantidade > 0; passada++) {
+                int ambiguasNaPassada = 0;
+                boolean progresso = false;
+                int inicioJanela = inicioSistema;
+                for (int k = 0; k < quantidade; k++) {
+                    int i = pendentes[k];
+                    int diaMinimo = extrato.dia(i) - toleranciaDias;
+                    while (inicioJanela < fimSistema && sistema.dia(indice(chavesSistema[inicioJanela])) < diaMinimo) {
+                        inicioJanela++;
+                    }
+                    int escolhida = escolher(i, chavesSistema, inicioJanela, fimSistema);
+                    if (escolhida >= 0) {
+                        pares[i] = escolhida;
+                        similaridades[i] = similaridadeEscolhida;
+                        usadas[escolhida] = true;
+                        progresso = true;
+                    } else if (escolhida == AMBIGUA) {
+                        pendentes[ambiguasNaPassada++] = i;
+                    }
+                }
+                quantidade = ambiguasNaPassada;
+                if (!progresso) {
+                    break;
+                }
+            }
+        }
+
+        /**
+         * Transação para a linha i, NENHUMA ou AMBIGUA (e então guarda as empatadas em ambiguas[i])
+         */
+        private int escolher(int i, long[] chavesSistema, int inicio, int fim) {
+            ambiguas[i] = null;
+            int diaMaximo = extrato.dia(i) + toleranciaDias;
+            int quantidade = 0;
+            for (int q = inicio; q < fim; q++) {
+                int j = indice(chavesSistema[q]);
+                if (sistema.dia(j) > diaMaximo) {
+                    break;
+                }
+                if (!usadas[j]) {
+                    if (quantidade == candidatas.length) {
+                        candidatas = Arrays.copyOf(candidatas, quantidade * 2);
+                        similaridadesCandidatas = Arrays.copyOf(similaridadesCandidatas, quantidade * 2);
+                    }
+                    candidatas[quantidade++] = j;
+                }
+            }
+            if (quantidade == 0) {
+                return NENHUMA;
+            }
+            double melhor = 0;
+            for (int k = 0; k < quantidade; k++) {
+                similaridadesCandidatas[k] = similaridade(i, candidatas[k]);
+                melhor = Math.max(melhor, similaridadesCandidatas[k]);
+            }
+            if (quantidade == 1) {
+                similaridadeEscolhida = similaridadesCandidatas[0];
+                return candidatas[0];
+            }
+
+            // Finalistas: similaridade dentro da margem da melhor; entre elas, a mais próxima em dias
+            int menorDistancia = Integer.MAX_VALUE;
+            for (int k = 0; k < quantidade; k++) {
+                if (similaridadesCandidatas[k] >= melhor - margemSimilaridade) {
+                    menorDistancia = Math.min(menorDistancia, distancia(i, candidatas[k]));
+                }
+            }
+            // As empatadas são compactadas no início de candidatas
+            int empatadas = 0;
+            boolean intercambiaveis = true;
+            for (int k = 0; k < quantidade; k++) {
+                int j = candidatas[k];
+                if (similaridadesCandidatas[k] < melhor - margemSimilaridade || distancia(i, j) != menorDistancia) {
+                    continue;
+                }
+                if (empatadas > 0) {
+                    intercambiaveis &= intercambiaveis(candidatas[0], j);
+                }
+                candidatas[empatadas++] = j;
+                similaridadesCandidatas[empatadas - 1] = similaridadesCandidatas[k];
+            }
+            if (empatadas == 1 || intercambiaveis) {
+                similaridadeEscolhida = similaridadesCandidatas[0];
+                return candidatas[0];
+            }
+            ambiguas[i] = Arrays.copyOf(candidatas, empatadas);
+            return AMBIGUA;
+        }
+
+        private int distancia(int i, int j) {
+            return Math.abs(sistema.dia(j) - extrato.dia(i));
+        }
+
+        /**
+         * Transações que o extrato não distingue: mesmo dia e mesma descrição (o valor já é o mesmo)
+         */
+        private boolean intercambiaveis(int j1, int j2) {
+            return sistema.dia(j1) == sistema.dia(j2)
+                    && sistema.descricao(j1).strip().equalsIgnoreCase(sistema.descricao(j2).strip());
+        }
+
+        private double similaridade(int i, int j) {
+            if (bigramasExtrato[i] == null) {
+                bigramasExtrato[i] = bigramas(extrato.descricao(i));
+            }
+            if (bigramasSistema[j] == null) {
+                bigramasSistema[j] = bigramas(sistema.descricao(j));
+            }
+            return ConciliadorExtrato.similaridade(bigramasExtrato[i], bigramasSistema[j]);
+        }
+
+        ResultadoConciliacao resultado() {
+            List<ResultadoConciliacao.Par> conciliadas = new ArrayList<>();
+            List<ResultadoConciliacao.Ambiguidade> ambiguidades = new ArrayList<>();
+            List<Long> extratoSemPar = new ArrayList<>();
+            for (int i = 0; i < pares.length; i++) {
+                if (pares[i] >= 0) {
+                    int j = pares[i];
+                    conciliadas.add(new ResultadoConciliacao.Par(extrato.id(i), sistema.id(j),
+                            sistema.dia(j) - extrato.dia(i), Math.round(similaridades[i] * 1000) / 1000.0));
+                } else if (ambiguas[i] != null) {
+                    List<Long> candidatos = new ArrayList<>(ambiguas[i].length);
+                    for (int j : ambiguas[i]) {
+                        candidatos.add(sistema.id(j));
+                    }
+                    ambiguidades.add(new ResultadoConciliacao.Ambiguidade(extrato.id(i), candidatos));
+                } else {
+                    extratoSemPar.add(extrato.id(i));
+                }
+            }
+            List<Long> sistemaSemPar = new ArrayList<>();
+            for (int j = 0; j < usadas.length; j++) {
+                if (!usadas[j]) {
+                    sistemaSemPar.add(sistema.id(j));
+                }
+            }
+            return new ResultadoConciliacao(conciliadas, ambiguidades, extratoSemPar, sistemaSemPar);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.financeiro.conciliacao;
+
+import java.util.Arrays;
+
+/**
+ * Um lado da conciliação (linhas do extrato ou transações do sistema) em colunas.
+ *
+ * Valores em centavos com sinal: receitas positivas, despesas negativas. O id identifica o movimento no resultado
+ * (número da linha no extrato, id da transação no sistema).
+ */
+public final class Movimentos {
+
+    private long[] ids;
+    private int[] dias;
+    private long[] centavos;
+    private String[] descricoes;
+    private int tamanho;
+
+    public Movimentos(int capacidade) {
+        int inicial = Math.max(capacidade, 16);
+        ids = new long[inicial];
+        dias = new int[inicial];
+        centavos = new long[inicial];
+        descricoes = new String[inicial];
+    }
+
+    /**
+     * @param dia dia epoch (LocalDate.toEpochDay)
+     */
+    public void adicionar(long id, int dia, long centavos, String descricao) {
+        if (tamanho == ids.length) {
+            int capacidade = tamanho * 2;
+            ids = Arrays.copyOf(ids, capacidade);
+            dias = Arrays.copyOf(dias, capacidade);
+            this.centavos = Arrays.copyOf(this.centavos, capacidade);
+            descricoes = Arrays.copyOf(descricoes, capacidade);
+        }
+        ids[tamanho] = id;
+        dias[tamanho] = dia;
+        this.centavos[tamanho] = centavos;
+        descricoes[tamanho] = descricao != null ? descricao : "";
+        tamanho++;
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    long id(int i) {
+        return ids[i];
+    }
+
+    int dia(int i) {
+        return dias[i];
+    }
+
+    long centavos(int i) {
+        return centavos[i];
+    }
+
+    String descricao(int i) {
+        return descricoes[i];
+    }
+}
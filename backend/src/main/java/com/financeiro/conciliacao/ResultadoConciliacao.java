@@ -0,0 +1,24 @@
+package com.financeiro.conciliacao;
+
+import java.util.List;
+
+/**
+ * Resultado da conciliação, pelos ids de cada lado; as listas seguem a ordem de entrada do extrato (e do sistema)
+ */
+public record ResultadoConciliacao(List<Par> conciliadas,
+                                   List<Ambiguidade> ambiguas,
+                                   List<Long> extratoSemPar,
+                                   List<Long> sistemaSemPar) {
+
+    /**
+     * Linha do extrato casada com uma transação; diferencaDias = dia da transação - dia da linha
+     */
+    public record Par(long extrato, long sistema, int diferencaDias, double similaridade) {
+    }
+
+    /**
+     * Linha do extrato com mais de uma transação igualmente provável; nenhuma delas é consumida
+     */
+    public record Ambiguidade(long extrato, List<Long> candidatos) {
+    }
+}
@@ -1,13 +1,21 @@
 package com.financeiro.config;
 
+import com.financeiro.eventos.BilhetesEventos;
+import com.financeiro.metrics.TimedPasswordEncoder;
+import com.financeiro.revogacao.RegistroRevogacoes;
 import com.financeiro.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -39,8 +47,8 @@ public class SecurityConfig {
     private JwtRequestFilter jwtRequestFilter;
     
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
     }
     
     @Bean
@@ -48,12 +56,30 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
     
+    /**
+     * Endpoints do Actuator: expostos apenas na porta de gerenciamento (interna)
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain managementFilterChain(HttpSecurity http) throws Exception {
+        http.securityMatcher(EndpointRequest.toAnyEndpoint())
+            .csrf(csrf -> csrf.disable())
+            .authorizeHttpRequests(authz -> authz.anyRequest().permitAll())
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
+        
+        return http.build();
+    }
+    
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http.csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(authz -> authz
                 .requestMatchers("/auth/**").permitAll()
                 .requestMatchers("/h2-console/**").permitAll()
+                .requestMatchers("/categorias/regras/globais/**").hasRole("ADMIN")
+                .requestMatchers("/admin/**").hasRole("ADMIN")
+                // Streams SSE: a autenticação já ocorreu na requisição original; os despachos assíncronos só continuam a resposta
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .anyRequest().authenticated()
             )
             .exceptionHandling(ex -> ex.authenticationEntryPoint(jwtAuthenticationEntryPoint))
@@ -86,6 +112,12 @@ class JwtRequestFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
     
+    @Autowired
+    private RegistroRevogacoes registroRevogacoes;
+    
+    @Autowired
+    private BilhetesEventos bilhetesEventos;
+    
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                   FilterChain chain) throws ServletException, IOException {
@@ -98,8 +130,21 @@ class JwtRequestFilter extends OncePerRequestFilter {
         // JWT Token está no formato "Bearer token"
         if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
             jwtToken = requestTokenHeader.substring(7);
+        } else if ("GET".equals(request.getMethod()) && request.getRequestURI().endsWith("/eventos")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // EventSource do navegador não envia cabeçalhos: o stream SSE aceita só um bilhete de uso único na URL
+            String bilhete = bilhetesEventos.resgatar(request.getParameter("bilhete"));
+            if (bilhete != null) {
+                autenticar(this.userDetailsService.loadUserByUsername(bilhete));
+            }
+        }
+        if (jwtToken != null) {
             try {
-                username = jwtUtil.extractUsername(jwtToken);
+                Claims claims = jwtUtil.extractClaim(jwtToken, c -> c);
+                // Token revogado (logout) é tratado como ausente, sem consultar o usuário
+                if (!registroRevogacoes.isRevogado(claims)) {
+                    username = claims.getSubject();
+                }
             } catch (Exception e) {
                 logger.error("Não foi possível obter o username do token JWT", e);
             }
@@ -110,13 +155,17 @@ class JwtRequestFilter extends OncePerRequestFilter {
             UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
             
             if (jwtUtil.validateToken(jwtToken, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = 
-                    new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+                autenticar(userDetails);
             }
         }
         
         chain.doFilter(request, response);
     }
+    
+    private static void autenticar(UserDetails userDetails) {
+        UsernamePasswordAuthenticationToken authToken = 
+            new UsernamePasswordAuthenticationToken(
+                userDetails, null, userDetails.getAuthorities());
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
 }
\ No newline at end of file
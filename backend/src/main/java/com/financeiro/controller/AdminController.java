@@ -0,0 +1,59 @@
+package com.financeiro.controller;
+
+import com.financeiro.diretorio.DiretorioUsuarios;
+import com.financeiro.model.enums.PerfilUsuario;
+import com.financeiro.plataforma.EstatisticasPlataforma;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@Timed(value = "financeiro.controller", histogram = true)
+@RequestMapping("/admin")
+@CrossOrigin(origins = "http://localhost:4200")
+public class AdminController {
+
+    @Autowired
+    private EstatisticasPlataforma estatisticasPlataforma;
+
+    @Autowired
+    private DiretorioUsuarios diretorioUsuarios;
+
+    /**
+     * Estatísticas de todos os usuários no período (padrão: os últimos 30 dias)
+     */
+    @GetMapping("/estatisticas")
+    public ResponseEntity<?> estatisticas(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
+        try {
+            LocalDate fim = dataFim != null ? dataFim : LocalDate.now();
+            LocalDate inicio = dataInicio != null ? dataInicio : fim.minusDays(29);
+            return ResponseEntity.ok(estatisticasPlataforma.calcular(inicio, fim));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Diretório de usuários em páginas por cursor, com busca por prefixo de nome ou email
+     */
+    @GetMapping("/usuarios")
+    public ResponseEntity<?> listarUsuarios(@RequestParam(required = false) String nome,
+                                            @RequestParam(required = false) String email,
+                                            @RequestParam(required = false) PerfilUsuario perfil,
+                                            @RequestParam(required = false) Boolean ativo,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer limite) {
+        try {
+            return ResponseEntity.ok(diretorioUsuarios.listar(nome, email, perfil, ativo, cursor, limite));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.financeiro.controller;
+
+import com.financeiro.arquivo.ArquivoService;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@Timed(value = "financeiro.controller", histogram = true)
+@RequestMapping("/arquivo")
+@CrossOrigin(origins = "http://localhost:4200")
+public class ArquivoController {
+    
+    @Autowired
+    private ArquivoService arquivoService;
+    
+    /**
+     * Move para o arquivo frio as transações do usuário anteriores à data de corte
+     */
+    @PostMapping("/arquivar")
+    public ResponseEntity<Map<String, Object>> arquivar(@RequestParam Long usuarioId) {
+        int arquivadas = arquivoService.arquivar(usuarioId);
+        return ResponseEntity.ok(Map.of(
+                "arquivadas", arquivadas,
+                "dataDeCorte", arquivoService.dataDeCorte()));
+    }
+    
+    /**
+     * Lista os segmentos arquivados do usuário
+     */
+    @GetMapping("/segmentos")
+    public ResponseEntity<List<Map<String, Object>>> listarSegmentos(@RequestParam Long usuarioId) {
+        return ResponseEntity.ok(arquivoService.listarSegmentos(usuarioId));
+    }
+}
@@ -1,9 +1,13 @@
 package com.financeiro.controller;
 
 import com.financeiro.model.Usuario;
+import com.financeiro.revogacao.RegistroRevogacoes;
 import com.financeiro.service.CustomUserDetailsService;
 import com.financeiro.service.UsuarioService;
 import com.financeiro.util.JwtUtil;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.annotation.Timed;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -18,6 +22,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 @RestController
+@Timed(value = "financeiro.controller", histogram = true)
 @RequestMapping("/auth")
 @CrossOrigin(origins = "http://localhost:4200")
 public class AuthController {
@@ -34,6 +39,9 @@ public class AuthController {
     @Autowired
     private JwtUtil jwtUtil;
     
+    @Autowired
+    private RegistroRevogacoes registroRevogacoes;
+    
     /**
      * Endpoint de login
      */
@@ -107,7 +115,7 @@ public class AuthController {
         try {
             String token = tokenRequest.getToken();
             
-            if (jwtUtil.isTokenValid(token)) {
+            if (isTokenAtivo(token)) {
                 String email = jwtUtil.extractUsername(token);
                 Usuario usuario = userDetailsService.findUsuarioByEmail(email);
                 
@@ -137,7 +145,7 @@ public class AuthController {
         try {
             String token = tokenRequest.getToken();
             
-            if (jwtUtil.isTokenValid(token)) {
+            if (isTokenAtivo(token)) {
                 String email = jwtUtil.extractUsername(token);
                 Usuario usuario = userDetailsService.findUsuarioByEmail(email);
                 
@@ -164,6 +172,42 @@ public class AuthController {
         }
     }
     
+    /**
+     * Endpoint de logout: revoga o token (cabeçalho Authorization ou corpo) até a sua expiração
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String autorizacao,
+                                    @RequestBody(required = false) TokenRequest tokenRequest) {
+        String token = autorizacao != null && autorizacao.startsWith("Bearer ") ? autorizacao.substring(7)
+                : tokenRequest != null ? tokenRequest.getToken() : null;
+        Map<String, String> response = new HashMap<>();
+        if (token == null || token.isBlank()) {
+            response.put("error", "Token não informado");
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        try {
+            registroRevogacoes.revogar(jwtUtil.extractClaim(token, claims -> claims));
+        } catch (ExpiredJwtException e) {
+            // Token já expirado não precisa ser revogado
+        } catch (JwtException e) {
+            response.put("error", "Token inválido");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        } catch (RuntimeException e) {
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+        response.put("message", "Logout realizado com sucesso");
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Token bem formado, não expirado e não revogado
+     */
+    private boolean isTokenAtivo(String token) {
+        return jwtUtil.isTokenValid(token) && !registroRevogacoes.isRevogado(jwtUtil.extractClaim(token, claims -> claims));
+    }
+    
     // Classes auxiliares para requests e responses
     public static class LoginRequest {
         private String email;
@@ -189,12 +233,14 @@ public class AuthController {
         private String nome;
         private String email;
         private String perfil;
+        private String moedaBase;
         
         public UsuarioResponse(Usuario usuario) {
             this.id = usuario.getId();
             this.nome = usuario.getNome();
             this.email = usuario.getEmail();
             this.perfil = usuario.getPerfil().name();
+            this.moedaBase = usuario.getMoedaBase();
         }
         
         // Getters e Setters
@@ -206,5 +252,7 @@ public class AuthController {
         public void setEmail(String email) { this.email = email; }
         public String getPerfil() { return perfil; }
         public void setPerfil(String perfil) { this.perfil = perfil; }
+        public String getMoedaBase() { return moedaBase; }
+        public void setMoedaBase(String moedaBase) { this.moedaBase = moedaBase; }
     }
 }
\ No newline at end of file
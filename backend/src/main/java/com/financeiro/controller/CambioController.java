@@ -0,0 +1,75 @@
+package com.financeiro.controller;
+
+import com.financeiro.cambio.Cotacoes;
+import com.financeiro.cambio.TabelaCambio;
+import com.financeiro.controller.AuthController.UsuarioResponse;
+import com.financeiro.model.Dinheiro;
+import com.financeiro.service.UsuarioService;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@Timed(value = "financeiro.controller", histogram = true)
+@RequestMapping("/cambio")
+@CrossOrigin(origins = "http://localhost:4200")
+public class CambioController {
+
+    @Autowired
+    private TabelaCambio tabelaCambio;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    /**
+     * Moedas com cotação e o período coberto pelo arquivo
+     */
+    @GetMapping("/moedas")
+    public ResponseEntity<Map<String, Object>> listarMoedas() {
+        Cotacoes cotacoes = tabelaCambio.cotacoes();
+        Map<String, Object> resposta = new LinkedHashMap<>();
+        resposta.put("referencia", cotacoes.getReferencia());
+        resposta.put("moedas", cotacoes.getMoedas());
+        resposta.put("primeiraData", cotacoes.getPrimeiraData());
+        resposta.put("ultimaData", cotacoes.getUltimaData());
+        return ResponseEntity.ok(resposta);
+    }
+
+    /**
+     * Converte um valor entre moedas pela cotação da data (hoje, se omitida)
+     */
+    @GetMapping("/converter")
+    public ResponseEntity<?> converter(@RequestParam BigDecimal valor,
+                                       @RequestParam String de,
+                                       @RequestParam String para,
+                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data) {
+        try {
+            LocalDate dia = data != null ? data : LocalDate.now();
+            String origem = tabelaCambio.validar(de);
+            String destino = tabelaCambio.validar(para);
+            long centavos = tabelaCambio.converter(Dinheiro.centavosDe(valor), origem, destino, dia);
+            return ResponseEntity.ok(Map.of("valor", Dinheiro.deCentavos(centavos), "moeda", destino, "data", dia));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Altera a moeda base do usuário (saldo total, limites, resumos e agrupamentos)
+     */
+    @PutMapping("/moeda-base")
+    public ResponseEntity<?> alterarMoedaBase(@RequestParam Long usuarioId, @RequestParam String moeda) {
+        try {
+            return ResponseEntity.ok(new UsuarioResponse(usuarioService.alterarMoedaBase(usuarioId, moeda)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
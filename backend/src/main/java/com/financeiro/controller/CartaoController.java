@@ -0,0 +1,153 @@
+package com.financeiro.controller;
+
+import com.financeiro.model.Cartao;
+import com.financeiro.projecao.ConsultaProjetada;
+import com.financeiro.projecao.Recurso;
+import com.financeiro.service.CartaoService;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@Timed(value = "financeiro.controller", histogram = true)
+@RequestMapping("/cartoes")
+@CrossOrigin(origins = "http://localhost:4200")
+public class CartaoController {
+    
+    @Autowired
+    private CartaoService cartaoService;
+    
+    @Autowired
+    private ConsultaProjetada consultaProjetada;
+    
+    /**
+     * Cria um novo cartão
+     */
+    @PostMapping
+    public ResponseEntity<Cartao> criarCartao(@Valid @RequestBody Cartao cartao, 
+                                             @RequestParam Long usuarioId) {
+        try {
+            Cartao novoCartao = cartaoService.criarCartao(cartao, usuarioId);
+            return ResponseEntity.status(HttpStatus.CREATED).body(novoCartao);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Lista todos os cartões de um usuário (fields= restringe os campos lidos e serializados)
+     */
+    @GetMapping
+    public ResponseEntity<?> listarCartoes(@RequestParam Long usuarioId,
+                                           @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            try {
+                return ResponseEntity.ok(consultaProjetada.listar(Recurso.CARTOES, usuarioId, fields));
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        }
+        List<Cartao> cartoes = cartaoService.listarCartoesPorUsuario(usuarioId);
+        return ResponseEntity.ok(cartoes);
+    }
+    
+    /**
+     * Lista cartões com paginação
+     */
+    @GetMapping("/paginado")
+    public ResponseEntity<Page<Cartao>> listarCartoesPaginado(@RequestParam Long usuarioId, 
+                                                             Pageable pageable) {
+        Page<Cartao> cartoes = cartaoService.listarCartoesPorUsuarioComPaginacao(usuarioId, pageable);
+        return ResponseEntity.ok(cartoes);
+    }
+    
+    /**
+     * Busca um cartão por ID
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<Cartao> buscarCartaoPorId(@PathVariable Long id, 
+                                                   @RequestParam Long usuarioId) {
+        try {
+            Cartao cartao = cartaoService.buscarCartaoPorIdEUsuario(id, usuarioId);
+            return ResponseEntity.ok(cartao);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    /**
+     * Atualiza um cartão
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<Cartao> atualizarCartao(@PathVariable Long id, 
+                                                 @Valid @RequestBody Cartao cartao, 
+                                                 @RequestParam Long usuarioId) {
+        try {
+            Cartao cartaoAtualizado = cartaoService.atualizarCartao(id, cartao, usuarioId);
+            return ResponseEntity.ok(cartaoAtualizado);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Exclui um cartão
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> excluirCartao(@PathVariable Long id, 
+                                             @RequestParam Long usuarioId) {
+        try {
+            cartaoService.excluirCartao(id, usuarioId);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Busca cartões por bandeira
+     */
+    @GetMapping("/bandeira")
+    public ResponseEntity<List<Cartao>> buscarCartoesPorBandeira(@RequestParam String bandeira, 
+                                                                @RequestParam Long usuarioId) {
+        List<Cartao> cartoes = cartaoService.buscarCartoesPorBandeira(bandeira, usuarioId);
+        return ResponseEntity.ok(cartoes);
+    }
+    
+    /**
+     * Busca cartões por nome
+     */
+    @GetMapping("/buscar")
+    public ResponseEntity<List<Cartao>> buscarCartoesPorNome(@RequestParam String nome, 
+                                                            @RequestParam Long usuarioId) {
+        List<Cartao> cartoes = cartaoService.buscarCartoesPorNome(nome, usuarioId);
+        return ResponseEntity.ok(cartoes);
+    }
+    
+    /**
+     * Calcula o limite total dos cartões do usuário
+     */
+    @GetMapping("/limite-total")
+    public ResponseEntity<BigDecimal> calcularLimiteTotal(@RequestParam Long usuarioId) {
+        BigDecimal limiteTotal = cartaoService.calcularLimiteTotalUsuario(usuarioId);
+        return ResponseEntity.ok(limiteTotal);
+    }
+    
+    /**
+     * Conta o número de cartões do usuário
+     */
+    @GetMapping("/count")
+    public ResponseEntity<Long> contarCartoes(@RequestParam Long usuarioId) {
+        long totalCartoes = cartaoService.contarCartoesPorUsuario(usuarioId);
+        return ResponseEntity.ok(totalCartoes);
+    }
+}
@@ -0,0 +1,180 @@
+package com.financeiro.controller;
+
+import com.financeiro.model.Categoria;
+import com.financeiro.model.RegraCategoria;
+import com.financeiro.orcamento.SituacaoOrcamento;
+import com.financeiro.service.CategoriaService;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@Timed(value = "financeiro.controller", histogram = true)
+@RequestMapping("/categorias")
+@CrossOrigin(origins = "http://localhost:4200")
+public class CategoriaController {
+    
+    @Autowired
+    private CategoriaService categoriaService;
+    
+    /**
+     * Cria uma nova categoria
+     */
+    @PostMapping
+    public ResponseEntity<?> criarCategoria(@Valid @RequestBody Categoria categoria,
+                                            @RequestParam Long usuarioId) {
+        try {
+            Categoria novaCategoria = categoriaService.criarCategoria(categoria, usuarioId);
+            return ResponseEntity.status(HttpStatus.CREATED).body(novaCategoria);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Lista todas as categorias de um usuário
+     */
+    @GetMapping
+    public ResponseEntity<List<Categoria>> listarCategorias(@RequestParam Long usuarioId) {
+        return ResponseEntity.ok(categoriaService.listarCategoriasPorUsuario(usuarioId));
+    }
+    
+    /**
+     * Gasto do mês (AAAA-MM, padrão o mês corrente) frente ao orçamento de cada categoria
+     */
+    @GetMapping("/orcamentos")
+    public ResponseEntity<List<SituacaoOrcamento>> obterOrcamentos(
+            @RequestParam Long usuarioId,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth mes) {
+        return ResponseEntity.ok(categoriaService.obterOrcamentos(usuarioId, mes));
+    }
+    
+    /**
+     * Lista as regras de categorização automática do usuário
+     */
+    @GetMapping("/regras")
+    public ResponseEntity<List<RegraCategoria>> listarRegras(@RequestParam Long usuarioId) {
+        return ResponseEntity.ok(categoriaService.listarRegras(usuarioId));
+    }
+    
+    /**
+     * Cria uma regra: descrições que contêm o termo recebem a categoria
+     */
+    @PostMapping("/regras")
+    public ResponseEntity<?> criarRegra(@Valid @RequestBody RegraCategoria regra,
+                                        @RequestParam Long usuarioId,
+                                        @RequestParam Long categoriaId) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(categoriaService.criarRegra(regra, categoriaId, usuarioId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Exclui uma regra do usuário
+     */
+    @DeleteMapping("/regras/{id}")
+    public ResponseEntity<Void> excluirRegra(@PathVariable Long id,
+                                            @RequestParam Long usuarioId) {
+        try {
+            categoriaService.excluirRegra(id, usuarioId);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    /**
+     * Lista as regras globais (somente ADMIN)
+     */
+    @GetMapping("/regras/globais")
+    public ResponseEntity<List<RegraCategoria>> listarRegrasGlobais() {
+        return ResponseEntity.ok(categoriaService.listarRegrasGlobais());
+    }
+    
+    /**
+     * Cria uma regra global, que aponta para um nome de categoria (somente ADMIN)
+     */
+    @PostMapping("/regras/globais")
+    public ResponseEntity<?> criarRegraGlobal(@Valid @RequestBody RegraCategoria regra) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(categoriaService.criarRegraGlobal(regra));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Exclui uma regra global (somente ADMIN)
+     */
+    @DeleteMapping("/regras/globais/{id}")
+    public ResponseEntity<Void> excluirRegraGlobal(@PathVariable Long id) {
+        try {
+            categoriaService.excluirRegraGlobal(id);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    /**
+     * Categoria que as regras atribuiriam à descrição (categoriaId nulo se nenhuma se aplica)
+     */
+    @GetMapping("/sugerir")
+    public ResponseEntity<Map<String, Long>> sugerirCategoria(@RequestParam Long usuarioId,
+                                                             @RequestParam String descricao) {
+        return ResponseEntity.ok(Collections.singletonMap("categoriaId",
+                categoriaService.sugerirCategoria(usuarioId, descricao)));
+    }
+    
+    /**
+     * Busca uma categoria por ID
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<Categoria> buscarCategoriaPorId(@PathVariable Long id,
+                                                         @RequestParam Long usuarioId) {
+        try {
+            return ResponseEntity.ok(categoriaService.buscarCategoriaPorIdEUsuario(id, usuarioId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    /**
+     * Atualiza o nome e o orçamento mensal de uma categoria
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<?> atualizarCategoria(@PathVariable Long id,
+                                                @Valid @RequestBody Categoria categoria,
+                                                @RequestParam Long usuarioId) {
+        try {
+            return ResponseEntity.ok(categoriaService.atualizarCategoria(id, categoria, usuarioId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Exclui uma categoria (as transações dela ficam sem categoria)
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> excluirCategoria(@PathVariable Long id,
+                                                @RequestParam Long usuarioId) {
+        try {
+            categoriaService.excluirCategoria(id, usuarioId);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
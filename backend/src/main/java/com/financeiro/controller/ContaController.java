@@ -2,7 +2,11 @@ package com.financeiro.controller;
 
 import com.financeiro.model.Conta;
 import com.financeiro.model.enums.TipoConta;
+import com.financeiro.previsao.PrevisaoFluxoCaixa;
+import com.financeiro.projecao.ConsultaProjetada;
+import com.financeiro.projecao.Recurso;
 import com.financeiro.service.ContaService;
+import io.micrometer.core.annotation.Timed;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -13,8 +17,10 @@ import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 @RestController
+@Timed(value = "financeiro.controller", histogram = true)
 @RequestMapping("/contas")
 @CrossOrigin(origins = "http://localhost:4200")
 public class ContaController {
@@ -22,6 +28,12 @@ public class ContaController {
     @Autowired
     private ContaService contaService;
     
+    @Autowired
+    private ConsultaProjetada consultaProjetada;
+    
+    @Autowired
+    private PrevisaoFluxoCaixa previsaoFluxoCaixa;
+    
     /**
      * Cria uma nova conta
      */
@@ -37,10 +49,18 @@ public class ContaController {
     }
     
     /**
-     * Lista todas as contas de um usuário
+     * Lista todas as contas de um usuário (fields= restringe os campos lidos e serializados)
      */
     @GetMapping
-    public ResponseEntity<List<Conta>> listarContas(@RequestParam Long usuarioId) {
+    public ResponseEntity<?> listarContas(@RequestParam Long usuarioId,
+                                          @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            try {
+                return ResponseEntity.ok(consultaProjetada.listar(Recurso.CONTAS, usuarioId, fields));
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        }
         List<Conta> contas = contaService.listarContasPorUsuario(usuarioId);
         return ResponseEntity.ok(contas);
     }
@@ -137,6 +157,19 @@ public class ContaController {
         return ResponseEntity.ok(saldoTotal);
     }
     
+    /**
+     * Previsão dos saldos diários de cada conta com recorrências e faturas de cartão (até 24 meses)
+     */
+    @GetMapping("/previsao")
+    public ResponseEntity<?> preverSaldos(@RequestParam Long usuarioId,
+                                          @RequestParam(defaultValue = "12") int meses) {
+        try {
+            return ResponseEntity.ok(previsaoFluxoCaixa.prever(usuarioId, meses));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
     /**
      * Conta o número de contas do usuário
      */
@@ -0,0 +1,60 @@
+package com.financeiro.controller;
+
+import com.financeiro.eventos.BilhetesEventos;
+import com.financeiro.eventos.RegistroEmissores;
+import com.financeiro.model.Usuario;
+import com.financeiro.repository.UsuarioRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+
+@RestController
+@Timed(value = "financeiro.controller", histogram = true)
+@RequestMapping("/eventos")
+@CrossOrigin(origins = "http://localhost:4200")
+public class EventosController {
+
+    @Autowired
+    private RegistroEmissores registroEmissores;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private BilhetesEventos bilhetesEventos;
+
+    /**
+     * Bilhete de uso único e curta duração para abrir o stream: GET /eventos?bilhete=... (o EventSource não envia
+     * o cabeçalho Authorization, e o token de acesso não deve ir na URL)
+     */
+    @PostMapping("/bilhete")
+    public ResponseEntity<Map<String, Object>> bilhete(@AuthenticationPrincipal UserDetails principal) {
+        return ResponseEntity.ok(Map.of("bilhete", bilhetesEventos.emitir(principal.getUsername()),
+                "validadeMs", bilhetesEventos.getValidadeMs()));
+    }
+
+    /**
+     * Stream SSE com os deltas de saldo, limite e resumo do usuário do token (retoma a partir do Last-Event-ID);
+     * usuarioId, se informado, precisa ser o do token (403 caso contrário)
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> conectar(@AuthenticationPrincipal UserDetails principal,
+                               @RequestParam(required = false) Long usuarioId,
+                               @RequestHeader(value = "Last-Event-ID", required = false) String ultimoEventoId,
+                               @RequestParam(value = "ultimoEventoId", required = false) String ultimoEventoIdParametro) {
+        Long usuarioDoToken = usuarioRepository.findByEmail(principal.getUsername()).map(Usuario::getId).orElse(null);
+        if (usuarioDoToken == null || (usuarioId != null && !usuarioId.equals(usuarioDoToken))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(registroEmissores.conectar(usuarioDoToken,
+                ultimoEventoId != null ? ultimoEventoId : ultimoEventoIdParametro));
+    }
+}
@@ -0,0 +1,95 @@
+package com.financeiro.controller;
+
+import com.financeiro.relatorio.EstadoRelatorio;
+import com.financeiro.relatorio.FilaRelatorios;
+import com.financeiro.relatorio.FilaRelatoriosCheiaException;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@Timed(value = "financeiro.controller", histogram = true)
+@RequestMapping("/relatorios")
+@CrossOrigin(origins = "http://localhost:4200")
+public class RelatorioController {
+
+    @Autowired
+    private FilaRelatorios filaRelatorios;
+
+    /**
+     * Pede o relatório de todas as contas e cartões entre os meses inicio e fim (padrão: dezembro do ano de
+     * inicio); 202 com a tarefa na fila, ou 200 se o resultado do mesmo período ainda é válido
+     */
+    @PostMapping
+    public ResponseEntity<?> solicitarRelatorio(
+            @RequestParam Long usuarioId,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth inicio,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth fim) {
+        try {
+            Map<String, Object> tarefa = filaRelatorios.solicitar(usuarioId, inicio,
+                    fim != null ? fim : inicio.withMonth(12));
+            HttpStatus status = tarefa.get("estado") == EstadoRelatorio.CONCLUIDO ? HttpStatus.OK : HttpStatus.ACCEPTED;
+            return ResponseEntity.status(status)
+                    .location(URI.create("/api/relatorios/" + tarefa.get("id") + "?usuarioId=" + usuarioId))
+                    .body(tarefa);
+        } catch (FilaRelatoriosCheiaException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Relatórios pedidos pelo usuário que ainda não expiraram
+     */
+    @GetMapping
+    public ResponseEntity<List<Map<String, Object>>> listarRelatorios(@RequestParam Long usuarioId) {
+        return ResponseEntity.ok(filaRelatorios.listar(usuarioId));
+    }
+
+    /**
+     * Situação e progresso (0 a 100) da tarefa
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> buscarRelatorio(@PathVariable String id, @RequestParam Long usuarioId) {
+        return filaRelatorios.status(id, usuarioId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Resultado em JSON da tarefa concluída; 409 com a situação enquanto não concluir
+     */
+    @GetMapping("/{id}/resultado")
+    public ResponseEntity<?> baixarRelatorio(@PathVariable String id, @RequestParam Long usuarioId) {
+        Optional<Map<String, Object>> status = filaRelatorios.status(id, usuarioId);
+        if (status.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (status.get().get("estado") != EstadoRelatorio.CONCLUIDO) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(status.get());
+        }
+        Optional<Path> arquivo = filaRelatorios.resultado(id, usuarioId);
+        if (arquivo.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new FileSystemResource(arquivo.get()));
+    }
+}
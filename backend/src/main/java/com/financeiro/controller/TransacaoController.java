@@ -0,0 +1,396 @@
+package com.financeiro.controller;
+
+import com.financeiro.analise.Dimensao;
+import com.financeiro.analise.Grupo;
+import com.financeiro.categorizacao.CategorizadorTransacoes;
+import com.financeiro.duplicidade.TransacaoDuplicadaException;
+import com.financeiro.lancamento.PipelineInsercoes;
+import com.financeiro.lancamento.SequenciadorContas;
+import com.financeiro.model.Transacao;
+import com.financeiro.model.enums.TipoTransacao;
+import com.financeiro.projecao.ConsultaProjetada;
+import com.financeiro.projecao.Recurso;
+import com.financeiro.service.AlteracaoEmMassa;
+import com.financeiro.service.ConciliacaoService;
+import com.financeiro.service.FiltroEmMassa;
+import com.financeiro.service.ImportacaoService;
+import com.financeiro.service.TransacaoService;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@Timed(value = "financeiro.controller", histogram = true)
+@RequestMapping("/transacoes")
+@CrossOrigin(origins = "http://localhost:4200")
+public class TransacaoController {
+    
+    @Autowired
+    private TransacaoService transacaoService;
+    
+    @Autowired
+    private ConsultaProjetada consultaProjetada;
+    
+    @Autowired
+    private SequenciadorContas sequenciadorContas;
+    
+    @Autowired
+    private PipelineInsercoes pipelineInsercoes;
+    
+    @Autowired
+    private CategorizadorTransacoes categorizador;
+    
+    @Autowired
+    private ImportacaoService importacaoService;
+    
+    @Autowired
+    private ConciliacaoService conciliacaoService;
+    
+    /**
+     * Cria uma nova transação (409 se duplicada e o corpo não trouxer permitirDuplicada=true)
+     */
+    @PostMapping
+    public ResponseEntity<?> criarTransacao(@Valid @RequestBody Transacao transacao, 
+                                            @RequestParam Long usuarioId,
+                                            @RequestParam Long contaId,
+                                            @RequestParam(required = false) Long cartaoId,
+                                            @RequestParam(required = false) Long categoriaId) {
+        try {
+            // Sem categoria informada, vale a das regras de categorização do usuário
+            if (categoriaId == null) {
+                categoriaId = categorizador.categorizar(usuarioId, transacao.getDescricao());
+            }
+            // Pipeline ou coalescência: o lançamento entra em um lote e volta após o commit do lote
+            Transacao novaTransacao;
+            if (pipelineInsercoes.isHabilitado()) {
+                novaTransacao = pipelineInsercoes.inserir(transacao, usuarioId, contaId, cartaoId, categoriaId);
+            } else if (sequenciadorContas.isHabilitado()) {
+                novaTransacao = sequenciadorContas.lancar(transacao, usuarioId, contaId, cartaoId, categoriaId);
+            } else {
+                novaTransacao = transacaoService.criarTransacao(transacao, usuarioId, contaId, cartaoId, categoriaId);
+            }
+            return ResponseEntity.status(HttpStatus.CREATED).body(novaTransacao);
+        } catch (TransacaoDuplicadaException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Lista todas as transações de um usuário (fields= restringe os campos lidos e serializados)
+     */
+    @GetMapping
+    public ResponseEntity<?> listarTransacoes(@RequestParam Long usuarioId,
+                                              @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            try {
+                return ResponseEntity.ok(consultaProjetada.listar(Recurso.TRANSACOES, usuarioId, fields));
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        }
+        List<Transacao> transacoes = transacaoService.listarTransacoesPorUsuario(usuarioId);
+        return ResponseEntity.ok(transacoes);
+    }
+    
+    /**
+     * Lista transações com paginação
+     */
+    @GetMapping("/paginado")
+    public ResponseEntity<?> listarTransacoesPaginado(@RequestParam Long usuarioId,
+                                                      @RequestParam(required = false) String fields,
+                                                      Pageable pageable) {
+        if (fields != null) {
+            return filtrarProjetado(usuarioId, fields, null, null, null, null, null, null, null, pageable);
+        }
+        Page<Transacao> transacoes = transacaoService.listarTransacoesPorUsuarioComPaginacao(usuarioId, pageable);
+        return ResponseEntity.ok(transacoes);
+    }
+    
+    /**
+     * Lista transações com filtros opcionais e paginação
+     */
+    @GetMapping("/filtrar")
+    public ResponseEntity<?> filtrarTransacoes(
+            @RequestParam Long usuarioId,
+            @RequestParam(required = false) TipoTransacao tipo,
+            @RequestParam(required = false) Long contaId,
+            @RequestParam(required = false) Long cartaoId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @RequestParam(required = false) Boolean recorrente,
+            @RequestParam(required = false) String descricao,
+            @RequestParam(required = false) String fields,
+            Pageable pageable) {
+        if (fields != null) {
+            return filtrarProjetado(usuarioId, fields, tipo, contaId, cartaoId, dataInicio, dataFim, recorrente,
+                    descricao, pageable);
+        }
+        Page<Transacao> transacoes = transacaoService.filtrarTransacoes(usuarioId, tipo, contaId, cartaoId,
+                dataInicio, dataFim, recorrente, descricao, pageable);
+        return ResponseEntity.ok(transacoes);
+    }
+    
+    /**
+     * Busca uma transação por ID
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<Transacao> buscarTransacaoPorId(@PathVariable Long id, 
+                                                         @RequestParam Long usuarioId) {
+        try {
+            Transacao transacao = transacaoService.buscarTransacaoPorIdEUsuario(id, usuarioId);
+            return ResponseEntity.ok(transacao);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    /**
+     * Atualiza uma transação
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<Transacao> atualizarTransacao(@PathVariable Long id, 
+                                                       @Valid @RequestBody Transacao transacao, 
+                                                       @RequestParam Long usuarioId,
+                                                       @RequestParam Long contaId,
+                                                       @RequestParam(required = false) Long cartaoId,
+                                                       @RequestParam(required = false) Long categoriaId) {
+        try {
+            Transacao transacaoAtualizada = transacaoService.atualizarTransacao(id, transacao, usuarioId,
+                    contaId, cartaoId, categoriaId);
+            return ResponseEntity.ok(transacaoAtualizada);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Exclui uma transação
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> excluirTransacao(@PathVariable Long id, 
+                                                @RequestParam Long usuarioId) {
+        try {
+            transacaoService.excluirTransacao(id, usuarioId);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Busca transações de uma conta
+     */
+    @GetMapping("/conta/{contaId}")
+    public ResponseEntity<List<Transacao>> buscarTransacoesPorConta(@PathVariable Long contaId, 
+                                                                   @RequestParam Long usuarioId) {
+        try {
+            List<Transacao> transacoes = transacaoService.buscarTransacoesPorConta(contaId, usuarioId);
+            return ResponseEntity.ok(transacoes);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    /**
+     * Busca transações de um cartão
+     */
+    @GetMapping("/cartao/{cartaoId}")
+    public ResponseEntity<List<Transacao>> buscarTransacoesPorCartao(@PathVariable Long cartaoId, 
+                                                                    @RequestParam Long usuarioId) {
+        try {
+            List<Transacao> transacoes = transacaoService.buscarTransacoesPorCartao(cartaoId, usuarioId);
+            return ResponseEntity.ok(transacoes);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    /**
+     * Busca transações por tipo
+     */
+    @GetMapping("/tipo/{tipo}")
+    public ResponseEntity<List<Transacao>> buscarTransacoesPorTipo(@PathVariable TipoTransacao tipo, 
+                                                                  @RequestParam Long usuarioId) {
+        List<Transacao> transacoes = transacaoService.buscarTransacoesPorTipo(tipo, usuarioId);
+        return ResponseEntity.ok(transacoes);
+    }
+    
+    /**
+     * Busca transações por período
+     */
+    @GetMapping("/periodo")
+    public ResponseEntity<List<Transacao>> buscarTransacoesPorPeriodo(
+            @RequestParam Long usuarioId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
+        List<Transacao> transacoes = transacaoService.buscarTransacoesPorPeriodo(usuarioId, dataInicio, dataFim);
+        return ResponseEntity.ok(transacoes);
+    }
+    
+    /**
+     * Busca transações recorrentes
+     */
+    @GetMapping("/recorrentes")
+    public ResponseEntity<List<Transacao>> buscarTransacoesRecorrentes(@RequestParam Long usuarioId) {
+        List<Transacao> transacoes = transacaoService.buscarTransacoesRecorrentes(usuarioId);
+        return ResponseEntity.ok(transacoes);
+    }
+    
+    /**
+     * Busca transações por descrição
+     */
+    @GetMapping("/buscar")
+    public ResponseEntity<List<Transacao>> buscarTransacoesPorDescricao(@RequestParam String descricao, 
+                                                                       @RequestParam Long usuarioId) {
+        List<Transacao> transacoes = transacaoService.buscarTransacoesPorDescricao(descricao, usuarioId);
+        return ResponseEntity.ok(transacoes);
+    }
+    
+    /**
+     * Resumo financeiro (receitas, despesas e saldo) do período
+     */
+    @GetMapping("/resumo-financeiro")
+    public ResponseEntity<Map<String, Object>> obterResumoFinanceiro(
+            @RequestParam Long usuarioId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
+        Map<String, Object> resumo = transacaoService.obterResumoFinanceiro(usuarioId, dataInicio, dataFim);
+        return ResponseEntity.ok(resumo);
+    }
+    
+    /**
+     * Altera em massa (conta, cartão, tipo, recorrente, categoria) as transações selecionadas por ids e/ou filtros
+     */
+    @PatchMapping("/em-massa")
+    public ResponseEntity<Map<String, Object>> atualizarEmMassa(@RequestBody OperacaoEmMassaRequest request,
+                                                                @RequestParam Long usuarioId) {
+        try {
+            AlteracaoEmMassa alteracoes = request.getAlteracoes() != null
+                    ? request.getAlteracoes() : new AlteracaoEmMassa(null, null, null, null, null, null);
+            return ResponseEntity.ok(transacaoService.atualizarEmMassa(usuarioId, request.getFiltro(), alteracoes));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Exclui em massa as transações selecionadas por ids e/ou filtros
+     */
+    @PostMapping("/em-massa/excluir")
+    public ResponseEntity<Map<String, Object>> excluirEmMassa(@RequestBody OperacaoEmMassaRequest request,
+                                                              @RequestParam Long usuarioId) {
+        try {
+            return ResponseEntity.ok(transacaoService.excluirEmMassa(usuarioId, request.getFiltro()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Importa transações de um CSV (data;descricao;valor;tipo[;recorrente]) para a conta, categorizando pelas regras
+     */
+    @PostMapping(value = "/importar", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<Map<String, Object>> importarTransacoes(@RequestBody String csv,
+                                                                  @RequestParam Long usuarioId,
+                                                                  @RequestParam Long contaId,
+                                                                  @RequestParam(required = false) Long cartaoId) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(importacaoService.importarCsv(usuarioId, contaId, cartaoId, csv));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Concilia um extrato em CSV (data;descricao;valor;tipo) com as transações da conta: pares por valor, data dentro
+     * da tolerância e descrição parecida; devolve conciliadas, ambíguas e as sem par de cada lado
+     */
+    @PostMapping(value = "/conciliar", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<Map<String, Object>> conciliarExtrato(@RequestBody String csv,
+                                                                @RequestParam Long usuarioId,
+                                                                @RequestParam Long contaId,
+                                                                @RequestParam(required = false) Long cartaoId,
+                                                                @RequestParam(required = false) Integer toleranciaDias) {
+        try {
+            return ResponseEntity.ok(conciliacaoService.conciliarCsv(usuarioId, contaId, cartaoId, toleranciaDias, csv));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Exporta as transações do período em CSV (inclui o histórico arquivado)
+     */
+    @GetMapping("/exportar")
+    public ResponseEntity<String> exportarTransacoes(
+            @RequestParam Long usuarioId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
+        String csv = transacaoService.exportarTransacoesCsv(usuarioId, dataInicio, dataFim);
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transacoes.csv\"")
+                .body(csv);
+    }
+    
+    /**
+     * Agrupa receitas e despesas por DIA, MES, TIPO, CONTA ou CARTAO no período
+     */
+    @GetMapping("/agrupar")
+    public ResponseEntity<List<Grupo>> agruparTransacoes(
+            @RequestParam Long usuarioId,
+            @RequestParam Dimensao dimensao,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
+        List<Grupo> grupos = transacaoService.agruparTransacoes(usuarioId, dimensao, dataInicio, dataFim);
+        return ResponseEntity.ok(grupos);
+    }
+    
+    /**
+     * Conta o número de transações do usuário
+     */
+    @GetMapping("/count")
+    public ResponseEntity<Long> contarTransacoes(@RequestParam Long usuarioId) {
+        long totalTransacoes = transacaoService.contarTransacoesPorUsuario(usuarioId);
+        return ResponseEntity.ok(totalTransacoes);
+    }
+    
+    private ResponseEntity<?> filtrarProjetado(Long usuarioId, String fields, TipoTransacao tipo, Long contaId,
+                                               Long cartaoId, LocalDate dataInicio, LocalDate dataFim,
+                                               Boolean recorrente, String descricao, Pageable pageable) {
+        try {
+            return ResponseEntity.ok(consultaProjetada.filtrarTransacoes(usuarioId, fields, tipo, contaId, cartaoId,
+                    dataInicio, dataFim, recorrente, descricao, pageable));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    // Classes auxiliares para requests
+    public static class OperacaoEmMassaRequest {
+        private FiltroEmMassa filtro;
+        private AlteracaoEmMassa alteracoes;
+        
+        // Getters e Setters
+        public FiltroEmMassa getFiltro() { return filtro; }
+        public void setFiltro(FiltroEmMassa filtro) { this.filtro = filtro; }
+        public AlteracaoEmMassa getAlteracoes() { return alteracoes; }
+        public void setAlteracoes(AlteracaoEmMassa alteracoes) { this.alteracoes = alteracoes; }
+    }
+}
@@ -0,0 +1,27 @@
+package com.financeiro.controller;
+
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+
+/**
+ * Corpo JSON que não pode ser lido (sintaxe ou valor recusado pelo modelo, como dinheiro com mais de 2 casas).
+ *
+ * Responde 400 no formato dos controllers; sem isso o erro seria despachado para /error, que a cadeia
+ * stateless trata como anônimo e devolve 401.
+ */
+@RestControllerAdvice
+public class TratadorCorpoInvalido {
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<Map<String, String>> corpoInvalido(HttpMessageNotReadableException e) {
+        Throwable causa = NestedExceptionUtils.getMostSpecificCause(e);
+        String mensagem = causa instanceof IllegalArgumentException && causa.getMessage() != null
+                ? causa.getMessage() : "Corpo da requisição inválido";
+        return ResponseEntity.badRequest().body(Map.of("error", mensagem));
+    }
+}
@@ -0,0 +1,167 @@
+package com.financeiro.diretorio;
+
+import com.financeiro.model.enums.PerfilUsuario;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Diretório de usuários para administradores: páginas por cursor (keyset) com busca por prefixo de nome ou email.
+ *
+ * A ordem é a do nome (ou do email, quando ele é buscado) em minúsculas, desempatada pelo id, e o cursor guarda a
+ * última chave da página: cada página é uma descida no índice seguida de no máximo limite + 1 linhas, em qualquer
+ * profundidade. No PostgreSQL os índices são funcionais, em LOWER(...) COLLATE "C", para que o prefixo (LIKE 'ab%')
+ * e a ordem usem o mesmo índice; o H2 não indexa expressões, então lá a chave é uma coluna gerada.
+ */
+@Component
+@Lazy(false)
+@DependsOn({"entityManagerFactory", "gerenciadorRestricoesUnicas"})
+public class DiretorioUsuarios {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiretorioUsuarios.class);
+
+    public static final int LIMITE_PADRAO = 50;
+    public static final int LIMITE_MAXIMO = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String chaveNome;
+    private String chaveEmail;
+
+    @PostConstruct
+    public void criarIndices() {
+        String produto = jdbcTemplate.execute((ConnectionCallback<String>) conexao ->
+                conexao.getMetaData().getDatabaseProductName());
+        List<String> ddls = new ArrayList<>();
+        if ("PostgreSQL".equalsIgnoreCase(produto)) {
+            chaveNome = "(LOWER(nome) COLLATE \"C\")";
+            chaveEmail = "(LOWER(email) COLLATE \"C\")";
+            ddls.add("CREATE INDEX IF NOT EXISTS idx_usuarios_nome_prefixo ON usuarios (" + chaveNome + ", id)");
+            ddls.add("CREATE INDEX IF NOT EXISTS idx_usuarios_email_prefixo ON usuarios (" + chaveEmail + ")");
+        } else {
+            chaveNome = "nome_normalizado";
+            chaveEmail = "email_normalizado";
+            ddls.add("ALTER TABLE usuarios ADD COLUMN IF NOT EXISTS nome_normalizado VARCHAR(100) " +
+                    "GENERATED ALWAYS AS (LOWER(nome))");
+            ddls.add("CREATE INDEX IF NOT EXISTS idx_usuarios_nome_prefixo ON usuarios (nome_normalizado, id)");
+            // email_normalizado já tem o índice único uk_usuarios_email (RestricaoUnica)
+            ddls.add("ALTER TABLE usuarios ADD COLUMN IF NOT EXISTS email_normalizado VARCHAR(150) " +
+                    "GENERATED ALWAYS AS (LOWER(email))");
+        }
+        for (String ddl : ddls) {
+            try {
+                jdbcTemplate.execute(ddl);
+            } catch (RuntimeException e) {
+                logger.error("Falha ao criar índice do diretório de usuários: {}", ddl, e);
+            }
+        }
+    }
+
+    /**
+     * Página de usuários após o cursor; com prefixo de email a ordem é pelo email, senão pelo nome
+     *
+     * @param prefixoNome início do nome, sem diferenciar maiúsculas (opcional)
+     * @param prefixoEmail início do email, sem diferenciar maiúsculas (opcional)
+     * @param cursor valor de proximo da página anterior (nulo na primeira)
+     */
+    public PaginaUsuarios listar(String prefixoNome, String prefixoEmail, PerfilUsuario perfil, Boolean ativo,
+                                 String cursor, Integer limite) {
+        int tamanho = limite != null ? limite : LIMITE_PADRAO;
+        if (tamanho < 1 || tamanho > LIMITE_MAXIMO) {
+            throw new RuntimeException("Limite deve estar entre 1 e " + LIMITE_MAXIMO);
+        }
+        boolean porEmail = prefixoEmail != null && !prefixoEmail.isBlank();
+        String chave = porEmail ? chaveEmail : chaveNome;
+
+        StringBuilder sql = new StringBuilder("SELECT id, nome, email, perfil, ativo, data_criacao, ")
+                .append(chave).append(" AS chave FROM usuarios WHERE 1 = 1");
+        List<Object> parametros = new ArrayList<>();
+        if (prefixoNome != null && !prefixoNome.isBlank()) {
+            sql.append(" AND ").append(chaveNome).append(" LIKE ? ESCAPE '\\'");
+            parametros.add(padraoPrefixo(prefixoNome));
+        }
+        if (porEmail) {
+            sql.append(" AND ").append(chaveEmail).append(" LIKE ? ESCAPE '\\'");
+            parametros.add(padraoPrefixo(prefixoEmail));
+        }
+        if (perfil != null) {
+            sql.append(" AND perfil = ?");
+            parametros.add(perfil.name());
+        }
+        if (ativo != null) {
+            sql.append(" AND ativo = ?");
+            parametros.add(ativo);
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            Posicao posicao = decodificar(cursor);
+            sql.append(" AND (").append(chave).append(", id) > (?, ?)");
+            parametros.add(posicao.chave());
+            parametros.add(posicao.id());
+        }
+        sql.append(" ORDER BY ").append(chave).append(", id LIMIT ?");
+        parametros.add(tamanho + 1);
+
+        List<String> chaves = new ArrayList<>(tamanho + 1);
+        List<ResumoUsuario> usuarios = jdbcTemplate.query(sql.toString(), (rs, i) -> {
+            chaves.add(rs.getString("chave"));
+            Timestamp criacao = rs.getTimestamp("data_criacao");
+            return new ResumoUsuario(rs.getLong("id"), rs.getString("nome"), rs.getString("email"),
+                    PerfilUsuario.valueOf(rs.getString("perfil")), rs.getBoolean("ativo"),
+                    criacao != null ? criacao.toLocalDateTime() : null);
+        }, parametros.toArray());
+
+        if (usuarios.size() <= tamanho) {
+            return new PaginaUsuarios(usuarios, null);
+        }
+        ResumoUsuario ultimo = usuarios.get(tamanho - 1);
+        return new PaginaUsuarios(usuarios.subList(0, tamanho), codificar(chaves.get(tamanho - 1), ultimo.id()));
+    }
+
+    /**
+     * Prefixo em minúsculas com os curingas do LIKE escapados
+     */
+    private static String padraoPrefixo(String prefixo) {
+        String minusculo = prefixo.trim().toLowerCase(Locale.ROOT);
+        StringBuilder padrao = new StringBuilder(minusculo.length() + 1);
+        for (int i = 0; i < minusculo.length(); i++) {
+            char c = minusculo.charAt(i);
+            if (c == '\\' || c == '%' || c == '_') {
+                padrao.append('\\');
+            }
+            padrao.append(c);
+        }
+        return padrao.append('%').toString();
+    }
+
+    private static String codificar(String chave, long id) {
+        String posicao = id + ":" + chave;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(posicao.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Posicao decodificar(String cursor) {
+        try {
+            String posicao = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = posicao.indexOf(':');
+            return new Posicao(Long.parseLong(posicao.substring(0, separador)), posicao.substring(separador + 1));
+        } catch (IllegalArgumentException | StringIndexOutOfBoundsException e) {
+            throw new RuntimeException("Cursor inválido");
+        }
+    }
+
+    private record Posicao(long id, String chave) {
+    }
+}
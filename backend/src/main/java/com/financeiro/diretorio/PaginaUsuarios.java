@@ -0,0 +1,11 @@
+package com.financeiro.diretorio;
+
+import java.util.List;
+
+/**
+ * Página do diretório de usuários
+ *
+ * @param proximo cursor da página seguinte (nulo na última página)
+ */
+public record PaginaUsuarios(List<ResumoUsuario> usuarios, String proximo) {
+}
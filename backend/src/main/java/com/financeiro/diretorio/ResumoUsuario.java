@@ -0,0 +1,12 @@
+package com.financeiro.diretorio;
+
+import com.financeiro.model.enums.PerfilUsuario;
+
+import java.time.LocalDateTime;
+
+/**
+ * Linha do diretório de usuários: só as colunas de usuarios, sem contas, cartões ou transações
+ */
+public record ResumoUsuario(Long id, String nome, String email, PerfilUsuario perfil, boolean ativo,
+                            LocalDateTime dataCriacao) {
+}
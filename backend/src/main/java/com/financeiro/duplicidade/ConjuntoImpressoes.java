@@ -0,0 +1,111 @@
+package com.financeiro.duplicidade;
+
+/**
+ * Conjunto de impressões digitais em um único long[] (endereçamento aberto, sondagem linear), 8 a 16 bytes por
+ * elemento e nenhum objeto por elemento.
+ *
+ * 0 marca posição vazia (impressões nunca valem 0). A remoção desloca para trás os elementos seguintes do
+ * agrupamento, sem lápides. Não é seguro entre threads.
+ */
+final class ConjuntoImpressoes {
+
+    private static final int CAPACIDADE_MINIMA = 16;
+
+    private long[] tabela;
+    private int bits;
+    private int tamanho;
+
+    ConjuntoImpressoes(int esperados) {
+        bits = 32 - Integer.numberOfLeadingZeros(Math.max(CAPACIDADE_MINIMA, esperados * 2) - 1);
+        tabela = new long[1 << bits];
+    }
+
+    boolean contem(long impressao) {
+        int mascara = tabela.length - 1;
+        for (int i = posicao(impressao); ; i = (i + 1) & mascara) {
+            long atual = tabela[i];
+            if (atual == impressao) {
+                return true;
+            }
+            if (atual == 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return false se já estava no conjunto
+     */
+    boolean adicionar(long impressao) {
+        if ((tamanho + 1) * 4L > tabela.length * 3L) {
+            crescer();
+        }
+        int mascara = tabela.length - 1;
+        for (int i = posicao(impressao); ; i = (i + 1) & mascara) {
+            long atual = tabela[i];
+            if (atual == impressao) {
+                return false;
+            }
+            if (atual == 0) {
+                tabela[i] = impressao;
+                tamanho++;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return false se não estava no conjunto
+     */
+    boolean remover(long impressao) {
+        int mascara = tabela.length - 1;
+        int vaga = posicao(impressao);
+        while (tabela[vaga] != impressao) {
+            if (tabela[vaga] == 0) {
+                return false;
+            }
+            vaga = (vaga + 1) & mascara;
+        }
+        tabela[vaga] = 0;
+        tamanho--;
+        // Traz para a vaga os elementos seguintes cuja posição ideal não está entre a vaga e onde estão
+        for (int i = (vaga + 1) & mascara; tabela[i] != 0; i = (i + 1) & mascara) {
+            int ideal = posicao(tabela[i]);
+            boolean ficaOndeEsta = vaga <= i ? ideal > vaga && ideal <= i : ideal > vaga || ideal <= i;
+            if (!ficaOndeEsta) {
+                tabela[vaga] = tabela[i];
+                tabela[i] = 0;
+                vaga = i;
+            }
+        }
+        return true;
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    long bytesEstimados() {
+        return 32 + tabela.length * 8L;
+    }
+
+    private int posicao(long impressao) {
+        return (int) ((impressao * 0x9E3779B97F4A7C15L) >>> (64 - bits));
+    }
+
+    private void crescer() {
+        long[] antiga = tabela;
+        bits++;
+        tabela = new long[1 << bits];
+        int mascara = tabela.length - 1;
+        for (long impressao : antiga) {
+            if (impressao != 0) {
+                int i = posicao(impressao);
+                while (tabela[i] != 0) {
+                    i = (i + 1) & mascara;
+                }
+                tabela[i] = impressao;
+            }
+        }
+    }
+}
@@ -0,0 +1,431 @@
+package com.financeiro.duplicidade;
+
+import com.financeiro.model.Dinheiro;
+import com.financeiro.model.enums.TipoTransacao;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Índice de impressões digitais das transações de cada usuário, para recusar duplicatas sem consultar a tabela
+ * a cada linha.
+ *
+ * A impressão é gravada na coluna impressao_digital, única por (usuario_id, impressao_digital, data); a data entra
+ * no índice porque o PostgreSQL exige a chave de partição nas unicidades de tabelas particionadas (ela já faz parte
+ * da impressão). Em memória, cada usuário tem um {@link ConjuntoImpressoes} carregado só com essa coluna, em um
+ * LRU com orçamento de memória. Linhas sem impressão (anteriores à detecção ou alteradas em massa) ou de outro modo
+ * recebem a impressão só em memória nessa carga, que não escreve: a gravação delas no banco é da migração periódica,
+ * um usuário por transação, fora das requisições. Cada verificação é uma sondagem no conjunto (2 * tolerancia-dias + 1 no modo
+ * APROXIMADO). A impressão entra no conjunto ao ser reservada, antes do commit, o que barra duplicatas concorrentes;
+ * se a transação desfizer, o conjunto do usuário é descartado. A unicidade no banco cobre o que escapar (outras
+ * instâncias, conjunto descartado durante a gravação). Transações arquivadas ficam fora do índice.
+ */
+@Component
+@Lazy(false)
+@DependsOn("entityManagerFactory")
+@EnableConfigurationProperties(DuplicidadeProperties.class)
+public class DetectorDuplicatas {
+
+    private static final Logger logger = LoggerFactory.getLogger(DetectorDuplicatas.class);
+
+    /** Posição de {@link #reservarLote} para linha duplicada */
+    public static final long DUPLICADA = 0;
+
+    static final String INDICE = "uk_transacoes_impressao";
+
+    private static final int FAIXAS_VERSAO = 256;
+
+    /**
+     * Transação a verificar em lote (importação)
+     */
+    public record Candidata(Long contaId, Long cartaoId, TipoTransacao tipo, LocalDate data, long centavos,
+                            String descricao) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DuplicidadeProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final LinkedHashMap<Long, ConjuntoImpressoes> conjuntos = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLongArray versoes = new AtomicLongArray(FAIXAS_VERSAO);
+
+    private Counter acertos;
+    private Counter faltas;
+    private Counter duplicadas;
+    private Counter reindexadas;
+    private Timer cargas;
+
+    @PostConstruct
+    void iniciar() {
+        try {
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + INDICE +
+                    " ON transacoes (usuario_id, impressao_digital, data)");
+        } catch (RuntimeException e) {
+            logger.error("Falha ao criar o índice {}", INDICE, e);
+        }
+        acertos = Counter.builder("financeiro.duplicidade.cache.requests").tag("result", "hit").register(meterRegistry);
+        faltas = Counter.builder("financeiro.duplicidade.cache.requests").tag("result", "miss").register(meterRegistry);
+        duplicadas = Counter.builder("financeiro.duplicidade.duplicadas").register(meterRegistry);
+        reindexadas = Counter.builder("financeiro.duplicidade.reindexadas").register(meterRegistry);
+        cargas = Timer.builder("financeiro.duplicidade.carga").register(meterRegistry);
+        Gauge.builder("financeiro.duplicidade.cache.bytes", this, DetectorDuplicatas::bytesEmUso)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isHabilitada() {
+        return properties.isHabilitada();
+    }
+
+    /**
+     * Reserva a impressão de uma nova transação (null com a detecção desligada)
+     *
+     * @param permitirDuplicada grava como mais uma ocorrência em vez de recusar
+     * @throws TransacaoDuplicadaException se já existe uma transação igual
+     */
+    public Long reservar(Long usuarioId, Long contaId, Long cartaoId, TipoTransacao tipo, LocalDate data,
+                         long centavos, String descricao, boolean permitirDuplicada) {
+        if (!properties.isHabilitada()) {
+            return null;
+        }
+        ModoDuplicidade modo = properties.getModo();
+        long hashDescricao = ImpressaoTransacao.descricao(modo, descricao);
+        long dia = data.toEpochDay();
+        long chave = ImpressaoTransacao.chave(hashDescricao, contaId, cartaoId, tipo, dia, centavos);
+        ConjuntoImpressoes conjunto = conjunto(usuarioId, modo);
+        long impressao;
+        synchronized (conjunto) {
+            if (!permitirDuplicada && existe(conjunto, modo, hashDescricao, contaId, cartaoId, tipo, dia, centavos, 0)) {
+                duplicadas.increment();
+                throw new TransacaoDuplicadaException();
+            }
+            int ocorrencia = 0;
+            while (!conjunto.adicionar(impressao = ImpressaoTransacao.impressao(modo, chave, ocorrencia))) {
+                ocorrencia++;
+            }
+        }
+        protegerContraRollback(usuarioId);
+        return impressao;
+    }
+
+    /**
+     * Reserva as impressões de um arquivo: cada posição recebe a impressão ou {@link #DUPLICADA}.
+     *
+     * Linhas iguais no mesmo arquivo são ocorrências diferentes (a n-ésima só é duplicada se já existir uma n-ésima),
+     * então reimportar um extrato sobreposto pula as linhas já gravadas sem perder as repetidas legítimas.
+     */
+    public long[] reservarLote(Long usuarioId, List<Candidata> candidatas) {
+        ModoDuplicidade modo = properties.getModo();
+        long[] impressoes = new long[candidatas.size()];
+        Map<Long, Integer> ocorrencias = new HashMap<>();
+        ConjuntoImpressoes conjunto = conjunto(usuarioId, modo);
+        int repetidas = 0;
+        synchronized (conjunto) {
+            // As linhas do arquivo só entram no conjunto no fim: no modo APROXIMADO não se anulam entre si
+            for (int i = 0; i < impressoes.length; i++) {
+                Candidata candidata = candidatas.get(i);
+                long hashDescricao = ImpressaoTransacao.descricao(modo, candidata.descricao());
+                long dia = candidata.data().toEpochDay();
+                long chave = ImpressaoTransacao.chave(hashDescricao, candidata.contaId(), candidata.cartaoId(),
+                        candidata.tipo(), dia, candidata.centavos());
+                int ocorrencia = ocorrencias.merge(chave, 1, Integer::sum) - 1;
+                if (existe(conjunto, modo, hashDescricao, candidata.contaId(), candidata.cartaoId(), candidata.tipo(),
+                        dia, candidata.centavos(), ocorrencia)) {
+                    impressoes[i] = DUPLICADA;
+                    repetidas++;
+                } else {
+                    impressoes[i] = ImpressaoTransacao.impressao(modo, chave, ocorrencia);
+                }
+            }
+            for (long impressao : impressoes) {
+                if (impressao != DUPLICADA) {
+                    conjunto.adicionar(impressao);
+                }
+            }
+        }
+        duplicadas.increment(repetidas);
+        protegerContraRollback(usuarioId);
+        return impressoes;
+    }
+
+    /**
+     * Troca a impressão de uma transação alterada (a nova pode repetir outra transação: a alteração é deliberada)
+     */
+    public Long reindexar(Long usuarioId, Long anterior, Long contaId, Long cartaoId, TipoTransacao tipo,
+                          LocalDate data, long centavos, String descricao) {
+        liberar(usuarioId, anterior);
+        return reservar(usuarioId, contaId, cartaoId, tipo, data, centavos, descricao, true);
+    }
+
+    /**
+     * Retira a impressão de uma transação excluída
+     */
+    public void liberar(Long usuarioId, Long impressao) {
+        if (impressao == null || !properties.isHabilitada()) {
+            return;
+        }
+        ConjuntoImpressoes conjunto;
+        synchronized (this) {
+            conjunto = conjuntos.get(usuarioId);
+        }
+        if (conjunto != null) {
+            synchronized (conjunto) {
+                conjunto.remover(impressao);
+            }
+            protegerContraRollback(usuarioId);
+        }
+    }
+
+    /**
+     * Descarta o índice do usuário após o commit (alterações e exclusões em massa, arquivamento)
+     */
+    public void invalidar(Long usuarioId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    descartar(usuarioId);
+                }
+            });
+        } else {
+            descartar(usuarioId);
+        }
+    }
+
+    /**
+     * Grava a impressão das linhas que não a têm (ou a têm de outro modo), um usuário por transação.
+     *
+     * Até lá o conjunto em memória já cobre essas linhas; a gravação estende a garantia do índice único a elas.
+     * Se uma inclusão concorrente tomar a mesma ocorrência, a transação do usuário desfaz e ele volta na próxima vez.
+     */
+    @Scheduled(initialDelayString = "${financeiro.duplicidade.migracao-inicial-ms:60000}",
+            fixedDelayString = "${financeiro.duplicidade.migracao-ms:3600000}")
+    public void migrar() {
+        if (!properties.isHabilitada()) {
+            return;
+        }
+        ModoDuplicidade modo = properties.getModo();
+        List<Long> usuarios = jdbcTemplate.queryForList("SELECT DISTINCT usuario_id FROM transacoes " +
+                "WHERE impressao_digital IS NULL OR impressao_digital " + deOutroModo(modo), Long.class);
+        long total = 0;
+        for (Long usuarioId : usuarios) {
+            try {
+                Integer gravadas = transactionTemplate.execute(status -> {
+                    List<Object[]> pendentes = new ArrayList<>();
+                    carregar(usuarioId, modo, pendentes);
+                    if (!pendentes.isEmpty()) {
+                        jdbcTemplate.batchUpdate("UPDATE transacoes SET impressao_digital = ? WHERE id = ? AND data = ?",
+                                pendentes);
+                        // O conjunto em cache pode ter numerado as ocorrências de outro jeito: recarrega após o commit
+                        invalidar(usuarioId);
+                    }
+                    return pendentes.size();
+                });
+                total += gravadas != null ? gravadas : 0;
+            } catch (DataIntegrityViolationException e) {
+                logger.info("Impressões do usuário {} mudaram durante a migração; nova tentativa na próxima", usuarioId);
+            } catch (RuntimeException e) {
+                logger.error("Falha ao gravar as impressões do usuário {}", usuarioId, e);
+            }
+        }
+        if (total > 0) {
+            reindexadas.increment(total);
+            logger.info("Impressões gravadas em {} transações de {} usuários", total, usuarios.size());
+        }
+    }
+
+    /**
+     * Indica se a violação de integridade veio da unicidade das impressões
+     * (no PostgreSQL particionado o nome do índice é o da partição; as colunas aparecem no detalhe)
+     */
+    public boolean violadaPor(DataIntegrityViolationException e) {
+        Throwable raiz = e.getMostSpecificCause();
+        String texto = raiz.getMessage() != null ? raiz.getMessage().toLowerCase(Locale.ROOT) : "";
+        return texto.contains(INDICE) || texto.contains("impressao_digital");
+    }
+
+    /**
+     * Converte a violação da unicidade das impressões em {@link TransacaoDuplicadaException}; outras seguem como estão
+     */
+    public RuntimeException traduzir(DataIntegrityViolationException e) {
+        return violadaPor(e) ? new TransacaoDuplicadaException() : e;
+    }
+
+    public synchronized long bytesEmUso() {
+        long total = 0;
+        for (ConjuntoImpressoes conjunto : conjuntos.values()) {
+            total += conjunto.bytesEstimados();
+        }
+        return total;
+    }
+
+    /**
+     * A ocorrência já existe no dia (ou, no modo APROXIMADO, em um dia dentro da tolerância)?
+     */
+    private boolean existe(ConjuntoImpressoes conjunto, ModoDuplicidade modo, long hashDescricao, Long contaId,
+                           Long cartaoId, TipoTransacao tipo, long dia, long centavos, int ocorrencia) {
+        int tolerancia = modo == ModoDuplicidade.APROXIMADO ? properties.getToleranciaDias() : 0;
+        for (long vizinho = dia - tolerancia; vizinho <= dia + tolerancia; vizinho++) {
+            long chave = ImpressaoTransacao.chave(hashDescricao, contaId, cartaoId, tipo, vizinho, centavos);
+            if (conjunto.contem(ImpressaoTransacao.impressao(modo, chave, ocorrencia))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ConjuntoImpressoes conjunto(Long usuarioId, ModoDuplicidade modo) {
+        synchronized (this) {
+            ConjuntoImpressoes conjunto = conjuntos.get(usuarioId);
+            if (conjunto != null) {
+                acertos.increment();
+                return conjunto;
+            }
+        }
+        faltas.increment();
+
+        long versao = versoes.get(faixa(usuarioId));
+        ConjuntoImpressoes carregado = cargas.record(() -> carregar(usuarioId, modo, new ArrayList<>()));
+        synchronized (this) {
+            ConjuntoImpressoes atual = conjuntos.get(usuarioId);
+            if (atual != null) {
+                return atual;
+            }
+            if (versoes.get(faixa(usuarioId)) == versao) {
+                publicar(usuarioId, carregado);
+            }
+        }
+        return carregado;
+    }
+
+    /**
+     * Lê as impressões do modo atual e indexa em memória as linhas sem impressão ou de outro modo (na ordem de
+     * inclusão), devolvendo em pendentes (impressão, id, data) as que ainda precisam ser gravadas
+     */
+    private ConjuntoImpressoes carregar(Long usuarioId, ModoDuplicidade modo, List<Object[]> pendentes) {
+        String doModo = modo == ModoDuplicidade.APROXIMADO ? "< 0" : "> 0";
+        ConjuntoImpressoes conjunto = new ConjuntoImpressoes(1024);
+        jdbcTemplate.query("SELECT impressao_digital FROM transacoes WHERE usuario_id = ? AND impressao_digital " + doModo,
+                rs -> {
+                    conjunto.adicionar(rs.getLong(1));
+                },
+                usuarioId);
+
+        jdbcTemplate.query("SELECT id, data, conta_id, cartao_id, tipo, valor, descricao FROM transacoes " +
+                        "WHERE usuario_id = ? AND (impressao_digital IS NULL OR impressao_digital " + deOutroModo(modo) +
+                        ") ORDER BY id",
+                rs -> {
+                    LocalDate data = rs.getObject(2, LocalDate.class);
+                    Object cartaoId = rs.getObject(4);
+                    long chave = ImpressaoTransacao.chave(ImpressaoTransacao.descricao(modo, rs.getString(7)),
+                            rs.getLong(3), cartaoId != null ? ((Number) cartaoId).longValue() : null,
+                            TipoTransacao.valueOf(rs.getString(5)), data.toEpochDay(),
+                            Dinheiro.centavosDe(rs.getBigDecimal(6)));
+                    int ocorrencia = 0;
+                    long impressao;
+                    while (!conjunto.adicionar(impressao = ImpressaoTransacao.impressao(modo, chave, ocorrencia))) {
+                        ocorrencia++;
+                    }
+                    pendentes.add(new Object[]{impressao, rs.getLong(1), Date.valueOf(data)});
+                },
+                usuarioId);
+        return conjunto;
+    }
+
+    private static String deOutroModo(ModoDuplicidade modo) {
+        return modo == ModoDuplicidade.APROXIMADO ? ">= 0" : "<= 0";
+    }
+
+    private synchronized void publicar(Long usuarioId, ConjuntoImpressoes conjunto) {
+        long orcamento = properties.getOrcamentoMemoriaBytes();
+        if (conjunto.bytesEstimados() > orcamento) {
+            return;
+        }
+        conjuntos.put(usuarioId, conjunto);
+
+        long total = bytesEmUso();
+        Iterator<Map.Entry<Long, ConjuntoImpressoes>> iterador = conjuntos.entrySet().iterator();
+        while (total > orcamento && iterador.hasNext()) {
+            Map.Entry<Long, ConjuntoImpressoes> maisAntigo = iterador.next();
+            if (maisAntigo.getKey().equals(usuarioId)) {
+                continue;
+            }
+            total -= maisAntigo.getValue().bytesEstimados();
+            iterador.remove();
+        }
+    }
+
+    private void descartar(Long usuarioId) {
+        versoes.incrementAndGet(faixa(usuarioId));
+        synchronized (this) {
+            conjuntos.remove(usuarioId);
+        }
+    }
+
+    /**
+     * O conjunto do usuário já reflete mudanças desta transação; se ela desfizer, o conjunto é descartado
+     * (uma sincronização por transação, com os usuários afetados)
+     */
+    @SuppressWarnings("unchecked")
+    private void protegerContraRollback(Long usuarioId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Set<Long> usuarios = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (usuarios == null) {
+            Set<Long> afetados = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, afetados);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(DetectorDuplicatas.this);
+                    if (status != STATUS_COMMITTED) {
+                        afetados.forEach(DetectorDuplicatas.this::descartar);
+                    }
+                }
+            });
+            usuarios = afetados;
+        }
+        usuarios.add(usuarioId);
+    }
+
+    private static int faixa(long usuarioId) {
+        return (int) (usuarioId & (FAIXAS_VERSAO - 1));
+    }
+}
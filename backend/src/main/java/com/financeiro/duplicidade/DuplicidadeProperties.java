@@ -0,0 +1,81 @@
+package com.financeiro.duplicidade;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Detecção de transações duplicadas na criação e na importação.
+ *
+ * Exemplo:
+ * <pre>
+ * financeiro.duplicidade.habilitada=true
+ * financeiro.duplicidade.modo=APROXIMADO
+ * financeiro.duplicidade.tolerancia-dias=2
+ * financeiro.duplicidade.orcamento-memoria-mb=64
+ * financeiro.duplicidade.migracao-ms=3600000
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "financeiro.duplicidade")
+public class DuplicidadeProperties {
+
+    /**
+     * Liga a detecção (desligada, as transações são gravadas sem impressão digital). Fica desligada por padrão:
+     * ligada, uma segunda compra igual no mesmo dia só é aceita com permitirDuplicada
+     */
+    private boolean habilitada = false;
+
+    /** ESTRITO ou APROXIMADO; trocar o modo reindexa as transações em memória no próximo uso e no banco na migração */
+    private ModoDuplicidade modo = ModoDuplicidade.ESTRITO;
+
+    /** Distância máxima em dias entre duplicatas no modo APROXIMADO */
+    private int toleranciaDias = 1;
+
+    /** Memória máxima somada dos índices em cache; acima disso os dos usuários menos ativos são descartados */
+    private int orcamentoMemoriaMb = 64;
+
+    /** Intervalo da migração que grava a impressão das linhas que ainda não a têm (ou a têm de outro modo) */
+    private long migracaoMs = 3_600_000;
+
+    public boolean isHabilitada() {
+        return habilitada;
+    }
+
+    public void setHabilitada(boolean habilitada) {
+        this.habilitada = habilitada;
+    }
+
+    public ModoDuplicidade getModo() {
+        return modo;
+    }
+
+    public void setModo(ModoDuplicidade modo) {
+        this.modo = modo;
+    }
+
+    public int getToleranciaDias() {
+        return toleranciaDias;
+    }
+
+    public void setToleranciaDias(int toleranciaDias) {
+        this.toleranciaDias = toleranciaDias;
+    }
+
+    public int getOrcamentoMemoriaMb() {
+        return orcamentoMemoriaMb;
+    }
+
+    public void setOrcamentoMemoriaMb(int orcamentoMemoriaMb) {
+        this.orcamentoMemoriaMb = orcamentoMemoriaMb;
+    }
+
+    public long getMigracaoMs() {
+        return migracaoMs;
+    }
+
+    public void setMigracaoMs(long migracaoMs) {
+        this.migracaoMs = migracaoMs;
+    }
+
+    public long getOrcamentoMemoriaBytes() {
+        return orcamentoMemoriaMb * 1024L * 1024L;
+    }
+}
@@ -0,0 +1,86 @@
+package com.financeiro.duplicidade;
+
+import com.financeiro.categorizacao.AutomatoCategorias;
+import com.financeiro.model.enums.TipoTransacao;
+
+/**
+ * Impressão digital de 64 bits de uma transação: (conta ou cartão, tipo, dia, valor, descrição normalizada pelo
+ * modo) mais a ocorrência, que distingue transações legitimamente iguais (dois cafés no mesmo dia).
+ *
+ * O bit de sinal guarda o modo (ESTRITO positivo, APROXIMADO negativo), então impressões de modos diferentes
+ * nunca colidem e as de outro modo são reconhecidas para reindexação. Nunca vale 0.
+ */
+public final class ImpressaoTransacao {
+
+    private static final long PRIMO_FNV = 0x100000001B3L;
+    private static final long BASE_FNV = 0xCBF29CE484222325L;
+    private static final long PHI = 0x9E3779B97F4A7C15L;
+
+    private ImpressaoTransacao() {
+    }
+
+    /**
+     * Hash da descrição normalizada pelo modo, lida caractere a caractere sem criar Strings
+     */
+    public static long descricao(ModoDuplicidade modo, String descricao) {
+        long h = BASE_FNV;
+        boolean aproximado = modo == ModoDuplicidade.APROXIMADO;
+        boolean espacoPendente = false;
+        boolean inicio = true;
+        for (int i = 0, n = descricao != null ? descricao.length() : 0; i < n; i++) {
+            char c = AutomatoCategorias.normalizar(descricao.charAt(i));
+            if (aproximado) {
+                if (!Character.isLetter(c)) {
+                    continue;
+                }
+            } else if (Character.isWhitespace(c)) {
+                espacoPendente = !inicio;
+                continue;
+            } else if (espacoPendente) {
+                h = (h ^ ' ') * PRIMO_FNV;
+                espacoPendente = false;
+            }
+            h = (h ^ c) * PRIMO_FNV;
+            inicio = false;
+        }
+        return h;
+    }
+
+    /**
+     * Chave sem a ocorrência; descricao vem de {@link #descricao} (reaproveitada ao variar o dia)
+     */
+    public static long chave(long descricao, long contaId, Long cartaoId, TipoTransacao tipo, long dia, long centavos) {
+        long origem = cartaoId != null ? cartaoId << 1 | 1 : contaId << 1;
+        long h = misturar(descricao ^ misturar(origem + PHI));
+        h = misturar(h ^ misturar(dia * PHI + tipo.ordinal()));
+        return misturar(h ^ misturar(centavos));
+    }
+
+    /**
+     * Impressão da ocorrência (0 para a primeira) de uma chave
+     */
+    public static long impressao(ModoDuplicidade modo, long chave, int ocorrencia) {
+        long h = misturar(chave + ocorrencia * PHI);
+        if (modo == ModoDuplicidade.APROXIMADO) {
+            return h | Long.MIN_VALUE;
+        }
+        h &= Long.MAX_VALUE;
+        return h != 0 ? h : 1;
+    }
+
+    public static boolean doModo(ModoDuplicidade modo, long impressao) {
+        return modo == ModoDuplicidade.APROXIMADO ? impressao < 0 : impressao > 0;
+    }
+
+    /**
+     * Finalizador do MurmurHash3 (espalha todos os bits de entrada por todos os de saída)
+     */
+    private static long misturar(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB93FE1A85309L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,13 @@
+package com.financeiro.duplicidade;
+
+/**
+ * O que conta como a mesma transação (sempre na mesma conta ou cartão, com o mesmo tipo e valor)
+ */
+public enum ModoDuplicidade {
+
+    /** Mesma data e mesma descrição, ignorando maiúsculas, acentos e espaços repetidos */
+    ESTRITO,
+
+    /** Data a até tolerancia-dias de distância e descrição com as mesmas letras (sem dígitos, espaços e pontuação) */
+    APROXIMADO
+}
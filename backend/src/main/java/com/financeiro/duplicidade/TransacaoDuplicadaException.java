@@ -0,0 +1,12 @@
+package com.financeiro.duplicidade;
+
+/**
+ * Já existe uma transação igual (mesma conta ou cartão, tipo, data, valor e descrição, conforme o modo)
+ */
+public class TransacaoDuplicadaException extends RuntimeException {
+
+    public TransacaoDuplicadaException() {
+        super("Transação duplicada: já existe uma transação igual nesta conta ou cartão " +
+                "(envie permitirDuplicada=true para gravar mesmo assim)");
+    }
+}
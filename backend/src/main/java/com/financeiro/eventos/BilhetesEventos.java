@@ -0,0 +1,60 @@
+package com.financeiro.eventos;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bilhetes de uso único para abrir o stream SSE.
+ *
+ * O EventSource do navegador não envia cabeçalhos, então a credencial do stream vai na URL. Em vez do token de
+ * acesso (que valeria pela vida toda e ficaria em logs de acesso, de proxy e no histórico), a URL leva um
+ * bilhete aleatório emitido por um POST autenticado: ele vale por bilheteValidadeMs e é consumido na primeira
+ * conexão. Os bilhetes ficam na memória da instância que os emitiu.
+ */
+@Component
+@EnableConfigurationProperties(EventosProperties.class)
+public class BilhetesEventos {
+
+    private static final SecureRandom ALEATORIO = new SecureRandom();
+
+    @Autowired
+    private EventosProperties properties;
+
+    private final Map<String, Bilhete> bilhetes = new ConcurrentHashMap<>();
+
+    /**
+     * Emite um bilhete para o usuário (username do token que fez o pedido)
+     */
+    public String emitir(String username) {
+        long agora = System.currentTimeMillis();
+        // Sem agendamento: os vencidos saem a cada emissão, então o mapa fica limitado aos pedidos da janela
+        bilhetes.values().removeIf(bilhete -> bilhete.expiraEm() <= agora);
+
+        byte[] bytes = new byte[32];
+        ALEATORIO.nextBytes(bytes);
+        String valor = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        bilhetes.put(valor, new Bilhete(username, agora + properties.getBilheteValidadeMs()));
+        return valor;
+    }
+
+    /**
+     * Consome o bilhete: devolve o username se ele existe e não venceu (null caso contrário); nunca vale duas vezes
+     */
+    public String resgatar(String valor) {
+        Bilhete bilhete = valor != null ? bilhetes.remove(valor) : null;
+        return bilhete != null && bilhete.expiraEm() > System.currentTimeMillis() ? bilhete.username() : null;
+    }
+
+    public long getValidadeMs() {
+        return properties.getBilheteValidadeMs();
+    }
+
+    private record Bilhete(String username, long expiraEm) {
+    }
+}
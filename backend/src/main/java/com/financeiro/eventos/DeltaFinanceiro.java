@@ -0,0 +1,22 @@
+package com.financeiro.eventos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.financeiro.model.Dinheiro;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Variações causadas por um commit: saldo por conta, limite utilizado e total por cartão (na moeda de cada um) e o
+ * resumo de receitas/despesas na moeda base do usuário, com o intervalo de datas afetado
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record DeltaFinanceiro(Map<Long, Dinheiro> saldos,
+                              Map<Long, Dinheiro> limitesUtilizados,
+                              Map<Long, Dinheiro> limitesTotais,
+                              Resumo resumo) {
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Resumo(Dinheiro receitas, Dinheiro despesas, String moeda, LocalDate inicio, LocalDate fim) {
+    }
+}
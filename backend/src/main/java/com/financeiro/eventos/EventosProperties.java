@@ -0,0 +1,72 @@
+package com.financeiro.eventos;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Stream SSE de deltas financeiros por usuário.
+ *
+ * Exemplo:
+ * <pre>
+ * financeiro.eventos.heartbeat-ms=15000
+ * financeiro.eventos.eventos-retidos=256
+ * financeiro.eventos.bilhete-validade-ms=30000
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "financeiro.eventos")
+public class EventosProperties {
+
+    /** Intervalo dos comentários de heartbeat (mantém proxies e balanceadores com a conexão aberta) */
+    private long heartbeatMs = 15_000;
+
+    /** Duração máxima de uma conexão; o EventSource reconecta sozinho enviando o Last-Event-ID */
+    private long timeoutMs = 30 * 60_000;
+
+    /** Eventos recentes mantidos por usuário para retomar a partir do Last-Event-ID */
+    private int eventosRetidos = 256;
+
+    /** Tempo que o canal de um usuário sem conexões continua guardando eventos para uma reconexão */
+    private long retencaoCanalMs = 5 * 60_000;
+
+    /** Validade do bilhete de uso único que abre o stream (POST /eventos/bilhete) */
+    private long bilheteValidadeMs = 30_000;
+
+    public long getHeartbeatMs() {
+        return heartbeatMs;
+    }
+
+    public void setHeartbeatMs(long heartbeatMs) {
+        this.heartbeatMs = heartbeatMs;
+    }
+
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    public void setTimeoutMs(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    public int getEventosRetidos() {
+        return eventosRetidos;
+    }
+
+    public void setEventosRetidos(int eventosRetidos) {
+        this.eventosRetidos = eventosRetidos;
+    }
+
+    public long getRetencaoCanalMs() {
+        return retencaoCanalMs;
+    }
+
+    public void setRetencaoCanalMs(long retencaoCanalMs) {
+        this.retencaoCanalMs = retencaoCanalMs;
+    }
+
+    public long getBilheteValidadeMs() {
+        return bilheteValidadeMs;
+    }
+
+    public void setBilheteValidadeMs(long bilheteValidadeMs) {
+        this.bilheteValidadeMs = bilheteValidadeMs;
+    }
+}
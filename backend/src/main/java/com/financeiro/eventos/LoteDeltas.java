@@ -0,0 +1,96 @@
+package com.financeiro.eventos;
+
+import com.financeiro.cambio.ConversorMoedaBase;
+import com.financeiro.model.Dinheiro;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Acumula em centavos os deltas de um usuário dentro de uma transação.
+ *
+ * Saldos e limites totais ficam na moeda da própria conta ou cartão. O limite utilizado e o resumo somam
+ * contas de moedas diferentes, então guardam os valores por conta e data e só os convertem (para a moeda do
+ * cartão e para a moeda base do usuário) ao montar o delta.
+ */
+final class LoteDeltas {
+
+    private final Map<Long, Long> saldos = new HashMap<>();
+    private final Map<ParcelaCartao, Long> limitesUtilizados = new HashMap<>();
+    private final Map<Long, Long> limitesTotais = new HashMap<>();
+    private final Map<Parcela, long[]> resumos = new HashMap<>();
+    private LocalDate inicio;
+    private LocalDate fim;
+
+    void saldo(Long contaId, long centavos) {
+        saldos.merge(contaId, centavos, Dinheiro::somar);
+    }
+
+    void limiteUtilizado(Long cartaoId, Long contaId, LocalDate data, long centavos) {
+        limitesUtilizados.merge(new ParcelaCartao(cartaoId, contaId, data), centavos, Dinheiro::somar);
+    }
+
+    void limiteTotal(Long cartaoId, long centavos) {
+        limitesTotais.merge(cartaoId, centavos, Dinheiro::somar);
+    }
+
+    void resumo(Long contaId, LocalDate data, long deltaReceitas, long deltaDespesas) {
+        long[] parcela = resumos.computeIfAbsent(new Parcela(contaId, data), chave -> new long[2]);
+        parcela[0] = Dinheiro.somar(parcela[0], deltaReceitas);
+        parcela[1] = Dinheiro.somar(parcela[1], deltaDespesas);
+        inicio = inicio == null || data.isBefore(inicio) ? data : inicio;
+        fim = fim == null || data.isAfter(fim) ? data : fim;
+    }
+
+    boolean exigeConversao() {
+        return !resumos.isEmpty() || !limitesUtilizados.isEmpty();
+    }
+
+    /**
+     * Delta compacto (somente valores diferentes de zero) ou null se nada mudou; conversao é exigida se exigeConversao()
+     */
+    DeltaFinanceiro paraDelta(ConversorMoedaBase.Conversao conversao) {
+        Map<Long, Dinheiro> saldosAlterados = naoNulos(saldos);
+        Map<Long, Long> utilizados = new HashMap<>();
+        limitesUtilizados.forEach((parcela, centavos) -> utilizados.merge(parcela.cartaoId(),
+                conversao.paraCartao(parcela.cartaoId(), parcela.contaId(), centavos, parcela.data()), Dinheiro::somar));
+        Map<Long, Dinheiro> utilizadosAlterados = naoNulos(utilizados);
+        Map<Long, Dinheiro> totaisAlterados = naoNulos(limitesTotais);
+        DeltaFinanceiro.Resumo resumo = null;
+        if (!resumos.isEmpty()) {
+            long receitas = 0;
+            long despesas = 0;
+            for (Map.Entry<Parcela, long[]> entrada : resumos.entrySet()) {
+                Parcela parcela = entrada.getKey();
+                receitas = Dinheiro.somar(receitas, conversao.converter(parcela.contaId(), entrada.getValue()[0], parcela.data()));
+                despesas = Dinheiro.somar(despesas, conversao.converter(parcela.contaId(), entrada.getValue()[1], parcela.data()));
+            }
+            if (receitas != 0 || despesas != 0) {
+                resumo = new DeltaFinanceiro.Resumo(Dinheiro.deCentavos(receitas), Dinheiro.deCentavos(despesas),
+                        conversao.getMoedaBase(), inicio, fim);
+            }
+        }
+        if (saldosAlterados.isEmpty() && utilizadosAlterados.isEmpty() && totaisAlterados.isEmpty() && resumo == null) {
+            return null;
+        }
+        return new DeltaFinanceiro(saldosAlterados, utilizadosAlterados, totaisAlterados, resumo);
+    }
+
+    private static Map<Long, Dinheiro> naoNulos(Map<Long, Long> deltas) {
+        Map<Long, Dinheiro> resultado = new LinkedHashMap<>();
+        deltas.forEach((id, centavos) -> {
+            if (centavos != 0) {
+                resultado.put(id, Dinheiro.deCentavos(centavos));
+            }
+        });
+        return resultado;
+    }
+
+    private record Parcela(Long contaId, LocalDate data) {
+    }
+
+    private record ParcelaCartao(Long cartaoId, Long contaId, LocalDate data) {
+    }
+}
@@ -0,0 +1,119 @@
+package com.financeiro.eventos;
+
+import com.financeiro.cambio.ConversorMoedaBase;
+import com.financeiro.model.Transacao;
+import com.financeiro.model.enums.TipoTransacao;
+import com.financeiro.plataforma.EstatisticasPlataforma;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Recebe os deltas das escritas e publica um único evento "delta" por usuário após o commit.
+ *
+ * Os deltas de uma mesma transação de banco são acumulados em um LoteDeltas ligado à transação; rollback descarta o lote.
+ */
+@Component
+public class PublicadorEventos {
+
+    static final String EVENTO_DELTA = "delta";
+
+    private static final Object CHAVE_LOTES = new Object();
+
+    @Autowired
+    private RegistroEmissores registroEmissores;
+
+    @Autowired
+    private EstatisticasPlataforma estatisticasPlataforma;
+
+    @Autowired
+    private ConversorMoedaBase conversorMoedaBase;
+
+    /**
+     * Variação do saldo de uma conta
+     */
+    public void saldo(Long usuarioId, Long contaId, long centavos) {
+        acumular(usuarioId, lote -> lote.saldo(contaId, centavos));
+    }
+
+    /**
+     * Variação do limite total de um cartão
+     */
+    public void limiteTotal(Long usuarioId, Long cartaoId, long centavos) {
+        acumular(usuarioId, lote -> lote.limiteTotal(cartaoId, centavos));
+    }
+
+    /**
+     * Variações de transações de uma conta em uma data (escritas em massa agrupam por conta, cartão, tipo e data)
+     */
+    public void transacoes(Long usuarioId, Long contaId, Long cartaoId, TipoTransacao tipo, long centavos,
+                           LocalDate data) {
+        acumular(usuarioId, lote -> aplicar(lote, contaId, cartaoId, tipo, centavos, data));
+    }
+
+    public void transacaoIncluida(Transacao transacao) {
+        transacoes(transacao.getUsuario().getId(), transacao.idDaConta(), transacao.idDoCartao(), transacao.getTipo(),
+                transacao.getValorEmCentavos(), transacao.getData());
+    }
+
+    public void transacaoRemovida(Transacao transacao) {
+        transacoes(transacao.getUsuario().getId(), transacao.idDaConta(), transacao.idDoCartao(), transacao.getTipo(),
+                -transacao.getValorEmCentavos(), transacao.getData());
+    }
+
+    private static void aplicar(LoteDeltas lote, Long contaId, Long cartaoId, TipoTransacao tipo, long centavos,
+                                LocalDate data) {
+        boolean receita = tipo == TipoTransacao.RECEITA;
+        if (contaId != null) {
+            lote.saldo(contaId, receita ? centavos : -centavos);
+        }
+        if (cartaoId != null) {
+            lote.limiteUtilizado(cartaoId, contaId, data, centavos);
+        }
+        lote.resumo(contaId, data, receita ? centavos : 0, receita ? 0 : centavos);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void acumular(Long usuarioId, Consumer<LoteDeltas> delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            LoteDeltas lote = new LoteDeltas();
+            delta.accept(lote);
+            publicar(usuarioId, lote);
+            return;
+        }
+
+        Map<Long, LoteDeltas> lotes = (Map<Long, LoteDeltas>) TransactionSynchronizationManager.getResource(CHAVE_LOTES);
+        if (lotes == null) {
+            Map<Long, LoteDeltas> novos = new LinkedHashMap<>();
+            lotes = novos;
+            TransactionSynchronizationManager.bindResource(CHAVE_LOTES, novos);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    novos.forEach(PublicadorEventos.this::publicar);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CHAVE_LOTES);
+                }
+            });
+        }
+        delta.accept(lotes.computeIfAbsent(usuarioId, id -> new LoteDeltas()));
+    }
+
+    private void publicar(Long usuarioId, LoteDeltas lote) {
+        estatisticasPlataforma.usuarioAlterado(usuarioId);
+        // Moedas lidas só quando transações mudaram: saldos e limites totais já estão na moeda da conta ou do cartão
+        DeltaFinanceiro delta = lote.paraDelta(lote.exigeConversao() ? conversorMoedaBase.paraUsuario(usuarioId) : null);
+        if (delta != null) {
+            registroEmissores.publicar(usuarioId, EVENTO_DELTA, delta);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.financeiro.eventos;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Conexões SSE abertas por usuário.
+ *
+ * Conexões ociosas não prendem threads (o emissor fica no modo assíncrono do servlet); os envios rodam em
+ * threads virtuais, fora da thread que fez o commit. Cada usuário tem um canal com os últimos eventos, cujos
+ * ids têm o formato {instancia}-{sequencia}: na reconexão, o Last-Event-ID reenvia o que foi perdido; se o id
+ * for de outra instância ou já tiver saído do buffer, o cliente recebe "reinicio" e deve recarregar os dados.
+ */
+@Component
+@Lazy(false)
+@EnableConfigurationProperties(EventosProperties.class)
+public class RegistroEmissores {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegistroEmissores.class);
+
+    static final String EVENTO_REINICIO = "reinicio";
+
+    @Autowired
+    private EventosProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final String instancia = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Long, Canal> canais = new ConcurrentHashMap<>();
+    private final AtomicInteger conexoes = new AtomicInteger();
+    private final ExecutorService envios = Executors.newVirtualThreadPerTaskExecutor();
+
+    private Counter eventosEnviados;
+    private Counter eventosReenviados;
+
+    @PostConstruct
+    void registrarMetricas() {
+        eventosEnviados = Counter.builder("financeiro.eventos.enviados").register(meterRegistry);
+        eventosReenviados = Counter.builder("financeiro.eventos.reenviados").register(meterRegistry);
+        Gauge.builder("financeiro.eventos.conexoes", conexoes, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        envios.shutdownNow();
+    }
+
+    /**
+     * Abre o stream do usuário, reenviando os eventos posteriores a ultimoEventoId quando ainda estão no buffer
+     */
+    public SseEmitter conectar(Long usuarioId, String ultimoEventoId) {
+        SseEmitter emissor = new SseEmitter(properties.getTimeoutMs());
+        Conexao conexao = new Conexao(emissor);
+        boolean[] canalNovo = {false};
+        // A conexão entra no canal dentro do compute: o heartbeat nunca descarta um canal que acabou de ganhar conexão
+        Canal canal = canais.compute(usuarioId, (id, existente) -> {
+            Canal c = existente;
+            if (c == null) {
+                c = new Canal();
+                canalNovo[0] = true;
+            }
+            c.conexoes.add(conexao);
+            return c;
+        });
+        conexoes.incrementAndGet();
+        emissor.onCompletion(() -> descartar(conexao, canal));
+        emissor.onTimeout(() -> descartar(conexao, canal));
+        emissor.onError(erro -> descartar(conexao, canal));
+
+        // Reenvio sob o lock do canal: nenhum evento publicado no meio se perde ou chega fora de ordem
+        synchronized (canal) {
+            if (ultimoEventoId != null && !ultimoEventoId.isBlank()) {
+                List<Evento> perdidos = canalNovo[0] ? null : canal.eventosApos(ultimoEventoId, instancia);
+                if (perdidos == null) {
+                    enfileirar(conexao, canal, new Evento(proximoId(canal), EVENTO_REINICIO, Map.of()));
+                } else {
+                    perdidos.forEach(evento -> enfileirar(conexao, canal, evento));
+                    eventosReenviados.increment(perdidos.size());
+                }
+            }
+        }
+        return emissor;
+    }
+
+    /**
+     * Publica um evento para todas as conexões do usuário (somente se houver um canal aberto ou retido)
+     */
+    public void publicar(Long usuarioId, String nome, Object dados) {
+        Canal canal = canais.get(usuarioId);
+        if (canal == null) {
+            return;
+        }
+        synchronized (canal) {
+            Evento evento = new Evento(proximoId(canal), nome, dados);
+            canal.reter(evento, properties.getEventosRetidos());
+            canal.ultimaAtividade = System.currentTimeMillis();
+            for (Conexao conexao : canal.conexoes) {
+                enfileirar(conexao, canal, evento);
+            }
+        }
+    }
+
+    /**
+     * Heartbeat para todas as conexões e descarte dos canais sem conexões há mais que a retenção
+     */
+    @Scheduled(fixedRateString = "${financeiro.eventos.heartbeat-ms:15000}")
+    public void heartbeat() {
+        long limite = System.currentTimeMillis() - properties.getRetencaoCanalMs();
+        for (Long usuarioId : canais.keySet()) {
+            Canal canal = canais.computeIfPresent(usuarioId,
+                    (id, c) -> c.conexoes.isEmpty() && c.ultimaAtividade < limite ? null : c);
+            if (canal == null) {
+                continue;
+            }
+            synchronized (canal) {
+                for (Conexao conexao : canal.conexoes) {
+                    enfileirar(conexao, canal, HEARTBEAT);
+                }
+            }
+        }
+    }
+
+    public int getConexoes() {
+        return conexoes.get();
+    }
+
+    /**
+     * Fila por conexão drenada por uma única thread virtual de cada vez: preserva a ordem dos eventos
+     */
+    private void enfileirar(Conexao conexao, Canal canal, Evento evento) {
+        conexao.fila.add(evento);
+        if (conexao.drenando.compareAndSet(false, true)) {
+            envios.execute(() -> drenar(conexao, canal));
+        }
+    }
+
+    private void drenar(Conexao conexao, Canal canal) {
+        do {
+            Evento evento;
+            while ((evento = conexao.fila.poll()) != null) {
+                try {
+                    if (evento == HEARTBEAT) {
+                        conexao.emissor.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        conexao.emissor.send(SseEmitter.event().id(evento.id()).name(evento.nome()).data(evento.dados()));
+                        eventosEnviados.increment();
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    conexao.fila.clear();
+                    descartar(conexao, canal);
+                    conexao.emissor.complete();
+                }
+            }
+            conexao.drenando.set(false);
+        } while (!conexao.fila.isEmpty() && conexao.drenando.compareAndSet(false, true));
+    }
+
+    private void descartar(Conexao conexao, Canal canal) {
+        if (canal.conexoes.remove(conexao)) {
+            conexoes.decrementAndGet();
+            canal.ultimaAtividade = System.currentTimeMillis();
+            logger.debug("Conexão SSE encerrada");
+        }
+    }
+
+    private String proximoId(Canal canal) {
+        return instancia + "-" + canal.sequencia.incrementAndGet();
+    }
+
+    record Evento(String id, String nome, Object dados) {
+    }
+
+    private static final Evento HEARTBEAT = new Evento(null, null, null);
+
+    private static final class Conexao {
+
+        final SseEmitter emissor;
+        final Queue<Evento> fila = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean drenando = new AtomicBoolean();
+
+        Conexao(SseEmitter emissor) {
+            this.emissor = emissor;
+        }
+    }
+
+    /** Acesso às estruturas do canal sempre sob o lock do próprio canal */
+    private static final class Canal {
+
+        final Set<Conexao> conexoes = ConcurrentHashMap.newKeySet();
+        final AtomicInteger sequencia = new AtomicInteger();
+        private final ArrayDeque<Evento> recentes = new ArrayDeque<>();
+        volatile long ultimaAtividade = System.currentTimeMillis();
+
+        void reter(Evento evento, int maximo) {
+            recentes.addLast(evento);
+            while (recentes.size() > maximo) {
+                recentes.removeFirst();
+            }
+        }
+
+        /**
+         * Eventos posteriores ao id, ou null se o id não puder ser retomado (outra instância ou fora do buffer)
+         */
+        List<Evento> eventosApos(String ultimoId, String instancia) {
+            int separador = ultimoId.lastIndexOf('-');
+            if (separador < 0 || !ultimoId.substring(0, separador).equals(instancia)) {
+                return null;
+            }
+            long sequencia;
+            try {
+                sequencia = Long.parseLong(ultimoId.substring(separador + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            List<Evento> perdidos = new ArrayList<>();
+            long primeiraRetida = Long.MAX_VALUE;
+            for (Evento evento : recentes) {
+                long seq = Long.parseLong(evento.id().substring(evento.id().lastIndexOf('-') + 1));
+                primeiraRetida = Math.min(primeiraRetida, seq);
+                if (seq > sequencia) {
+                    perdidos.add(evento);
+                }
+            }
+            // Houve eventos entre o último recebido e o mais antigo retido
+            if (!recentes.isEmpty() && primeiraRetida > sequencia + 1) {
+                return null;
+            }
+            return perdidos;
+        }
+    }
+}
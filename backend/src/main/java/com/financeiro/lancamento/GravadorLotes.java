@@ -0,0 +1,389 @@
+package com.financeiro.lancamento;
+
+import com.financeiro.analise.CacheAnaliticoColunar;
+import com.financeiro.duplicidade.DetectorDuplicatas;
+import com.financeiro.duplicidade.TransacaoDuplicadaException;
+import com.financeiro.eventos.PublicadorEventos;
+import com.financeiro.model.Cartao;
+import com.financeiro.model.Categoria;
+import com.financeiro.model.Conta;
+import com.financeiro.model.Transacao;
+import com.financeiro.model.Usuario;
+import com.financeiro.orcamento.ContadoresGastos;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Grava um lote de lançamentos em uma única transação e confirma cada um após o commit.
+ *
+ * Usado pelo sequenciador por conta e pelo pipeline de group commit. Uma linha inválida ou duplicada falha
+ * sozinha; se o lote inteiro falhar, as linhas são regravadas uma a uma.
+ *
+ * Lançamentos cuja requisição já desistiu por tempo ficam fora do lote. A transação do lote tem o mesmo limite de
+ * tempo da espera, então quem entrou em um lote recebe o resultado real (commit ou erro) em tempo limitado.
+ */
+@Component
+class GravadorLotes {
+
+    private static final Logger logger = LoggerFactory.getLogger(GravadorLotes.class);
+
+    private static final String INSERCAO = "INSERT INTO transacoes (descricao, valor, data, tipo, recorrente, conta_id, " +
+            "cartao_id, categoria_id, usuario_id, data_criacao, data_atualizacao, impressao_digital) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private LancamentosProperties properties;
+
+    @Autowired
+    private CacheAnaliticoColunar cacheAnalitico;
+
+    @Autowired
+    private PublicadorEventos publicadorEventos;
+
+    @Autowired
+    private ContadoresGastos contadoresGastos;
+
+    @Autowired
+    private DetectorDuplicatas detectorDuplicatas;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Medidores> medidores = new ConcurrentHashMap<>();
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void iniciar() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setTimeout(segundosTransacao(properties.getEsperaMaximaMs()));
+    }
+
+    /**
+     * Limite da transação de um lote: a espera máxima arredondada para cima em segundos
+     */
+    static int segundosTransacao(long esperaMaximaMs) {
+        return (int) Math.max(1, (esperaMaximaMs + 999) / 1000);
+    }
+
+    /**
+     * Espera a confirmação do lançamento, propagando o erro da linha como RuntimeException.
+     *
+     * Esgotado o tempo, a requisição tenta retirar o lançamento: se conseguir, ele nunca será gravado e o erro é
+     * seguro para repetir. Se o gravador já o retirou, o lote está no commit e a espera continua até o resultado
+     * real, limitada pelo tempo da transação do lote, em vez de responder erro para uma gravação que acontece.
+     * Passado também esse limite, o erro avisa que a gravação pode ter acontecido.
+     */
+    static Transacao aguardar(Lancamento lancamento, long esperaMaximaMs) {
+        try {
+            try {
+                return lancamento.confirmacao().get(esperaMaximaMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (lancamento.retirar()) {
+                    throw new RuntimeException("Tempo esgotado aguardando a gravação do lançamento (nada foi gravado)");
+                }
+                try {
+                    return lancamento.confirmacao().get(segundosTransacao(esperaMaximaMs), TimeUnit.SECONDS);
+                } catch (TimeoutException noCommit) {
+                    throw new RuntimeException("Tempo esgotado aguardando o commit do lote (o lançamento pode ter sido gravado)");
+                }
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException erro) {
+                throw erro;
+            }
+            throw new RuntimeException("Falha ao gravar o lançamento", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Gravação do lançamento interrompida");
+        }
+    }
+
+    /**
+     * Grava o lote; modo identifica a origem nas métricas (conta ou pipeline)
+     */
+    void gravar(String modo, List<Lancamento> lote) {
+        List<Lancamento> retirados = new ArrayList<>(lote.size());
+        for (Lancamento lancamento : lote) {
+            if (lancamento.retirar()) {
+                retirados.add(lancamento);
+            }
+        }
+        if (retirados.isEmpty()) {
+            return;
+        }
+        try {
+            gravarRetirados(modo, retirados);
+        } catch (Throwable e) {
+            // Error (OOM, StackOverflow...) ou falha fora da transação: ninguém do lote pode ficar sem resposta
+            logger.error("Falha inesperada gravando lote de {} lançamentos", retirados.size(), e);
+            for (Lancamento lancamento : retirados) {
+                if (!lancamento.confirmacao().isDone()) {
+                    lancamento.confirmacao().completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    private void gravarRetirados(String modo, List<Lancamento> lote) {
+        List<Lancamento> gravados;
+        try {
+            gravados = transactionTemplate.execute(status -> gravarLote(lote));
+        } catch (RuntimeException e) {
+            if (lote.size() == 1) {
+                lote.get(0).confirmacao().completeExceptionally(
+                        e instanceof DataIntegrityViolationException violacao ? detectorDuplicatas.traduzir(violacao) : e);
+                return;
+            }
+            // Uma linha ruim não derruba as outras: cada uma vai em sua própria transação
+            logger.warn("Lote de {} lançamentos falhou; gravando individualmente", lote.size(), e);
+            for (Lancamento lancamento : lote) {
+                if (!lancamento.confirmacao().isDone()) {
+                    gravarRetirados(modo, List.of(lancamento));
+                }
+            }
+            return;
+        }
+
+        // Confirmação somente após o commit
+        for (Lancamento lancamento : gravados) {
+            lancamento.confirmacao().complete(lancamento.transacao());
+        }
+        if (!gravados.isEmpty()) {
+            medidores.computeIfAbsent(modo, this::registrarMedidores).registrar(gravados.size());
+        }
+    }
+
+    private Medidores registrarMedidores(String modo) {
+        return new Medidores(
+                Counter.builder("financeiro.lancamentos.commits").tag("modo", modo).register(meterRegistry),
+                Counter.builder("financeiro.lancamentos.linhas").tag("modo", modo).register(meterRegistry),
+                DistributionSummary.builder("financeiro.lancamentos.lote")
+                        .tag("modo", modo)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+    }
+
+    private List<Lancamento> gravarLote(List<Lancamento> lote) {
+        List<Lancamento> validos = reservarImpressoes(validar(lote));
+        if (validos.isEmpty()) {
+            return validos;
+        }
+
+        LocalDateTime agora = LocalDateTime.now();
+        long[] ids = inserir(validos, agora);
+        ContadoresGastos.Deltas gastos = new ContadoresGastos.Deltas();
+        for (int i = 0; i < validos.size(); i++) {
+            Lancamento lancamento = validos.get(i);
+            Transacao transacao = lancamento.transacao();
+            transacao.setId(ids[i]);
+            transacao.setUsuario(referenciaUsuario(lancamento.usuarioId()));
+            transacao.setConta(referenciaConta(lancamento.contaId()));
+            transacao.setCartao(lancamento.cartaoId() != null ? referenciaCartao(lancamento.cartaoId()) : null);
+            transacao.setCategoria(lancamento.categoriaId() != null ? referenciaCategoria(lancamento.categoriaId()) : null);
+            transacao.setDataCriacao(agora);
+            transacao.setDataAtualizacao(agora);
+
+            // Os deltas do lote se somam por conta e saem em um único evento por usuário após o commit
+            cacheAnalitico.transacaoSalva(transacao);
+            publicadorEventos.transacaoIncluida(transacao);
+            gastos.incluir(transacao);
+        }
+        // Um incremento por categoria e mês do lote, não por linha
+        contadoresGastos.aplicar(gastos);
+        return validos;
+    }
+
+    /**
+     * Falha, sem gravar, os lançamentos cuja conta, cartão ou categoria não pertence ao usuário
+     */
+    private List<Lancamento> validar(List<Lancamento> lote) {
+        Set<Long> contas = new LinkedHashSet<>();
+        Set<Long> cartoes = new LinkedHashSet<>();
+        Set<Long> categorias = new LinkedHashSet<>();
+        for (Lancamento lancamento : lote) {
+            contas.add(lancamento.contaId());
+            if (lancamento.cartaoId() != null) {
+                cartoes.add(lancamento.cartaoId());
+            }
+            if (lancamento.categoriaId() != null) {
+                categorias.add(lancamento.categoriaId());
+            }
+        }
+        Map<Long, Long> donosContas = donos("contas", contas);
+        Map<Long, Long> donosCartoes = donos("cartoes", cartoes);
+        Map<Long, Long> donosCategorias = donos("categorias", categorias);
+
+        List<Lancamento> validos = new ArrayList<>(lote.size());
+        for (Lancamento lancamento : lote) {
+            if (!lancamento.usuarioId().equals(donosContas.get(lancamento.contaId()))) {
+                lancamento.confirmacao().completeExceptionally(new RuntimeException("Conta não encontrada"));
+            } else if (lancamento.cartaoId() != null
+                    && !lancamento.usuarioId().equals(donosCartoes.get(lancamento.cartaoId()))) {
+                lancamento.confirmacao().completeExceptionally(new RuntimeException("Cartão não encontrado"));
+            } else if (lancamento.categoriaId() != null
+                    && !lancamento.usuarioId().equals(donosCategorias.get(lancamento.categoriaId()))) {
+                lancamento.confirmacao().completeExceptionally(new RuntimeException("Categoria não encontrada"));
+            } else {
+                validos.add(lancamento);
+            }
+        }
+        return validos;
+    }
+
+    /**
+     * Falha os lançamentos duplicados (salvo permitirDuplicada) e guarda a impressão dos demais na transação
+     */
+    private List<Lancamento> reservarImpressoes(List<Lancamento> validos) {
+        if (!detectorDuplicatas.isHabilitada()) {
+            return validos;
+        }
+        List<Lancamento> novos = new ArrayList<>(validos.size());
+        for (Lancamento lancamento : validos) {
+            Transacao transacao = lancamento.transacao();
+            try {
+                transacao.setImpressaoDigital(detectorDuplicatas.reservar(lancamento.usuarioId(), lancamento.contaId(),
+                        lancamento.cartaoId(), transacao.getTipo(), transacao.getData(), transacao.getValorEmCentavos(),
+                        transacao.getDescricao(), transacao.isPermitirDuplicada()));
+                novos.add(lancamento);
+            } catch (TransacaoDuplicadaException e) {
+                lancamento.confirmacao().completeExceptionally(e);
+            }
+        }
+        return novos;
+    }
+
+    private Map<Long, Long> donos(String tabela, Set<Long> ids) {
+        Map<Long, Long> donos = new HashMap<>();
+        if (ids.isEmpty()) {
+            return donos;
+        }
+        String marcadores = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        jdbcTemplate.query("SELECT id, usuario_id FROM " + tabela + " WHERE id IN (" + marcadores + ")",
+                rs -> {
+                    donos.put(rs.getLong(1), rs.getLong(2));
+                },
+                ids.toArray());
+        return donos;
+    }
+
+    /**
+     * INSERT em lote devolvendo os ids gerados na ordem das linhas
+     */
+    private long[] inserir(List<Lancamento> lancamentos, LocalDateTime agora) {
+        Timestamp momento = Timestamp.valueOf(agora);
+        return jdbcTemplate.execute((ConnectionCallback<long[]>) conexao -> {
+            try (PreparedStatement ps = conexao.prepareStatement(INSERCAO, new String[]{"id"})) {
+                for (Lancamento lancamento : lancamentos) {
+                    Transacao transacao = lancamento.transacao();
+                    ps.setString(1, transacao.getDescricao());
+                    ps.setBigDecimal(2, transacao.getValor());
+                    ps.setDate(3, Date.valueOf(transacao.getData()));
+                    ps.setString(4, transacao.getTipo().name());
+                    ps.setBoolean(5, Boolean.TRUE.equals(transacao.getRecorrente()));
+                    ps.setLong(6, lancamento.contaId());
+                    if (lancamento.cartaoId() != null) {
+                        ps.setLong(7, lancamento.cartaoId());
+                    } else {
+                        ps.setNull(7, Types.BIGINT);
+                    }
+                    if (lancamento.categoriaId() != null) {
+                        ps.setLong(8, lancamento.categoriaId());
+                    } else {
+                        ps.setNull(8, Types.BIGINT);
+                    }
+                    ps.setLong(9, lancamento.usuarioId());
+                    ps.setTimestamp(10, momento);
+                    ps.setTimestamp(11, momento);
+                    if (transacao.getImpressaoDigital() != null) {
+                        ps.setLong(12, transacao.getImpressaoDigital());
+                    } else {
+                        ps.setNull(12, Types.BIGINT);
+                    }
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                long[] ids = new long[lancamentos.size()];
+                int gerados = 0;
+                try (ResultSet chaves = ps.getGeneratedKeys()) {
+                    while (chaves.next() && gerados < ids.length) {
+                        ids[gerados++] = chaves.getLong(1);
+                    }
+                }
+                if (gerados != ids.length) {
+                    throw new IllegalStateException("Driver devolveu " + gerados + " chaves para " + ids.length + " linhas");
+                }
+                return ids;
+            }
+        });
+    }
+
+    private static Usuario referenciaUsuario(Long id) {
+        Usuario usuario = new Usuario();
+        usuario.setId(id);
+        return usuario;
+    }
+
+    private static Conta referenciaConta(Long id) {
+        Conta conta = new Conta();
+        conta.setId(id);
+        return conta;
+    }
+
+    private static Cartao referenciaCartao(Long id) {
+        Cartao cartao = new Cartao();
+        cartao.setId(id);
+        return cartao;
+    }
+
+    private static Categoria referenciaCategoria(Long id) {
+        Categoria categoria = new Categoria();
+        categoria.setId(id);
+        return categoria;
+    }
+
+    private record Medidores(Counter commits, Counter linhas, DistributionSummary lote) {
+
+        void registrar(int linhasGravadas) {
+            commits.increment();
+            linhas.increment(linhasGravadas);
+            lote.record(linhasGravadas);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.financeiro.lancamento;
+
+import com.financeiro.model.Transacao;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lançamento aguardando gravação; a confirmação completa após o commit do lote (ou com o erro da linha)
+ *
+ * @param retirado disputado pelo gravador (ao montar o lote) e pela requisição (ao desistir por tempo): só um
+ *                 dos dois fica com o lançamento, então uma desistência nunca é gravada depois
+ */
+record Lancamento(Transacao transacao, Long usuarioId, Long contaId, Long cartaoId, Long categoriaId,
+                  CompletableFuture<Transacao> confirmacao, AtomicBoolean retirado) {
+
+    Lancamento(Transacao transacao, Long usuarioId, Long contaId, Long cartaoId, Long categoriaId) {
+        this(transacao, usuarioId, contaId, cartaoId, categoriaId, new CompletableFuture<>(), new AtomicBoolean());
+    }
+
+    /**
+     * Fica com o lançamento se ninguém o retirou ainda
+     */
+    boolean retirar() {
+        return retirado.compareAndSet(false, true);
+    }
+}
@@ -0,0 +1,95 @@
+package com.financeiro.lancamento;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Coalescência de lançamentos concorrentes por conta e pipeline de group commit.
+ *
+ * Exemplo:
+ * <pre>
+ * financeiro.lancamentos.coalescencia=true
+ * financeiro.lancamentos.faixas=64
+ * financeiro.lancamentos.pipeline=true
+ * financeiro.lancamentos.janela-ms=5
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "financeiro.lancamentos")
+public class LancamentosProperties {
+
+    /** Envia os POSTs de transação ao sequenciador por conta em vez de um commit por requisição */
+    private boolean coalescencia = false;
+
+    /** Faixas do sequenciador (contas são distribuídas por hash; cada faixa grava um lote por vez) */
+    private int faixas = 64;
+
+    /** Máximo de lançamentos gravados em uma única transação */
+    private int maximoLote = 500;
+
+    /** Envia os POSTs de transação ao pipeline de group commit (tem precedência sobre a coalescência) */
+    private boolean pipeline = false;
+
+    /** Janela do pipeline: o lote é gravado ao completar maximoLote linhas ou ao fim da janela */
+    private long janelaMs = 5;
+
+    /** Lotes do pipeline em commit ao mesmo tempo */
+    private int gravacoesSimultaneas = 2;
+
+    /** Tempo máximo que a requisição espera a confirmação do commit */
+    private long esperaMaximaMs = 10_000;
+
+    public boolean isCoalescencia() {
+        return coalescencia;
+    }
+
+    public void setCoalescencia(boolean coalescencia) {
+        this.coalescencia = coalescencia;
+    }
+
+    public int getFaixas() {
+        return faixas;
+    }
+
+    public void setFaixas(int faixas) {
+        this.faixas = faixas;
+    }
+
+    public int getMaximoLote() {
+        return maximoLote;
+    }
+
+    public void setMaximoLote(int maximoLote) {
+        this.maximoLote = maximoLote;
+    }
+
+    public boolean isPipeline() {
+        return pipeline;
+    }
+
+    public void setPipeline(boolean pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    public long getJanelaMs() {
+        return janelaMs;
+    }
+
+    public void setJanelaMs(long janelaMs) {
+        this.janelaMs = janelaMs;
+    }
+
+    public int getGravacoesSimultaneas() {
+        return gravacoesSimultaneas;
+    }
+
+    public void setGravacoesSimultaneas(int gravacoesSimultaneas) {
+        this.gravacoesSimultaneas = gravacoesSimultaneas;
+    }
+
+    public long getEsperaMaximaMs() {
+        return esperaMaximaMs;
+    }
+
+    public void setEsperaMaximaMs(long esperaMaximaMs) {
+        this.esperaMaximaMs = esperaMaximaMs;
+    }
+}
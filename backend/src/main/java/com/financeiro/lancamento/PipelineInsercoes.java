@@ -0,0 +1,158 @@
+package com.financeiro.lancamento;
+
+import com.financeiro.model.Transacao;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pipeline de group commit para inclusões de transações.
+ *
+ * As requisições concorrentes (de qualquer conta ou usuário) entram em uma única fila; um coletor fecha o lote
+ * ao atingir maximoLote linhas ou ao fim da janela (janelaMs) contada a partir da primeira linha, e o grava em um
+ * único INSERT em lote com um único commit. Cada requisição recebe a resposta só depois do commit do seu lote.
+ * Com gravacoesSimultaneas &gt; 1 o próximo lote é coletado enquanto o anterior está no commit.
+ */
+@Component
+@Lazy(false)
+@EnableConfigurationProperties(LancamentosProperties.class)
+public class PipelineInsercoes {
+
+    private static final Logger logger = LoggerFactory.getLogger(PipelineInsercoes.class);
+
+    static final String MODO = "pipeline";
+
+    private static final long ESPERA_OCIOSA_MS = 200;
+
+    @Autowired
+    private LancamentosProperties properties;
+
+    @Autowired
+    private GravadorLotes gravador;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final BlockingQueue<Lancamento> fila = new LinkedBlockingQueue<>();
+    private final ExecutorService gravacoes = Executors.newVirtualThreadPerTaskExecutor();
+    private Semaphore vagas;
+    private Thread coletor;
+    private volatile boolean ativo;
+
+    @PostConstruct
+    void iniciar() {
+        if (!properties.isPipeline()) {
+            return;
+        }
+        vagas = new Semaphore(Math.max(1, properties.getGravacoesSimultaneas()));
+        ativo = true;
+        coletor = Thread.ofVirtual().name("pipeline-insercoes").start(this::coletar);
+        Gauge.builder("financeiro.lancamentos.fila", fila, BlockingQueue::size)
+                .tag("modo", MODO)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void encerrar() throws InterruptedException {
+        if (coletor == null) {
+            return;
+        }
+        // Sem interromper o coletor: ele fecha o lote em andamento e sai na próxima espera vazia
+        ativo = false;
+        coletor.join(properties.getEsperaMaximaMs());
+
+        // O que ficou na fila ainda é gravado antes de desligar
+        List<Lancamento> restantes = new ArrayList<>();
+        fila.drainTo(restantes);
+        for (int i = 0; i < restantes.size(); i += properties.getMaximoLote()) {
+            gravador.gravar(MODO, restantes.subList(i, Math.min(restantes.size(), i + properties.getMaximoLote())));
+        }
+        gravacoes.shutdown();
+        gravacoes.awaitTermination(properties.getEsperaMaximaMs(), TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isHabilitado() {
+        return properties.isPipeline();
+    }
+
+    /**
+     * Enfileira a inclusão e espera o commit do lote em que ela for gravada
+     */
+    public Transacao inserir(Transacao transacao, Long usuarioId, Long contaId, Long cartaoId,
+                             Long categoriaId) {
+        if (!ativo) {
+            throw new RuntimeException("Pipeline de inserções indisponível");
+        }
+        Lancamento lancamento = new Lancamento(transacao, usuarioId, contaId, cartaoId, categoriaId);
+        fila.add(lancamento);
+        return GravadorLotes.aguardar(lancamento, properties.getEsperaMaximaMs());
+    }
+
+    private void coletar() {
+        while (ativo) {
+            try {
+                List<Lancamento> lote = proximoLote();
+                if (lote.isEmpty()) {
+                    continue;
+                }
+                vagas.acquire();
+                gravacoes.execute(() -> {
+                    try {
+                        gravador.gravar(MODO, lote);
+                    } finally {
+                        vagas.release();
+                    }
+                });
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Falha no coletor do pipeline de inserções", e);
+            }
+        }
+    }
+
+    /**
+     * Espera a primeira linha e completa o lote até maximoLote linhas ou o fim da janela (vazio se a fila ficou ociosa)
+     */
+    private List<Lancamento> proximoLote() throws InterruptedException {
+        int maximo = Math.max(1, properties.getMaximoLote());
+        List<Lancamento> lote = new ArrayList<>(Math.min(maximo, 64));
+        Lancamento primeiro = fila.poll(ESPERA_OCIOSA_MS, TimeUnit.MILLISECONDS);
+        if (primeiro == null) {
+            return lote;
+        }
+        lote.add(primeiro);
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getJanelaMs());
+        while (lote.size() < maximo) {
+            if (fila.drainTo(lote, maximo - lote.size()) > 0) {
+                continue;
+            }
+            long restante = limite - System.nanoTime();
+            if (restante <= 0) {
+                break;
+            }
+            Lancamento lancamento = fila.poll(restante, TimeUnit.NANOSECONDS);
+            if (lancamento == null) {
+                break;
+            }
+            lote.add(lancamento);
+        }
+        return lote;
+    }
+}
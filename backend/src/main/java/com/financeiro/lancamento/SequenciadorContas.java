@@ -0,0 +1,104 @@
+package com.financeiro.lancamento;
+
+import com.financeiro.model.Transacao;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sequenciador de lançamentos por conta (faixas por hash da conta).
+ *
+ * Cada faixa grava um lote por vez: os lançamentos que chegam enquanto um lote está no commit formam o próximo,
+ * gravado em uma única transação curta (INSERT em lote, deltas somados por conta em um único evento por usuário).
+ * Com uma conta quente, o número de commits acompanha a taxa de chegada dividida pelo tamanho do lote, e não
+ * o tempo de cada transação. Cada requisição só recebe a confirmação depois do commit do lote em que entrou.
+ */
+@Component
+@Lazy(false)
+@EnableConfigurationProperties(LancamentosProperties.class)
+public class SequenciadorContas {
+
+    static final String MODO = "conta";
+
+    @Autowired
+    private LancamentosProperties properties;
+
+    @Autowired
+    private GravadorLotes gravador;
+
+    private final ExecutorService gravacoes = Executors.newVirtualThreadPerTaskExecutor();
+    private Faixa[] faixas;
+
+    @PostConstruct
+    void iniciar() {
+        faixas = new Faixa[Math.max(1, properties.getFaixas())];
+        for (int i = 0; i < faixas.length; i++) {
+            faixas[i] = new Faixa();
+        }
+    }
+
+    @PreDestroy
+    void encerrar() throws InterruptedException {
+        gravacoes.shutdown();
+        gravacoes.awaitTermination(properties.getEsperaMaximaMs(), TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isHabilitado() {
+        return properties.isCoalescencia();
+    }
+
+    /**
+     * Enfileira o lançamento na faixa da conta e espera o commit do lote em que ele for gravado
+     */
+    public Transacao lancar(Transacao transacao, Long usuarioId, Long contaId, Long cartaoId,
+                            Long categoriaId) {
+        Lancamento lancamento = new Lancamento(transacao, usuarioId, contaId, cartaoId, categoriaId);
+        Faixa faixa = faixas[Math.floorMod(Long.hashCode(contaId), faixas.length)];
+        faixa.fila.add(lancamento);
+        if (faixa.gravando.compareAndSet(false, true)) {
+            gravacoes.execute(() -> drenar(faixa));
+        }
+        return GravadorLotes.aguardar(lancamento, properties.getEsperaMaximaMs());
+    }
+
+    private void drenar(Faixa faixa) {
+        do {
+            try {
+                List<Lancamento> lote;
+                while (!(lote = retirar(faixa)).isEmpty()) {
+                    gravador.gravar(MODO, lote);
+                }
+            } finally {
+                // Mesmo com erro a faixa volta a aceitar gravações; o que ficou na fila sai no próximo lançamento
+                faixa.gravando.set(false);
+            }
+        } while (!faixa.fila.isEmpty() && faixa.gravando.compareAndSet(false, true));
+    }
+
+    private List<Lancamento> retirar(Faixa faixa) {
+        List<Lancamento> lote = new ArrayList<>();
+        Lancamento lancamento;
+        while (lote.size() < properties.getMaximoLote() && (lancamento = faixa.fila.poll()) != null) {
+            lote.add(lancamento);
+        }
+        return lote;
+    }
+
+    private static final class Faixa {
+
+        final Queue<Lancamento> fila = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean gravando = new AtomicBoolean();
+    }
+}
@@ -0,0 +1,76 @@
+package com.financeiro.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * DataSource que registra em {@link EstatisticasRequisicao} cada instrução SQL
+ * preparada ou executada pelas conexões que entrega.
+ */
+public class ContadorInstrucoesDataSource extends DelegatingDataSource {
+
+    private static final Set<String> PREPARACOES = Set.of("prepareStatement", "prepareCall");
+    private static final Set<String> EXECUCOES = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "addBatch");
+
+    public ContadorInstrucoesDataSource(DataSource alvo) {
+        super(alvo);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxyConexao(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxyConexao(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection proxyConexao(Connection conexao) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (PREPARACOES.contains(method.getName()) && args != null && args[0] instanceof String sql) {
+                EstatisticasRequisicao.registrarInstrucao(sql);
+            }
+            Object resultado = invocar(conexao, method, args);
+            if ("createStatement".equals(method.getName())) {
+                return proxyStatement((Statement) resultado);
+            }
+            return resultado;
+        };
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{Connection.class}, handler);
+    }
+
+    /**
+     * Statements simples recebem o SQL apenas na execução
+     */
+    private Statement proxyStatement(Statement statement) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (EXECUCOES.contains(method.getName()) && args != null && args.length > 0
+                    && args[0] instanceof String sql) {
+                EstatisticasRequisicao.registrarInstrucao(sql);
+            }
+            return invocar(statement, method, args);
+        };
+        return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{Statement.class}, handler);
+    }
+
+    private static Object invocar(Object alvo, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(alvo, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
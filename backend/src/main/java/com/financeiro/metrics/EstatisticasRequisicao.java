@@ -0,0 +1,143 @@
+package com.financeiro.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+/**
+ * Contadores de acesso ao banco da requisição HTTP corrente.
+ *
+ * Mantidos em ThreadLocal: o filtro abre o escopo no início da requisição e
+ * a camada JDBC e os listeners do Hibernate incrementam os contadores enquanto ele estiver aberto.
+ */
+public final class EstatisticasRequisicao {
+
+    private static final ThreadLocal<EstatisticasRequisicao> ATUAL = new ThreadLocal<>();
+
+    private final int limiteRepeticoes;
+    private final IntSupplier limiteInstrucoes;
+    private final boolean capturarPilha;
+
+    private int instrucoes;
+    private int entidadesCarregadas;
+    private int colecoesCarregadas;
+
+    private final Map<String, Integer> repeticoesPorInstrucao = new HashMap<>();
+    private int maiorRepeticao;
+    private String instrucaoMaisRepetida;
+    private Throwable pilhaRepeticao;
+    private Throwable pilhaOrcamento;
+
+    private EstatisticasRequisicao(int limiteRepeticoes, IntSupplier limiteInstrucoes, boolean capturarPilha) {
+        this.limiteRepeticoes = limiteRepeticoes;
+        this.limiteInstrucoes = limiteInstrucoes;
+        this.capturarPilha = capturarPilha;
+    }
+
+    /**
+     * Abre o escopo de contagem para a thread atual
+     *
+     * @param limiteRepeticoes quantas vezes a mesma instrução pode se repetir antes de ser considerada N+1
+     * @param limiteInstrucoes orçamento total do endpoint, consultado a cada instrução (o endpoint só é
+     *                         conhecido depois do mapeamento da requisição)
+     * @param capturarPilha    se a pilha da primeira repetição excedente e a da primeira instrução acima do
+     *                         orçamento devem ser guardadas (amostragem)
+     */
+    public static EstatisticasRequisicao iniciar(int limiteRepeticoes, IntSupplier limiteInstrucoes,
+                                                 boolean capturarPilha) {
+        EstatisticasRequisicao estatisticas = new EstatisticasRequisicao(limiteRepeticoes, limiteInstrucoes,
+                capturarPilha);
+        ATUAL.set(estatisticas);
+        return estatisticas;
+    }
+
+    /**
+     * Encerra o escopo de contagem da thread atual
+     */
+    public static void encerrar() {
+        ATUAL.remove();
+    }
+
+    /**
+     * Retorna as estatísticas da requisição corrente (ou null fora de uma requisição)
+     */
+    public static EstatisticasRequisicao atual() {
+        return ATUAL.get();
+    }
+
+    static void registrarInstrucao(String sql) {
+        EstatisticasRequisicao estatisticas = ATUAL.get();
+        if (estatisticas != null) {
+            estatisticas.contarInstrucao(sql);
+        }
+    }
+
+    static void registrarEntidadeCarregada() {
+        EstatisticasRequisicao estatisticas = ATUAL.get();
+        if (estatisticas != null) {
+            estatisticas.entidadesCarregadas++;
+        }
+    }
+
+    static void registrarColecaoCarregada() {
+        EstatisticasRequisicao estatisticas = ATUAL.get();
+        if (estatisticas != null) {
+            estatisticas.colecoesCarregadas++;
+        }
+    }
+
+    private void contarInstrucao(String sql) {
+        instrucoes++;
+
+        String impressaoDigital = ImpressaoDigitalSql.calcular(sql);
+        int repeticoes = repeticoesPorInstrucao.merge(impressaoDigital, 1, Integer::sum);
+        if (repeticoes > maiorRepeticao) {
+            maiorRepeticao = repeticoes;
+            instrucaoMaisRepetida = impressaoDigital;
+        }
+
+        if (repeticoes == limiteRepeticoes + 1 && capturarPilha && pilhaRepeticao == null) {
+            pilhaRepeticao = new Throwable("Instrução repetida " + repeticoes + "x: " + impressaoDigital);
+        }
+        if (capturarPilha && pilhaOrcamento == null && instrucoes > limiteInstrucoes.getAsInt()) {
+            pilhaOrcamento = new Throwable("Instrução " + instrucoes + " acima do orçamento: " + impressaoDigital);
+        }
+    }
+
+    public int getInstrucoes() {
+        return instrucoes;
+    }
+
+    public int getEntidadesCarregadas() {
+        return entidadesCarregadas;
+    }
+
+    public int getColecoesCarregadas() {
+        return colecoesCarregadas;
+    }
+
+    /**
+     * Maior número de execuções de uma mesma instrução (por impressão digital) na requisição
+     */
+    public int getMaiorRepeticao() {
+        return maiorRepeticao;
+    }
+
+    public String getInstrucaoMaisRepetida() {
+        return instrucaoMaisRepetida;
+    }
+
+    /**
+     * Pilha capturada na primeira repetição acima do limite (null se não amostrada)
+     */
+    public Throwable getPilhaRepeticao() {
+        return pilhaRepeticao;
+    }
+
+    /**
+     * Pilha capturada na primeira instrução acima do orçamento total (null se não amostrada)
+     */
+    public Throwable getPilhaOrcamento() {
+        return pilhaOrcamento;
+    }
+}
@@ -0,0 +1,85 @@
+package com.financeiro.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * Publica, por endpoint, quantas instruções SQL, entidades e coleções
+ * foram carregadas durante cada requisição HTTP, e verifica o orçamento SQL.
+ *
+ * Roda antes da cadeia do Spring Security para incluir a carga do usuário feita pelo filtro JWT. No modo FALHAR o
+ * corpo da resposta fica retido até a verificação, então a violação vira erro antes de a resposta ser enviada
+ * (streams SSE não são retidos nem verificados).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class EstatisticasRequisicaoFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private OrcamentoSqlMonitor orcamentoSqlMonitor;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        EstatisticasRequisicao estatisticas = orcamentoSqlMonitor.iniciar(request);
+        ContentCachingResponseWrapper retida = orcamentoSqlMonitor.isFalhar() && !isStream(request)
+                ? new ContentCachingResponseWrapper(response) : null;
+        try {
+            chain.doFilter(request, retida != null ? retida : response);
+        } finally {
+            EstatisticasRequisicao.encerrar();
+        }
+
+        String uri = resolverUri(request);
+        registrar("jdbc.request.statements", uri, estatisticas.getInstrucoes());
+        registrar("jdbc.request.repeated.statements", uri, estatisticas.getMaiorRepeticao());
+        registrar("hibernate.request.entity.loads", uri, estatisticas.getEntidadesCarregadas());
+        registrar("hibernate.request.collection.fetches", uri, estatisticas.getColecoesCarregadas());
+
+        if (retida != null || !orcamentoSqlMonitor.isFalhar()) {
+            orcamentoSqlMonitor.verificar(request.getMethod(), uri, estatisticas);
+        }
+        if (retida != null) {
+            retida.copyBodyToResponse();
+        }
+    }
+
+    private void registrar(String nome, String uri, int valor) {
+        DistributionSummary.builder(nome)
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(valor);
+    }
+
+    private static boolean isStream(HttpServletRequest request) {
+        String aceita = request.getHeader(HttpHeaders.ACCEPT);
+        return aceita != null && aceita.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+    }
+
+    /**
+     * Usa o padrão do mapeamento (ex.: /contas/{id}) para não explodir a cardinalidade
+     */
+    private String resolverUri(HttpServletRequest request) {
+        Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return padrao != null ? padrao.toString() : "UNKNOWN";
+    }
+}
@@ -0,0 +1,30 @@
+package com.financeiro.metrics;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normaliza uma instrução SQL para que execuções da mesma consulta com
+ * parâmetros diferentes gerem a mesma impressão digital.
+ */
+final class ImpressaoDigitalSql {
+
+    private static final Pattern TEXTO = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMERO = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern LISTA_IN = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern ESPACOS = Pattern.compile("\\s+");
+
+    private ImpressaoDigitalSql() {
+    }
+
+    static String calcular(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String normalizada = TEXTO.matcher(sql).replaceAll("?");
+        normalizada = NUMERO.matcher(normalizada).replaceAll("?");
+        normalizada = LISTA_IN.matcher(normalizada).replaceAll("(?)");
+        normalizada = ESPACOS.matcher(normalizada).replaceAll(" ");
+        return normalizada.trim().toLowerCase(Locale.ROOT);
+    }
+}
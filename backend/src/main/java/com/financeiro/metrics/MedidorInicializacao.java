@@ -0,0 +1,57 @@
+package com.financeiro.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mede o tempo desde o início da JVM até a aplicação ficar pronta e até a primeira requisição da API ser atendida.
+ *
+ * Métricas: financeiro.inicializacao.pronto e financeiro.inicializacao.primeira.requisicao (segundos)
+ */
+@Component
+@Lazy(false)
+public class MedidorInicializacao {
+
+    private static final Logger logger = LoggerFactory.getLogger(MedidorInicializacao.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicLong prontoMs = new AtomicLong(-1);
+    private final AtomicLong primeiraRequisicaoMs = new AtomicLong(-1);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void aplicacaoPronta() {
+        prontoMs.set(ManagementFactory.getRuntimeMXBean().getUptime());
+        Gauge.builder("financeiro.inicializacao.pronto", prontoMs, ms -> ms.get() / 1000.0)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("financeiro.inicializacao.primeira.requisicao", primeiraRequisicaoMs, ms -> ms.get() / 1000.0)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        logger.info("Aplicação pronta em {} ms desde o início da JVM", prontoMs.get());
+    }
+
+    @EventListener
+    public void requisicaoAtendida(ServletRequestHandledEvent evento) {
+        if (primeiraRequisicaoMs.get() >= 0 || !evento.getRequestUrl().startsWith("/api/")) {
+            return;
+        }
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        if (primeiraRequisicaoMs.compareAndSet(-1, uptime)) {
+            logger.info("Primeira requisição ({} {}) atendida em {} ms desde o início da JVM ({} ms de processamento)",
+                    evento.getMethod(), evento.getRequestUrl(), uptime, evento.getProcessingTimeMillis());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.financeiro.metrics;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(OrcamentoSqlProperties.class)
+public class MetricsConfig {
+
+    /**
+     * Habilita @Timed nas classes de serviço e controllers
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * Conecta os contadores de entidades e coleções por requisição ao Hibernate
+     */
+    @Bean
+    public HibernatePropertiesCustomizer estatisticasHibernateCustomizer() {
+        EstatisticasHibernateIntegrator integrator = new EstatisticasHibernateIntegrator();
+        return properties -> properties.put("hibernate.integrator_provider",
+                (IntegratorProvider) () -> List.of(integrator));
+    }
+
+    /**
+     * Envolve o DataSource para contar as instruções SQL de cada requisição
+     */
+    @Bean
+    public static BeanPostProcessor contadorInstrucoesDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ContadorInstrucoesDataSource)) {
+                    return new ContadorInstrucoesDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
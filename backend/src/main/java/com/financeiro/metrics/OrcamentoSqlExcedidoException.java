@@ -0,0 +1,11 @@
+package com.financeiro.metrics;
+
+/**
+ * Lançada quando uma requisição excede o orçamento de instruções SQL no modo FALHAR
+ */
+public class OrcamentoSqlExcedidoException extends RuntimeException {
+
+    public OrcamentoSqlExcedidoException(String message, Throwable pilha) {
+        super(message, pilha);
+    }
+}
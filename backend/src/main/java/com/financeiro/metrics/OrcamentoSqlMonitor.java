@@ -0,0 +1,82 @@
+package com.financeiro.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compara as estatísticas de cada requisição com o orçamento configurado
+ * e reage conforme o modo (registrar em log ou falhar).
+ */
+@Component
+public class OrcamentoSqlMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrcamentoSqlMonitor.class);
+
+    @Autowired
+    private OrcamentoSqlProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Abre o escopo de contagem já decidindo se esta requisição terá a pilha amostrada
+     */
+    public EstatisticasRequisicao iniciar(HttpServletRequest request) {
+        boolean capturarPilha = properties.getModo() == OrcamentoSqlProperties.Modo.FALHAR
+                || ThreadLocalRandom.current().nextDouble() < properties.getAmostragemPilha();
+        // O orçamento do endpoint só existe após o mapeamento; antes dele (filtro JWT) nenhuma pilha é capturada
+        return EstatisticasRequisicao.iniciar(properties.getMaximoRepeticoes(), () -> {
+            Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            return padrao != null ? properties.orcamentoPara(padrao.toString()) : Integer.MAX_VALUE;
+        }, capturarPilha);
+    }
+
+    public boolean isFalhar() {
+        return properties.getModo() == OrcamentoSqlProperties.Modo.FALHAR;
+    }
+
+    /**
+     * Verifica o orçamento da requisição encerrada (no modo FALHAR, antes de a resposta retida ser enviada)
+     */
+    public void verificar(String metodo, String uri, EstatisticasRequisicao estatisticas) {
+        if (properties.getModo() == OrcamentoSqlProperties.Modo.DESLIGADO) {
+            return;
+        }
+
+        int orcamento = properties.orcamentoPara(uri);
+        boolean excedeuTotal = estatisticas.getInstrucoes() > orcamento;
+        boolean excedeuRepeticoes = estatisticas.getMaiorRepeticao() > properties.getMaximoRepeticoes();
+        if (!excedeuTotal && !excedeuRepeticoes) {
+            return;
+        }
+
+        String motivo = excedeuRepeticoes ? "repeticao" : "total";
+        meterRegistry.counter("jdbc.request.budget.exceeded", "uri", uri, "reason", motivo).increment();
+
+        String mensagem = String.format(
+                "Orçamento SQL excedido em %s %s: %d instruções (orçamento %d), instrução mais repetida %dx (máximo %d): %s",
+                metodo, uri, estatisticas.getInstrucoes(), orcamento,
+                estatisticas.getMaiorRepeticao(), properties.getMaximoRepeticoes(),
+                estatisticas.getInstrucaoMaisRepetida());
+
+        // Com as duas violações, a pilha da repetição aponta o laço que causou o excesso
+        Throwable pilha = excedeuRepeticoes && estatisticas.getPilhaRepeticao() != null
+                ? estatisticas.getPilhaRepeticao() : estatisticas.getPilhaOrcamento();
+        if (properties.getModo() == OrcamentoSqlProperties.Modo.FALHAR) {
+            throw new OrcamentoSqlExcedidoException(mensagem, pilha);
+        }
+
+        if (pilha != null) {
+            logger.warn(mensagem, pilha);
+        } else {
+            logger.warn(mensagem);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.financeiro.metrics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Orçamento de instruções SQL por requisição (detector de N+1).
+ *
+ * Exemplo:
+ * <pre>
+ * financeiro.sql.orcamento.modo=FALHAR
+ * financeiro.sql.orcamento.endpoints[/contas/saldo-total]=2
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "financeiro.sql.orcamento")
+public class OrcamentoSqlProperties {
+
+    public enum Modo {
+        /** Não verifica o orçamento */
+        DESLIGADO,
+        /** Registra um aviso (com pilha amostrada) e incrementa a métrica de violações */
+        REGISTRAR,
+        /**
+         * Retém a resposta e lança {@link OrcamentoSqlExcedidoException} antes de enviá-la (uso em testes de integração:
+         * no MockMvc a exceção chega ao teste; em um servidor, a resposta vira 500)
+         */
+        FALHAR
+    }
+
+    private Modo modo = Modo.REGISTRAR;
+
+    /** Máximo de instruções por requisição quando o endpoint não declara orçamento próprio */
+    private int maximoInstrucoes = 20;
+
+    /** Máximo de execuções da mesma instrução (por impressão digital) em uma requisição */
+    private int maximoRepeticoes = 5;
+
+    /** Fração das requisições em que a pilha da instrução repetida ou acima do orçamento é capturada (0.0 a 1.0) */
+    private double amostragemPilha = 0.01;
+
+    /** Orçamento por padrão de endpoint (ex.: /contas/{id}) */
+    private Map<String, Integer> endpoints = new HashMap<>();
+
+    public Modo getModo() {
+        return modo;
+    }
+
+    public void setModo(Modo modo) {
+        this.modo = modo;
+    }
+
+    public int getMaximoInstrucoes() {
+        return maximoInstrucoes;
+    }
+
+    public void setMaximoInstrucoes(int maximoInstrucoes) {
+        this.maximoInstrucoes = maximoInstrucoes;
+    }
+
+    public int getMaximoRepeticoes() {
+        return maximoRepeticoes;
+    }
+
+    public void setMaximoRepeticoes(int maximoRepeticoes) {
+        this.maximoRepeticoes = maximoRepeticoes;
+    }
+
+    public double getAmostragemPilha() {
+        return amostragemPilha;
+    }
+
+    public void setAmostragemPilha(double amostragemPilha) {
+        this.amostragemPilha = amostragemPilha;
+    }
+
+    public Map<String, Integer> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(Map<String, Integer> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    /**
+     * Orçamento efetivo de um endpoint
+     */
+    public int orcamentoPara(String uri) {
+        return endpoints.getOrDefault(uri, maximoInstrucoes);
+    }
+}
@@ -1,7 +1,9 @@
 package com.financeiro.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -25,10 +27,19 @@ public class Cartao {
     @Column(nullable = false, length = 50)
     private String bandeira;
     
-    @NotNull(message = "Limite total é obrigatório")
-    @DecimalMin(value = "0.0", inclusive = false, message = "Limite total deve ser maior que zero")
     @Column(nullable = false, precision = 15, scale = 2)
-    private BigDecimal limiteTotal;
+    private Dinheiro limiteTotal;
+    
+    /** Soma das transações do cartão movidas para o arquivo frio */
+    @JsonIgnore
+    @Column(name = "limite_arquivado", precision = 15, scale = 2)
+    private Dinheiro limiteArquivado;
+    
+    /** Código ISO 4217 do limite do cartão */
+    @Pattern(regexp = "[A-Za-z]{3}", message = "Moeda deve ser um código ISO 4217 (ex.: BRL)")
+    @ColumnDefault("'BRL'")
+    @Column(nullable = false, length = 3)
+    private String moeda;
     
     @NotNull(message = "Dia de fechamento é obrigatório")
     @Min(value = 1, message = "Dia de fechamento deve ser entre 1 e 31")
@@ -42,10 +53,12 @@ public class Cartao {
     @Column(nullable = false)
     private Integer diaDeVencimento;
     
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_id", nullable = false)
     private Usuario usuario;
     
+    @JsonIgnore
     @OneToMany(mappedBy = "cartao", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Transacao> transacoes;
     
@@ -66,7 +79,7 @@ public class Cartao {
         this();
         this.nomeDoCartao = nomeDoCartao;
         this.bandeira = bandeira;
-        this.limiteTotal = limiteTotal;
+        this.limiteTotal = Dinheiro.de(limiteTotal);
         this.diaDeFechamento = diaDeFechamento;
         this.diaDeVencimento = diaDeVencimento;
         this.usuario = usuario;
@@ -103,12 +116,27 @@ public class Cartao {
         this.bandeira = bandeira;
     }
     
+    @NotNull(message = "Limite total é obrigatório")
+    @DecimalMin(value = "0.0", inclusive = false, message = "Limite total deve ser maior que zero")
     public BigDecimal getLimiteTotal() {
-        return limiteTotal;
+        return limiteTotal != null ? limiteTotal.paraBigDecimal() : null;
+    }
+    
+    @JsonIgnore
+    public long getLimiteTotalEmCentavos() {
+        return limiteTotal != null ? limiteTotal.getCentavos() : 0;
     }
     
     public void setLimiteTotal(BigDecimal limiteTotal) {
-        this.limiteTotal = limiteTotal;
+        this.limiteTotal = Dinheiro.de(limiteTotal);
+    }
+    
+    public String getMoeda() {
+        return moeda;
+    }
+    
+    public void setMoeda(String moeda) {
+        this.moeda = moeda;
     }
     
     public Integer getDiaDeFechamento() {
@@ -160,18 +188,21 @@ public class Cartao {
     }
     
     // Métodos de negócio
-    public BigDecimal calcularLimiteUtilizado() {
+    public Dinheiro calcularLimiteUtilizado() {
+        long limiteUtilizado = limiteArquivado != null ? limiteArquivado.getCentavos() : 0;
         if (transacoes == null || transacoes.isEmpty()) {
-            return BigDecimal.ZERO;
+            return Dinheiro.deCentavos(limiteUtilizado);
         }
         
-        return transacoes.stream()
-                .map(Transacao::getValor)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Acumula em centavos: nenhum objeto é criado por transação
+        for (Transacao transacao : transacoes) {
+            limiteUtilizado = Dinheiro.somar(limiteUtilizado, transacao.getValorEmCentavos());
+        }
+        return Dinheiro.deCentavos(limiteUtilizado);
     }
     
-    public BigDecimal calcularLimiteDisponivel() {
-        return limiteTotal.subtract(calcularLimiteUtilizado());
+    public Dinheiro calcularLimiteDisponivel() {
+        return limiteTotal.subtrair(calcularLimiteUtilizado());
     }
     
     @Override
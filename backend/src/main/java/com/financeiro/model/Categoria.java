@@ -0,0 +1,120 @@
+package com.financeiro.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Categoria de transações do usuário, com orçamento mensal opcional para as despesas
+ */
+@Entity
+@Table(name = "categorias", indexes = @Index(name = "idx_categorias_usuario", columnList = "usuario_id"))
+public class Categoria {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @NotBlank(message = "Nome da categoria é obrigatório")
+    @Size(min = 2, max = 60, message = "Nome deve ter entre 2 e 60 caracteres")
+    @Column(nullable = false, length = 60)
+    private String nome;
+    
+    /** Limite de despesas por mês; nulo quando a categoria não tem orçamento */
+    @Column(name = "orcamento_mensal", precision = 15, scale = 2)
+    private Dinheiro orcamentoMensal;
+    
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    private Usuario usuario;
+    
+    @Column(name = "data_criacao", nullable = false, updatable = false)
+    private LocalDateTime dataCriacao;
+    
+    @Column(name = "data_atualizacao")
+    private LocalDateTime dataAtualizacao;
+    
+    // Construtores
+    public Categoria() {
+        this.dataCriacao = LocalDateTime.now();
+        this.dataAtualizacao = LocalDateTime.now();
+    }
+    
+    public Categoria(String nome, BigDecimal orcamentoMensal, Usuario usuario) {
+        this();
+        this.nome = nome;
+        this.orcamentoMensal = Dinheiro.de(orcamentoMensal);
+        this.usuario = usuario;
+    }
+    
+    // Métodos de ciclo de vida JPA
+    @PreUpdate
+    protected void onUpdate() {
+        this.dataAtualizacao = LocalDateTime.now();
+    }
+    
+    // Getters e Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getNome() {
+        return nome;
+    }
+    
+    public void setNome(String nome) {
+        this.nome = nome;
+    }
+    
+    @DecimalMin(value = "0.01", message = "Orçamento mensal deve ser maior que zero")
+    public BigDecimal getOrcamentoMensal() {
+        return orcamentoMensal != null ? orcamentoMensal.paraBigDecimal() : null;
+    }
+    
+    public void setOrcamentoMensal(BigDecimal orcamentoMensal) {
+        this.orcamentoMensal = Dinheiro.de(orcamentoMensal);
+    }
+    
+    public Usuario getUsuario() {
+        return usuario;
+    }
+    
+    public void setUsuario(Usuario usuario) {
+        this.usuario = usuario;
+    }
+    
+    public LocalDateTime getDataCriacao() {
+        return dataCriacao;
+    }
+    
+    public void setDataCriacao(LocalDateTime dataCriacao) {
+        this.dataCriacao = dataCriacao;
+    }
+    
+    public LocalDateTime getDataAtualizacao() {
+        return dataAtualizacao;
+    }
+    
+    public void setDataAtualizacao(LocalDateTime dataAtualizacao) {
+        this.dataAtualizacao = dataAtualizacao;
+    }
+    
+    @Override
+    public String toString() {
+        return "Categoria{" +
+                "id=" + id +
+                ", nome='" + nome + '\'' +
+                ", orcamentoMensal=" + orcamentoMensal +
+                '}';
+    }
+}
@@ -2,11 +2,14 @@ package com.financeiro.model;
 
 import com.financeiro.model.enums.TipoConta;
 import com.financeiro.model.enums.TipoTransacao;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -30,20 +33,31 @@ public class Conta {
     @Column(nullable = false)
     private TipoConta tipo;
     
-    @NotNull(message = "Saldo inicial é obrigatório")
-    @DecimalMin(value = "0.0", inclusive = true, message = "Saldo inicial deve ser maior ou igual a zero")
     @Column(nullable = false, precision = 15, scale = 2)
-    private BigDecimal saldoInicial;
+    private Dinheiro saldoInicial;
+    
+    /** Resultado líquido das transações movidas para o arquivo frio */
+    @JsonIgnore
+    @Column(name = "saldo_arquivado", precision = 15, scale = 2)
+    private Dinheiro saldoArquivado;
+    
+    /** Código ISO 4217; o saldo e os valores das transações da conta estão nesta moeda */
+    @Pattern(regexp = "[A-Za-z]{3}", message = "Moeda deve ser um código ISO 4217 (ex.: BRL)")
+    @ColumnDefault("'BRL'")
+    @Column(nullable = false, length = 3)
+    private String moeda;
     
     @NotBlank(message = "Instituição é obrigatória")
     @Size(min = 2, max = 100, message = "Instituição deve ter entre 2 e 100 caracteres")
     @Column(nullable = false, length = 100)
     private String instituicao;
     
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_id", nullable = false)
     private Usuario usuario;
     
+    @JsonIgnore
     @OneToMany(mappedBy = "conta", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Transacao> transacoes;
     
@@ -63,7 +77,7 @@ public class Conta {
         this();
         this.nome = nome;
         this.tipo = tipo;
-        this.saldoInicial = saldoInicial;
+        this.saldoInicial = Dinheiro.de(saldoInicial);
         this.instituicao = instituicao;
         this.usuario = usuario;
     }
@@ -99,12 +113,32 @@ public class Conta {
         this.tipo = tipo;
     }
     
+    @NotNull(message = "Saldo inicial é obrigatório")
+    @DecimalMin(value = "0.0", inclusive = true, message = "Saldo inicial deve ser maior ou igual a zero")
     public BigDecimal getSaldoInicial() {
-        return saldoInicial;
+        return saldoInicial != null ? saldoInicial.paraBigDecimal() : null;
+    }
+    
+    @JsonIgnore
+    public long getSaldoInicialEmCentavos() {
+        return saldoInicial != null ? saldoInicial.getCentavos() : 0;
     }
     
     public void setSaldoInicial(BigDecimal saldoInicial) {
-        this.saldoInicial = saldoInicial;
+        this.saldoInicial = Dinheiro.de(saldoInicial);
+    }
+    
+    @JsonIgnore
+    public long getSaldoArquivadoEmCentavos() {
+        return saldoArquivado != null ? saldoArquivado.getCentavos() : 0;
+    }
+    
+    public String getMoeda() {
+        return moeda;
+    }
+    
+    public void setMoeda(String moeda) {
+        this.moeda = moeda;
     }
     
     public String getInstituicao() {
@@ -148,20 +182,23 @@ public class Conta {
     }
     
     // Métodos de negócio
-    public BigDecimal calcularSaldoAtual() {
+    public Dinheiro calcularSaldoAtual() {
+        long saldoCalculado = saldoArquivado != null
+                ? Dinheiro.somar(saldoInicial.getCentavos(), saldoArquivado.getCentavos())
+                : saldoInicial.getCentavos();
         if (transacoes == null || transacoes.isEmpty()) {
-            return saldoInicial;
+            return Dinheiro.deCentavos(saldoCalculado);
         }
         
-        BigDecimal saldoCalculado = saldoInicial;
+        // Acumula em centavos: nenhum objeto é criado por transação
         for (Transacao transacao : transacoes) {
             if (transacao.getTipo() == TipoTransacao.RECEITA) {
-                saldoCalculado = saldoCalculado.add(transacao.getValor());
+                saldoCalculado = Dinheiro.somar(saldoCalculado, transacao.getValorEmCentavos());
             } else {
-                saldoCalculado = saldoCalculado.subtract(transacao.getValor());
+                saldoCalculado = Dinheiro.subtrair(saldoCalculado, transacao.getValorEmCentavos());
             }
         }
-        return saldoCalculado;
+        return Dinheiro.deCentavos(saldoCalculado);
     }
     
     @Override
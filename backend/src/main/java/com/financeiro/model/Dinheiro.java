@@ -0,0 +1,127 @@
+package com.financeiro.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Valor monetário imutável armazenado em centavos (long).
+ *
+ * As colunas de valor são precision = 15, scale = 2, então qualquer valor persistido cabe em um long
+ * de centavos. Agregações em memória somam centavos primitivos, sem criar um BigDecimal por parcela;
+ * BigDecimal fica restrito à fronteira (JSON, JPA e respostas da API).
+ * Toda aritmética é verificada: estouro de long lança ArithmeticException. Valores com mais de 2 casas
+ * decimais são recusados na entrada, nunca arredondados.
+ */
+public final class Dinheiro implements Comparable<Dinheiro> {
+
+    public static final Dinheiro ZERO = new Dinheiro(0);
+
+    private static final int ESCALA = 2;
+
+    private final long centavos;
+
+    private Dinheiro(long centavos) {
+        this.centavos = centavos;
+    }
+
+    public static Dinheiro deCentavos(long centavos) {
+        return centavos == 0 ? ZERO : new Dinheiro(centavos);
+    }
+
+    /**
+     * Converte um BigDecimal com até 2 casas decimais (zeros à direita não contam); null permanece null
+     *
+     * @throws IllegalArgumentException se o valor tiver mais de 2 casas decimais
+     */
+    @JsonCreator
+    public static Dinheiro de(BigDecimal valor) {
+        if (valor == null) {
+            return null;
+        }
+        return deCentavos(centavosExatos(valor));
+    }
+
+    /**
+     * Centavos de um BigDecimal (0 para null), para laços que acumulam em long; mesma validação de {@link #de}
+     */
+    public static long centavosDe(BigDecimal valor) {
+        return valor == null ? 0 : centavosExatos(valor);
+    }
+
+    private static long centavosExatos(BigDecimal valor) {
+        if (valor.scale() > ESCALA && valor.stripTrailingZeros().scale() > ESCALA) {
+            throw new IllegalArgumentException("Valor com mais de " + ESCALA + " casas decimais: " + valor.toPlainString());
+        }
+        return valor.setScale(ESCALA, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Soma de centavos com verificação de estouro
+     */
+    public static long somar(long centavos, long parcela) {
+        return Math.addExact(centavos, parcela);
+    }
+
+    /**
+     * Subtração de centavos com verificação de estouro
+     */
+    public static long subtrair(long centavos, long parcela) {
+        return Math.subtractExact(centavos, parcela);
+    }
+
+    public Dinheiro somar(Dinheiro outro) {
+        return deCentavos(Math.addExact(centavos, outro.centavos));
+    }
+
+    public Dinheiro subtrair(Dinheiro outro) {
+        return deCentavos(Math.subtractExact(centavos, outro.centavos));
+    }
+
+    public Dinheiro multiplicar(long fator) {
+        return deCentavos(Math.multiplyExact(centavos, fator));
+    }
+
+    public Dinheiro negar() {
+        return deCentavos(Math.negateExact(centavos));
+    }
+
+    public long getCentavos() {
+        return centavos;
+    }
+
+    public boolean isNegativo() {
+        return centavos < 0;
+    }
+
+    public boolean isZero() {
+        return centavos == 0;
+    }
+
+    @JsonValue
+    public BigDecimal paraBigDecimal() {
+        return BigDecimal.valueOf(centavos, ESCALA);
+    }
+
+    @Override
+    public int compareTo(Dinheiro outro) {
+        return Long.compare(centavos, outro.centavos);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Dinheiro outro && centavos == outro.centavos);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(centavos);
+    }
+
+    @Override
+    public String toString() {
+        return paraBigDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,23 @@
+package com.financeiro.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Mapeia {@link Dinheiro} para as colunas NUMERIC(15,2)
+ */
+@Converter(autoApply = true)
+public class DinheiroConverter implements AttributeConverter<Dinheiro, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Dinheiro dinheiro) {
+        return dinheiro == null ? null : dinheiro.paraBigDecimal();
+    }
+
+    @Override
+    public Dinheiro convertToEntityAttribute(BigDecimal valor) {
+        return Dinheiro.de(valor);
+    }
+}
@@ -0,0 +1,68 @@
+package com.financeiro.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Contador incremental de receitas e despesas de uma categoria em um mês.
+ *
+ * Mantido pelas gravações de transações (somente via JDBC, com deltas na mesma transação); a tela de orçamentos
+ * lê uma linha por categoria em vez de somar o histórico.
+ */
+@Entity
+@Table(name = "gastos_categorias",
+        uniqueConstraints = @UniqueConstraint(name = "uk_gastos_categorias_mes", columnNames = {"categoria_id", "mes"}),
+        indexes = @Index(name = "idx_gastos_categorias_usuario_mes", columnList = "usuario_id, mes"))
+public class GastoMensalCategoria {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "categoria_id", nullable = false)
+    private Categoria categoria;
+
+    /** Mês no formato AAAAMM */
+    @Column(nullable = false)
+    private int mes;
+
+    @Column(name = "despesas_centavos", nullable = false)
+    private long despesasCentavos;
+
+    @Column(name = "receitas_centavos", nullable = false)
+    private long receitasCentavos;
+
+    @Column(nullable = false)
+    private int quantidade;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUsuarioId() {
+        return usuarioId;
+    }
+
+    public Categoria getCategoria() {
+        return categoria;
+    }
+
+    public int getMes() {
+        return mes;
+    }
+
+    public long getDespesasCentavos() {
+        return despesasCentavos;
+    }
+
+    public long getReceitasCentavos() {
+        return receitasCentavos;
+    }
+
+    public int getQuantidade() {
+        return quantidade;
+    }
+}
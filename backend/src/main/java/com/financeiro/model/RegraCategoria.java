@@ -0,0 +1,111 @@
+package com.financeiro.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDateTime;
+
+/**
+ * Regra de categorização automática: descrições que contêm o termo recebem a categoria.
+ *
+ * Regras de usuário apontam para uma categoria dele. Regras globais (sem usuário) apontam para um nome de
+ * categoria e valem para todo usuário que tenha uma categoria com esse nome; as do usuário têm precedência.
+ */
+@Entity
+@Table(name = "regras_categorias", indexes = @Index(name = "idx_regras_categorias_usuario", columnList = "usuario_id"))
+public class RegraCategoria {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @NotBlank(message = "Termo é obrigatório")
+    @Size(min = 2, max = 60, message = "Termo deve ter entre 2 e 60 caracteres")
+    @Column(nullable = false, length = 60)
+    private String termo;
+    
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "categoria_id")
+    private Categoria categoria;
+    
+    /** Categoria de destino das regras globais, pelo nome */
+    @Size(max = 60, message = "Nome da categoria deve ter até 60 caracteres")
+    @Column(name = "nome_categoria", length = 60)
+    private String nomeCategoria;
+    
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id")
+    private Usuario usuario;
+    
+    @Column(name = "data_criacao", nullable = false, updatable = false)
+    private LocalDateTime dataCriacao;
+    
+    // Construtores
+    public RegraCategoria() {
+        this.dataCriacao = LocalDateTime.now();
+    }
+    
+    // Getters e Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getTermo() {
+        return termo;
+    }
+    
+    public void setTermo(String termo) {
+        this.termo = termo;
+    }
+    
+    public Categoria getCategoria() {
+        return categoria;
+    }
+    
+    public void setCategoria(Categoria categoria) {
+        this.categoria = categoria;
+    }
+    
+    public String getNomeCategoria() {
+        return nomeCategoria;
+    }
+    
+    public void setNomeCategoria(String nomeCategoria) {
+        this.nomeCategoria = nomeCategoria;
+    }
+    
+    public Usuario getUsuario() {
+        return usuario;
+    }
+    
+    public void setUsuario(Usuario usuario) {
+        this.usuario = usuario;
+    }
+    
+    public LocalDateTime getDataCriacao() {
+        return dataCriacao;
+    }
+    
+    public void setDataCriacao(LocalDateTime dataCriacao) {
+        this.dataCriacao = dataCriacao;
+    }
+    
+    // Id da associação para o JSON (não inicializa o proxy LAZY)
+    @JsonProperty("categoriaId")
+    public Long idDaCategoria() {
+        return categoria != null ? categoria.getId() : null;
+    }
+    
+    public boolean isGlobal() {
+        return usuario == null;
+    }
+}
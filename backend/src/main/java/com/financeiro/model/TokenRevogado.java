@@ -0,0 +1,62 @@
+package com.financeiro.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Token JWT revogado (logout) até a sua expiração; depois disso a linha é removida
+ */
+@Entity
+@Table(name = "tokens_revogados", indexes = {
+        @Index(name = "idx_tokens_revogados_expiracao", columnList = "expiracao"),
+        @Index(name = "idx_tokens_revogados_revogacao", columnList = "data_revogacao")
+})
+public class TokenRevogado {
+
+    /** Claim jti do token */
+    @Id
+    @Column(length = 36)
+    private String jti;
+
+    @Column(name = "usuario_id")
+    private Long usuarioId;
+
+    @Column(nullable = false)
+    private LocalDateTime expiracao;
+
+    @Column(name = "data_revogacao", nullable = false)
+    private LocalDateTime dataRevogacao;
+
+    public String getJti() {
+        return jti;
+    }
+
+    public void setJti(String jti) {
+        this.jti = jti;
+    }
+
+    public Long getUsuarioId() {
+        return usuarioId;
+    }
+
+    public void setUsuarioId(Long usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+
+    public LocalDateTime getExpiracao() {
+        return expiracao;
+    }
+
+    public void setExpiracao(LocalDateTime expiracao) {
+        this.expiracao = expiracao;
+    }
+
+    public LocalDateTime getDataRevogacao() {
+        return dataRevogacao;
+    }
+
+    public void setDataRevogacao(LocalDateTime dataRevogacao) {
+        this.dataRevogacao = dataRevogacao;
+    }
+}
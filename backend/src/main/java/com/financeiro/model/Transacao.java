@@ -1,5 +1,7 @@
 package com.financeiro.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.financeiro.model.enums.TipoTransacao;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
@@ -24,10 +26,8 @@ public class Transacao {
     @Column(nullable = false, length = 200)
     private String descricao;
     
-    @NotNull(message = "Valor é obrigatório")
-    @DecimalMin(value = "0.01", message = "Valor deve ser maior que zero")
     @Column(nullable = false, precision = 15, scale = 2)
-    private BigDecimal valor;
+    private Dinheiro valor;
     
     @NotNull(message = "Data é obrigatória")
     @Column(nullable = false)
@@ -42,14 +42,22 @@ public class Transacao {
     @Column(nullable = false)
     private Boolean recorrente = false;
     
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "conta_id", nullable = false)
     private Conta conta;
     
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cartao_id")
     private Cartao cartao;
     
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "categoria_id")
+    private Categoria categoria;
+    
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_id", nullable = false)
     private Usuario usuario;
@@ -60,6 +68,20 @@ public class Transacao {
     @Column(name = "data_atualizacao")
     private LocalDateTime dataAtualizacao;
     
+    /** Lida de um segmento do arquivo frio (somente leitura) */
+    @Transient
+    private boolean arquivada;
+    
+    /** Impressão digital da detecção de duplicatas (única por usuário; nula até a linha ser indexada) */
+    @JsonIgnore
+    @Column(name = "impressao_digital")
+    private Long impressaoDigital;
+    
+    /** Grava mesmo que já exista uma transação igual (mesma conta ou cartão, data, valor e descrição) */
+    @Transient
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private boolean permitirDuplicada;
+    
     // Construtores
     public Transacao() {
         this.dataCriacao = LocalDateTime.now();
@@ -71,7 +93,7 @@ public class Transacao {
                      TipoTransacao tipo, Boolean recorrente, Conta conta, Usuario usuario) {
         this();
         this.descricao = descricao;
-        this.valor = valor;
+        this.valor = Dinheiro.de(valor);
         this.data = data;
         this.tipo = tipo;
         this.recorrente = recorrente;
@@ -102,12 +124,19 @@ public class Transacao {
         this.descricao = descricao;
     }
     
+    @NotNull(message = "Valor é obrigatório")
+    @DecimalMin(value = "0.01", message = "Valor deve ser maior que zero")
     public BigDecimal getValor() {
-        return valor;
+        return valor != null ? valor.paraBigDecimal() : null;
+    }
+    
+    @JsonIgnore
+    public long getValorEmCentavos() {
+        return valor != null ? valor.getCentavos() : 0;
     }
     
     public void setValor(BigDecimal valor) {
-        this.valor = valor;
+        this.valor = Dinheiro.de(valor);
     }
     
     public LocalDate getData() {
@@ -150,6 +179,14 @@ public class Transacao {
         this.cartao = cartao;
     }
     
+    public Categoria getCategoria() {
+        return categoria;
+    }
+    
+    public void setCategoria(Categoria categoria) {
+        this.categoria = categoria;
+    }
+    
     public Usuario getUsuario() {
         return usuario;
     }
@@ -187,6 +224,46 @@ public class Transacao {
         return this.cartao != null;
     }
     
+    // Ids das associações para o JSON (não inicializam os proxies LAZY)
+    @JsonProperty("contaId")
+    public Long idDaConta() {
+        return conta != null ? conta.getId() : null;
+    }
+    
+    @JsonProperty("cartaoId")
+    public Long idDoCartao() {
+        return cartao != null ? cartao.getId() : null;
+    }
+    
+    @JsonProperty("categoriaId")
+    public Long idDaCategoria() {
+        return categoria != null ? categoria.getId() : null;
+    }
+    
+    public boolean isArquivada() {
+        return arquivada;
+    }
+    
+    public void setArquivada(boolean arquivada) {
+        this.arquivada = arquivada;
+    }
+    
+    public Long getImpressaoDigital() {
+        return impressaoDigital;
+    }
+    
+    public void setImpressaoDigital(Long impressaoDigital) {
+        this.impressaoDigital = impressaoDigital;
+    }
+    
+    public boolean isPermitirDuplicada() {
+        return permitirDuplicada;
+    }
+    
+    public void setPermitirDuplicada(boolean permitirDuplicada) {
+        this.permitirDuplicada = permitirDuplicada;
+    }
+    
     @Override
     public String toString() {
         return "Transacao{" +
@@ -1,11 +1,14 @@
 package com.financeiro.model;
 
 import com.financeiro.model.enums.PerfilUsuario;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -38,6 +41,12 @@ public class Usuario {
     @Column(nullable = false)
     private PerfilUsuario perfil;
     
+    /** Moeda (ISO 4217) em que saldos totais e resumos são apresentados */
+    @Pattern(regexp = "[A-Za-z]{3}", message = "Moeda deve ser um código ISO 4217 (ex.: BRL)")
+    @ColumnDefault("'BRL'")
+    @Column(name = "moeda_base", nullable = false, length = 3)
+    private String moedaBase;
+    
     @Column(nullable = false)
     private Boolean ativo = true;
     
@@ -47,12 +56,15 @@ public class Usuario {
     @Column(name = "data_atualizacao")
     private LocalDateTime dataAtualizacao;
     
+    @JsonIgnore
     @OneToMany(mappedBy = "usuario", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Conta> contas;
     
+    @JsonIgnore
     @OneToMany(mappedBy = "usuario", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Cartao> cartoes;
     
+    @JsonIgnore
     @OneToMany(mappedBy = "usuario", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Transacao> transacoes;
     
@@ -118,6 +130,14 @@ public class Usuario {
         this.perfil = perfil;
     }
     
+    public String getMoedaBase() {
+        return moedaBase;
+    }
+    
+    public void setMoedaBase(String moedaBase) {
+        this.moedaBase = moedaBase;
+    }
+    
     public Boolean getAtivo() {
         return ativo;
     }
@@ -0,0 +1,235 @@
+package com.financeiro.orcamento;
+
+import com.financeiro.cambio.ConversorMoedaBase;
+import com.financeiro.cambio.TabelaCambio;
+import com.financeiro.model.Dinheiro;
+import com.financeiro.model.Transacao;
+import com.financeiro.model.enums.TipoTransacao;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Contadores mensais de gastos por categoria (tabela gastos_categorias).
+ *
+ * Cada gravação de transação soma o seu delta ao contador do mês e da categoria, na mesma transação do banco e
+ * convertido para a moeda base do usuário pela cotação da data da transação; a tela de orçamentos é uma única leitura indexada, qualquer que seja o tamanho do histórico. Os deltas de um
+ * lote se somam por contador antes de ir ao banco e são aplicados em ordem de chave, o que evita deadlock entre
+ * lotes concorrentes que tocam os mesmos contadores. O arquivamento não mexe nos contadores: o gasto continua
+ * pertencendo ao mês em que ocorreu.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class ContadoresGastos {
+
+    private static final String INSERCAO = "INSERT INTO gastos_categorias (despesas_centavos, receitas_centavos, " +
+            "quantidade, categoria_id, mes, usuario_id) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String UPSERT_POSTGRES = INSERCAO + " ON CONFLICT (categoria_id, mes) DO UPDATE SET " +
+            "despesas_centavos = gastos_categorias.despesas_centavos + EXCLUDED.despesas_centavos, " +
+            "receitas_centavos = gastos_categorias.receitas_centavos + EXCLUDED.receitas_centavos, " +
+            "quantidade = gastos_categorias.quantidade + EXCLUDED.quantidade";
+
+    /** No H2 um único MERGE: UPDATE seguido de INSERT deixaria duas gravações do primeiro gasto do mês colidirem */
+    private static final String MERGE_H2 = "MERGE INTO gastos_categorias g USING (VALUES (CAST(? AS BIGINT), " +
+            "CAST(? AS BIGINT), CAST(? AS INT), CAST(? AS BIGINT), CAST(? AS INT), CAST(? AS BIGINT))) " +
+            "AS d(despesas, receitas, quantidade, categoria_id, mes, usuario_id) " +
+            "ON g.categoria_id = d.categoria_id AND g.mes = d.mes " +
+            "WHEN MATCHED THEN UPDATE SET despesas_centavos = g.despesas_centavos + d.despesas, " +
+            "receitas_centavos = g.receitas_centavos + d.receitas, quantidade = g.quantidade + d.quantidade " +
+            "WHEN NOT MATCHED THEN INSERT (despesas_centavos, receitas_centavos, quantidade, categoria_id, mes, usuario_id) " +
+            "VALUES (d.despesas, d.receitas, d.quantidade, d.categoria_id, d.mes, d.usuario_id)";
+
+    private static final String SITUACAO = "SELECT c.id, c.nome, c.orcamento_mensal, g.despesas_centavos, " +
+            "g.receitas_centavos, g.quantidade FROM categorias c " +
+            "LEFT JOIN gastos_categorias g ON g.categoria_id = c.id AND g.mes = ? " +
+            "WHERE c.usuario_id = ? ORDER BY LOWER(c.nome)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ConversorMoedaBase conversorMoedaBase;
+
+    @Autowired
+    private TabelaCambio tabelaCambio;
+
+    private boolean postgres;
+
+    @PostConstruct
+    void detectarBanco() {
+        String produto = jdbcTemplate.execute((ConnectionCallback<String>) conexao ->
+                conexao.getMetaData().getDatabaseProductName());
+        postgres = "PostgreSQL".equalsIgnoreCase(produto);
+    }
+
+    /**
+     * Soma a transação gravada ao contador da sua categoria (sem categoria, nada a fazer)
+     */
+    public void transacaoIncluida(Transacao transacao) {
+        Deltas deltas = new Deltas();
+        deltas.incluir(transacao);
+        aplicar(deltas);
+    }
+
+    /**
+     * Retira a transação excluída do contador da sua categoria
+     */
+    public void transacaoRemovida(Transacao transacao) {
+        Deltas deltas = new Deltas();
+        deltas.remover(transacao);
+        aplicar(deltas);
+    }
+
+    /**
+     * Aplica os deltas acumulados na transação corrente, um comando por contador alterado
+     */
+    public void aplicar(Deltas deltas) {
+        Map<Long, ConversorMoedaBase.Conversao> conversoes = new HashMap<>();
+        Map<Chave, long[]> contadores = new TreeMap<>();
+        for (Map.Entry<Parcela, long[]> entrada : deltas.valores.entrySet()) {
+            Parcela parcela = entrada.getKey();
+            long[] delta = entrada.getValue();
+            ConversorMoedaBase.Conversao conversao = conversoes.computeIfAbsent(parcela.chave().usuarioId(),
+                    conversorMoedaBase::paraUsuario);
+            long[] contador = contadores.computeIfAbsent(parcela.chave(), chave -> new long[3]);
+            for (int coluna = 0; coluna < 2; coluna++) {
+                contador[coluna] = Dinheiro.somar(contador[coluna],
+                        conversao.converter(parcela.contaId(), delta[coluna], parcela.data()));
+            }
+            contador[2] += delta[2];
+        }
+        for (Map.Entry<Chave, long[]> entrada : contadores.entrySet()) {
+            Chave chave = entrada.getKey();
+            long[] delta = entrada.getValue();
+            if (delta[0] == 0 && delta[1] == 0 && delta[2] == 0) {
+                continue;
+            }
+            jdbcTemplate.update(postgres ? UPSERT_POSTGRES : MERGE_H2,
+                    delta[0], delta[1], delta[2], chave.categoriaId(), chave.mes(), chave.usuarioId());
+        }
+    }
+
+    /**
+     * Converte os contadores do usuário para a nova moeda base. A cotação de cada transação não é mais conhecida
+     * aqui: cada mês é convertido pela cotação do seu último dia (ou de hoje, no mês corrente).
+     */
+    public void moedaBaseAlterada(Long usuarioId, String anterior, String nova) {
+        if (anterior.equals(nova)) {
+            return;
+        }
+        LocalDate hoje = LocalDate.now();
+        List<Object[]> contadores = jdbcTemplate.query(
+                "SELECT id, mes, despesas_centavos, receitas_centavos FROM gastos_categorias WHERE usuario_id = ?",
+                (rs, i) -> new Object[]{rs.getLong(1), rs.getInt(2), rs.getLong(3), rs.getLong(4)}, usuarioId);
+        List<Object[]> convertidos = new ArrayList<>(contadores.size());
+        for (Object[] contador : contadores) {
+            int mes = (Integer) contador[1];
+            LocalDate ultimoDia = YearMonth.of(mes / 100, mes % 100).atEndOfMonth();
+            LocalDate data = ultimoDia.isAfter(hoje) ? hoje : ultimoDia;
+            convertidos.add(new Object[]{
+                    tabelaCambio.converter((Long) contador[2], anterior, nova, data),
+                    tabelaCambio.converter((Long) contador[3], anterior, nova, data),
+                    contador[0]});
+        }
+        jdbcTemplate.batchUpdate("UPDATE gastos_categorias SET despesas_centavos = ?, receitas_centavos = ? WHERE id = ?",
+                convertidos);
+    }
+
+    /**
+     * Remove os contadores de uma categoria (antes de excluí-la)
+     */
+    public void categoriaExcluida(Long categoriaId) {
+        jdbcTemplate.update("DELETE FROM gastos_categorias WHERE categoria_id = ?", categoriaId);
+    }
+
+    /**
+     * Despesas e receitas do mês por categoria do usuário, frente ao orçamento de cada uma
+     */
+    public List<SituacaoOrcamento> situacao(Long usuarioId, YearMonth mes) {
+        List<SituacaoOrcamento> situacoes = new ArrayList<>();
+        jdbcTemplate.query(SITUACAO, rs -> {
+            Dinheiro orcamento = Dinheiro.de(rs.getBigDecimal(3));
+            Dinheiro despesas = Dinheiro.deCentavos(rs.getLong(4));
+            Integer percentual = null;
+            Dinheiro disponivel = null;
+            if (orcamento != null) {
+                disponivel = orcamento.subtrair(despesas);
+                percentual = orcamento.isZero() ? null
+                        : (int) Math.round(despesas.getCentavos() * 100.0 / orcamento.getCentavos());
+            }
+            situacoes.add(new SituacaoOrcamento(rs.getLong(1), rs.getString(2), orcamento, despesas,
+                    Dinheiro.deCentavos(rs.getLong(5)), disponivel, percentual, rs.getInt(6)));
+        }, codigo(mes), usuarioId);
+        return situacoes;
+    }
+
+    /**
+     * Mês no formato AAAAMM usado como chave dos contadores
+     */
+    public static int codigo(YearMonth mes) {
+        return mes.getYear() * 100 + mes.getMonthValue();
+    }
+
+    private static int codigo(LocalDate data) {
+        return data.getYear() * 100 + data.getMonthValue();
+    }
+
+    private record Chave(Long categoriaId, int mes, Long usuarioId) implements Comparable<Chave> {
+
+        @Override
+        public int compareTo(Chave outra) {
+            int comparacao = Long.compare(categoriaId, outra.categoriaId);
+            return comparacao != 0 ? comparacao : Integer.compare(mes, outra.mes);
+        }
+    }
+
+    /** Contador e a conta e data de origem dos valores, que definem a moeda e a cotação da conversão */
+    private record Parcela(Chave chave, Long contaId, LocalDate data) {
+    }
+
+    /**
+     * Deltas de um conjunto de gravações somados por contador, conta e data (despesas, receitas e quantidade),
+     * ainda na moeda de cada conta
+     */
+    public static final class Deltas {
+
+        private final Map<Parcela, long[]> valores = new HashMap<>();
+
+        public void incluir(Transacao transacao) {
+            somar(transacao.getUsuario().getId(), transacao.idDaCategoria(), transacao.idDaConta(), transacao.getTipo(),
+                    transacao.getData(), transacao.getValorEmCentavos(), 1);
+        }
+
+        public void remover(Transacao transacao) {
+            somar(transacao.getUsuario().getId(), transacao.idDaCategoria(), transacao.idDaConta(), transacao.getTipo(),
+                    transacao.getData(), -transacao.getValorEmCentavos(), -1);
+        }
+
+        /**
+         * Soma um grupo de transações de uma conta em uma data (centavos e quantidade negativos para retirar)
+         */
+        public void somar(Long usuarioId, Long categoriaId, Long contaId, TipoTransacao tipo, LocalDate data,
+                          long centavos, long quantidade) {
+            if (categoriaId == null) {
+                return;
+            }
+            Chave chave = new Chave(categoriaId, codigo(data), usuarioId);
+            long[] delta = valores.computeIfAbsent(new Parcela(chave, contaId, data), parcela -> new long[3]);
+            int coluna = tipo == TipoTransacao.RECEITA ? 1 : 0;
+            delta[coluna] = Dinheiro.somar(delta[coluna], centavos);
+            delta[2] += quantidade;
+        }
+    }
+}
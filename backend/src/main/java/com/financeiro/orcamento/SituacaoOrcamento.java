@@ -0,0 +1,15 @@
+package com.financeiro.orcamento;
+
+import com.financeiro.model.Dinheiro;
+
+/**
+ * Gasto do mês de uma categoria frente ao seu orçamento
+ *
+ * @param orcamento limite mensal (nulo quando a categoria não tem orçamento)
+ * @param disponivel orçamento menos despesas, negativo quando estourado (nulo sem orçamento)
+ * @param percentualUtilizado despesas sobre o orçamento, em pontos percentuais (nulo sem orçamento)
+ */
+public record SituacaoOrcamento(Long categoriaId, String nome, Dinheiro orcamento, Dinheiro despesas,
+                                Dinheiro receitas, Dinheiro disponivel, Integer percentualUtilizado,
+                                int transacoes) {
+}
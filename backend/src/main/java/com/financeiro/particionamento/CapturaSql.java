@@ -0,0 +1,43 @@
+package com.financeiro.particionamento;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registra o SQL que o Hibernate gera na thread atual enquanto uma captura estiver ativa; usado para rodar
+ * EXPLAIN sobre as consultas reais dos repositórios
+ */
+public class CapturaSql implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> CAPTURADAS = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        List<String> capturadas = CAPTURADAS.get();
+        if (capturadas != null) {
+            capturadas.add(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Executa a ação e devolve as instruções SQL geradas por ela, na ordem
+     */
+    public static List<String> capturar(Runnable acao) {
+        List<String> anteriores = CAPTURADAS.get();
+        List<String> capturadas = new ArrayList<>();
+        CAPTURADAS.set(capturadas);
+        try {
+            acao.run();
+        } finally {
+            if (anteriores != null) {
+                CAPTURADAS.set(anteriores);
+            } else {
+                CAPTURADAS.remove();
+            }
+        }
+        return capturadas;
+    }
+}
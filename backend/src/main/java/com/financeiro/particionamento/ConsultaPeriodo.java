@@ -0,0 +1,39 @@
+package com.financeiro.particionamento;
+
+import com.financeiro.repository.TransacaoRepository;
+
+import java.time.LocalDate;
+
+/**
+ * Consultas de período dos repositórios cuja poda de partições pode ser conferida com EXPLAIN.
+ *
+ * Todas recebem os parâmetros na ordem usuarioId, início e fim, a mesma em que aparecem no SQL gerado.
+ */
+public enum ConsultaPeriodo {
+
+    /** Extrato do período (TransacaoRepository.findByUsuarioIdAndDataBetweenOrderByDataDescIdDesc) */
+    EXTRATO {
+        @Override
+        void executar(TransacaoRepository repositorio, Long usuarioId, LocalDate inicio, LocalDate fim) {
+            repositorio.findByUsuarioIdAndDataBetweenOrderByDataDescIdDesc(usuarioId, inicio, fim);
+        }
+    },
+
+    /** Total de receitas do período (TransacaoRepository.calcularTotalReceitasPorPeriodo) */
+    RECEITAS {
+        @Override
+        void executar(TransacaoRepository repositorio, Long usuarioId, LocalDate inicio, LocalDate fim) {
+            repositorio.calcularTotalReceitasPorPeriodo(usuarioId, inicio, fim);
+        }
+    },
+
+    /** Total de despesas do período (TransacaoRepository.calcularTotalDespesasPorPeriodo) */
+    DESPESAS {
+        @Override
+        void executar(TransacaoRepository repositorio, Long usuarioId, LocalDate inicio, LocalDate fim) {
+            repositorio.calcularTotalDespesasPorPeriodo(usuarioId, inicio, fim);
+        }
+    };
+
+    abstract void executar(TransacaoRepository repositorio, Long usuarioId, LocalDate inicio, LocalDate fim);
+}
@@ -0,0 +1,250 @@
+package com.financeiro.particionamento;
+
+import com.financeiro.repository.TransacaoRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Mantém a tabela transacoes particionada por faixa de data no PostgreSQL.
+ *
+ * Na inicialização, depois que o Hibernate gera o esquema e antes do servidor aceitar requisições, converte a
+ * tabela comum em particionada (se financeiro.particionamento.migrar) e, todo dia, garante as partições do intervalo atual e das próximas. Datas fora das partições existentes caem na partição
+ * padrão; quando a partição correspondente é criada, essas linhas são movidas para ela antes do ATTACH.
+ *
+ * O mapeamento JPA não muda: a chave primária física passa a ser (id, data), exigência do PostgreSQL para
+ * tabelas particionadas, e o id continua gerado pelo banco. No H2 nada é feito.
+ */
+@Component
+@Lazy(false)
+@DependsOn("entityManagerFactory")
+@EnableConfigurationProperties(ParticionamentoProperties.class)
+public class GerenciadorParticoes {
+
+    private static final Logger logger = LoggerFactory.getLogger(GerenciadorParticoes.class);
+
+    static final String TABELA = "transacoes";
+    static final String LEGADO = "transacoes_legado";
+    static final String PADRAO = "transacoes_padrao";
+    static final String SEQUENCIA = "transacoes_particionada_id_seq";
+
+    private static final Pattern RELACAO = Pattern.compile("\"Relation Name\"\\s*:\\s*\"([^\"]+)\"");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ParticionamentoProperties properties;
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    private volatile Boolean postgres;
+
+    @PostConstruct
+    public void preparar() {
+        if (!properties.isHabilitado()) {
+            return;
+        }
+        if (!isPostgres()) {
+            logger.info("Particionamento de {} ignorado: o banco não é PostgreSQL", TABELA);
+            return;
+        }
+        if (!isParticionada()) {
+            if (!properties.isMigrar()) {
+                logger.warn("Tabela {} não é particionada; defina financeiro.particionamento.migrar=true para convertê-la", TABELA);
+                return;
+            }
+            migrar();
+        }
+        criarParticoesFuturas();
+    }
+
+    /**
+     * Cria diariamente as partições que faltam até particoes-futuras intervalos à frente
+     */
+    @Scheduled(cron = "${financeiro.particionamento.cron:0 30 2 * * *}")
+    public void manter() {
+        if (properties.isHabilitado() && isPostgres() && isParticionada()) {
+            criarParticoesFuturas();
+        }
+    }
+
+    /**
+     * Garante as partições do intervalo atual e das próximas
+     */
+    public void criarParticoesFuturas() {
+        Granularidade granularidade = properties.getGranularidade();
+        LocalDate inicio = granularidade.inicioDoIntervalo(LocalDate.now());
+        for (int i = 0; i <= properties.getParticoesFuturas(); i++) {
+            if (!existe(nomeDaParticao(inicio))) {
+                try {
+                    criarParticao(inicio);
+                } catch (RuntimeException e) {
+                    logger.error("Falha ao criar a partição {}", nomeDaParticao(inicio), e);
+                }
+            }
+            inicio = granularidade.proximo(inicio);
+        }
+    }
+
+    /**
+     * Converte a tabela comum em particionada: renomeia, recria particionada, copia as linhas e recria as FKs
+     * (tudo em uma transação; a tabela fica bloqueada durante a cópia)
+     */
+    public void migrar() {
+        long inicioMigracao = System.nanoTime();
+        Granularidade granularidade = properties.getGranularidade();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("LOCK TABLE " + TABELA + " IN ACCESS EXCLUSIVE MODE");
+            List<String[]> chavesEstrangeiras = jdbcTemplate.query(
+                    "SELECT conname, pg_get_constraintdef(oid) FROM pg_constraint " +
+                            "WHERE conrelid = '" + TABELA + "'::regclass AND contype = 'f'",
+                    (rs, i) -> new String[]{rs.getString(1), rs.getString(2)});
+            LocalDate menorData = jdbcTemplate.queryForObject("SELECT MIN(data) FROM " + TABELA, LocalDate.class);
+
+            jdbcTemplate.execute("ALTER TABLE " + TABELA + " RENAME TO " + LEGADO);
+            jdbcTemplate.execute("CREATE TABLE " + TABELA + " (LIKE " + LEGADO + " INCLUDING DEFAULTS) PARTITION BY RANGE (data)");
+            jdbcTemplate.execute("CREATE SEQUENCE " + SEQUENCIA + " OWNED BY " + TABELA + ".id");
+            jdbcTemplate.execute("ALTER TABLE " + TABELA + " ALTER COLUMN id SET DEFAULT nextval('" + SEQUENCIA + "')");
+            jdbcTemplate.execute("ALTER TABLE " + TABELA + " ADD CONSTRAINT transacoes_particionada_pkey PRIMARY KEY (id, data)");
+            jdbcTemplate.execute("CREATE INDEX idx_transacoes_usuario_data ON " + TABELA + " (usuario_id, data)");
+            jdbcTemplate.execute("CREATE INDEX idx_transacoes_conta ON " + TABELA + " (conta_id)");
+            jdbcTemplate.execute("CREATE INDEX idx_transacoes_cartao ON " + TABELA + " (cartao_id)");
+            jdbcTemplate.execute("CREATE INDEX idx_transacoes_categoria ON " + TABELA + " (categoria_id)");
+            jdbcTemplate.execute("CREATE UNIQUE INDEX uk_transacoes_impressao ON " + TABELA + " (usuario_id, impressao_digital, data)");
+            jdbcTemplate.execute("CREATE TABLE " + PADRAO + " PARTITION OF " + TABELA + " DEFAULT");
+
+            LocalDate fim = granularidade.inicioDoIntervalo(LocalDate.now());
+            for (LocalDate inicio = granularidade.inicioDoIntervalo(menorData != null ? menorData : fim);
+                 inicio.isBefore(fim); inicio = granularidade.proximo(inicio)) {
+                jdbcTemplate.execute("CREATE TABLE " + nomeDaParticao(inicio) + " PARTITION OF " + TABELA +
+                        " FOR VALUES FROM ('" + inicio + "') TO ('" + granularidade.proximo(inicio) + "')");
+            }
+
+            int linhas = jdbcTemplate.update("INSERT INTO " + TABELA + " SELECT * FROM " + LEGADO);
+            jdbcTemplate.queryForObject("SELECT setval('" + SEQUENCIA + "', COALESCE((SELECT MAX(id) FROM " + TABELA + "), 0) + 1, false)",
+                    Long.class);
+            jdbcTemplate.execute("DROP TABLE " + LEGADO);
+            for (String[] chave : chavesEstrangeiras) {
+                jdbcTemplate.execute("ALTER TABLE " + TABELA + " ADD CONSTRAINT " + chave[0] + " " + chave[1]);
+            }
+            logger.info("Tabela {} convertida em particionada ({}): {} linhas copiadas", TABELA, granularidade, linhas);
+        });
+        logger.info("Migração do particionamento concluída em {} ms", (System.nanoTime() - inicioMigracao) / 1_000_000);
+    }
+
+    /**
+     * Cria a partição que começa em inicio, movendo antes as linhas do intervalo que estejam na partição padrão
+     */
+    public void criarParticao(LocalDate inicio) {
+        LocalDate fim = properties.getGranularidade().proximo(inicio);
+        String nome = nomeDaParticao(inicio);
+        String intervalo = "data >= '" + inicio + "' AND data < '" + fim + "'";
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("CREATE TABLE " + nome + " (LIKE " + TABELA + " INCLUDING DEFAULTS)");
+            int movidas = 0;
+            if (existe(PADRAO)) {
+                movidas = jdbcTemplate.update("INSERT INTO " + nome + " SELECT * FROM " + PADRAO + " WHERE " + intervalo);
+                jdbcTemplate.update("DELETE FROM " + PADRAO + " WHERE " + intervalo);
+            }
+            jdbcTemplate.execute("ALTER TABLE " + TABELA + " ATTACH PARTITION " + nome +
+                    " FOR VALUES FROM ('" + inicio + "') TO ('" + fim + "')");
+            logger.info("Partição {} criada ({} linhas vindas de {})", nome, movidas, PADRAO);
+        });
+    }
+
+    /**
+     * Partições existentes com seus limites e linhas estimadas
+     */
+    public List<Map<String, Object>> listarParticoes() {
+        if (!isPostgres() || !isParticionada()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+                "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid), c.reltuples::bigint FROM pg_inherits i " +
+                        "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = '" + TABELA + "'::regclass ORDER BY c.relname",
+                (rs, i) -> {
+                    Map<String, Object> particao = new LinkedHashMap<>();
+                    particao.put("nome", rs.getString(1));
+                    particao.put("limites", rs.getString(2));
+                    particao.put("linhasEstimadas", Math.max(0, rs.getLong(3)));
+                    return particao;
+                });
+    }
+
+    /**
+     * Partições que o planejador efetivamente lê para uma consulta de período do repositório (verificação da poda).
+     *
+     * Executa a consulta real em uma transação somente leitura para capturar o SQL gerado pelo Hibernate e roda
+     * EXPLAIN sobre ele com os mesmos parâmetros.
+     */
+    public List<String> particoesConsultadas(ConsultaPeriodo consulta, Long usuarioId, LocalDate dataInicio, LocalDate dataFim) {
+        if (!isPostgres()) {
+            return List.of();
+        }
+        TransactionTemplate somenteLeitura = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        somenteLeitura.setReadOnly(true);
+        List<String> instrucoes = CapturaSql.capturar(() -> somenteLeitura.executeWithoutResult(status ->
+                consulta.executar(transacaoRepository, usuarioId, dataInicio, dataFim)));
+        String sql = instrucoes.stream()
+                .filter(instrucao -> instrucao.toLowerCase().contains(TABELA))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("A consulta " + consulta + " não gerou SQL sobre " + TABELA));
+        String plano = String.join("\n", jdbcTemplate.queryForList("EXPLAIN (FORMAT JSON) " + sql,
+                String.class, usuarioId, dataInicio, dataFim));
+        List<String> relacoes = new ArrayList<>();
+        Matcher matcher = RELACAO.matcher(plano);
+        while (matcher.find()) {
+            if (matcher.group(1).startsWith(TABELA) && !relacoes.contains(matcher.group(1))) {
+                relacoes.add(matcher.group(1));
+            }
+        }
+        return relacoes;
+    }
+
+    public boolean isPostgres() {
+        if (postgres == null) {
+            String produto = jdbcTemplate.execute((ConnectionCallback<String>) conexao ->
+                    conexao.getMetaData().getDatabaseProductName());
+            postgres = "PostgreSQL".equalsIgnoreCase(produto);
+        }
+        return postgres;
+    }
+
+    public boolean isParticionada() {
+        Integer particionadas = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid " +
+                        "WHERE c.relname = ? AND pg_table_is_visible(c.oid)", Integer.class, TABELA);
+        return particionadas != null && particionadas > 0;
+    }
+
+    private boolean existe(String relacao) {
+        Boolean existe = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, relacao);
+        return Boolean.TRUE.equals(existe);
+    }
+
+    private String nomeDaParticao(LocalDate inicio) {
+        return TABELA + "_p" + properties.getGranularidade().sufixo(inicio);
+    }
+}
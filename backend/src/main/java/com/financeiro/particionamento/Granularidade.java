@@ -0,0 +1,52 @@
+package com.financeiro.particionamento;
+
+import java.time.LocalDate;
+
+/**
+ * Tamanho de cada partição da tabela transacoes
+ */
+public enum Granularidade {
+
+    MENSAL {
+        @Override
+        public LocalDate inicioDoIntervalo(LocalDate data) {
+            return data.withDayOfMonth(1);
+        }
+
+        @Override
+        public LocalDate proximo(LocalDate inicio) {
+            return inicio.plusMonths(1);
+        }
+
+        @Override
+        public String sufixo(LocalDate inicio) {
+            return String.format("%04d_%02d", inicio.getYear(), inicio.getMonthValue());
+        }
+    },
+
+    ANUAL {
+        @Override
+        public LocalDate inicioDoIntervalo(LocalDate data) {
+            return data.withDayOfYear(1);
+        }
+
+        @Override
+        public LocalDate proximo(LocalDate inicio) {
+            return inicio.plusYears(1);
+        }
+
+        @Override
+        public String sufixo(LocalDate inicio) {
+            return String.format("%04d", inicio.getYear());
+        }
+    };
+
+    /** Primeiro dia da partição que contém a data */
+    public abstract LocalDate inicioDoIntervalo(LocalDate data);
+
+    /** Primeiro dia da partição seguinte (limite superior exclusivo) */
+    public abstract LocalDate proximo(LocalDate inicio);
+
+    /** Sufixo do nome da partição (transacoes_p{sufixo}) */
+    public abstract String sufixo(LocalDate inicio);
+}
@@ -0,0 +1,17 @@
+package com.financeiro.particionamento;
+
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ParticionamentoConfig {
+
+    /**
+     * Permite capturar o SQL gerado pelos repositórios para conferir a poda de partições
+     */
+    @Bean
+    public HibernatePropertiesCustomizer capturaSqlCustomizer() {
+        return properties -> properties.put("hibernate.session_factory.statement_inspector", new CapturaSql());
+    }
+}
@@ -0,0 +1,62 @@
+package com.financeiro.particionamento;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Particionamento declarativo da tabela transacoes por faixa de data (somente PostgreSQL).
+ *
+ * Exemplo:
+ * <pre>
+ * financeiro.particionamento.habilitado=true
+ * financeiro.particionamento.granularidade=MENSAL
+ * financeiro.particionamento.particoes-futuras=3
+ * financeiro.particionamento.migrar=true
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "financeiro.particionamento")
+public class ParticionamentoProperties {
+
+    /** Liga a manutenção das partições (ignorado em bancos que não são PostgreSQL, como o H2) */
+    private boolean habilitado = false;
+
+    /** Tamanho de cada partição: MENSAL ou ANUAL */
+    private Granularidade granularidade = Granularidade.MENSAL;
+
+    /** Quantas partições à frente do intervalo atual devem existir */
+    private int particoesFuturas = 3;
+
+    /** Converte na inicialização uma tabela transacoes ainda não particionada (cópia completa, com bloqueio) */
+    private boolean migrar = false;
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    public void setHabilitado(boolean habilitado) {
+        this.habilitado = habilitado;
+    }
+
+    public Granularidade getGranularidade() {
+        return granularidade;
+    }
+
+    public void setGranularidade(Granularidade granularidade) {
+        this.granularidade = granularidade;
+    }
+
+    public int getParticoesFuturas() {
+        return particoesFuturas;
+    }
+
+    public void setParticoesFuturas(int particoesFuturas) {
+        this.particoesFuturas = particoesFuturas;
+    }
+
+    public boolean isMigrar() {
+        return migrar;
+    }
+
+    public void setMigrar(boolean migrar) {
+        this.migrar = migrar;
+    }
+}
@@ -0,0 +1,43 @@
+package com.financeiro.particionamento;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /actuator/particoes: partições de transacoes e, com inicio e fim, as partições lidas por uma consulta do período
+ * (consulta=EXTRATO, RECEITAS ou DESPESAS; usuarioId opcional)
+ */
+@Component
+@Endpoint(id = "particoes")
+public class ParticoesEndpoint {
+
+    @Autowired
+    private GerenciadorParticoes gerenciadorParticoes;
+
+    @Autowired
+    private ParticionamentoProperties properties;
+
+    @ReadOperation
+    public Map<String, Object> particoes(@Nullable LocalDate inicio, @Nullable LocalDate fim,
+                                         @Nullable ConsultaPeriodo consulta, @Nullable Long usuarioId) {
+        Map<String, Object> resposta = new LinkedHashMap<>();
+        boolean particionada = gerenciadorParticoes.isPostgres() && gerenciadorParticoes.isParticionada();
+        resposta.put("particionada", particionada);
+        resposta.put("granularidade", properties.getGranularidade());
+        resposta.put("particoes", gerenciadorParticoes.listarParticoes());
+        if (particionada && inicio != null && fim != null) {
+            ConsultaPeriodo consultaPeriodo = consulta != null ? consulta : ConsultaPeriodo.EXTRATO;
+            resposta.put("consulta", consultaPeriodo);
+            resposta.put("consultadas", gerenciadorParticoes.particoesConsultadas(consultaPeriodo,
+                    usuarioId != null ? usuarioId : 0L, inicio, fim));
+        }
+        return resposta;
+    }
+}
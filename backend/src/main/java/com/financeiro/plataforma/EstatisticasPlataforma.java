@@ -0,0 +1,327 @@
+package com.financeiro.plataforma;
+
+import com.financeiro.cambio.Cotacoes;
+import com.financeiro.cambio.TabelaCambio;
+import com.financeiro.categorizacao.AutomatoCategorias;
+import com.financeiro.model.Dinheiro;
+import com.financeiro.model.enums.PerfilUsuario;
+import com.financeiro.model.enums.TipoTransacao;
+import com.financeiro.repository.UsuarioRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estatísticas de todos os usuários no período: usuários ativos por dia, volume e quantis de valor por tipo e
+ * instituições distintas.
+ *
+ * Os usuários são divididos em faixas de ids consecutivos, lidas em paralelo por um ForkJoinPool próprio (uma
+ * consulta por faixa, no índice usuario_id, data) e mescladas aos pares na volta da recursão. A parcial de cada
+ * faixa fica em cache por período; uma escrita de qualquer usuário da faixa (avisada após o commit) marca só
+ * aquela faixa para releitura, e as demais são reaproveitadas. Só a tabela quente entra (o arquivo frio fica de
+ * fora). Valores convertidos para a moeda de referência das cotações pela cotação do dia.
+ */
+@Component
+@EnableConfigurationProperties(PlataformaProperties.class)
+public class EstatisticasPlataforma {
+
+    private static final double[] QUANTIS = {0.5, 0.9, 0.99};
+    private static final String[] NOMES_QUANTIS = {"p50", "p90", "p99"};
+
+    @Autowired
+    private PlataformaProperties properties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TabelaCambio tabelaCambio;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ForkJoinPool leituras;
+
+    // Relógio de alterações: cada faixa guarda a hora da última escrita; a parcial, a hora em que a leitura começou
+    private final AtomicLong relogio = new AtomicLong();
+    private final Map<Integer, Long> alteracoes = new ConcurrentHashMap<>();
+
+    // Parciais por período, em ordem de acesso (guardado pelo monitor do componente)
+    private final LinkedHashMap<Periodo, Parciais> periodos = new LinkedHashMap<>(8, 0.75f, true);
+
+    private Counter reaproveitadas;
+    private Counter relidas;
+    private Timer calculos;
+
+    @PostConstruct
+    void iniciar() {
+        leituras = new ForkJoinPool(Math.max(1, properties.getParalelismo()));
+        reaproveitadas = faixas("reaproveitada");
+        relidas = faixas("relida");
+        calculos = Timer.builder("financeiro.plataforma.calculo").publishPercentileHistogram().register(meterRegistry);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        leituras.shutdownNow();
+    }
+
+    /**
+     * Marca a faixa do usuário para releitura (chamar após o commit da escrita)
+     */
+    public void usuarioAlterado(Long usuarioId) {
+        alteracoes.put(faixa(usuarioId), relogio.incrementAndGet());
+    }
+
+    /**
+     * Estatísticas de [dataInicio, dataFim]
+     */
+    public Map<String, Object> calcular(LocalDate dataInicio, LocalDate dataFim) {
+        if (dataInicio == null || dataFim == null || dataFim.isBefore(dataInicio)) {
+            throw new RuntimeException("Informe um período válido (dataInicio <= dataFim)");
+        }
+        int dias = (int) ChronoUnit.DAYS.between(dataInicio, dataFim) + 1;
+        if (dias > properties.getMaximoDias()) {
+            throw new RuntimeException("Período excede o limite de " + properties.getMaximoDias() + " dias");
+        }
+
+        long inicio = System.nanoTime();
+        Cotacoes cotacoes = tabelaCambio.cotacoes();
+        Parciais parciais = parciais(new Periodo(dataInicio, dataFim), cotacoes);
+        Long maiorId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM usuarios", Long.class);
+        int totalFaixas = maiorId != null ? faixa(maiorId) + 1 : 0;
+        AtomicInteger lidas = new AtomicInteger();
+        ParcialPlataforma soma = totalFaixas == 0 ? nova(dias)
+                : leituras.invoke(new Leitura(parciais, 0, totalFaixas, lidas));
+        long nanos = System.nanoTime() - inicio;
+        calculos.record(nanos, TimeUnit.NANOSECONDS);
+
+        List<Map<String, Object>> ativosPorDia = new ArrayList<>(dias);
+        for (int dia = 0; dia < dias; dia++) {
+            Map<String, Object> linha = new LinkedHashMap<>();
+            linha.put("data", dataInicio.plusDays(dia));
+            linha.put("usuarios", soma.ativosPorDia[dia]);
+            ativosPorDia.add(linha);
+        }
+        Map<String, Object> volumes = new LinkedHashMap<>();
+        for (TipoTransacao tipo : TipoTransacao.values()) {
+            volumes.put(tipo.name(), volume(soma, tipo.ordinal()));
+        }
+        Map<String, Object> usuarios = new LinkedHashMap<>();
+        usuarios.put("total", usuarioRepository.count());
+        usuarios.put("ativos", usuarioRepository.countByAtivo(true));
+        usuarios.put("administradores", usuarioRepository.countByPerfil(PerfilUsuario.ADMIN));
+
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("dataInicio", dataInicio);
+        resultado.put("dataFim", dataFim);
+        resultado.put("moeda", cotacoes.getReferencia());
+        resultado.put("usuarios", usuarios);
+        resultado.put("usuariosComTransacoes", soma.ativosNoPeriodo);
+        resultado.put("usuariosAtivosPorDia", ativosPorDia);
+        resultado.put("volumePorTipo", volumes);
+        resultado.put("instituicoesDistintas", soma.instituicoes.estimativa());
+        resultado.put("faixas", totalFaixas);
+        resultado.put("faixasRelidas", lidas.get());
+        resultado.put("milissegundos", nanos / 1_000_000);
+        return resultado;
+    }
+
+    private Map<String, Object> volume(ParcialPlataforma soma, int tipo) {
+        long quantidade = soma.quantidades[tipo];
+        Map<String, Object> volume = new LinkedHashMap<>();
+        volume.put("transacoes", quantidade);
+        volume.put("total", Dinheiro.deCentavos(soma.centavos[tipo]));
+        volume.put("media", quantidade > 0
+                ? Dinheiro.deCentavos(Math.round((double) soma.centavos[tipo] / quantidade)) : null);
+        for (int i = 0; i < QUANTIS.length; i++) {
+            double valor = soma.valores[tipo].quantil(QUANTIS[i]);
+            volume.put(NOMES_QUANTIS[i], Double.isNaN(valor) ? null : Dinheiro.deCentavos(Math.round(valor)));
+        }
+        return volume;
+    }
+
+    /**
+     * Parciais guardadas do período; trocar a tabela de câmbio descarta todas (os valores convertidos mudam)
+     */
+    private synchronized Parciais parciais(Periodo periodo, Cotacoes cotacoes) {
+        Parciais parciais = periodos.get(periodo);
+        if (parciais == null || parciais.cotacoes != cotacoes) {
+            parciais = new Parciais(periodo, cotacoes);
+            periodos.put(periodo, parciais);
+            while (periodos.size() > Math.max(1, properties.getPeriodosEmCache())) {
+                periodos.remove(periodos.keySet().iterator().next());
+            }
+        }
+        return parciais;
+    }
+
+    /**
+     * Parcial da faixa: a guardada, se nenhuma escrita a alterou desde a leitura, ou uma nova leitura
+     */
+    private ParcialPlataforma faixa(Parciais parciais, int faixa, AtomicInteger lidas) {
+        ParcialPlataforma guardada = parciais.faixas.get(faixa);
+        if (guardada != null && alteracoes.getOrDefault(faixa, 0L) <= guardada.versao) {
+            reaproveitadas.increment();
+            return guardada;
+        }
+        // A versão é lida antes da consulta: escritas concorrentes deixam a parcial velha e forçam nova leitura
+        long versao = relogio.get();
+        ParcialPlataforma lida = ler(faixa, parciais.periodo, parciais.cotacoes);
+        lida.versao = versao;
+        lida.compactar();
+        parciais.faixas.put(faixa, lida);
+        relidas.increment();
+        lidas.incrementAndGet();
+        return lida;
+    }
+
+    private ParcialPlataforma ler(int faixa, Periodo periodo, Cotacoes cotacoes) {
+        int largura = largura();
+        long primeiroUsuario = (long) faixa * largura + 1;
+        long ultimoUsuario = primeiroUsuario + largura - 1;
+        int dias = (int) ChronoUnit.DAYS.between(periodo.inicio(), periodo.fim()) + 1;
+        long primeiroDia = periodo.inicio().toEpochDay();
+        ParcialPlataforma parcial = nova(dias);
+
+        Cotacoes.Conversor conversor = cotacoes.conversor(Cotacoes.codigo(cotacoes.getReferencia()));
+        BitSet ativosNoDia = new BitSet(largura * dias);
+        BitSet ativos = new BitSet(largura);
+        jdbcTemplate.query("SELECT t.usuario_id, t.data, t.tipo, t.valor, c.moeda FROM transacoes t " +
+                        "JOIN contas c ON c.id = t.conta_id " +
+                        "WHERE t.usuario_id BETWEEN ? AND ? AND t.data BETWEEN ? AND ?",
+                rs -> {
+                    int usuario = (int) (rs.getLong(1) - primeiroUsuario);
+                    int epochDay = (int) rs.getObject(2, LocalDate.class).toEpochDay();
+                    int dia = (int) (epochDay - primeiroDia);
+                    int bit = usuario * dias + dia;
+                    if (!ativosNoDia.get(bit)) {
+                        ativosNoDia.set(bit);
+                        parcial.ativosPorDia[dia]++;
+                    }
+                    ativos.set(usuario);
+
+                    int tipo = TipoTransacao.valueOf(rs.getString(3)).ordinal();
+                    long centavos = conversor.converter(Dinheiro.centavosDe(rs.getBigDecimal(4)),
+                            Cotacoes.codigo(rs.getString(5)), epochDay);
+                    parcial.quantidades[tipo]++;
+                    parcial.centavos[tipo] = Dinheiro.somar(parcial.centavos[tipo], centavos);
+                    parcial.valores[tipo].adicionar(centavos);
+                },
+                primeiroUsuario, ultimoUsuario, Date.valueOf(periodo.inicio()), Date.valueOf(periodo.fim()));
+        parcial.ativosNoPeriodo = ativos.cardinality();
+
+        StringBuilder normalizada = new StringBuilder(64);
+        jdbcTemplate.query("SELECT instituicao FROM contas WHERE usuario_id BETWEEN ? AND ?",
+                rs -> {
+                    String instituicao = rs.getString(1);
+                    if (instituicao == null) {
+                        return;
+                    }
+                    // "Banco do Brasil", "banco do  brasil" e "Banco do Brasil S.A." diferem só no "sa"
+                    normalizada.setLength(0);
+                    for (int i = 0; i < instituicao.length(); i++) {
+                        char c = AutomatoCategorias.normalizar(instituicao.charAt(i));
+                        if (Character.isLetterOrDigit(c)) {
+                            normalizada.append(c);
+                        }
+                    }
+                    if (!normalizada.isEmpty()) {
+                        parcial.instituicoes.adicionar(HyperLogLog.hash(normalizada));
+                    }
+                },
+                primeiroUsuario, ultimoUsuario);
+        return parcial;
+    }
+
+    private ParcialPlataforma nova(int dias) {
+        return new ParcialPlataforma(dias, properties.getPrecisaoInstituicoes(), properties.getCompressaoValores());
+    }
+
+    private int faixa(long usuarioId) {
+        return (int) ((usuarioId - 1) / largura());
+    }
+
+    private int largura() {
+        return Math.max(1, properties.getUsuariosPorFaixa());
+    }
+
+    private Counter faixas(String resultado) {
+        return Counter.builder("financeiro.plataforma.faixas").tag("resultado", resultado).register(meterRegistry);
+    }
+
+    private record Periodo(LocalDate inicio, LocalDate fim) {
+    }
+
+    private static final class Parciais {
+
+        final Periodo periodo;
+        final Cotacoes cotacoes;
+        final Map<Integer, ParcialPlataforma> faixas = new ConcurrentHashMap<>();
+
+        Parciais(Periodo periodo, Cotacoes cotacoes) {
+            this.periodo = periodo;
+            this.cotacoes = cotacoes;
+        }
+    }
+
+    /**
+     * Divide as faixas [de, ate) ao meio até uma por tarefa; na volta, mescla as duas metades
+     */
+    private final class Leitura extends RecursiveTask<ParcialPlataforma> {
+
+        private final Parciais parciais;
+        private final int de;
+        private final int ate;
+        private final AtomicInteger lidas;
+
+        Leitura(Parciais parciais, int de, int ate, AtomicInteger lidas) {
+            this.parciais = parciais;
+            this.de = de;
+            this.ate = ate;
+            this.lidas = lidas;
+        }
+
+        @Override
+        protected ParcialPlataforma compute() {
+            if (ate - de == 1) {
+                return faixa(parciais, de, lidas);
+            }
+            int meio = (de + ate) >>> 1;
+            Leitura esquerda = new Leitura(parciais, de, meio, lidas);
+            esquerda.fork();
+            ParcialPlataforma direita = new Leitura(parciais, meio, ate, lidas).compute();
+            ParcialPlataforma soma = esquerda.join();
+            // Parciais de uma faixa são as do cache: a soma começa de uma cópia; somas internas já são novas
+            if (meio - de == 1) {
+                soma = soma.copia();
+            }
+            soma.mesclar(direita);
+            return soma;
+        }
+    }
+}
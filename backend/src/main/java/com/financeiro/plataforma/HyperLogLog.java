@@ -0,0 +1,100 @@
+package com.financeiro.plataforma;
+
+/**
+ * Contagem aproximada de distintos (HyperLogLog, 2^precisao registradores de um byte).
+ *
+ * Erro padrão de cerca de 1,04 / sqrt(2^precisao): 0,8% com precisão 14, em 16 KB. Dois esboços de mesma precisão
+ * se mesclam pelo máximo de cada registrador, então partições contadas em paralelo somam sem contar duas vezes
+ * o mesmo elemento. Não é seguro entre threads.
+ */
+final class HyperLogLog {
+
+    private final int precisao;
+    private final byte[] registradores;
+
+    HyperLogLog(int precisao) {
+        if (precisao < 4 || precisao > 18) {
+            throw new IllegalArgumentException("Precisão deve estar entre 4 e 18");
+        }
+        this.precisao = precisao;
+        this.registradores = new byte[1 << precisao];
+    }
+
+    /**
+     * Adiciona um elemento pelo seu hash de 64 bits (misturado aqui; hashes fracos como FNV servem)
+     */
+    void adicionar(long hash) {
+        long h = misturar(hash);
+        int indice = (int) (h >>> (64 - precisao));
+        // Bit sentinela: o restante nunca é todo zero
+        long resto = (h << precisao) | (1L << (precisao - 1));
+        byte posicao = (byte) (Long.numberOfLeadingZeros(resto) + 1);
+        if (posicao > registradores[indice]) {
+            registradores[indice] = posicao;
+        }
+    }
+
+    void mesclar(HyperLogLog outro) {
+        if (outro.precisao != precisao) {
+            throw new IllegalArgumentException("Esboços de precisões diferentes");
+        }
+        for (int i = 0; i < registradores.length; i++) {
+            if (outro.registradores[i] > registradores[i]) {
+                registradores[i] = outro.registradores[i];
+            }
+        }
+    }
+
+    HyperLogLog copia() {
+        HyperLogLog copia = new HyperLogLog(precisao);
+        System.arraycopy(registradores, 0, copia.registradores, 0, registradores.length);
+        return copia;
+    }
+
+    long estimativa() {
+        int m = registradores.length;
+        double soma = 0;
+        int zerados = 0;
+        for (byte registrador : registradores) {
+            soma += 1.0 / (1L << registrador);
+            if (registrador == 0) {
+                zerados++;
+            }
+        }
+        double alfa = switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+        double estimativa = alfa * m * m / soma;
+        // Poucos elementos: contagem linear pelos registradores vazios é mais precisa
+        if (estimativa <= 2.5 * m && zerados > 0) {
+            estimativa = m * Math.log((double) m / zerados);
+        }
+        return Math.round(estimativa);
+    }
+
+    /**
+     * Hash FNV-1a de um texto (caracteres já normalizados por quem chama)
+     */
+    static long hash(CharSequence texto) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < texto.length(); i++) {
+            h = (h ^ texto.charAt(i)) * 0x100000001B3L;
+        }
+        return h;
+    }
+
+    /**
+     * Finalizador do MurmurHash3
+     */
+    private static long misturar(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB93FE1A85309L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
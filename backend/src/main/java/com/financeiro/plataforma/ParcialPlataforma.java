@@ -0,0 +1,67 @@
+package com.financeiro.plataforma;
+
+import com.financeiro.model.enums.TipoTransacao;
+
+/**
+ * Estatísticas de uma faixa de usuários no período; faixas se mesclam em qualquer ordem.
+ *
+ * As faixas não compartilham usuários, então usuários ativos por dia e no período somam exatamente. Instituições
+ * se repetem entre faixas e vão em um HyperLogLog; valores das transações, em um t-digest por tipo.
+ */
+final class ParcialPlataforma {
+
+    final int[] ativosPorDia;
+    long ativosNoPeriodo;
+    final long[] quantidades = new long[TipoTransacao.values().length];
+    final long[] centavos = new long[TipoTransacao.values().length];
+    final TDigest[] valores = new TDigest[TipoTransacao.values().length];
+    final HyperLogLog instituicoes;
+
+    /** Versão do relógio de alterações no início da leitura (só nas parciais de uma faixa) */
+    long versao;
+
+    ParcialPlataforma(int dias, int precisaoInstituicoes, double compressaoValores) {
+        ativosPorDia = new int[dias];
+        for (int i = 0; i < valores.length; i++) {
+            valores[i] = new TDigest(compressaoValores);
+        }
+        instituicoes = new HyperLogLog(precisaoInstituicoes);
+    }
+
+    private ParcialPlataforma(ParcialPlataforma origem) {
+        ativosPorDia = origem.ativosPorDia.clone();
+        ativosNoPeriodo = origem.ativosNoPeriodo;
+        System.arraycopy(origem.quantidades, 0, quantidades, 0, quantidades.length);
+        System.arraycopy(origem.centavos, 0, centavos, 0, centavos.length);
+        for (int i = 0; i < valores.length; i++) {
+            valores[i] = origem.valores[i].copia();
+        }
+        instituicoes = origem.instituicoes.copia();
+    }
+
+    ParcialPlataforma copia() {
+        return new ParcialPlataforma(this);
+    }
+
+    void mesclar(ParcialPlataforma outra) {
+        for (int dia = 0; dia < ativosPorDia.length; dia++) {
+            ativosPorDia[dia] += outra.ativosPorDia[dia];
+        }
+        ativosNoPeriodo += outra.ativosNoPeriodo;
+        for (int i = 0; i < valores.length; i++) {
+            quantidades[i] += outra.quantidades[i];
+            centavos[i] += outra.centavos[i];
+            valores[i].mesclar(outra.valores[i]);
+        }
+        instituicoes.mesclar(outra.instituicoes);
+    }
+
+    /**
+     * Libera os buffers dos esboços antes de guardar a parcial em cache
+     */
+    void compactar() {
+        for (TDigest digest : valores) {
+            digest.compactar();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.financeiro.plataforma;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Estatísticas da plataforma (todos os usuários) para administradores.
+ *
+ * Exemplo:
+ * <pre>
+ * financeiro.plataforma.paralelismo=4
+ * financeiro.plataforma.usuarios-por-faixa=4096
+ * financeiro.plataforma.maximo-dias=366
+ * financeiro.plataforma.periodos-em-cache=4
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "financeiro.plataforma")
+public class PlataformaProperties {
+
+    /** Faixas lidas ao mesmo tempo (cada uma usa uma conexão do pool durante a leitura) */
+    private int paralelismo = 4;
+
+    /** Usuários (ids consecutivos) por faixa; a faixa é a unidade de leitura, cache e recálculo */
+    private int usuariosPorFaixa = 4096;
+
+    /** Maior período consultado, em dias */
+    private int maximoDias = 366;
+
+    /** Períodos com as parciais por faixa guardadas (os menos consultados saem primeiro) */
+    private int periodosEmCache = 4;
+
+    /** Precisão do HyperLogLog das instituições (2^precisao bytes por faixa; erro de ~1,04/sqrt(2^precisao)) */
+    private int precisaoInstituicoes = 14;
+
+    /** Compressão do t-digest dos valores (mais centróides, quantis mais precisos) */
+    private double compressaoValores = 100;
+
+    public int getParalelismo() {
+        return paralelismo;
+    }
+
+    public void setParalelismo(int paralelismo) {
+        this.paralelismo = paralelismo;
+    }
+
+    public int getUsuariosPorFaixa() {
+        return usuariosPorFaixa;
+    }
+
+    public void setUsuariosPorFaixa(int usuariosPorFaixa) {
+        this.usuariosPorFaixa = usuariosPorFaixa;
+    }
+
+    public int getMaximoDias() {
+        return maximoDias;
+    }
+
+    public void setMaximoDias(int maximoDias) {
+        this.maximoDias = maximoDias;
+    }
+
+    public int getPeriodosEmCache() {
+        return periodosEmCache;
+    }
+
+    public void setPeriodosEmCache(int periodosEmCache) {
+        this.periodosEmCache = periodosEmCache;
+    }
+
+    public int getPrecisaoInstituicoes() {
+        return precisaoInstituicoes;
+    }
+
+    public void setPrecisaoInstituicoes(int precisaoInstituicoes) {
+        this.precisaoInstituicoes = precisaoInstituicoes;
+    }
+
+    public double getCompressaoValores() {
+        return compressaoValores;
+    }
+
+    public void setCompressaoValores(double compressaoValores) {
+        this.compressaoValores = compressaoValores;
+    }
+}
@@ -0,0 +1,232 @@
+package com.financeiro.plataforma;
+
+import java.util.Arrays;
+
+/**
+ * Esboço de quantis (t-digest com fusão): centróides (média, peso) ordenados, finos nas caudas e largos no meio.
+ *
+ * Valores novos vão para um buffer; cheio, ele é ordenado e fundido aos centróides pela função de escala
+ * k(q) = compressao / 2π · asin(2q - 1), que limita cada centróide a uma unidade de k. Fica com no máximo cerca de
+ * compressao centróides, e o erro dos quantis extremos (p99) é bem menor que o dos centrais. Dois esboços se
+ * mesclam fundindo os centróides de um no outro. Não é seguro entre threads.
+ */
+final class TDigest {
+
+    private final double compressao;
+
+    private double[] medias = new double[0];
+    private long[] pesos = new long[0];
+    private int centroides;
+
+    // Alocado no primeiro valor e liberado por compactar(): esboços guardados em cache só têm os centróides
+    private double[] bufferMedias;
+    private long[] bufferPesos;
+    private int buffer;
+
+    private long total;
+    private double minimo = Double.POSITIVE_INFINITY;
+    private double maximo = Double.NEGATIVE_INFINITY;
+
+    TDigest(double compressao) {
+        this.compressao = compressao;
+    }
+
+    void adicionar(double valor) {
+        adicionar(valor, 1);
+        minimo = Math.min(minimo, valor);
+        maximo = Math.max(maximo, valor);
+    }
+
+    /**
+     * Funde os centróides do outro esboço neste (o outro não é alterado)
+     */
+    void mesclar(TDigest outro) {
+        int novos = outro.centroides + outro.buffer;
+        if (novos == 0) {
+            return;
+        }
+        // Os centróides do outro entram de uma vez e são fundidos em uma só compressão: comprimir em várias
+        // rodadas funde de novo centróides já cheios e degrada as caudas
+        int tamanhoBuffer = (int) Math.ceil(compressao) * 5;
+        if (bufferMedias == null || bufferMedias.length < buffer + novos) {
+            int tamanho = Math.max(tamanhoBuffer, buffer + novos);
+            bufferMedias = bufferMedias == null ? new double[tamanho] : Arrays.copyOf(bufferMedias, tamanho);
+            bufferPesos = bufferPesos == null ? new long[tamanho] : Arrays.copyOf(bufferPesos, tamanho);
+        }
+        System.arraycopy(outro.medias, 0, bufferMedias, buffer, outro.centroides);
+        System.arraycopy(outro.pesos, 0, bufferPesos, buffer, outro.centroides);
+        buffer += outro.centroides;
+        if (outro.buffer > 0) {
+            System.arraycopy(outro.bufferMedias, 0, bufferMedias, buffer, outro.buffer);
+            System.arraycopy(outro.bufferPesos, 0, bufferPesos, buffer, outro.buffer);
+            buffer += outro.buffer;
+        }
+        total += outro.total;
+        comprimir();
+        minimo = Math.min(minimo, outro.minimo);
+        maximo = Math.max(maximo, outro.maximo);
+    }
+
+    TDigest copia() {
+        TDigest copia = new TDigest(compressao);
+        copia.mesclar(this);
+        return copia;
+    }
+
+    /**
+     * Valor no quantil q (0 a 1), interpolando entre os centros dos centróides; NaN sem valores
+     */
+    double quantil(double q) {
+        comprimir();
+        if (total == 0) {
+            return Double.NaN;
+        }
+        if (centroides == 1 || q <= 0) {
+            return q <= 0 ? minimo : medias[0];
+        }
+        if (q >= 1) {
+            return maximo;
+        }
+        double indice = q * total;
+        // Metade do peso do primeiro centróide fica entre o mínimo e o seu centro
+        double centroAnterior = pesos[0] / 2.0;
+        if (indice < centroAnterior) {
+            return minimo + (medias[0] - minimo) * indice / centroAnterior;
+        }
+        for (int i = 1; i < centroides; i++) {
+            double centro = centroAnterior + (pesos[i - 1] + pesos[i]) / 2.0;
+            if (indice < centro) {
+                double fracao = (indice - centroAnterior) / (centro - centroAnterior);
+                return medias[i - 1] + (medias[i] - medias[i - 1]) * fracao;
+            }
+            centroAnterior = centro;
+        }
+        double restante = total - centroAnterior;
+        return medias[centroides - 1] + (maximo - medias[centroides - 1]) * (indice - centroAnterior) / restante;
+    }
+
+    /**
+     * Funde o buffer aos centróides e o libera
+     */
+    void compactar() {
+        comprimir();
+        bufferMedias = null;
+        bufferPesos = null;
+    }
+
+    private void adicionar(double media, long peso) {
+        if (bufferMedias == null) {
+            int tamanhoBuffer = (int) Math.ceil(compressao) * 5;
+            bufferMedias = new double[tamanhoBuffer];
+            bufferPesos = new long[tamanhoBuffer];
+        } else if (buffer == bufferMedias.length) {
+            comprimir();
+        }
+        bufferMedias[buffer] = media;
+        bufferPesos[buffer] = peso;
+        buffer++;
+        total += peso;
+    }
+
+    /**
+     * Ordena o buffer e o funde aos centróides (já ordenados) em uma passada
+     */
+    private void comprimir() {
+        if (buffer == 0) {
+            return;
+        }
+        ordenar(bufferMedias, bufferPesos, 0, buffer - 1);
+        int n = centroides + buffer;
+        double[] novasMedias = new double[n];
+        long[] novosPesos = new long[n];
+        int novos = 0;
+
+        double normalizador = compressao / (2 * Math.PI);
+        long acumulado = 0;
+        double mediaAtual = 0;
+        long pesoAtual = 0;
+        double kInicio = 0;
+        int i = 0;
+        int j = 0;
+        while (i < centroides || j < buffer) {
+            double media;
+            long peso;
+            if (j == buffer || (i < centroides && medias[i] <= bufferMedias[j])) {
+                media = medias[i];
+                peso = pesos[i++];
+            } else {
+                media = bufferMedias[j];
+                peso = bufferPesos[j++];
+            }
+            if (pesoAtual == 0) {
+                mediaAtual = media;
+                pesoAtual = peso;
+                kInicio = normalizador * Math.asin(2.0 * acumulado / total - 1);
+                continue;
+            }
+            double kFim = normalizador * Math.asin(Math.min(1, 2.0 * (acumulado + pesoAtual + peso) / total - 1));
+            if (kFim - kInicio <= 1) {
+                pesoAtual += peso;
+                mediaAtual += (media - mediaAtual) * peso / pesoAtual;
+            } else {
+                novasMedias[novos] = mediaAtual;
+                novosPesos[novos++] = pesoAtual;
+                acumulado += pesoAtual;
+                mediaAtual = media;
+                pesoAtual = peso;
+                kInicio = normalizador * Math.asin(Math.min(1, 2.0 * acumulado / total - 1));
+            }
+        }
+        novasMedias[novos] = mediaAtual;
+        novosPesos[novos++] = pesoAtual;
+
+        medias = Arrays.copyOf(novasMedias, novos);
+        pesos = Arrays.copyOf(novosPesos, novos);
+        centroides = novos;
+        buffer = 0;
+    }
+
+    /**
+     * Quicksort dos pares (média, peso) pela média, com inserção nos trechos curtos
+     */
+    private static void ordenar(double[] medias, long[] pesos, int de, int ate) {
+        while (ate - de > 16) {
+            double pivo = medias[(de + ate) >>> 1];
+            int i = de;
+            int j = ate;
+            while (i <= j) {
+                while (medias[i] < pivo) {
+                    i++;
+                }
+                while (medias[j] > pivo) {
+                    j--;
+                }
+                if (i <= j) {
+                    trocar(medias, pesos, i++, j--);
+                }
+            }
+            // Recursão no lado menor, laço no maior: pilha de no máximo log n
+            if (j - de < ate - i) {
+                ordenar(medias, pesos, de, j);
+                de = i;
+            } else {
+                ordenar(medias, pesos, i, ate);
+                ate = j;
+            }
+        }
+        for (int i = de + 1; i <= ate; i++) {
+            for (int j = i; j > de && medias[j - 1] > medias[j]; j--) {
+                trocar(medias, pesos, j - 1, j);
+            }
+        }
+    }
+
+    private static void trocar(double[] medias, long[] pesos, int a, int b) {
+        double media = medias[a];
+        medias[a] = medias[b];
+        medias[b] = media;
+        long peso = pesos[a];
+        pesos[a] = pesos[b];
+        pesos[b] = peso;
+    }
+}
@@ -0,0 +1,13 @@
+package com.financeiro.previsao;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Previsão de fluxo de caixa das contas do usuário de inicio (hoje) até fim, exclusive
+ *
+ * @param contasNegativas contas que ficam negativas em algum dia do período
+ */
+public record Previsao(LocalDate inicio, LocalDate fim, int dias, int recorrencias, int contasNegativas,
+                       List<PrevisaoConta> contas) {
+}
@@ -0,0 +1,17 @@
+package com.financeiro.previsao;
+
+import com.financeiro.model.Dinheiro;
+
+import java.time.LocalDate;
+
+/**
+ * Saldos diários projetados de uma conta
+ *
+ * @param moeda moeda da conta, em que todos os valores estão
+ * @param saldosDiariosEmCentavos saldo ao fim de cada dia, a partir do início da previsão
+ * @param primeiraDataNegativa primeiro dia com saldo negativo (nulo se a conta não fica negativa)
+ */
+public record PrevisaoConta(Long contaId, String nome, String moeda, Dinheiro saldoAtual, Dinheiro saldoFinal, Dinheiro menorSaldo,
+                            LocalDate dataMenorSaldo, LocalDate primeiraDataNegativa, int lancamentosPrevistos,
+                            long[] saldosDiariosEmCentavos) {
+}
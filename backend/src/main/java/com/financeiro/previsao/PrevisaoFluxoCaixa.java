@@ -0,0 +1,92 @@
+package com.financeiro.previsao;
+
+import com.financeiro.model.Dinheiro;
+import com.financeiro.model.enums.TipoTransacao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+
+/**
+ * Previsão de fluxo de caixa: saldo diário de cada conta pelos próximos meses.
+ *
+ * O saldo de partida soma tudo o que já saiu do caixa até ontem. Cada evento cai no dia em que mexe no caixa:
+ * transações de conta na própria data, compras de cartão no vencimento da fatura em que entram (compras a partir
+ * do dia de fechamento vão para a fatura seguinte). Transações recorrentes repetem todo mês no mesmo dia (limitado
+ * ao fim do mês) a partir da ocorrência mais recente de cada uma (mesma descrição, conta, cartão e tipo); as
+ * ocorrências já lançadas não se repetem. Os eventos de cada conta vão para um vetor de deltas indexado pelo dia
+ * e uma soma acumulada dá os saldos; as contas são projetadas em paralelo ({@link ProjecaoFluxoCaixa}).
+ */
+@Component
+public class PrevisaoFluxoCaixa {
+
+    public static final int MAXIMO_MESES = 24;
+
+    /** Transações anteriores a isso já passaram pelo caixa, mesmo as de cartão (fechamento + vencimento) */
+    private static final int MESES_FATURAS_EM_ABERTO = 3;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Projeta as contas do usuário de hoje até meses à frente (1 a 24)
+     */
+    @Transactional(readOnly = true)
+    public Previsao prever(Long usuarioId, int meses) {
+        if (meses < 1 || meses > MAXIMO_MESES) {
+            throw new RuntimeException("Meses deve ser entre 1 e " + MAXIMO_MESES);
+        }
+        LocalDate hoje = LocalDate.now();
+        ProjecaoFluxoCaixa projecao = new ProjecaoFluxoCaixa(hoje, meses);
+
+        jdbcTemplate.query(
+                "SELECT id, nome, moeda, saldo_inicial, saldo_arquivado FROM contas WHERE usuario_id = ? ORDER BY nome",
+                rs -> {
+                    projecao.conta(rs.getLong(1), rs.getString(2), rs.getString(3),
+                            Dinheiro.somar(centavos(rs.getBigDecimal(4)), centavos(rs.getBigDecimal(5))));
+                },
+                usuarioId);
+        jdbcTemplate.query("SELECT id, dia_de_fechamento, dia_de_vencimento FROM cartoes WHERE usuario_id = ?",
+                rs -> {
+                    projecao.cartao(rs.getLong(1), rs.getInt(2), rs.getInt(3));
+                },
+                usuarioId);
+
+        // Histórico consolidado: uma soma por conta
+        LocalDate limite = hoje.minusMonths(MESES_FATURAS_EM_ABERTO);
+        jdbcTemplate.query("SELECT conta_id, tipo, SUM(valor) FROM transacoes WHERE usuario_id = ? AND data < ? " +
+                        "GROUP BY conta_id, tipo",
+                rs -> {
+                    projecao.historico(rs.getLong(1), TipoTransacao.valueOf(rs.getString(2)), centavos(rs.getBigDecimal(3)));
+                },
+                usuarioId, Date.valueOf(limite));
+
+        // Faturas em aberto e lançamentos futuros, cada um no dia em que afeta o caixa
+        jdbcTemplate.query("SELECT conta_id, cartao_id, data, tipo, valor FROM transacoes WHERE usuario_id = ? AND data >= ?",
+                rs -> {
+                    projecao.lancamento(rs.getLong(1), rs.getLong(2), rs.getObject(3, LocalDate.class),
+                            TipoTransacao.valueOf(rs.getString(4)), centavos(rs.getBigDecimal(5)));
+                },
+                usuarioId, Date.valueOf(limite));
+
+        // Regras de recorrência: a ocorrência mais recente de cada transação recorrente
+        jdbcTemplate.query("SELECT descricao, conta_id, cartao_id, tipo, valor, data FROM transacoes " +
+                        "WHERE usuario_id = ? AND recorrente = TRUE",
+                rs -> {
+                    projecao.recorrente(rs.getString(1), rs.getLong(2), rs.getLong(3),
+                            TipoTransacao.valueOf(rs.getString(4)), centavos(rs.getBigDecimal(5)),
+                            rs.getObject(6, LocalDate.class));
+                },
+                usuarioId);
+
+        return projecao.projetar();
+    }
+
+    private static long centavos(BigDecimal valor) {
+        return valor != null ? Dinheiro.centavosDe(valor) : 0;
+    }
+}
@@ -0,0 +1,207 @@
+package com.financeiro.previsao;
+
+import com.financeiro.model.Dinheiro;
+import com.financeiro.model.enums.TipoTransacao;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Projeção em memória (sem banco) dos saldos diários de um usuário; uma instância por previsão.
+ *
+ * Contas e cartões são informados antes dos lançamentos, que são agendados no dia em que mexem no caixa assim
+ * que chegam. As recorrências guardam só a ocorrência mais recente de cada chave e são expandidas em projetar().
+ */
+public final class ProjecaoFluxoCaixa {
+
+    private final LocalDate hoje;
+    private final LocalDate fim;
+    private final int dias;
+    private final long diaZero;
+    private final Map<Long, Conta> contas = new LinkedHashMap<>();
+    private final Map<Long, int[]> faturas = new HashMap<>();
+    private final Map<String, Recorrencia> recorrencias = new HashMap<>();
+
+    public ProjecaoFluxoCaixa(LocalDate hoje, int meses) {
+        this.hoje = hoje;
+        this.fim = hoje.plusMonths(meses);
+        this.dias = (int) (fim.toEpochDay() - hoje.toEpochDay());
+        this.diaZero = hoje.toEpochDay();
+    }
+
+    /**
+     * Conta a projetar, na ordem da resposta; partida = saldo inicial mais o saldo arquivado
+     */
+    public void conta(long id, String nome, String moeda, long partida) {
+        contas.put(id, new Conta(id, nome, moeda, partida));
+    }
+
+    public void cartao(long id, int diaDeFechamento, int diaDeVencimento) {
+        faturas.put(id, new int[]{diaDeFechamento, diaDeVencimento});
+    }
+
+    /**
+     * Soma do histórico que já passou pelo caixa (vai direto para o saldo de partida)
+     */
+    public void historico(long contaId, TipoTransacao tipo, long centavos) {
+        Conta conta = contas.get(contaId);
+        if (conta != null) {
+            conta.partida = Dinheiro.somar(conta.partida, sinal(tipo, centavos));
+        }
+    }
+
+    /**
+     * Lançamento de fatura em aberto ou futuro (cartaoId 0 quando é da conta)
+     */
+    public void lancamento(long contaId, long cartaoId, LocalDate data, TipoTransacao tipo, long centavos) {
+        Conta conta = contas.get(contaId);
+        if (conta != null) {
+            LocalDate caixa = cartaoId == 0 ? data : diaNoCaixa(faturas.get(cartaoId), data);
+            conta.agendar(caixa.toEpochDay() - diaZero, sinal(tipo, centavos), dias);
+        }
+    }
+
+    /**
+     * Ocorrência de uma transação recorrente; a mais recente de cada chave (descrição, conta, cartão e tipo) vale
+     */
+    public void recorrente(String descricao, long contaId, long cartaoId, TipoTransacao tipo, long centavos,
+                           LocalDate data) {
+        String chave = descricao.toLowerCase(Locale.ROOT) + '\u0000' + contaId + '\u0000' + cartaoId + '\u0000' + tipo;
+        Recorrencia atual = recorrencias.get(chave);
+        if (atual == null || data.isAfter(atual.ultima)) {
+            recorrencias.put(chave, new Recorrencia(contaId, cartaoId, sinal(tipo, centavos), data));
+        }
+    }
+
+    /**
+     * Expande as recorrências e projeta as contas em paralelo
+     */
+    public Previsao projetar() {
+        for (Recorrencia recorrencia : recorrencias.values()) {
+            Conta conta = contas.get(recorrencia.contaId);
+            if (conta != null) {
+                conta.recorrencias.add(recorrencia);
+            }
+        }
+        List<Conta> lista = new ArrayList<>(contas.values());
+        List<PrevisaoConta> projecoes = IntStream.range(0, lista.size())
+                .parallel()
+                .mapToObj(i -> projetar(lista.get(i)))
+                .toList();
+        int negativas = 0;
+        for (PrevisaoConta projecao : projecoes) {
+            if (projecao.primeiraDataNegativa() != null) {
+                negativas++;
+            }
+        }
+        return new Previsao(hoje, fim, dias, recorrencias.size(), negativas, projecoes);
+    }
+
+    private PrevisaoConta projetar(Conta conta) {
+        for (Recorrencia recorrencia : conta.recorrencias) {
+            int diaDoMes = recorrencia.ultima.getDayOfMonth();
+            YearMonth mes = YearMonth.from(recorrencia.ultima).plusMonths(1);
+            int[] fatura = recorrencia.cartaoId != 0 ? faturas.get(recorrencia.cartaoId) : null;
+            for (LocalDate ocorrencia = mes.atDay(Math.min(diaDoMes, mes.lengthOfMonth()));
+                 ocorrencia.isBefore(fim);
+                 mes = mes.plusMonths(1), ocorrencia = mes.atDay(Math.min(diaDoMes, mes.lengthOfMonth()))) {
+                // Ocorrências passadas que não foram lançadas não aconteceram
+                if (!ocorrencia.isBefore(hoje)) {
+                    LocalDate caixa = fatura != null ? diaNoCaixa(fatura, ocorrencia) : ocorrencia;
+                    conta.agendar(caixa.toEpochDay() - diaZero, recorrencia.centavos, dias);
+                }
+            }
+        }
+
+        // Conta sem eventos no período ainda não alocou o vetor de deltas
+        long[] deltas = conta.deltas.length == dias ? conta.deltas : new long[dias];
+        long[] saldos = new long[dias];
+        long saldo = conta.partida;
+        long menor = Long.MAX_VALUE;
+        int diaMenor = 0;
+        int primeiroNegativo = -1;
+        for (int dia = 0; dia < dias; dia++) {
+            saldo = Dinheiro.somar(saldo, deltas[dia]);
+            saldos[dia] = saldo;
+            if (saldo < menor) {
+                menor = saldo;
+                diaMenor = dia;
+            }
+            if (saldo < 0 && primeiroNegativo < 0) {
+                primeiroNegativo = dia;
+            }
+        }
+        return new PrevisaoConta(conta.id, conta.nome, conta.moeda, Dinheiro.deCentavos(conta.partida),
+                Dinheiro.deCentavos(dias > 0 ? saldos[dias - 1] : conta.partida),
+                Dinheiro.deCentavos(dias > 0 ? menor : conta.partida), hoje.plusDays(diaMenor),
+                primeiroNegativo >= 0 ? hoje.plusDays(primeiroNegativo) : null, conta.eventos, saldos);
+    }
+
+    /**
+     * Vencimento da fatura em que a compra entra (fatura = {dia de fechamento, dia de vencimento})
+     */
+    static LocalDate diaNoCaixa(int[] fatura, LocalDate compra) {
+        if (fatura == null) {
+            return compra;
+        }
+        int fechamento = fatura[0];
+        int vencimento = fatura[1];
+        YearMonth mesFechamento = YearMonth.from(compra);
+        if (compra.getDayOfMonth() >= Math.min(fechamento, mesFechamento.lengthOfMonth())) {
+            mesFechamento = mesFechamento.plusMonths(1);
+        }
+        YearMonth mesVencimento = vencimento > fechamento ? mesFechamento : mesFechamento.plusMonths(1);
+        return mesVencimento.atDay(Math.min(vencimento, mesVencimento.lengthOfMonth()));
+    }
+
+    private static long sinal(TipoTransacao tipo, long centavos) {
+        return tipo == TipoTransacao.RECEITA ? centavos : -centavos;
+    }
+
+    private record Recorrencia(long contaId, long cartaoId, long centavos, LocalDate ultima) {
+    }
+
+    /**
+     * Estado de uma conta durante a previsão; cada instância é projetada por uma única thread
+     */
+    private static final class Conta {
+
+        private final long id;
+        private final String nome;
+        private final String moeda;
+        private long partida;
+        private long[] deltas = new long[0];
+        private int eventos;
+        private final List<Recorrencia> recorrencias = new ArrayList<>();
+
+        Conta(long id, String nome, String moeda, long partida) {
+            this.id = id;
+            this.nome = nome;
+            this.moeda = moeda;
+            this.partida = partida;
+        }
+
+        /**
+         * Registra o evento no dia relativo ao início: antes dele vai para o saldo de partida, depois do fim é ignorado
+         */
+        void agendar(long dia, long centavos, int dias) {
+            if (dia < 0) {
+                partida = Dinheiro.somar(partida, centavos);
+            } else if (dia < dias) {
+                if (deltas.length != dias) {
+                    deltas = Arrays.copyOf(deltas, dias);
+                }
+                deltas[(int) dia] = Dinheiro.somar(deltas[(int) dia], centavos);
+                eventos++;
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.financeiro.projecao;
+
+import com.financeiro.arquivo.TransacaoArquivada;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Campo selecionável de um recurso: expressão SQL (null = calculado sem coluna), junção exigida e leitores
+ */
+record Campo(String nome, String expressao, Juncao juncao, LeitorColuna leitor, ExtratorArquivo doArquivo) {
+
+    /**
+     * Lê o valor do campo na coluna indicada (índice 0 quando o campo não tem expressão)
+     */
+    @FunctionalInterface
+    interface LeitorColuna {
+        Object ler(ResultSet rs, int coluna) throws SQLException;
+    }
+
+    /**
+     * Extrai o valor do campo de uma linha arquivada; nomes traz as junções resolvidas por id
+     */
+    @FunctionalInterface
+    interface ExtratorArquivo {
+        Object extrair(TransacaoArquivada linha, Map<Juncao, Map<Long, String>> nomes);
+    }
+}
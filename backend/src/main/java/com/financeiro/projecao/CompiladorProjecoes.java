@@ -0,0 +1,89 @@
+package com.financeiro.projecao;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compila o parâmetro fields= em projeções, guardadas por recurso e conjunto de campos.
+ *
+ * O conjunto é normalizado (sem repetições, na ordem do catálogo), então "valor,data" e "data, valor"
+ * usam a mesma projeção. O cache é limitado; ao passar do limite é esvaziado.
+ */
+@Component
+public class CompiladorProjecoes {
+
+    private static final int MAXIMO_PROJECOES = 1024;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Projecao> projecoes = new ConcurrentHashMap<>();
+
+    private Counter compilacoes;
+
+    @PostConstruct
+    void registrarMetricas() {
+        compilacoes = Counter.builder("financeiro.projecoes.compilacoes").register(meterRegistry);
+        Gauge.builder("financeiro.projecoes.cache", projecoes, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Projeção do recurso para a lista de campos separados por vírgula
+     */
+    Projecao compilar(Recurso recurso, String fields) {
+        List<Campo> selecionados = selecionar(recurso, fields);
+        StringBuilder chave = new StringBuilder(recurso.name());
+        for (Campo campo : selecionados) {
+            chave.append(',').append(campo.nome());
+        }
+
+        Projecao projecao = projecoes.get(chave.toString());
+        if (projecao != null) {
+            return projecao;
+        }
+        if (projecoes.size() >= MAXIMO_PROJECOES) {
+            projecoes.clear();
+        }
+        return projecoes.computeIfAbsent(chave.toString(), c -> {
+            compilacoes.increment();
+            return new Projecao(recurso, selecionados);
+        });
+    }
+
+    private static List<Campo> selecionar(Recurso recurso, String fields) {
+        Set<String> pedidos = new HashSet<>();
+        for (String nome : fields.split(",")) {
+            String campo = nome.trim();
+            if (campo.isEmpty()) {
+                continue;
+            }
+            if (!recurso.getCampos().containsKey(campo)) {
+                throw new RuntimeException("Campo desconhecido: " + campo + " (disponíveis: "
+                        + String.join(", ", recurso.getCampos().keySet()) + ")");
+            }
+            pedidos.add(campo);
+        }
+        if (pedidos.isEmpty()) {
+            throw new RuntimeException("Informe ao menos um campo em fields");
+        }
+
+        List<Campo> selecionados = new ArrayList<>(pedidos.size());
+        for (Campo campo : recurso.getCampos().values()) {
+            if (pedidos.contains(campo.nome())) {
+                selecionados.add(campo);
+            }
+        }
+        return selecionados;
+    }
+}
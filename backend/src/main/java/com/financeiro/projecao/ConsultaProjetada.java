@@ -0,0 +1,183 @@
+package com.financeiro.projecao;
+
+import com.financeiro.arquivo.RepositorioSegmentos;
+import com.financeiro.arquivo.TransacaoArquivada;
+import com.financeiro.model.enums.TipoTransacao;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * Listagens com seleção de campos: lê só as colunas (e junções) da projeção e devolve linhas projetadas,
+ * sem carregar entidades. As transações incluem o histórico arquivado, como nas listagens completas.
+ */
+@Service
+@Transactional(readOnly = true)
+@Timed(value = "financeiro.service", histogram = true)
+public class ConsultaProjetada {
+
+    // Campos de transação aceitos em sort=: colunas da própria tabela (sem junção nem campos derivados de tipo)
+    private static final Set<String> ORDENAVEIS = Set.of("id", "descricao", "valor", "data", "tipo", "recorrente",
+            "contaId", "cartaoId", "categoriaId", "dataCriacao", "dataAtualizacao");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CompiladorProjecoes compilador;
+
+    @Autowired
+    private RepositorioSegmentos repositorioSegmentos;
+
+    /**
+     * Lista todos os registros do usuário com os campos pedidos
+     */
+    public List<LinhaProjetada> listar(Recurso recurso, Long usuarioId, String fields) {
+        Projecao projecao = compilador.compilar(recurso, fields);
+        List<LinhaProjetada> linhas = new ArrayList<>(jdbcTemplate.query(projecao.sql("", false),
+                (rs, n) -> projecao.ler(rs), usuarioId));
+        if (recurso == Recurso.TRANSACOES) {
+            List<TransacaoArquivada> arquivadas = repositorioSegmentos.ler(usuarioId, a -> true);
+            Map<Juncao, Map<Long, String>> nomes = nomesDasJuncoes(projecao, usuarioId, arquivadas);
+            for (TransacaoArquivada arquivada : arquivadas) {
+                linhas.add(projecao.doArquivo(arquivada, nomes));
+            }
+        }
+        return linhas;
+    }
+
+    /**
+     * Transações filtradas e paginadas com os campos pedidos (filtros nulos são ignorados).
+     * O sort do Pageable ordena as linhas quentes; o histórico arquivado vem depois, como na listagem completa.
+     */
+    public Page<LinhaProjetada> filtrarTransacoes(Long usuarioId, String fields, TipoTransacao tipo, Long contaId,
+                                                  Long cartaoId, LocalDate dataInicio, LocalDate dataFim,
+                                                  Boolean recorrente, String descricao, Pageable pageable) {
+        Projecao projecao = compilador.compilar(Recurso.TRANSACOES, fields);
+        String ordem = ordem(pageable.getSort());
+        StringBuilder filtros = new StringBuilder();
+        List<Object> parametros = new ArrayList<>();
+        parametros.add(usuarioId);
+        if (tipo != null) {
+            filtros.append(" AND t.tipo = ?");
+            parametros.add(tipo.name());
+        }
+        if (contaId != null) {
+            filtros.append(" AND t.conta_id = ?");
+            parametros.add(contaId);
+        }
+        if (cartaoId != null) {
+            filtros.append(" AND t.cartao_id = ?");
+            parametros.add(cartaoId);
+        }
+        if (dataInicio != null) {
+            filtros.append(" AND t.data >= ?");
+            parametros.add(dataInicio);
+        }
+        if (dataFim != null) {
+            filtros.append(" AND t.data <= ?");
+            parametros.add(dataFim);
+        }
+        if (recorrente != null) {
+            filtros.append(" AND t.recorrente = ?");
+            parametros.add(recorrente);
+        }
+        String trecho = descricao != null && !descricao.isBlank() ? descricao.toLowerCase() : null;
+        if (trecho != null) {
+            filtros.append(" AND LOWER(t.descricao) LIKE ?");
+            parametros.add("%" + trecho + "%");
+        }
+
+        Long totalQuentes = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transacoes t WHERE t.usuario_id = ?"
+                + filtros, Long.class, parametros.toArray());
+        long total = totalQuentes != null ? totalQuentes : 0;
+
+        List<LinhaProjetada> conteudo = new ArrayList<>(pageable.getPageSize());
+        if (pageable.getOffset() < total) {
+            List<Object> paginados = new ArrayList<>(parametros);
+            paginados.add(pageable.getPageSize());
+            paginados.add(pageable.getOffset());
+            conteudo.addAll(jdbcTemplate.query(projecao.sql(filtros.toString(), ordem, true),
+                    (rs, n) -> projecao.ler(rs), paginados.toArray()));
+        }
+
+        // Histórico frio depois das linhas quentes, como em TransacaoService.filtrarTransacoes
+        if (repositorioSegmentos.possuiTransacoes(usuarioId)) {
+            Predicate<TransacaoArquivada> filtro = a -> (tipo == null || a.tipo() == tipo)
+                    && (contaId == null || a.contaId() == contaId)
+                    && (cartaoId == null || a.cartaoId() == cartaoId)
+                    && (recorrente == null || a.recorrente() == recorrente)
+                    && (trecho == null || a.descricao().toLowerCase().contains(trecho));
+            List<TransacaoArquivada> arquivadas = repositorioSegmentos.ler(usuarioId, dataInicio, dataFim, filtro);
+            long inicioArquivo = Math.max(0, pageable.getOffset() - total);
+            if (inicioArquivo < arquivadas.size() && conteudo.size() < pageable.getPageSize()) {
+                Map<Juncao, Map<Long, String>> nomes = nomesDasJuncoes(projecao, usuarioId, arquivadas);
+                for (long i = inicioArquivo; i < arquivadas.size() && conteudo.size() < pageable.getPageSize(); i++) {
+                    conteudo.add(projecao.doArquivo(arquivadas.get((int) i), nomes));
+                }
+            }
+            total += arquivadas.size();
+        }
+        return new PageImpl<>(conteudo, pageable, total);
+    }
+
+    /**
+     * ORDER BY das transações para o sort pedido, desempatado pelo id; sem sort, a ordem padrão do recurso
+     */
+    private static String ordem(Sort sort) {
+        if (sort.isUnsorted()) {
+            return Recurso.TRANSACOES.getOrdem();
+        }
+        StringBuilder ordem = new StringBuilder();
+        boolean porId = false;
+        for (Sort.Order pedido : sort) {
+            if (!ORDENAVEIS.contains(pedido.getProperty())) {
+                throw new RuntimeException("Ordenação não permitida: " + pedido.getProperty() + " (permitidas: "
+                        + String.join(", ", new TreeSet<>(ORDENAVEIS)) + ")");
+            }
+            if (!ordem.isEmpty()) {
+                ordem.append(", ");
+            }
+            ordem.append(Recurso.TRANSACOES.getCampos().get(pedido.getProperty()).expressao())
+                    .append(pedido.isAscending() ? " ASC" : " DESC");
+            porId |= pedido.getProperty().equals("id");
+        }
+        // Sem desempate, linhas com a mesma chave poderiam trocar de página entre as consultas
+        return porId ? ordem.toString() : ordem.append(", t.id DESC").toString();
+    }
+
+    /**
+     * Nomes de contas/cartões para as linhas arquivadas, consultados só se a projeção usa a junção
+     */
+    private Map<Juncao, Map<Long, String>> nomesDasJuncoes(Projecao projecao, Long usuarioId,
+                                                          List<TransacaoArquivada> arquivadas) {
+        Map<Juncao, Map<Long, String>> nomes = new EnumMap<>(Juncao.class);
+        if (arquivadas.isEmpty()) {
+            return nomes;
+        }
+        for (Juncao juncao : projecao.getJuncoes()) {
+            Map<Long, String> porId = new HashMap<>();
+            jdbcTemplate.query(juncao.getConsultaNomes(), rs -> {
+                porId.put(rs.getLong(1), rs.getString(2));
+            }, usuarioId);
+            nomes.put(juncao, porId);
+        }
+        return nomes;
+    }
+}
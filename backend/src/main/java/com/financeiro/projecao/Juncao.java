@@ -0,0 +1,27 @@
+package com.financeiro.projecao;
+
+/**
+ * Junções opcionais das projeções de transações: só entram no SQL quando um campo as pede
+ */
+enum Juncao {
+
+    CONTA("LEFT JOIN contas jc ON jc.id = t.conta_id", "SELECT id, nome FROM contas WHERE usuario_id = ?"),
+    CARTAO("LEFT JOIN cartoes jk ON jk.id = t.cartao_id", "SELECT id, nome_do_cartao FROM cartoes WHERE usuario_id = ?");
+
+    private final String sql;
+    private final String consultaNomes;
+
+    Juncao(String sql, String consultaNomes) {
+        this.sql = sql;
+        this.consultaNomes = consultaNomes;
+    }
+
+    String getSql() {
+        return sql;
+    }
+
+    /** Consulta (id, nome) usada para resolver a junção nas linhas do histórico arquivado */
+    String getConsultaNomes() {
+        return consultaNomes;
+    }
+}
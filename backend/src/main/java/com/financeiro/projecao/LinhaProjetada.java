@@ -0,0 +1,36 @@
+package com.financeiro.projecao;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+
+/**
+ * Linha de uma projeção: valores na ordem dos campos compilados, serializados sem reflexão
+ */
+@JsonSerialize(using = LinhaProjetada.Serializador.class)
+public final class LinhaProjetada {
+
+    private final Projecao projecao;
+    private final Object[] valores;
+
+    LinhaProjetada(Projecao projecao, Object[] valores) {
+        this.projecao = projecao;
+        this.valores = valores;
+    }
+
+    static final class Serializador extends JsonSerializer<LinhaProjetada> {
+
+        @Override
+        public void serialize(LinhaProjetada linha, JsonGenerator gerador, SerializerProvider provider) throws IOException {
+            gerador.writeStartObject();
+            for (int i = 0; i < linha.valores.length; i++) {
+                gerador.writeFieldName(linha.projecao.nomeSerializado(i));
+                provider.defaultSerializeValue(linha.valores[i], gerador);
+            }
+            gerador.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.financeiro.projecao;
+
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.financeiro.arquivo.TransacaoArquivada;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Projeção compilada de um conjunto de campos: SELECT apenas com as colunas e junções pedidas,
+ * índice de coluna de cada campo e nomes já codificados para a serialização
+ */
+final class Projecao {
+
+    private final Recurso recurso;
+    private final Campo[] campos;
+    private final int[] colunas;
+    private final SerializableString[] nomes;
+    private final Set<Juncao> juncoes;
+    private final String selecao;
+
+    Projecao(Recurso recurso, List<Campo> selecionados) {
+        this.recurso = recurso;
+        this.campos = selecionados.toArray(new Campo[0]);
+        this.colunas = new int[campos.length];
+        this.nomes = new SerializableString[campos.length];
+
+        // Campos com a mesma expressão (tipo/receita/despesa) compartilham a coluna
+        Map<String, Integer> expressoes = new LinkedHashMap<>();
+        Set<Juncao> necessarias = EnumSet.noneOf(Juncao.class);
+        for (int i = 0; i < campos.length; i++) {
+            Campo campo = campos[i];
+            nomes[i] = new SerializedString(campo.nome());
+            if (campo.expressao() != null) {
+                colunas[i] = expressoes.computeIfAbsent(campo.expressao(), e -> expressoes.size() + 1);
+            }
+            if (campo.juncao() != null) {
+                necessarias.add(campo.juncao());
+            }
+        }
+        this.juncoes = Collections.unmodifiableSet(necessarias);
+
+        StringBuilder sql = new StringBuilder("SELECT ");
+        sql.append(expressoes.isEmpty() ? "1" : String.join(", ", expressoes.keySet()));
+        sql.append(" FROM ").append(recurso.getOrigem());
+        for (Juncao juncao : necessarias) {
+            sql.append(' ').append(juncao.getSql());
+        }
+        sql.append(" WHERE ").append(recurso.getColunaUsuario()).append(" = ?");
+        this.selecao = sql.toString();
+    }
+
+    /**
+     * SELECT com os filtros adicionais (cada um iniciando por " AND"), ordenação do recurso e, se paginado, LIMIT/OFFSET
+     */
+    String sql(String filtros, boolean paginado) {
+        return sql(filtros, recurso.getOrdem(), paginado);
+    }
+
+    /**
+     * Como sql(filtros, paginado), com a ordenação informada (expressões já validadas por quem chama)
+     */
+    String sql(String filtros, String ordem, boolean paginado) {
+        return selecao + filtros + " ORDER BY " + ordem + (paginado ? " LIMIT ? OFFSET ?" : "");
+    }
+
+    Set<Juncao> getJuncoes() {
+        return juncoes;
+    }
+
+    SerializableString nomeSerializado(int indice) {
+        return nomes[indice];
+    }
+
+    LinhaProjetada ler(ResultSet rs) throws SQLException {
+        Object[] valores = new Object[campos.length];
+        for (int i = 0; i < campos.length; i++) {
+            valores[i] = campos[i].leitor().ler(rs, colunas[i]);
+        }
+        return new LinhaProjetada(this, valores);
+    }
+
+    LinhaProjetada doArquivo(TransacaoArquivada linha, Map<Juncao, Map<Long, String>> nomesJuncoes) {
+        Object[] valores = new Object[campos.length];
+        for (int i = 0; i < campos.length; i++) {
+            valores[i] = campos[i].doArquivo().extrair(linha, nomesJuncoes);
+        }
+        return new LinhaProjetada(this, valores);
+    }
+}
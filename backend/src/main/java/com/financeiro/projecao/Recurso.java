@@ -0,0 +1,119 @@
+package com.financeiro.projecao;
+
+import com.financeiro.model.Dinheiro;
+import com.financeiro.model.enums.TipoTransacao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Recursos com seleção de campos (?fields=): tabela de origem, ordem da listagem e catálogo de campos.
+ *
+ * Os nomes dos campos são os mesmos da serialização das entidades.
+ */
+public enum Recurso {
+
+    TRANSACOES("transacoes t", "t.usuario_id", "t.data DESC, t.id DESC",
+            campo("id", "t.id", null, ResultSet::getLong, (a, n) -> a.id()),
+            campo("descricao", "t.descricao", null, ResultSet::getString, (a, n) -> a.descricao()),
+            campo("valor", "t.valor", null, Recurso::lerDinheiro,
+                    (a, n) -> Dinheiro.deCentavos(a.centavos()).paraBigDecimal()),
+            campo("data", "t.data", null, (rs, c) -> rs.getObject(c, LocalDate.class), (a, n) -> a.data()),
+            campo("tipo", "t.tipo", null, ResultSet::getString, (a, n) -> a.tipo().name()),
+            campo("recorrente", "t.recorrente", null, ResultSet::getBoolean, (a, n) -> a.recorrente()),
+            campo("contaId", "t.conta_id", null, ResultSet::getLong, (a, n) -> a.contaId()),
+            campo("cartaoId", "t.cartao_id", null, Recurso::lerLongOpcional,
+                    (a, n) -> a.cartaoId() != 0 ? a.cartaoId() : null),
+            campo("categoriaId", "t.categoria_id", null, Recurso::lerLongOpcional,
+                    (a, n) -> a.categoriaId() != 0 ? a.categoriaId() : null),
+            campo("contaNome", "jc.nome", Juncao.CONTA, ResultSet::getString,
+                    (a, n) -> n.get(Juncao.CONTA).get(a.contaId())),
+            campo("cartaoNome", "jk.nome_do_cartao", Juncao.CARTAO, ResultSet::getString,
+                    (a, n) -> a.cartaoId() != 0 ? n.get(Juncao.CARTAO).get(a.cartaoId()) : null),
+            campo("dataCriacao", "t.data_criacao", null, Recurso::lerDataHora, (a, n) -> null),
+            campo("dataAtualizacao", "t.data_atualizacao", null, Recurso::lerDataHora, (a, n) -> null),
+            campo("arquivada", null, null, (rs, c) -> false, (a, n) -> true),
+            campo("receita", "t.tipo", null, (rs, c) -> "RECEITA".equals(rs.getString(c)),
+                    (a, n) -> a.tipo() == TipoTransacao.RECEITA),
+            campo("despesa", "t.tipo", null, (rs, c) -> "DESPESA".equals(rs.getString(c)),
+                    (a, n) -> a.tipo() == TipoTransacao.DESPESA),
+            campo("transacaoCartao", "t.cartao_id", null, (rs, c) -> lerLongOpcional(rs, c) != null,
+                    (a, n) -> a.cartaoId() != 0)),
+
+    CONTAS("contas t", "t.usuario_id", "t.nome ASC",
+            campo("id", "t.id", null, ResultSet::getLong, null),
+            campo("nome", "t.nome", null, ResultSet::getString, null),
+            campo("tipo", "t.tipo", null, ResultSet::getString, null),
+            campo("saldoInicial", "t.saldo_inicial", null, Recurso::lerDinheiro, null),
+            campo("moeda", "t.moeda", null, ResultSet::getString, null),
+            campo("instituicao", "t.instituicao", null, ResultSet::getString, null),
+            campo("dataCriacao", "t.data_criacao", null, Recurso::lerDataHora, null),
+            campo("dataAtualizacao", "t.data_atualizacao", null, Recurso::lerDataHora, null)),
+
+    CARTOES("cartoes t", "t.usuario_id", "t.nome_do_cartao ASC",
+            campo("id", "t.id", null, ResultSet::getLong, null),
+            campo("nomeDoCartao", "t.nome_do_cartao", null, ResultSet::getString, null),
+            campo("bandeira", "t.bandeira", null, ResultSet::getString, null),
+            campo("limiteTotal", "t.limite_total", null, Recurso::lerDinheiro, null),
+            campo("moeda", "t.moeda", null, ResultSet::getString, null),
+            campo("diaDeFechamento", "t.dia_de_fechamento", null, ResultSet::getInt, null),
+            campo("diaDeVencimento", "t.dia_de_vencimento", null, ResultSet::getInt, null),
+            campo("dataCriacao", "t.data_criacao", null, Recurso::lerDataHora, null),
+            campo("dataAtualizacao", "t.data_atualizacao", null, Recurso::lerDataHora, null));
+
+    private final String origem;
+    private final String colunaUsuario;
+    private final String ordem;
+    private final Map<String, Campo> campos;
+
+    Recurso(String origem, String colunaUsuario, String ordem, Campo... campos) {
+        this.origem = origem;
+        this.colunaUsuario = colunaUsuario;
+        this.ordem = ordem;
+        Map<String, Campo> catalogo = new LinkedHashMap<>();
+        for (Campo campo : campos) {
+            catalogo.put(campo.nome(), campo);
+        }
+        this.campos = Collections.unmodifiableMap(catalogo);
+    }
+
+    String getOrigem() {
+        return origem;
+    }
+
+    String getColunaUsuario() {
+        return colunaUsuario;
+    }
+
+    String getOrdem() {
+        return ordem;
+    }
+
+    /** Catálogo na ordem de serialização */
+    Map<String, Campo> getCampos() {
+        return campos;
+    }
+
+    private static Campo campo(String nome, String expressao, Juncao juncao, Campo.LeitorColuna leitor,
+                               Campo.ExtratorArquivo doArquivo) {
+        return new Campo(nome, expressao, juncao, leitor, doArquivo);
+    }
+
+    private static Object lerDinheiro(ResultSet rs, int coluna) throws SQLException {
+        return Dinheiro.de(rs.getBigDecimal(coluna)).paraBigDecimal();
+    }
+
+    private static Object lerDataHora(ResultSet rs, int coluna) throws SQLException {
+        return rs.getObject(coluna, LocalDateTime.class);
+    }
+
+    private static Long lerLongOpcional(ResultSet rs, int coluna) throws SQLException {
+        long valor = rs.getLong(coluna);
+        return rs.wasNull() ? null : valor;
+    }
+}
@@ -0,0 +1,11 @@
+package com.financeiro.relatorio;
+
+/**
+ * Situação de um pedido de relatório
+ */
+public enum EstadoRelatorio {
+    NA_FILA,
+    EXECUTANDO,
+    CONCLUIDO,
+    FALHOU
+}
@@ -0,0 +1,302 @@
+package com.financeiro.relatorio;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fila de relatórios: o pedido volta na hora com o id da tarefa, e a geração corre em um pool limitado
+ * (threads fixas, fila de espera limitada), fora das threads do servlet.
+ *
+ * Pedidos iguais (mesmo usuário e período) enquanto um está na fila ou executando recebem a mesma tarefa.
+ * O resultado é gravado em um arquivo por usuário e período, e pedidos do mesmo período dentro da validade o
+ * reaproveitam, inclusive depois de reiniciar a aplicação. Resultados e tarefas vencidos são apagados pela limpeza
+ * periódica.
+ */
+@Component
+@Lazy(false)
+@EnableConfigurationProperties(RelatoriosProperties.class)
+public class FilaRelatorios {
+
+    private static final Logger logger = LoggerFactory.getLogger(FilaRelatorios.class);
+
+    private static final String PREFIXO = "relatorio-";
+    private static final String EXTENSAO = ".json";
+
+    @Autowired
+    private RelatoriosProperties properties;
+
+    @Autowired
+    private GeradorRelatorios gerador;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+
+    // Guardados pelo monitor da fila: tarefas por id e a mais recente de cada usuário e período
+    private final Map<String, TarefaRelatorio> tarefas = new HashMap<>();
+    private final Map<String, TarefaRelatorio> porPeriodo = new HashMap<>();
+
+    private Counter novos;
+    private Counter deduplicados;
+    private Counter reaproveitados;
+    private Counter recusados;
+    private Counter falhas;
+    private Timer geracoes;
+
+    @PostConstruct
+    void iniciar() {
+        int threads = Math.max(1, properties.getThreads());
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getFila())),
+                Thread.ofPlatform().name("relatorio-", 1).daemon().factory());
+
+        novos = pedidos("novo");
+        deduplicados = pedidos("deduplicado");
+        reaproveitados = pedidos("cache");
+        recusados = pedidos("recusado");
+        falhas = Counter.builder("financeiro.relatorios.falhas").register(meterRegistry);
+        geracoes = Timer.builder("financeiro.relatorios.geracao").publishPercentileHistogram().register(meterRegistry);
+        Gauge.builder("financeiro.relatorios.fila", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("financeiro.relatorios.executando", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Enfileira o relatório do período ou devolve a tarefa igual em andamento ou o resultado ainda válido
+     *
+     * @throws FilaRelatoriosCheiaException se não há thread livre nem lugar na fila
+     */
+    public Map<String, Object> solicitar(Long usuarioId, YearMonth inicio, YearMonth fim) {
+        if (inicio == null || fim == null || fim.isBefore(inicio)) {
+            throw new RuntimeException("Informe um período válido (inicio <= fim)");
+        }
+        if (GeradorRelatorios.meses(inicio, fim) > properties.getMaximoMeses()) {
+            throw new RuntimeException("Período excede o limite de " + properties.getMaximoMeses() + " meses");
+        }
+        String chave = usuarioId + ":" + inicio + ":" + fim;
+        Instant agora = Instant.now();
+        synchronized (this) {
+            TarefaRelatorio anterior = porPeriodo.get(chave);
+            if (anterior != null && anterior.isEmAndamento()) {
+                deduplicados.increment();
+                return anterior.status();
+            }
+            if (anterior != null && anterior.estado() == EstadoRelatorio.CONCLUIDO && !anterior.expirou(agora)
+                    && Files.exists(anterior.arquivo)) {
+                reaproveitados.increment();
+                return anterior.status();
+            }
+
+            Path arquivo = arquivoDo(usuarioId, inicio, fim);
+            Instant gravadoEm = modificadoEm(arquivo);
+            if (gravadoEm != null && agora.isBefore(gravadoEm.plus(validade()))) {
+                TarefaRelatorio doDisco = TarefaRelatorio.doCache(usuarioId, inicio, fim, arquivo, gravadoEm,
+                        gravadoEm.plus(validade()));
+                registrar(chave, doDisco);
+                reaproveitados.increment();
+                return doDisco.status();
+            }
+
+            TarefaRelatorio tarefa = new TarefaRelatorio(usuarioId, inicio, fim, arquivo,
+                    GeradorRelatorios.etapas(inicio, fim));
+            try {
+                executor.execute(() -> executar(tarefa));
+            } catch (RejectedExecutionException e) {
+                recusados.increment();
+                throw new FilaRelatoriosCheiaException();
+            }
+            registrar(chave, tarefa);
+            novos.increment();
+            return tarefa.status();
+        }
+    }
+
+    /**
+     * Situação e progresso da tarefa (vazio se não existe, é de outro usuário ou já expirou)
+     */
+    public synchronized Optional<Map<String, Object>> status(String id, Long usuarioId) {
+        return buscar(id, usuarioId).map(TarefaRelatorio::status);
+    }
+
+    /**
+     * Tarefas do usuário ainda guardadas, das mais recentes para as mais antigas
+     */
+    public synchronized List<Map<String, Object>> listar(Long usuarioId) {
+        List<Map<String, Object>> lista = new ArrayList<>();
+        tarefas.values().stream()
+                .filter(tarefa -> tarefa.usuarioId.equals(usuarioId))
+                .sorted(Comparator.comparing((TarefaRelatorio tarefa) -> tarefa.criadaEm).reversed())
+                .forEach(tarefa -> lista.add(tarefa.status()));
+        return lista;
+    }
+
+    /**
+     * Arquivo do resultado, se a tarefa está concluída e o resultado não expirou
+     */
+    public synchronized Optional<Path> resultado(String id, Long usuarioId) {
+        return buscar(id, usuarioId)
+                .filter(tarefa -> tarefa.estado() == EstadoRelatorio.CONCLUIDO)
+                .map(tarefa -> tarefa.arquivo)
+                .filter(Files::exists);
+    }
+
+    /**
+     * Apaga resultados vencidos (inclusive os de execuções anteriores) e esquece as tarefas expiradas
+     */
+    @Scheduled(fixedDelayString = "${financeiro.relatorios.limpeza-ms:60000}")
+    public void limpar() {
+        Instant agora = Instant.now();
+        synchronized (this) {
+            tarefas.values().removeIf(tarefa -> tarefa.expirou(agora));
+            porPeriodo.values().removeIf(tarefa -> tarefa.expirou(agora));
+        }
+        Path raiz = Paths.get(properties.getDiretorio());
+        if (!Files.isDirectory(raiz)) {
+            return;
+        }
+        int apagados = 0;
+        try (DirectoryStream<Path> usuarios = Files.newDirectoryStream(raiz, Files::isDirectory)) {
+            for (Path diretorio : usuarios) {
+                try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(diretorio, PREFIXO + "*" + EXTENSAO)) {
+                    for (Path arquivo : arquivos) {
+                        Instant gravadoEm = modificadoEm(arquivo);
+                        if (gravadoEm != null && !agora.isBefore(gravadoEm.plus(validade())) && apagar(arquivo)) {
+                            apagados++;
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Falha ao limpar resultados de relatórios em {}", raiz, e);
+        }
+        if (apagados > 0) {
+            logger.info("{} resultados de relatórios expirados apagados", apagados);
+        }
+    }
+
+    private void executar(TarefaRelatorio tarefa) {
+        tarefa.iniciar(GeradorRelatorios.ETAPA_TOTAIS);
+        Timer.Sample amostra = Timer.start(meterRegistry);
+        try {
+            Map<String, Object> relatorio = gerador.gerar(tarefa);
+            gravar(tarefa.arquivo, relatorio);
+            tarefa.concluir(Instant.now().plus(validade()));
+        } catch (RuntimeException e) {
+            logger.warn("Falha ao gerar o relatório {} do usuário {}", tarefa.id, tarefa.usuarioId, e);
+            falhas.increment();
+            tarefa.falhar(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName(),
+                    Instant.now().plus(validade()));
+        } finally {
+            amostra.stop(geracoes);
+        }
+    }
+
+    /**
+     * Grava em um arquivo temporário e o move atomicamente: quem lê o resultado nunca vê um arquivo pela metade
+     */
+    private void gravar(Path destino, Map<String, Object> relatorio) {
+        try {
+            Files.createDirectories(destino.getParent());
+            Path temporario = Files.createTempFile(destino.getParent(), PREFIXO, ".tmp");
+            try {
+                try (OutputStream saida = Files.newOutputStream(temporario)) {
+                    objectMapper.writeValue(saida, relatorio);
+                }
+                Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporario);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar o relatório em " + destino, e);
+        }
+    }
+
+    private Optional<TarefaRelatorio> buscar(String id, Long usuarioId) {
+        TarefaRelatorio tarefa = tarefas.get(id);
+        if (tarefa == null || !tarefa.usuarioId.equals(usuarioId) || tarefa.expirou(Instant.now())) {
+            return Optional.empty();
+        }
+        return Optional.of(tarefa);
+    }
+
+    private void registrar(String chave, TarefaRelatorio tarefa) {
+        TarefaRelatorio substituida = porPeriodo.put(chave, tarefa);
+        if (substituida != null) {
+            tarefas.remove(substituida.id);
+        }
+        tarefas.put(tarefa.id, tarefa);
+    }
+
+    private Path arquivoDo(Long usuarioId, YearMonth inicio, YearMonth fim) {
+        return Paths.get(properties.getDiretorio()).resolve(String.valueOf(usuarioId))
+                .resolve(PREFIXO + inicio + "_" + fim + EXTENSAO);
+    }
+
+    private Duration validade() {
+        return Duration.ofMinutes(properties.getValidadeMinutos());
+    }
+
+    private static Instant modificadoEm(Path arquivo) {
+        try {
+            return Files.getLastModifiedTime(arquivo).toInstant();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static boolean apagar(Path arquivo) {
+        try {
+            return Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            logger.warn("Falha ao apagar {}", arquivo, e);
+            return false;
+        }
+    }
+
+    private Counter pedidos(String resultado) {
+        return Counter.builder("financeiro.relatorios.pedidos").tag("resultado", resultado).register(meterRegistry);
+    }
+}
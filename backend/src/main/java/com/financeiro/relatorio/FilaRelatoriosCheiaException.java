@@ -0,0 +1,11 @@
+package com.financeiro.relatorio;
+
+/**
+ * Todas as threads de relatório estão ocupadas e a fila de espera está cheia
+ */
+public class FilaRelatoriosCheiaException extends RuntimeException {
+
+    public FilaRelatoriosCheiaException() {
+        super("Fila de relatórios cheia; tente novamente em instantes");
+    }
+}
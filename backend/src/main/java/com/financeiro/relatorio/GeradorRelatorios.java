@@ -0,0 +1,188 @@
+package com.financeiro.relatorio;
+
+import com.financeiro.analise.Dimensao;
+import com.financeiro.analise.Grupo;
+import com.financeiro.model.Cartao;
+import com.financeiro.model.Conta;
+import com.financeiro.model.Dinheiro;
+import com.financeiro.orcamento.ContadoresGastos;
+import com.financeiro.orcamento.SituacaoOrcamento;
+import com.financeiro.repository.CartaoRepository;
+import com.financeiro.repository.ContaRepository;
+import com.financeiro.service.TransacaoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Monta o relatório do período de todas as contas e cartões do usuário: totais, meses (com as categorias de cada
+ * um), categorias, contas e cartões.
+ *
+ * Cada etapa é uma consulta curta em sua própria transação (cache analítico e contadores de gastos), então a
+ * geração nunca segura uma conexão do pool do início ao fim.
+ */
+@Component
+class GeradorRelatorios {
+
+    /** Etapas além dos meses: totais, contas e cartões, gravação do arquivo */
+    static final int ETAPAS_FIXAS = 3;
+
+    static final String ETAPA_TOTAIS = "totais";
+    static final String ETAPA_CONTAS = "contas e cartões";
+    static final String ETAPA_GRAVACAO = "gravação";
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private ContadoresGastos contadoresGastos;
+
+    @Autowired
+    private ContaRepository contaRepository;
+
+    @Autowired
+    private CartaoRepository cartaoRepository;
+
+    static int etapas(YearMonth inicio, YearMonth fim) {
+        return meses(inicio, fim) + ETAPAS_FIXAS;
+    }
+
+    static int meses(YearMonth inicio, YearMonth fim) {
+        return (fim.getYear() - inicio.getYear()) * 12 + fim.getMonthValue() - inicio.getMonthValue() + 1;
+    }
+
+    Map<String, Object> gerar(TarefaRelatorio tarefa) {
+        Long usuarioId = tarefa.usuarioId;
+        LocalDate dataInicio = tarefa.inicio.atDay(1);
+        LocalDate dataFim = tarefa.fim.atEndOfMonth();
+
+        Map<String, Object> resumo = transacaoService.obterResumoFinanceiro(usuarioId, dataInicio, dataFim);
+        Map<String, Grupo> porMes = new HashMap<>();
+        for (Grupo grupo : transacaoService.agruparTransacoes(usuarioId, Dimensao.MES, dataInicio, dataFim)) {
+            porMes.put(grupo.chave(), grupo);
+        }
+        tarefa.avancar(tarefa.inicio.toString());
+
+        // Categorias pelos contadores mensais de gastos: uma consulta por mês, sem ler as transações
+        List<Map<String, Object>> meses = new ArrayList<>();
+        Map<Long, TotalCategoria> categorias = new LinkedHashMap<>();
+        for (YearMonth mes = tarefa.inicio; !mes.isAfter(tarefa.fim); mes = mes.plusMonths(1)) {
+            List<Map<String, Object>> categoriasDoMes = new ArrayList<>();
+            for (SituacaoOrcamento situacao : contadoresGastos.situacao(usuarioId, mes)) {
+                if (situacao.transacoes() == 0) {
+                    continue;
+                }
+                categoriasDoMes.add(categoria(situacao.categoriaId(), situacao.nome(), situacao.despesas(),
+                        situacao.receitas(), situacao.transacoes()));
+                categorias.computeIfAbsent(situacao.categoriaId(), id -> new TotalCategoria(situacao.nome()))
+                        .somar(situacao);
+            }
+            Grupo grupo = porMes.get(mes.toString());
+            Map<String, Object> linha = new LinkedHashMap<>();
+            linha.put("mes", mes);
+            linha.put("receitas", grupo != null ? grupo.receitas() : Dinheiro.ZERO);
+            linha.put("despesas", grupo != null ? grupo.despesas() : Dinheiro.ZERO);
+            linha.put("saldo", grupo != null ? grupo.saldo() : Dinheiro.ZERO);
+            linha.put("quantidade", grupo != null ? grupo.quantidade() : 0);
+            linha.put("categorias", categoriasDoMes);
+            meses.add(linha);
+            tarefa.avancar(mes.equals(tarefa.fim) ? ETAPA_CONTAS : mes.plusMonths(1).toString());
+        }
+
+        List<Map<String, Object>> totaisCategorias = new ArrayList<>();
+        categorias.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<Long, TotalCategoria> e) -> e.getValue().despesas).reversed())
+                .forEach(e -> totaisCategorias.add(categoria(e.getKey(), e.getValue().nome,
+                        Dinheiro.deCentavos(e.getValue().despesas), Dinheiro.deCentavos(e.getValue().receitas),
+                        e.getValue().transacoes)));
+
+        Map<Long, String> nomesContas = new HashMap<>();
+        for (Conta conta : contaRepository.findByUsuarioIdOrderByNomeAsc(usuarioId)) {
+            nomesContas.put(conta.getId(), conta.getNome());
+        }
+        Map<Long, String> nomesCartoes = new HashMap<>();
+        for (Cartao cartao : cartaoRepository.findByUsuarioIdOrderByNomeDoCartaoAsc(usuarioId)) {
+            nomesCartoes.put(cartao.getId(), cartao.getNomeDoCartao());
+        }
+        List<Map<String, Object>> contas = origens("contaId", nomesContas,
+                transacaoService.agruparTransacoes(usuarioId, Dimensao.CONTA, dataInicio, dataFim));
+        List<Map<String, Object>> cartoes = origens("cartaoId", nomesCartoes,
+                transacaoService.agruparTransacoes(usuarioId, Dimensao.CARTAO, dataInicio, dataFim));
+        tarefa.avancar(ETAPA_GRAVACAO);
+
+        Map<String, Object> relatorio = new LinkedHashMap<>();
+        relatorio.put("usuarioId", usuarioId);
+        relatorio.put("inicio", tarefa.inicio);
+        relatorio.put("fim", tarefa.fim);
+        relatorio.put("geradoEm", Instant.now());
+        relatorio.put("moeda", resumo.get("moeda"));
+        relatorio.put("totalReceitas", resumo.get("totalReceitas"));
+        relatorio.put("totalDespesas", resumo.get("totalDespesas"));
+        relatorio.put("saldo", resumo.get("saldo"));
+        relatorio.put("meses", meses);
+        relatorio.put("categorias", totaisCategorias);
+        relatorio.put("contas", contas);
+        relatorio.put("cartoes", cartoes);
+        return relatorio;
+    }
+
+    private static Map<String, Object> categoria(Long id, String nome, Dinheiro despesas, Dinheiro receitas,
+                                                 int transacoes) {
+        Map<String, Object> categoria = new LinkedHashMap<>();
+        categoria.put("categoriaId", id);
+        categoria.put("nome", nome);
+        categoria.put("despesas", despesas);
+        categoria.put("receitas", receitas);
+        categoria.put("transacoes", transacoes);
+        return categoria;
+    }
+
+    /**
+     * Grupos por conta ou cartão com o nome de cada um (o grupo sem cartão fica de fora)
+     */
+    private static List<Map<String, Object>> origens(String campoId, Map<Long, String> nomes, List<Grupo> grupos) {
+        List<Map<String, Object>> origens = new ArrayList<>(grupos.size());
+        for (Grupo grupo : grupos) {
+            if (grupo.chave() == null) {
+                continue;
+            }
+            Long id = Long.valueOf(grupo.chave());
+            Map<String, Object> origem = new LinkedHashMap<>();
+            origem.put(campoId, id);
+            origem.put("nome", nomes.get(id));
+            origem.put("receitas", grupo.receitas());
+            origem.put("despesas", grupo.despesas());
+            origem.put("saldo", grupo.saldo());
+            origem.put("quantidade", grupo.quantidade());
+            origens.add(origem);
+        }
+        return origens;
+    }
+
+    private static final class TotalCategoria {
+
+        final String nome;
+        long despesas;
+        long receitas;
+        int transacoes;
+
+        TotalCategoria(String nome) {
+            this.nome = nome;
+        }
+
+        void somar(SituacaoOrcamento situacao) {
+            despesas = Dinheiro.somar(despesas, situacao.despesas().getCentavos());
+            receitas = Dinheiro.somar(receitas, situacao.receitas().getCentavos());
+            transacoes += situacao.transacoes();
+        }
+    }
+}
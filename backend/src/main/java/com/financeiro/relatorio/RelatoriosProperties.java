@@ -0,0 +1,73 @@
+package com.financeiro.relatorio;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Fila de relatórios assíncronos e cache dos resultados em arquivo.
+ *
+ * Exemplo:
+ * <pre>
+ * financeiro.relatorios.threads=2
+ * financeiro.relatorios.fila=32
+ * financeiro.relatorios.diretorio=/var/lib/financeiro/relatorios
+ * financeiro.relatorios.validade-minutos=60
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "financeiro.relatorios")
+public class RelatoriosProperties {
+
+    /** Relatórios gerados ao mesmo tempo (cada um usa no máximo uma conexão por vez) */
+    private int threads = 2;
+
+    /** Pedidos aguardando uma thread; com a fila cheia novos pedidos são recusados */
+    private int fila = 32;
+
+    /** Diretório raiz dos resultados (um subdiretório por usuário) */
+    private String diretorio = "dados/relatorios";
+
+    /** Tempo em que um resultado é reaproveitado por pedidos do mesmo período; depois disso é apagado */
+    private int validadeMinutos = 60;
+
+    /** Maior período de um relatório, em meses */
+    private int maximoMeses = 36;
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getFila() {
+        return fila;
+    }
+
+    public void setFila(int fila) {
+        this.fila = fila;
+    }
+
+    public String getDiretorio() {
+        return diretorio;
+    }
+
+    public void setDiretorio(String diretorio) {
+        this.diretorio = diretorio;
+    }
+
+    public int getValidadeMinutos() {
+        return validadeMinutos;
+    }
+
+    public void setValidadeMinutos(int validadeMinutos) {
+        this.validadeMinutos = validadeMinutos;
+    }
+
+    public int getMaximoMeses() {
+        return maximoMeses;
+    }
+
+    public void setMaximoMeses(int maximoMeses) {
+        this.maximoMeses = maximoMeses;
+    }
+}
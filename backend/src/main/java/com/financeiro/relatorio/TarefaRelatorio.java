@@ -0,0 +1,116 @@
+package com.financeiro.relatorio;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Um pedido de relatório do período [inicio, fim] e seu progresso; o resultado fica no arquivo até expirar.
+ *
+ * Escrita só pela thread que gera o relatório; os campos voláteis são lidos pelas requisições de status.
+ */
+final class TarefaRelatorio {
+
+    final String id = UUID.randomUUID().toString();
+    final Long usuarioId;
+    final YearMonth inicio;
+    final YearMonth fim;
+    final Path arquivo;
+    final int totalEtapas;
+    final Instant criadaEm = Instant.now();
+
+    private volatile EstadoRelatorio estado = EstadoRelatorio.NA_FILA;
+    private volatile int etapasConcluidas;
+    private volatile String etapa;
+    private volatile Instant iniciadaEm;
+    private volatile Instant concluidaEm;
+    private volatile Instant expiraEm;
+    private volatile boolean doCache;
+    private volatile String erro;
+
+    TarefaRelatorio(Long usuarioId, YearMonth inicio, YearMonth fim, Path arquivo, int totalEtapas) {
+        this.usuarioId = usuarioId;
+        this.inicio = inicio;
+        this.fim = fim;
+        this.arquivo = arquivo;
+        this.totalEtapas = totalEtapas;
+    }
+
+    /**
+     * Tarefa já concluída por um resultado gravado antes (pedido anterior ou outra execução da aplicação)
+     */
+    static TarefaRelatorio doCache(Long usuarioId, YearMonth inicio, YearMonth fim, Path arquivo,
+                                   Instant gravadoEm, Instant expiraEm) {
+        TarefaRelatorio tarefa = new TarefaRelatorio(usuarioId, inicio, fim, arquivo, 1);
+        tarefa.doCache = true;
+        tarefa.etapasConcluidas = 1;
+        tarefa.iniciadaEm = gravadoEm;
+        tarefa.concluidaEm = gravadoEm;
+        tarefa.expiraEm = expiraEm;
+        tarefa.estado = EstadoRelatorio.CONCLUIDO;
+        return tarefa;
+    }
+
+    void iniciar(String primeiraEtapa) {
+        etapa = primeiraEtapa;
+        iniciadaEm = Instant.now();
+        estado = EstadoRelatorio.EXECUTANDO;
+    }
+
+    /**
+     * Conclui a etapa atual e passa à próxima
+     */
+    void avancar(String proxima) {
+        etapasConcluidas++;
+        etapa = proxima;
+    }
+
+    void concluir(Instant expiraEm) {
+        etapasConcluidas = totalEtapas;
+        etapa = null;
+        concluidaEm = Instant.now();
+        this.expiraEm = expiraEm;
+        estado = EstadoRelatorio.CONCLUIDO;
+    }
+
+    void falhar(String erro, Instant expiraEm) {
+        this.erro = erro;
+        concluidaEm = Instant.now();
+        this.expiraEm = expiraEm;
+        estado = EstadoRelatorio.FALHOU;
+    }
+
+    EstadoRelatorio estado() {
+        return estado;
+    }
+
+    boolean isEmAndamento() {
+        EstadoRelatorio atual = estado;
+        return atual == EstadoRelatorio.NA_FILA || atual == EstadoRelatorio.EXECUTANDO;
+    }
+
+    boolean expirou(Instant agora) {
+        Instant limite = expiraEm;
+        return limite != null && !agora.isBefore(limite);
+    }
+
+    Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("id", id);
+        status.put("estado", estado);
+        status.put("progresso", etapasConcluidas * 100 / totalEtapas);
+        status.put("etapa", etapa);
+        status.put("inicio", inicio);
+        status.put("fim", fim);
+        status.put("doCache", doCache);
+        status.put("criadaEm", criadaEm);
+        status.put("iniciadaEm", iniciadaEm);
+        status.put("concluidaEm", concluidaEm);
+        status.put("expiraEm", expiraEm);
+        status.put("erro", erro);
+        return status;
+    }
+}
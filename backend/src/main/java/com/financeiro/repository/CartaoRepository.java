@@ -1,6 +1,7 @@
 package com.financeiro.repository;
 
 import com.financeiro.model.Cartao;
+import com.financeiro.model.Dinheiro;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -51,15 +52,15 @@ public interface CartaoRepository extends JpaRepository<Cartao, Long> {
     long countByUsuarioId(Long usuarioId);
     
     /**
-     * Calcula o limite total de todos os cartões de um usuário
+     * Limite total dos cartões de um usuário por moeda: [moeda, soma]
      */
-    @Query("SELECT COALESCE(SUM(c.limiteTotal), 0) FROM Cartao c WHERE c.usuario.id = :usuarioId")
-    BigDecimal calcularLimiteTotalPorUsuario(@Param("usuarioId") Long usuarioId);
+    @Query("SELECT c.moeda, SUM(c.limiteTotal) FROM Cartao c WHERE c.usuario.id = :usuarioId GROUP BY c.moeda")
+    List<Object[]> calcularLimiteTotalPorMoeda(@Param("usuarioId") Long usuarioId);
     
     /**
      * Busca cartões com limite maior que um valor específico
      */
-    List<Cartao> findByUsuarioIdAndLimiteTotalGreaterThanOrderByNomeDoCartaoAsc(Long usuarioId, BigDecimal limite);
+    List<Cartao> findByUsuarioIdAndLimiteTotalGreaterThanOrderByNomeDoCartaoAsc(Long usuarioId, Dinheiro limite);
     
     /**
      * Busca cartões por nome (busca parcial) e usuário
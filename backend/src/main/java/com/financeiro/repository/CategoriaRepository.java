@@ -0,0 +1,27 @@
+package com.financeiro.repository;
+
+import com.financeiro.model.Categoria;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CategoriaRepository extends JpaRepository<Categoria, Long> {
+    
+    /**
+     * Busca todas as categorias de um usuário específico
+     */
+    List<Categoria> findByUsuarioIdOrderByNomeAsc(Long usuarioId);
+    
+    /**
+     * Busca uma categoria específica de um usuário
+     */
+    Optional<Categoria> findByIdAndUsuarioId(Long id, Long usuarioId);
+    
+    /**
+     * Conta o número total de categorias de um usuário
+     */
+    long countByUsuarioId(Long usuarioId);
+}
@@ -1,6 +1,7 @@
 package com.financeiro.repository;
 
 import com.financeiro.model.Conta;
+import com.financeiro.model.Dinheiro;
 import com.financeiro.model.enums.TipoConta;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -65,7 +66,7 @@ public interface ContaRepository extends JpaRepository<Conta, Long> {
     /**
      * Busca contas com saldo inicial maior que um valor específico
      */
-    List<Conta> findByUsuarioIdAndSaldoInicialGreaterThanOrderByNomeAsc(Long usuarioId, BigDecimal valor);
+    List<Conta> findByUsuarioIdAndSaldoInicialGreaterThanOrderByNomeAsc(Long usuarioId, Dinheiro valor);
     
     /**
      * Busca contas por nome (busca parcial) e usuário
@@ -0,0 +1,47 @@
+package com.financeiro.repository;
+
+import com.financeiro.model.RegraCategoria;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RegraCategoriaRepository extends JpaRepository<RegraCategoria, Long> {
+    
+    /**
+     * Busca as regras de um usuário
+     */
+    List<RegraCategoria> findByUsuarioIdOrderByTermoAsc(Long usuarioId);
+    
+    /**
+     * Busca as regras globais
+     */
+    List<RegraCategoria> findByUsuarioIsNullOrderByTermoAsc();
+    
+    /**
+     * Busca uma regra específica de um usuário
+     */
+    Optional<RegraCategoria> findByIdAndUsuarioId(Long id, Long usuarioId);
+    
+    /**
+     * Busca uma regra global
+     */
+    Optional<RegraCategoria> findByIdAndUsuarioIsNull(Long id);
+    
+    /**
+     * Conta as regras de um usuário
+     */
+    long countByUsuarioId(Long usuarioId);
+    
+    /**
+     * Exclui as regras que apontam para uma categoria
+     */
+    @Modifying
+    @Query("DELETE FROM RegraCategoria r WHERE r.categoria.id = :categoriaId")
+    int excluirPorCategoria(@Param("categoriaId") Long categoriaId);
+}
@@ -87,12 +87,6 @@ public interface TransacaoRepository extends JpaRepository<Transacao, Long> {
                                                @Param("dataInicio") LocalDate dataInicio, 
                                                @Param("dataFim") LocalDate dataFim);
     
-    /**
-     * Busca as últimas N transações de um usuário
-     */
-    @Query("SELECT t FROM Transacao t WHERE t.usuario.id = :usuarioId ORDER BY t.data DESC, t.id DESC")
-    List<Transacao> buscarUltimasTransacoes(@Param("usuarioId") Long usuarioId, Pageable pageable);
-    
     /**
      * Busca transações por descrição (busca parcial) e usuário
      */
@@ -109,4 +103,41 @@ public interface TransacaoRepository extends JpaRepository<Transacao, Long> {
      * Conta transações recorrentes de um usuário
      */
     long countByUsuarioIdAndRecorrente(Long usuarioId, Boolean recorrente);
-}
\ No newline at end of file
+    
+    /**
+     * Busca transações com filtros opcionais (parâmetros nulos são ignorados)
+     */
+    @Query("SELECT t FROM Transacao t WHERE t.usuario.id = :usuarioId " +
+           "AND (:tipo IS NULL OR t.tipo = :tipo) " +
+           "AND (:contaId IS NULL OR t.conta.id = :contaId) " +
+           "AND (:cartaoId IS NULL OR t.cartao.id = :cartaoId) " +
+           "AND (CAST(:dataInicio AS LocalDate) IS NULL OR t.data >= :dataInicio) " +
+           "AND (CAST(:dataFim AS LocalDate) IS NULL OR t.data <= :dataFim) " +
+           "AND (:recorrente IS NULL OR t.recorrente = :recorrente) " +
+           "AND (:descricao IS NULL OR LOWER(t.descricao) LIKE LOWER(CONCAT('%', :descricao, '%'))) " +
+           "ORDER BY t.data DESC, t.id DESC")
+    Page<Transacao> filtrar(@Param("usuarioId") Long usuarioId,
+                            @Param("tipo") TipoTransacao tipo,
+                            @Param("contaId") Long contaId,
+                            @Param("cartaoId") Long cartaoId,
+                            @Param("dataInicio") LocalDate dataInicio,
+                            @Param("dataFim") LocalDate dataFim,
+                            @Param("recorrente") Boolean recorrente,
+                            @Param("descricao") String descricao,
+                            Pageable pageable);
+    
+    /**
+     * Se a conta tem alguma transação (para na primeira linha)
+     */
+    boolean existsByContaId(Long contaId);
+    
+    /**
+     * Se o cartão tem alguma transação (para na primeira linha)
+     */
+    boolean existsByCartaoId(Long cartaoId);
+    
+    /**
+     * Conta o número total de transações de um usuário
+     */
+    long countByUsuarioId(Long usuarioId);
+}
@@ -58,4 +58,10 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
      * Conta usuários ativos
      */
     long countByAtivo(Boolean ativo);
+    
+    /**
+     * Moeda base do usuário (sem carregar a entidade)
+     */
+    @Query("SELECT u.moedaBase FROM Usuario u WHERE u.id = :id")
+    Optional<String> buscarMoedaBase(@Param("id") Long id);
 }
\ No newline at end of file
@@ -0,0 +1,167 @@
+package com.financeiro.revogacao;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lista de revogação de tokens JWT por jti, em baldes pela data de expiração do token.
+ *
+ * A consulta no filtro é uma busca em hash no balde da expiração do token, sem ida ao banco. Cada balde cobre
+ * larguraBaldeMs; quando o fim do balde passa, todos os seus tokens já expiraram e o balde é descartado inteiro,
+ * então a memória fica limitada aos tokens revogados dentro da janela de expiração. As revogações são gravadas
+ * em tokens_revogados, recarregadas na inicialização e lidas periodicamente para enxergar as de outras instâncias.
+ *
+ * A carga inicial roda quando a aplicação fica pronta, ou antes, no primeiro uso: criar o bean não consulta o
+ * banco, então o treino do AppCDS (contexto sem esquema, encerrado no refresh) não depende da tabela.
+ */
+@Component
+@Lazy(false)
+@DependsOn("entityManagerFactory")
+@EnableConfigurationProperties(RevogacaoProperties.class)
+public class RegistroRevogacoes {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegistroRevogacoes.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RevogacaoProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** Índice do balde (expiração / largura) -> jtis revogados que expiram dentro dele */
+    private final Map<Long, Set<String>> baldes = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime ultimaSincronizacao;
+
+    @PostConstruct
+    void registrarMetricas() {
+        Gauge.builder("financeiro.revogacao.tokens", this, RegistroRevogacoes::getTotal).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        garantirCarregado();
+    }
+
+    /**
+     * Carrega as revogações ainda válidas uma única vez; até lá, nenhum token é dado como não revogado
+     */
+    private void garantirCarregado() {
+        if (ultimaSincronizacao != null) {
+            return;
+        }
+        synchronized (this) {
+            if (ultimaSincronizacao == null) {
+                LocalDateTime agora = LocalDateTime.now();
+                int carregados = ler("SELECT jti, expiracao FROM tokens_revogados WHERE expiracao > ?", agora);
+                ultimaSincronizacao = agora;
+                logger.info("{} tokens revogados carregados", carregados);
+            }
+        }
+    }
+
+    /**
+     * Revoga o token até a sua expiração (idempotente)
+     */
+    public void revogar(Claims claims) {
+        String jti = claims.getId();
+        Date expiracao = claims.getExpiration();
+        if (jti == null || expiracao == null) {
+            throw new RuntimeException("Token sem identificador não pode ser revogado");
+        }
+        if (expiracao.getTime() <= System.currentTimeMillis()) {
+            return;
+        }
+        garantirCarregado();
+
+        try {
+            jdbcTemplate.update("INSERT INTO tokens_revogados (jti, usuario_id, expiracao, data_revogacao) VALUES (?, ?, ?, ?)",
+                    jti, claims.get("userId", Long.class), new Timestamp(expiracao.getTime()),
+                    Timestamp.valueOf(LocalDateTime.now()));
+        } catch (DuplicateKeyException e) {
+            // Já revogado (outra requisição ou outra instância)
+        }
+        adicionar(jti, expiracao.getTime());
+    }
+
+    /**
+     * Indica se o token foi revogado (tokens sem jti, emitidos antes da revogação existir, nunca estão)
+     */
+    public boolean isRevogado(Claims claims) {
+        if (claims.getId() == null || claims.getExpiration() == null) {
+            return false;
+        }
+        garantirCarregado();
+        Set<String> balde = baldes.get(balde(claims.getExpiration().getTime()));
+        return balde != null && balde.contains(claims.getId());
+    }
+
+    /**
+     * Lê as revogações de outras instâncias e descarta os baldes e linhas já expirados
+     */
+    @Scheduled(fixedDelayString = "${financeiro.revogacao.sincronizacao-ms:30000}")
+    public void sincronizar() {
+        garantirCarregado();
+        LocalDateTime agora = LocalDateTime.now();
+        // Sobreposição de um intervalo para não perder revogações gravadas durante a leitura anterior
+        ler("SELECT jti, expiracao FROM tokens_revogados WHERE data_revogacao >= ?",
+                ultimaSincronizacao.minusNanos(properties.getSincronizacaoMs() * 1_000_000));
+        ultimaSincronizacao = agora;
+
+        long atual = balde(System.currentTimeMillis());
+        baldes.keySet().removeIf(indice -> indice < atual);
+        jdbcTemplate.update("DELETE FROM tokens_revogados WHERE expiracao <= ?", Timestamp.valueOf(agora));
+    }
+
+    /** Tokens revogados ainda não expirados mantidos em memória */
+    public long getTotal() {
+        long total = 0;
+        for (Set<String> balde : baldes.values()) {
+            total += balde.size();
+        }
+        return total;
+    }
+
+    private int ler(String sql, LocalDateTime desde) {
+        int[] lidos = {0};
+        jdbcTemplate.query(sql, rs -> {
+            adicionar(rs.getString(1), rs.getTimestamp(2).getTime());
+            lidos[0]++;
+        }, Timestamp.valueOf(desde));
+        return lidos[0];
+    }
+
+    private void adicionar(String jti, long expiracaoMs) {
+        if (expiracaoMs > System.currentTimeMillis()) {
+            baldes.computeIfAbsent(balde(expiracaoMs), indice -> ConcurrentHashMap.newKeySet()).add(jti);
+        }
+    }
+
+    private long balde(long expiracaoMs) {
+        return Math.floorDiv(expiracaoMs, Math.max(1, properties.getLarguraBaldeMs()));
+    }
+}
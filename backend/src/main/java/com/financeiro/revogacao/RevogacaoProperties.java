@@ -0,0 +1,38 @@
+package com.financeiro.revogacao;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Lista de revogação de tokens JWT (logout).
+ *
+ * Exemplo:
+ * <pre>
+ * financeiro.revogacao.largura-balde-ms=3600000
+ * financeiro.revogacao.sincronizacao-ms=30000
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "financeiro.revogacao")
+public class RevogacaoProperties {
+
+    /** Largura de cada balde de expiração; um balde inteiro é descartado quando todos os seus tokens expiram */
+    private long larguraBaldeMs = 60 * 60_000;
+
+    /** Intervalo em que as revogações feitas por outras instâncias são lidas do banco */
+    private long sincronizacaoMs = 30_000;
+
+    public long getLarguraBaldeMs() {
+        return larguraBaldeMs;
+    }
+
+    public void setLarguraBaldeMs(long larguraBaldeMs) {
+        this.larguraBaldeMs = larguraBaldeMs;
+    }
+
+    public long getSincronizacaoMs() {
+        return sincronizacaoMs;
+    }
+
+    public void setSincronizacaoMs(long sincronizacaoMs) {
+        this.sincronizacaoMs = sincronizacaoMs;
+    }
+}
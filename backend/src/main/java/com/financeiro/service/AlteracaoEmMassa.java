@@ -0,0 +1,13 @@
+package com.financeiro.service;
+
+import com.financeiro.model.enums.TipoTransacao;
+
+/**
+ * Campos aplicados a todas as transações selecionadas (nulos permanecem como estão)
+ *
+ * @param removerCartao desvincula as transações do cartão (tem precedência sobre cartaoId)
+ * @param categoriaId recategoriza as transações (ajusta os contadores de gastos das categorias envolvidas)
+ */
+public record AlteracaoEmMassa(Long contaId, Long cartaoId, Boolean removerCartao, TipoTransacao tipo, Boolean recorrente,
+                               Long categoriaId) {
+}
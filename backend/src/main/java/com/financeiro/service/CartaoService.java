@@ -0,0 +1,192 @@
+package com.financeiro.service;
+
+import com.financeiro.arquivo.RepositorioSegmentos;
+import com.financeiro.cambio.Cotacoes;
+import com.financeiro.cambio.TabelaCambio;
+import com.financeiro.eventos.PublicadorEventos;
+import com.financeiro.model.Cartao;
+import com.financeiro.model.Dinheiro;
+import com.financeiro.model.Usuario;
+import com.financeiro.repository.CartaoRepository;
+import com.financeiro.repository.TransacaoRepository;
+import com.financeiro.repository.UsuarioRepository;
+import com.financeiro.unicidade.RestricaoUnica;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Service
+@Transactional
+@Timed(value = "financeiro.service", histogram = true)
+public class CartaoService {
+    
+    @Autowired
+    private CartaoRepository cartaoRepository;
+    
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+    
+    @Autowired
+    private RepositorioSegmentos repositorioSegmentos;
+    
+    @Autowired
+    private PublicadorEventos publicadorEventos;
+    
+    @Autowired
+    private TabelaCambio tabelaCambio;
+    
+    /**
+     * Cria um novo cartão
+     */
+    public Cartao criarCartao(Cartao cartao, Long usuarioId) {
+        // Validar se o usuário existe
+        Usuario usuario = usuarioRepository.findById(usuarioId)
+                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+        
+        // Nome repetido (sem diferenciar maiúsculas) é barrado pelo índice único uk_cartoes_usuario_nome
+        cartao.setUsuario(usuario);
+        cartao.setMoeda(tabelaCambio.validar(cartao.getMoeda() != null ? cartao.getMoeda() : usuario.getMoedaBase()));
+        Cartao salvo = salvar(cartao);
+        publicadorEventos.limiteTotal(usuarioId, salvo.getId(), salvo.getLimiteTotalEmCentavos());
+        return salvo;
+    }
+    
+    /**
+     * Atualiza um cartão existente
+     */
+    public Cartao atualizarCartao(Long cartaoId, Cartao cartaoAtualizado, Long usuarioId) {
+        Cartao cartao = buscarCartaoPorIdEUsuario(cartaoId, usuarioId);
+        
+        long limiteTotalAnterior = cartao.getLimiteTotalEmCentavos();
+        cartao.setNomeDoCartao(cartaoAtualizado.getNomeDoCartao());
+        cartao.setBandeira(cartaoAtualizado.getBandeira());
+        cartao.setLimiteTotal(cartaoAtualizado.getLimiteTotal());
+        cartao.setDiaDeFechamento(cartaoAtualizado.getDiaDeFechamento());
+        cartao.setDiaDeVencimento(cartaoAtualizado.getDiaDeVencimento());
+        // Os limites (total, arquivado e os deltas já publicados) estão na moeda atual: trocar só vale sem transações
+        String moeda = cartaoAtualizado.getMoeda() != null ? tabelaCambio.validar(cartaoAtualizado.getMoeda()) : cartao.getMoeda();
+        if (!moeda.equals(cartao.getMoeda())) {
+            if (possuiTransacoes(cartao, usuarioId)) {
+                throw new RuntimeException("Não é possível alterar a moeda de um cartão que possui transações");
+            }
+            cartao.setMoeda(moeda);
+        }
+        
+        Cartao salvo = salvar(cartao);
+        publicadorEventos.limiteTotal(usuarioId, cartaoId,
+                Dinheiro.subtrair(salvo.getLimiteTotalEmCentavos(), limiteTotalAnterior));
+        return salvo;
+    }
+    
+    /**
+     * Grava já com flush para que a violação de unicidade do nome apareça aqui como erro de domínio
+     */
+    private Cartao salvar(Cartao cartao) {
+        try {
+            return cartaoRepository.saveAndFlush(cartao);
+        } catch (DataIntegrityViolationException e) {
+            throw RestricaoUnica.NOME_CARTAO.traduzir(e);
+        }
+    }
+    
+    /**
+     * Busca um cartão por ID e usuário
+     */
+    @Transactional(readOnly = true)
+    public Cartao buscarCartaoPorIdEUsuario(Long cartaoId, Long usuarioId) {
+        return cartaoRepository.findByIdAndUsuarioId(cartaoId, usuarioId)
+                .orElseThrow(() -> new RuntimeException("Cartão não encontrado"));
+    }
+    
+    /**
+     * Lista todos os cartões de um usuário
+     */
+    @Transactional(readOnly = true)
+    public List<Cartao> listarCartoesPorUsuario(Long usuarioId) {
+        return cartaoRepository.findByUsuarioIdOrderByNomeDoCartaoAsc(usuarioId);
+    }
+    
+    /**
+     * Lista cartões com paginação
+     */
+    @Transactional(readOnly = true)
+    public Page<Cartao> listarCartoesPorUsuarioComPaginacao(Long usuarioId, Pageable pageable) {
+        return cartaoRepository.findByUsuarioId(usuarioId, pageable);
+    }
+    
+    /**
+     * Busca cartões por bandeira
+     */
+    @Transactional(readOnly = true)
+    public List<Cartao> buscarCartoesPorBandeira(String bandeira, Long usuarioId) {
+        return cartaoRepository.findByBandeiraContainingIgnoreCaseAndUsuarioIdOrderByNomeDoCartaoAsc(bandeira, usuarioId);
+    }
+    
+    /**
+     * Busca cartões por nome parcial
+     */
+    @Transactional(readOnly = true)
+    public List<Cartao> buscarCartoesPorNome(String nome, Long usuarioId) {
+        return cartaoRepository.buscarPorNomeParcialEUsuario(nome, usuarioId);
+    }
+    
+    /**
+     * Exclui um cartão
+     */
+    public void excluirCartao(Long cartaoId, Long usuarioId) {
+        Cartao cartao = buscarCartaoPorIdEUsuario(cartaoId, usuarioId);
+        
+        // Verificar se o cartão possui transações
+        if (possuiTransacoes(cartao, usuarioId)) {
+            throw new RuntimeException("Não é possível excluir um cartão que possui transações");
+        }
+        
+        cartaoRepository.delete(cartao);
+        publicadorEventos.limiteTotal(usuarioId, cartaoId, -cartao.getLimiteTotalEmCentavos());
+    }
+    
+    /**
+     * Existência, sem carregar a coleção de transações nem decodificar o arquivo inteiro
+     */
+    private boolean possuiTransacoes(Cartao cartao, Long usuarioId) {
+        long cartaoId = cartao.getId();
+        return transacaoRepository.existsByCartaoId(cartaoId)
+                || repositorioSegmentos.existe(usuarioId, a -> a.cartaoId() == cartaoId);
+    }
+    
+    /**
+     * Calcula o limite total de todos os cartões de um usuário, na moeda base pela cotação de hoje
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal calcularLimiteTotalUsuario(Long usuarioId) {
+        int moedaBase = Cotacoes.codigo(usuarioRepository.buscarMoedaBase(usuarioId)
+                .orElseThrow(() -> new RuntimeException("Usuário não encontrado")));
+        Cotacoes cotacoes = tabelaCambio.cotacoes();
+        int hoje = (int) LocalDate.now().toEpochDay();
+        long total = 0;
+        for (Object[] linha : cartaoRepository.calcularLimiteTotalPorMoeda(usuarioId)) {
+            total = Dinheiro.somar(total, cotacoes.converter(Dinheiro.centavosDe((BigDecimal) linha[1]),
+                    Cotacoes.codigo((String) linha[0]), moedaBase, hoje));
+        }
+        return Dinheiro.deCentavos(total).paraBigDecimal();
+    }
+    
+    /**
+     * Conta o número de cartões de um usuário
+     */
+    @Transactional(readOnly = true)
+    public long contarCartoesPorUsuario(Long usuarioId) {
+        return cartaoRepository.countByUsuarioId(usuarioId);
+    }
+}
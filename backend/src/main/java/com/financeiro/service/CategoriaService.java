@@ -0,0 +1,203 @@
+package com.financeiro.service;
+
+import com.financeiro.categorizacao.CategorizacaoProperties;
+import com.financeiro.categorizacao.CategorizadorTransacoes;
+import com.financeiro.model.Categoria;
+import com.financeiro.model.RegraCategoria;
+import com.financeiro.model.Usuario;
+import com.financeiro.orcamento.ContadoresGastos;
+import com.financeiro.orcamento.SituacaoOrcamento;
+import com.financeiro.repository.CategoriaRepository;
+import com.financeiro.repository.RegraCategoriaRepository;
+import com.financeiro.repository.UsuarioRepository;
+import com.financeiro.unicidade.RestricaoUnica;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.YearMonth;
+import java.util.List;
+
+@Service
+@Transactional
+@Timed(value = "financeiro.service", histogram = true)
+public class CategoriaService {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+    
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    
+    @Autowired
+    private ContadoresGastos contadoresGastos;
+    
+    @Autowired
+    private RegraCategoriaRepository regraCategoriaRepository;
+    
+    @Autowired
+    private CategorizadorTransacoes categorizador;
+    
+    @Autowired
+    private CategorizacaoProperties categorizacaoProperties;
+    
+    /**
+     * Cria uma nova categoria
+     */
+    public Categoria criarCategoria(Categoria categoria, Long usuarioId) {
+        Usuario usuario = usuarioRepository.findById(usuarioId)
+                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+        
+        // Nome repetido (sem diferenciar maiúsculas) é barrado pelo índice único uk_categorias_usuario_nome
+        categoria.setUsuario(usuario);
+        Categoria salva = salvar(categoria);
+        // Regras globais com o nome da nova categoria passam a valer para o usuário
+        categorizador.invalidar(usuarioId);
+        return salva;
+    }
+    
+    /**
+     * Atualiza o nome e o orçamento mensal de uma categoria
+     */
+    public Categoria atualizarCategoria(Long categoriaId, Categoria categoriaAtualizada, Long usuarioId) {
+        Categoria categoria = buscarCategoriaPorIdEUsuario(categoriaId, usuarioId);
+        categoria.setNome(categoriaAtualizada.getNome());
+        categoria.setOrcamentoMensal(categoriaAtualizada.getOrcamentoMensal());
+        Categoria salva = salvar(categoria);
+        categorizador.invalidar(usuarioId);
+        return salva;
+    }
+    
+    /**
+     * Grava já com flush para que a violação de unicidade do nome apareça aqui como erro de domínio
+     */
+    private Categoria salvar(Categoria categoria) {
+        try {
+            return categoriaRepository.saveAndFlush(categoria);
+        } catch (DataIntegrityViolationException e) {
+            throw RestricaoUnica.NOME_CATEGORIA.traduzir(e);
+        }
+    }
+    
+    /**
+     * Busca uma categoria por ID e usuário
+     */
+    @Transactional(readOnly = true)
+    public Categoria buscarCategoriaPorIdEUsuario(Long categoriaId, Long usuarioId) {
+        return categoriaRepository.findByIdAndUsuarioId(categoriaId, usuarioId)
+                .orElseThrow(() -> new RuntimeException("Categoria não encontrada"));
+    }
+    
+    /**
+     * Lista todas as categorias de um usuário
+     */
+    @Transactional(readOnly = true)
+    public List<Categoria> listarCategoriasPorUsuario(Long usuarioId) {
+        return categoriaRepository.findByUsuarioIdOrderByNomeAsc(usuarioId);
+    }
+    
+    /**
+     * Exclui uma categoria; as transações dela ficam sem categoria e os seus contadores de gastos e regras são descartados
+     */
+    public void excluirCategoria(Long categoriaId, Long usuarioId) {
+        Categoria categoria = buscarCategoriaPorIdEUsuario(categoriaId, usuarioId);
+        entityManager.createQuery("UPDATE Transacao t SET t.categoria = NULL WHERE t.usuario.id = :usuarioId " +
+                        "AND t.categoria.id = :categoriaId")
+                .setParameter("usuarioId", usuarioId)
+                .setParameter("categoriaId", categoriaId)
+                .executeUpdate();
+        contadoresGastos.categoriaExcluida(categoriaId);
+        regraCategoriaRepository.excluirPorCategoria(categoriaId);
+        categoriaRepository.delete(categoria);
+        categorizador.invalidar(usuarioId);
+    }
+    
+    /**
+     * Lista as regras de categorização do usuário
+     */
+    @Transactional(readOnly = true)
+    public List<RegraCategoria> listarRegras(Long usuarioId) {
+        return regraCategoriaRepository.findByUsuarioIdOrderByTermoAsc(usuarioId);
+    }
+    
+    /**
+     * Cria uma regra do usuário: descrições que contêm o termo recebem a categoria
+     */
+    public RegraCategoria criarRegra(RegraCategoria regra, Long categoriaId, Long usuarioId) {
+        if (regraCategoriaRepository.countByUsuarioId(usuarioId) >= categorizacaoProperties.getMaximoRegrasPorUsuario()) {
+            throw new RuntimeException("Limite de " + categorizacaoProperties.getMaximoRegrasPorUsuario() + " regras atingido");
+        }
+        Categoria categoria = buscarCategoriaPorIdEUsuario(categoriaId, usuarioId);
+        regra.setCategoria(categoria);
+        regra.setUsuario(categoria.getUsuario());
+        regra.setNomeCategoria(null);
+        RegraCategoria salva = regraCategoriaRepository.save(regra);
+        categorizador.invalidar(usuarioId);
+        return salva;
+    }
+    
+    /**
+     * Exclui uma regra do usuário
+     */
+    public void excluirRegra(Long regraId, Long usuarioId) {
+        RegraCategoria regra = regraCategoriaRepository.findByIdAndUsuarioId(regraId, usuarioId)
+                .orElseThrow(() -> new RuntimeException("Regra não encontrada"));
+        regraCategoriaRepository.delete(regra);
+        categorizador.invalidar(usuarioId);
+    }
+    
+    /**
+     * Lista as regras globais
+     */
+    @Transactional(readOnly = true)
+    public List<RegraCategoria> listarRegrasGlobais() {
+        return regraCategoriaRepository.findByUsuarioIsNullOrderByTermoAsc();
+    }
+    
+    /**
+     * Cria uma regra global: vale para todo usuário que tenha uma categoria com o nome informado
+     */
+    public RegraCategoria criarRegraGlobal(RegraCategoria regra) {
+        if (regra.getNomeCategoria() == null || regra.getNomeCategoria().isBlank()) {
+            throw new RuntimeException("Nome da categoria é obrigatório");
+        }
+        regra.setCategoria(null);
+        regra.setUsuario(null);
+        RegraCategoria salva = regraCategoriaRepository.save(regra);
+        categorizador.invalidarTodos();
+        return salva;
+    }
+    
+    /**
+     * Exclui uma regra global
+     */
+    public void excluirRegraGlobal(Long regraId) {
+        RegraCategoria regra = regraCategoriaRepository.findByIdAndUsuarioIsNull(regraId)
+                .orElseThrow(() -> new RuntimeException("Regra não encontrada"));
+        regraCategoriaRepository.delete(regra);
+        categorizador.invalidarTodos();
+    }
+    
+    /**
+     * Categoria que as regras atribuiriam à descrição (null se nenhuma se aplica)
+     */
+    @Transactional(readOnly = true)
+    public Long sugerirCategoria(Long usuarioId, String descricao) {
+        return categorizador.categorizar(usuarioId, descricao);
+    }
+    
+    /**
+     * Gasto do mês frente ao orçamento de cada categoria (leitura direta dos contadores incrementais)
+     */
+    @Transactional(readOnly = true)
+    public List<SituacaoOrcamento> obterOrcamentos(Long usuarioId, YearMonth mes) {
+        return contadoresGastos.situacao(usuarioId, mes != null ? mes : YearMonth.now());
+    }
+}
@@ -0,0 +1,177 @@
+package com.financeiro.service;
+
+import com.financeiro.conciliacao.ConciliadorExtrato;
+import com.financeiro.conciliacao.Movimentos;
+import com.financeiro.conciliacao.ResultadoConciliacao;
+import com.financeiro.model.Dinheiro;
+import com.financeiro.model.enums.TipoTransacao;
+import com.financeiro.repository.CartaoRepository;
+import com.financeiro.repository.ContaRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conciliação de um extrato em CSV (mesmo formato da importação) com as transações já lançadas na conta.
+ *
+ * As transações do período do extrato, ampliado pela tolerância, vêm em uma consulta JDBC; o casamento é do
+ * {@link ConciliadorExtrato}. Só leitura: nada é gravado, as linhas sem par podem seguir para a importação.
+ * O histórico arquivado não entra (extratos cobrem meses recentes).
+ */
+@Service
+@Transactional(readOnly = true)
+@Timed(value = "financeiro.service", histogram = true)
+public class ConciliacaoService {
+
+    public static final int MAXIMO_TOLERANCIA_DIAS = 15;
+
+    @Value("${financeiro.transacoes.massa.maximo-linhas:50000}")
+    private int maximoLinhas;
+
+    @Value("${financeiro.conciliacao.tolerancia-dias:3}")
+    private int toleranciaPadrao;
+
+    @Value("${financeiro.conciliacao.margem-similaridade:0.15}")
+    private double margemSimilaridade;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ContaRepository contaRepository;
+
+    @Autowired
+    private CartaoRepository cartaoRepository;
+
+    /**
+     * Concilia as linhas "data;descricao;valor;tipo" com as transações da conta (só as do cartão, se informado)
+     *
+     * @param toleranciaDias diferença máxima de datas (null = padrão da configuração)
+     */
+    public Map<String, Object> conciliarCsv(Long usuarioId, Long contaId, Long cartaoId, Integer toleranciaDias,
+                                            String csv) {
+        int tolerancia = toleranciaDias != null ? toleranciaDias : toleranciaPadrao;
+        if (tolerancia < 0 || tolerancia > MAXIMO_TOLERANCIA_DIAS) {
+            throw new RuntimeException("Tolerância deve ser entre 0 e " + MAXIMO_TOLERANCIA_DIAS + " dias");
+        }
+        contaRepository.findByIdAndUsuarioId(contaId, usuarioId)
+                .orElseThrow(() -> new RuntimeException("Conta não encontrada"));
+        if (cartaoId != null) {
+            cartaoRepository.findByIdAndUsuarioId(cartaoId, usuarioId)
+                    .orElseThrow(() -> new RuntimeException("Cartão não encontrado"));
+        }
+
+        List<ImportacaoService.Linha> linhas = ImportacaoService.ler(csv);
+        if (linhas.isEmpty()) {
+            throw new RuntimeException("Nenhuma transação no arquivo");
+        }
+        if (linhas.size() > maximoLinhas) {
+            throw new RuntimeException("Extrato excede o limite de " + maximoLinhas + " linhas");
+        }
+
+        Movimentos extrato = new Movimentos(linhas.size());
+        Map<Long, ImportacaoService.Linha> porNumero = new HashMap<>();
+        LocalDate inicio = linhas.get(0).data;
+        LocalDate fim = inicio;
+        for (ImportacaoService.Linha linha : linhas) {
+            extrato.adicionar(linha.numero, (int) linha.data.toEpochDay(), sinal(linha.tipo, linha.centavos),
+                    linha.descricao);
+            porNumero.put((long) linha.numero, linha);
+            inicio = linha.data.isBefore(inicio) ? linha.data : inicio;
+            fim = linha.data.isAfter(fim) ? linha.data : fim;
+        }
+
+        Movimentos sistema = new Movimentos(linhas.size());
+        Map<Long, Map<String, Object>> transacoes = new HashMap<>();
+        String consulta = "SELECT id, data, descricao, valor, tipo FROM transacoes WHERE usuario_id = ? AND conta_id = ? " +
+                "AND data BETWEEN ? AND ?" + (cartaoId != null ? " AND cartao_id = ?" : "");
+        List<Object> parametros = new ArrayList<>(List.of(usuarioId, contaId,
+                Date.valueOf(inicio.minusDays(tolerancia)), Date.valueOf(fim.plusDays(tolerancia))));
+        if (cartaoId != null) {
+            parametros.add(cartaoId);
+        }
+        jdbcTemplate.query(consulta, rs -> {
+            long id = rs.getLong(1);
+            LocalDate data = rs.getObject(2, LocalDate.class);
+            String descricao = rs.getString(3);
+            long centavos = Dinheiro.centavosDe(rs.getBigDecimal(4));
+            TipoTransacao tipo = TipoTransacao.valueOf(rs.getString(5));
+            sistema.adicionar(id, (int) data.toEpochDay(), sinal(tipo, centavos), descricao);
+            Map<String, Object> transacao = new LinkedHashMap<>();
+            transacao.put("id", id);
+            transacao.put("data", data);
+            transacao.put("descricao", descricao);
+            transacao.put("valor", Dinheiro.deCentavos(centavos).paraBigDecimal());
+            transacao.put("tipo", tipo);
+            transacoes.put(id, transacao);
+        }, parametros.toArray());
+
+        long inicioConciliacao = System.nanoTime();
+        ResultadoConciliacao resultado = new ConciliadorExtrato(tolerancia, margemSimilaridade).conciliar(extrato, sistema);
+        long nanosConciliacao = System.nanoTime() - inicioConciliacao;
+
+        List<Map<String, Object>> conciliadas = new ArrayList<>(resultado.conciliadas().size());
+        for (ResultadoConciliacao.Par par : resultado.conciliadas()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("linha", par.extrato());
+            item.put("transacaoId", par.sistema());
+            item.put("diferencaDias", par.diferencaDias());
+            item.put("similaridade", par.similaridade());
+            conciliadas.add(item);
+        }
+        List<Map<String, Object>> ambiguas = new ArrayList<>(resultado.ambiguas().size());
+        for (ResultadoConciliacao.Ambiguidade ambiguidade : resultado.ambiguas()) {
+            Map<String, Object> item = linha(porNumero.get(ambiguidade.extrato()));
+            item.put("candidatos", ambiguidade.candidatos());
+            ambiguas.add(item);
+        }
+        List<Map<String, Object>> extratoSemPar = new ArrayList<>(resultado.extratoSemPar().size());
+        for (Long numero : resultado.extratoSemPar()) {
+            extratoSemPar.add(linha(porNumero.get(numero)));
+        }
+        List<Map<String, Object>> transacoesSemPar = new ArrayList<>(resultado.sistemaSemPar().size());
+        for (Long id : resultado.sistemaSemPar()) {
+            transacoesSemPar.add(transacoes.get(id));
+        }
+
+        Map<String, Object> resposta = new LinkedHashMap<>();
+        resposta.put("dataInicio", inicio);
+        resposta.put("dataFim", fim);
+        resposta.put("toleranciaDias", tolerancia);
+        resposta.put("linhas", extrato.tamanho());
+        resposta.put("transacoes", sistema.tamanho());
+        resposta.put("totalConciliadas", conciliadas.size());
+        resposta.put("totalAmbiguas", ambiguas.size());
+        resposta.put("microssegundosConciliacao", nanosConciliacao / 1_000);
+        resposta.put("conciliadas", conciliadas);
+        resposta.put("ambiguas", ambiguas);
+        resposta.put("extratoSemPar", extratoSemPar);
+        resposta.put("transacoesSemPar", transacoesSemPar);
+        return resposta;
+    }
+
+    private static Map<String, Object> linha(ImportacaoService.Linha linha) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("linha", linha.numero);
+        item.put("data", linha.data);
+        item.put("descricao", linha.descricao);
+        item.put("valor", Dinheiro.deCentavos(linha.centavos).paraBigDecimal());
+        item.put("tipo", linha.tipo);
+        return item;
+    }
+
+    private static long sinal(TipoTransacao tipo, long centavos) {
+        return tipo == TipoTransacao.RECEITA ? centavos : -centavos;
+    }
+}
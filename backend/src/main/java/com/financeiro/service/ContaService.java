@@ -1,22 +1,34 @@
 package com.financeiro.service;
 
+import com.financeiro.analise.CacheAnaliticoColunar;
+import com.financeiro.arquivo.RepositorioSegmentos;
+import com.financeiro.cambio.Cotacoes;
+import com.financeiro.cambio.TabelaCambio;
+import com.financeiro.eventos.PublicadorEventos;
 import com.financeiro.model.Conta;
+import com.financeiro.model.Dinheiro;
 import com.financeiro.model.Usuario;
 import com.financeiro.model.enums.TipoConta;
 import com.financeiro.repository.ContaRepository;
+import com.financeiro.repository.TransacaoRepository;
 import com.financeiro.repository.UsuarioRepository;
+import com.financeiro.unicidade.RestricaoUnica;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 @Transactional
+@Timed(value = "financeiro.service", histogram = true)
 public class ContaService {
     
     @Autowired
@@ -25,6 +37,21 @@ public class ContaService {
     @Autowired
     private UsuarioRepository usuarioRepository;
     
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+    
+    @Autowired
+    private RepositorioSegmentos repositorioSegmentos;
+    
+    @Autowired
+    private PublicadorEventos publicadorEventos;
+    
+    @Autowired
+    private TabelaCambio tabelaCambio;
+    
+    @Autowired
+    private CacheAnaliticoColunar cacheAnalitico;
+    
     /**
      * Cria uma nova conta
      */
@@ -33,13 +60,13 @@ public class ContaService {
         Usuario usuario = usuarioRepository.findById(usuarioId)
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
         
-        // Validar se já existe uma conta com o mesmo nome para o usuário
-        if (contaRepository.existsByNomeIgnoreCaseAndUsuarioId(conta.getNome(), usuarioId)) {
-            throw new RuntimeException("Já existe uma conta com este nome");
-        }
-        
+        // Nome repetido (sem diferenciar maiúsculas) é barrado pelo índice único uk_contas_usuario_nome
         conta.setUsuario(usuario);
-        return contaRepository.save(conta);
+        conta.setMoeda(tabelaCambio.validar(conta.getMoeda() != null ? conta.getMoeda() : usuario.getMoedaBase()));
+        Conta salva = salvar(conta);
+        cacheAnalitico.contaSalva(usuarioId, salva.getId(), salva.getMoeda());
+        publicadorEventos.saldo(usuarioId, salva.getId(), salva.getSaldoInicialEmCentavos());
+        return salva;
     }
     
     /**
@@ -48,18 +75,37 @@ public class ContaService {
     public Conta atualizarConta(Long contaId, Conta contaAtualizada, Long usuarioId) {
         Conta conta = buscarContaPorIdEUsuario(contaId, usuarioId);
         
-        // Validar se já existe uma conta com o mesmo nome (excluindo a atual)
-        if (contaRepository.existsByNomeIgnoreCaseAndUsuarioIdAndIdNot(
-                contaAtualizada.getNome(), usuarioId, contaId)) {
-            throw new RuntimeException("Já existe uma conta com este nome");
-        }
-        
+        long saldoInicialAnterior = conta.getSaldoInicialEmCentavos();
         conta.setNome(contaAtualizada.getNome());
         conta.setTipo(contaAtualizada.getTipo());
         conta.setSaldoInicial(contaAtualizada.getSaldoInicial());
         conta.setInstituicao(contaAtualizada.getInstituicao());
         
-        return contaRepository.save(conta);
+        // Os valores já lançados estão na moeda atual: trocar a moeda só vale para conta sem transações
+        String moeda = contaAtualizada.getMoeda() != null ? tabelaCambio.validar(contaAtualizada.getMoeda()) : conta.getMoeda();
+        if (!moeda.equals(conta.getMoeda())) {
+            if (possuiTransacoes(conta, usuarioId)) {
+                throw new RuntimeException("Não é possível alterar a moeda de uma conta que possui transações");
+            }
+            conta.setMoeda(moeda);
+            cacheAnalitico.contaSalva(usuarioId, contaId, moeda);
+        }
+        
+        Conta salva = salvar(conta);
+        publicadorEventos.saldo(usuarioId, contaId,
+                Dinheiro.subtrair(salva.getSaldoInicialEmCentavos(), saldoInicialAnterior));
+        return salva;
+    }
+    
+    /**
+     * Grava já com flush para que a violação de unicidade do nome apareça aqui como erro de domínio
+     */
+    private Conta salvar(Conta conta) {
+        try {
+            return contaRepository.saveAndFlush(conta);
+        } catch (DataIntegrityViolationException e) {
+            throw RestricaoUnica.NOME_CONTA.traduzir(e);
+        }
     }
     
     /**
@@ -118,22 +164,39 @@ public class ContaService {
         Conta conta = buscarContaPorIdEUsuario(contaId, usuarioId);
         
         // Verificar se a conta possui transações
-        if (conta.getTransacoes() != null && !conta.getTransacoes().isEmpty()) {
+        if (possuiTransacoes(conta, usuarioId)) {
             throw new RuntimeException("Não é possível excluir uma conta que possui transações");
         }
         
         contaRepository.delete(conta);
+        publicadorEventos.saldo(usuarioId, contaId, -conta.calcularSaldoAtual().getCentavos());
+    }
+    
+    /**
+     * Existência, sem carregar a coleção de transações nem decodificar o arquivo inteiro
+     */
+    private boolean possuiTransacoes(Conta conta, Long usuarioId) {
+        long contaId = conta.getId();
+        return transacaoRepository.existsByContaId(contaId)
+                || repositorioSegmentos.existe(usuarioId, a -> a.contaId() == contaId);
     }
     
     /**
-     * Calcula o saldo total de todas as contas de um usuário
+     * Calcula o saldo total de todas as contas de um usuário, na moeda base pela cotação de hoje
      */
     @Transactional(readOnly = true)
     public BigDecimal calcularSaldoTotalUsuario(Long usuarioId) {
+        int moedaBase = Cotacoes.codigo(usuarioRepository.buscarMoedaBase(usuarioId)
+                .orElseThrow(() -> new RuntimeException("Usuário não encontrado")));
+        Cotacoes cotacoes = tabelaCambio.cotacoes();
+        int hoje = (int) LocalDate.now().toEpochDay();
         List<Conta> contas = listarContasPorUsuario(usuarioId);
-        return contas.stream()
-                .map(Conta::calcularSaldoAtual)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        long saldoTotal = 0;
+        for (Conta conta : contas) {
+            saldoTotal = Dinheiro.somar(saldoTotal, cotacoes.converter(conta.calcularSaldoAtual().getCentavos(),
+                    Cotacoes.codigo(conta.getMoeda()), moedaBase, hoje));
+        }
+        return Dinheiro.deCentavos(saldoTotal).paraBigDecimal();
     }
     
     /**
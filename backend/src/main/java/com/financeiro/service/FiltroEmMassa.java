@@ -0,0 +1,19 @@
+package com.financeiro.service;
+
+import com.financeiro.model.enums.TipoTransacao;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Seleção de transações de uma operação em massa: lista de ids e/ou os mesmos filtros de /transacoes/filtrar
+ * (campos nulos são ignorados; todos os informados precisam ser atendidos)
+ */
+public record FiltroEmMassa(List<Long> ids, TipoTransacao tipo, Long contaId, Long cartaoId,
+                            LocalDate dataInicio, LocalDate dataFim, Boolean recorrente, String descricao) {
+
+    public boolean isVazio() {
+        return (ids == null || ids.isEmpty()) && tipo == null && contaId == null && cartaoId == null
+                && dataInicio == null && dataFim == null && recorrente == null && (descricao == null || descricao.isBlank());
+    }
+}
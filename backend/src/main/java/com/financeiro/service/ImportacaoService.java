@@ -0,0 +1,293 @@
+package com.financeiro.service;
+
+import com.financeiro.analise.CacheAnaliticoColunar;
+import com.financeiro.categorizacao.AutomatoCategorias;
+import com.financeiro.categorizacao.CategorizadorTransacoes;
+import com.financeiro.duplicidade.DetectorDuplicatas;
+import com.financeiro.eventos.PublicadorEventos;
+import com.financeiro.model.Dinheiro;
+import com.financeiro.model.enums.TipoTransacao;
+import com.financeiro.orcamento.ContadoresGastos;
+import com.financeiro.repository.CartaoRepository;
+import com.financeiro.repository.ContaRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Importação de transações em CSV para uma conta (e opcionalmente um cartão).
+ *
+ * Linhas que já existem (reimportação de extratos sobrepostos) são puladas pelo índice de impressões digitais.
+ * Cada linha é categorizada pelo autômato do usuário, obtido uma única vez por importação. As linhas vão em
+ * INSERTs JDBC em lote, tudo em uma transação: uma linha inválida rejeita o arquivo inteiro. Contadores de gastos,
+ * eventos e cache analítico são atualizados por grupo, não por linha.
+ */
+@Service
+@Transactional
+@Timed(value = "financeiro.service", histogram = true)
+public class ImportacaoService {
+    
+    private static final String INSERCAO = "INSERT INTO transacoes (descricao, valor, data, tipo, recorrente, conta_id, " +
+            "cartao_id, categoria_id, usuario_id, data_criacao, data_atualizacao, impressao_digital) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private static final int TAMANHO_LOTE = 1000;
+    
+    @Value("${financeiro.transacoes.massa.maximo-linhas:50000}")
+    private int maximoLinhas;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ContaRepository contaRepository;
+    
+    @Autowired
+    private CartaoRepository cartaoRepository;
+    
+    @Autowired
+    private CategorizadorTransacoes categorizador;
+    
+    @Autowired
+    private ContadoresGastos contadoresGastos;
+    
+    @Autowired
+    private CacheAnaliticoColunar cacheAnalitico;
+    
+    @Autowired
+    private PublicadorEventos publicadorEventos;
+    
+    @Autowired
+    private DetectorDuplicatas detectorDuplicatas;
+    
+    /**
+     * Importa as linhas "data;descricao;valor;tipo[;recorrente]" (cabeçalho opcional; descrição entre aspas pode
+     * conter ';'); linhas sem categoria recebem a das regras do usuário e linhas já existentes são puladas
+     */
+    public Map<String, Object> importarCsv(Long usuarioId, Long contaId, Long cartaoId, String csv) {
+        contaRepository.findByIdAndUsuarioId(contaId, usuarioId)
+                .orElseThrow(() -> new RuntimeException("Conta não encontrada"));
+        if (cartaoId != null) {
+            cartaoRepository.findByIdAndUsuarioId(cartaoId, usuarioId)
+                    .orElseThrow(() -> new RuntimeException("Cartão não encontrado"));
+        }
+        
+        List<Linha> linhas = ler(csv);
+        if (linhas.isEmpty()) {
+            throw new RuntimeException("Nenhuma transação no arquivo");
+        }
+        if (linhas.size() > maximoLinhas) {
+            throw new RuntimeException("Importação excede o limite de " + maximoLinhas + " transações");
+        }
+        
+        List<Integer> duplicadas = new ArrayList<>();
+        if (detectorDuplicatas.isHabilitada()) {
+            List<DetectorDuplicatas.Candidata> candidatas = new ArrayList<>(linhas.size());
+            for (Linha linha : linhas) {
+                candidatas.add(new DetectorDuplicatas.Candidata(contaId, cartaoId, linha.tipo, linha.data,
+                        linha.centavos, linha.descricao));
+            }
+            long[] impressoes = detectorDuplicatas.reservarLote(usuarioId, candidatas);
+            List<Linha> novas = new ArrayList<>(linhas.size());
+            for (int i = 0; i < impressoes.length; i++) {
+                Linha linha = linhas.get(i);
+                if (impressoes[i] == DetectorDuplicatas.DUPLICADA) {
+                    duplicadas.add(linha.numero);
+                } else {
+                    linha.impressaoDigital = impressoes[i];
+                    novas.add(linha);
+                }
+            }
+            linhas = novas;
+        }
+        
+        // Um autômato para o arquivo inteiro: uma passada linear por descrição
+        long inicioCategorizacao = System.nanoTime();
+        AutomatoCategorias automato = categorizador.automato(usuarioId);
+        int categorizadas = 0;
+        for (Linha linha : linhas) {
+            long categoriaId = automato.categorizar(linha.descricao);
+            if (categoriaId != AutomatoCategorias.SEM_CATEGORIA) {
+                linha.categoriaId = categoriaId;
+                categorizadas++;
+            }
+        }
+        long nanosCategorizacao = System.nanoTime() - inicioCategorizacao;
+        
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            inserir(usuarioId, contaId, cartaoId, linhas, agora);
+        } catch (DataIntegrityViolationException e) {
+            throw detectorDuplicatas.traduzir(e);
+        }
+        
+        // Todas as linhas estão na moeda da conta; os deltas vão por data para a conversão do resumo e dos contadores
+        ContadoresGastos.Deltas gastos = new ContadoresGastos.Deltas();
+        Map<TipoTransacao, Map<LocalDate, long[]>> porTipo = new LinkedHashMap<>();
+        for (Linha linha : linhas) {
+            gastos.somar(usuarioId, linha.categoriaId, contaId, linha.tipo, linha.data, linha.centavos, 1);
+            long[] soma = porTipo.computeIfAbsent(linha.tipo, tipo -> new TreeMap<>())
+                    .computeIfAbsent(linha.data, data -> new long[1]);
+            soma[0] = Dinheiro.somar(soma[0], linha.centavos);
+        }
+        contadoresGastos.aplicar(gastos);
+        porTipo.forEach((tipo, porData) -> porData.forEach((data, soma) ->
+                publicadorEventos.transacoes(usuarioId, contaId, cartaoId, tipo, soma[0], data)));
+        cacheAnalitico.invalidar(usuarioId);
+        
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("importadas", linhas.size());
+        resultado.put("duplicadas", duplicadas.size());
+        resultado.put("linhasDuplicadas", duplicadas);
+        resultado.put("categorizadas", categorizadas);
+        resultado.put("regras", automato.getRegras());
+        resultado.put("microssegundosCategorizacao", nanosCategorizacao / 1_000);
+        return resultado;
+    }
+    
+    private void inserir(Long usuarioId, Long contaId, Long cartaoId, List<Linha> linhas, Timestamp agora) {
+        jdbcTemplate.batchUpdate(INSERCAO, linhas, TAMANHO_LOTE, (ps, linha) -> {
+            ps.setString(1, linha.descricao);
+            ps.setBigDecimal(2, Dinheiro.deCentavos(linha.centavos).paraBigDecimal());
+            ps.setDate(3, Date.valueOf(linha.data));
+            ps.setString(4, linha.tipo.name());
+            ps.setBoolean(5, linha.recorrente);
+            ps.setLong(6, contaId);
+            if (cartaoId != null) {
+                ps.setLong(7, cartaoId);
+            } else {
+                ps.setNull(7, Types.BIGINT);
+            }
+            if (linha.categoriaId != null) {
+                ps.setLong(8, linha.categoriaId);
+            } else {
+                ps.setNull(8, Types.BIGINT);
+            }
+            ps.setLong(9, usuarioId);
+            ps.setTimestamp(10, agora);
+            ps.setTimestamp(11, agora);
+            if (linha.impressaoDigital != null) {
+                ps.setLong(12, linha.impressaoDigital);
+            } else {
+                ps.setNull(12, Types.BIGINT);
+            }
+        });
+    }
+    
+    /**
+     * Linhas do CSV, numeradas pela posição no arquivo; uma linha inválida rejeita o arquivo
+     */
+    static List<Linha> ler(String csv) {
+        List<Linha> linhas = new ArrayList<>();
+        if (csv == null) {
+            return linhas;
+        }
+        String[] registros = csv.split("\r?\n");
+        for (int i = 0; i < registros.length; i++) {
+            String registro = registros[i];
+            if (registro.isBlank() || (i == 0 && registro.toLowerCase(Locale.ROOT).startsWith("data;"))) {
+                continue;
+            }
+            try {
+                Linha linha = Linha.de(campos(registro));
+                linha.numero = i + 1;
+                linhas.add(linha);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Linha " + (i + 1) + ": " + e.getMessage());
+            }
+        }
+        return linhas;
+    }
+    
+    /**
+     * Separa os campos por ';' respeitando aspas (aspas duplicadas dentro do campo viram uma)
+     */
+    private static List<String> campos(String registro) {
+        List<String> campos = new ArrayList<>(5);
+        StringBuilder campo = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < registro.length(); i++) {
+            char c = registro.charAt(i);
+            if (entreAspas) {
+                if (c == '"' && i + 1 < registro.length() && registro.charAt(i + 1) == '"') {
+                    campo.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreAspas = false;
+                } else {
+                    campo.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == ';') {
+                campos.add(campo.toString().strip());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+        campos.add(campo.toString().strip());
+        return campos;
+    }
+    
+    static final class Linha {
+        
+        int numero;
+        LocalDate data;
+        String descricao;
+        long centavos;
+        TipoTransacao tipo;
+        boolean recorrente;
+        Long categoriaId;
+        Long impressaoDigital;
+        
+        static Linha de(List<String> campos) {
+            if (campos.size() < 4) {
+                throw new RuntimeException("esperados data;descricao;valor;tipo");
+            }
+            Linha linha = new Linha();
+            try {
+                linha.data = LocalDate.parse(campos.get(0));
+            } catch (DateTimeParseException e) {
+                throw new RuntimeException("data inválida");
+            }
+            linha.descricao = campos.get(1);
+            if (linha.descricao.length() < 2 || linha.descricao.length() > 200) {
+                throw new RuntimeException("descrição deve ter entre 2 e 200 caracteres");
+            }
+            try {
+                linha.centavos = Dinheiro.centavosDe(new BigDecimal(campos.get(2).replace(',', '.')));
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("valor inválido");
+            }
+            if (linha.centavos <= 0) {
+                throw new RuntimeException("valor deve ser maior que zero");
+            }
+            try {
+                linha.tipo = TipoTransacao.valueOf(campos.get(3).toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("tipo inválido");
+            }
+            linha.recorrente = campos.size() > 4 && Boolean.parseBoolean(campos.get(4));
+            return linha;
+        }
+    }
+}
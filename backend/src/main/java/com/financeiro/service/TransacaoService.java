@@ -0,0 +1,666 @@
+package com.financeiro.service;
+
+import com.financeiro.analise.CacheAnaliticoColunar;
+import com.financeiro.analise.Dimensao;
+import com.financeiro.analise.Grupo;
+import com.financeiro.arquivo.RepositorioSegmentos;
+import com.financeiro.arquivo.TransacaoArquivada;
+import com.financeiro.cambio.ConversorMoedaBase;
+import com.financeiro.duplicidade.DetectorDuplicatas;
+import com.financeiro.eventos.PublicadorEventos;
+import com.financeiro.model.Cartao;
+import com.financeiro.model.Categoria;
+import com.financeiro.model.Conta;
+import com.financeiro.model.Dinheiro;
+import com.financeiro.model.Transacao;
+import com.financeiro.model.Usuario;
+import com.financeiro.model.enums.TipoTransacao;
+import com.financeiro.orcamento.ContadoresGastos;
+import com.financeiro.repository.CartaoRepository;
+import com.financeiro.repository.CategoriaRepository;
+import com.financeiro.repository.ContaRepository;
+import com.financeiro.repository.TransacaoRepository;
+import com.financeiro.repository.UsuarioRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+@Service
+@Transactional
+@Timed(value = "financeiro.service", histogram = true)
+public class TransacaoService {
+    
+    /** Seleção das operações em massa; :todosIds dispensa a lista de ids */
+    private static final String SELECAO_EM_MASSA = "t.usuario.id = :usuarioId " +
+            "AND (:todosIds = true OR t.id IN :ids) " +
+            "AND (:tipo IS NULL OR t.tipo = :tipo) " +
+            "AND (:contaId IS NULL OR t.conta.id = :contaId) " +
+            "AND (:cartaoId IS NULL OR t.cartao.id = :cartaoId) " +
+            "AND (CAST(:dataInicio AS LocalDate) IS NULL OR t.data >= :dataInicio) " +
+            "AND (CAST(:dataFim AS LocalDate) IS NULL OR t.data <= :dataFim) " +
+            "AND (:recorrente IS NULL OR t.recorrente = :recorrente) " +
+            "AND (:descricao IS NULL OR LOWER(t.descricao) LIKE LOWER(CONCAT('%', :descricao, '%')))";
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${financeiro.transacoes.massa.maximo-linhas:50000}")
+    private int maximoLinhasEmMassa;
+    
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+    
+    @Autowired
+    private ContaRepository contaRepository;
+    
+    @Autowired
+    private CartaoRepository cartaoRepository;
+    
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+    
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    
+    @Autowired
+    private CacheAnaliticoColunar cacheAnalitico;
+    
+    @Autowired
+    private RepositorioSegmentos repositorioSegmentos;
+    
+    @Autowired
+    private PublicadorEventos publicadorEventos;
+    
+    @Autowired
+    private ContadoresGastos contadoresGastos;
+    
+    @Autowired
+    private DetectorDuplicatas detectorDuplicatas;
+    
+    @Autowired
+    private ConversorMoedaBase conversorMoedaBase;
+    
+    /**
+     * Cria uma nova transação; recusa duplicatas, a menos que permitirDuplicada
+     */
+    public Transacao criarTransacao(Transacao transacao, Long usuarioId, Long contaId, Long cartaoId,
+                                    Long categoriaId) {
+        Usuario usuario = usuarioRepository.findById(usuarioId)
+                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+        
+        transacao.setUsuario(usuario);
+        transacao.setConta(buscarConta(contaId, usuarioId));
+        transacao.setCartao(cartaoId != null ? buscarCartao(cartaoId, usuarioId) : null);
+        transacao.setCategoria(categoriaId != null ? buscarCategoria(categoriaId, usuarioId) : null);
+        transacao.setImpressaoDigital(detectorDuplicatas.reservar(usuarioId, contaId, cartaoId, transacao.getTipo(),
+                transacao.getData(), transacao.getValorEmCentavos(), transacao.getDescricao(),
+                transacao.isPermitirDuplicada()));
+        
+        Transacao salva;
+        try {
+            salva = transacaoRepository.save(transacao);
+        } catch (DataIntegrityViolationException e) {
+            throw detectorDuplicatas.traduzir(e);
+        }
+        contadoresGastos.transacaoIncluida(salva);
+        cacheAnalitico.transacaoSalva(salva);
+        publicadorEventos.transacaoIncluida(salva);
+        return salva;
+    }
+    
+    /**
+     * Atualiza uma transação existente
+     */
+    public Transacao atualizarTransacao(Long transacaoId, Transacao transacaoAtualizada, Long usuarioId,
+                                        Long contaId, Long cartaoId, Long categoriaId) {
+        Transacao transacao = buscarTransacaoPorIdEUsuario(transacaoId, usuarioId);
+        publicadorEventos.transacaoRemovida(transacao);
+        // Saída e entrada no mesmo contador se anulam e não vão ao banco
+        ContadoresGastos.Deltas gastos = new ContadoresGastos.Deltas();
+        gastos.remover(transacao);
+        
+        transacao.setDescricao(transacaoAtualizada.getDescricao());
+        transacao.setValor(transacaoAtualizada.getValor());
+        transacao.setData(transacaoAtualizada.getData());
+        transacao.setTipo(transacaoAtualizada.getTipo());
+        transacao.setRecorrente(transacaoAtualizada.getRecorrente());
+        transacao.setConta(buscarConta(contaId, usuarioId));
+        transacao.setCartao(cartaoId != null ? buscarCartao(cartaoId, usuarioId) : null);
+        transacao.setCategoria(categoriaId != null ? buscarCategoria(categoriaId, usuarioId) : null);
+        transacao.setImpressaoDigital(detectorDuplicatas.reindexar(usuarioId, transacao.getImpressaoDigital(), contaId,
+                cartaoId, transacao.getTipo(), transacao.getData(), transacao.getValorEmCentavos(),
+                transacao.getDescricao()));
+        
+        Transacao salva = transacaoRepository.save(transacao);
+        gastos.incluir(salva);
+        contadoresGastos.aplicar(gastos);
+        cacheAnalitico.transacaoSalva(salva);
+        publicadorEventos.transacaoIncluida(salva);
+        return salva;
+    }
+    
+    /**
+     * Busca uma transação por ID e usuário
+     */
+    @Transactional(readOnly = true)
+    public Transacao buscarTransacaoPorIdEUsuario(Long transacaoId, Long usuarioId) {
+        return transacaoRepository.findByIdAndUsuarioId(transacaoId, usuarioId)
+                .orElseThrow(() -> new RuntimeException("Transação não encontrada"));
+    }
+    
+    /**
+     * Lista todas as transações de um usuário
+     */
+    @Transactional(readOnly = true)
+    public List<Transacao> listarTransacoesPorUsuario(Long usuarioId) {
+        return comArquivo(transacaoRepository.findByUsuarioIdOrderByDataDescIdDesc(usuarioId),
+                repositorioSegmentos.ler(usuarioId, a -> true));
+    }
+    
+    /**
+     * Lista transações com paginação
+     */
+    @Transactional(readOnly = true)
+    public Page<Transacao> listarTransacoesPorUsuarioComPaginacao(Long usuarioId, Pageable pageable) {
+        return paginarComArquivo(transacaoRepository.findByUsuarioIdOrderByDataDescIdDesc(usuarioId, pageable),
+                pageable, usuarioId, null, null, a -> true);
+    }
+    
+    /**
+     * Lista transações com filtros opcionais e paginação
+     */
+    @Transactional(readOnly = true)
+    public Page<Transacao> filtrarTransacoes(Long usuarioId, TipoTransacao tipo, Long contaId, Long cartaoId,
+                                             LocalDate dataInicio, LocalDate dataFim, Boolean recorrente,
+                                             String descricao, Pageable pageable) {
+        Page<Transacao> quentes = transacaoRepository.filtrar(usuarioId, tipo, contaId, cartaoId, dataInicio, dataFim,
+                recorrente, descricao, pageable);
+        String trecho = descricao != null ? descricao.toLowerCase() : null;
+        return paginarComArquivo(quentes, pageable, usuarioId, dataInicio, dataFim, a ->
+                (tipo == null || a.tipo() == tipo)
+                        && (contaId == null || a.contaId() == contaId)
+                        && (cartaoId == null || a.cartaoId() == cartaoId)
+                        && (recorrente == null || a.recorrente() == recorrente)
+                        && (trecho == null || a.descricao().toLowerCase().contains(trecho)));
+    }
+    
+    /**
+     * Busca transações de uma conta
+     */
+    @Transactional(readOnly = true)
+    public List<Transacao> buscarTransacoesPorConta(Long contaId, Long usuarioId) {
+        buscarConta(contaId, usuarioId);
+        return comArquivo(transacaoRepository.findByContaIdOrderByDataDescIdDesc(contaId),
+                repositorioSegmentos.ler(usuarioId, a -> a.contaId() == contaId));
+    }
+    
+    /**
+     * Busca transações de um cartão
+     */
+    @Transactional(readOnly = true)
+    public List<Transacao> buscarTransacoesPorCartao(Long cartaoId, Long usuarioId) {
+        buscarCartao(cartaoId, usuarioId);
+        return comArquivo(transacaoRepository.findByCartaoIdOrderByDataDescIdDesc(cartaoId),
+                repositorioSegmentos.ler(usuarioId, a -> a.cartaoId() == cartaoId));
+    }
+    
+    /**
+     * Busca transações por tipo
+     */
+    @Transactional(readOnly = true)
+    public List<Transacao> buscarTransacoesPorTipo(TipoTransacao tipo, Long usuarioId) {
+        return comArquivo(transacaoRepository.findByTipoAndUsuarioIdOrderByDataDescIdDesc(tipo, usuarioId),
+                repositorioSegmentos.ler(usuarioId, a -> a.tipo() == tipo));
+    }
+    
+    /**
+     * Busca transações por período
+     */
+    @Transactional(readOnly = true)
+    public List<Transacao> buscarTransacoesPorPeriodo(Long usuarioId, LocalDate dataInicio, LocalDate dataFim) {
+        return comArquivo(transacaoRepository.findByUsuarioIdAndDataBetweenOrderByDataDescIdDesc(usuarioId, dataInicio, dataFim),
+                repositorioSegmentos.ler(usuarioId, dataInicio, dataFim, a -> true));
+    }
+    
+    /**
+     * Busca transações recorrentes
+     */
+    @Transactional(readOnly = true)
+    public List<Transacao> buscarTransacoesRecorrentes(Long usuarioId) {
+        return comArquivo(transacaoRepository.findByUsuarioIdAndRecorrenteOrderByDataDescIdDesc(usuarioId, true),
+                repositorioSegmentos.ler(usuarioId, TransacaoArquivada::recorrente));
+    }
+    
+    /**
+     * Busca transações por descrição parcial
+     */
+    @Transactional(readOnly = true)
+    public List<Transacao> buscarTransacoesPorDescricao(String descricao, Long usuarioId) {
+        String trecho = descricao.toLowerCase();
+        return comArquivo(transacaoRepository.buscarPorDescricaoParcialEUsuario(descricao, usuarioId),
+                repositorioSegmentos.ler(usuarioId, a -> a.descricao().toLowerCase().contains(trecho)));
+    }
+    
+    /**
+     * Exclui uma transação
+     */
+    public void excluirTransacao(Long transacaoId, Long usuarioId) {
+        Transacao transacao = buscarTransacaoPorIdEUsuario(transacaoId, usuarioId);
+        transacaoRepository.delete(transacao);
+        detectorDuplicatas.liberar(usuarioId, transacao.getImpressaoDigital());
+        contadoresGastos.transacaoRemovida(transacao);
+        cacheAnalitico.transacaoExcluida(usuarioId, transacaoId);
+        publicadorEventos.transacaoRemovida(transacao);
+    }
+    
+    /**
+     * Altera em um único UPDATE as transações selecionadas e devolve os deltas de saldo por conta e de limite por cartão,
+     * na moeda de cada um
+     */
+    public Map<String, Object> atualizarEmMassa(Long usuarioId, FiltroEmMassa filtro, AlteracaoEmMassa alteracao) {
+        validarSelecao(filtro);
+        Conta novaConta = alteracao.contaId() != null ? buscarConta(alteracao.contaId(), usuarioId) : null;
+        boolean removerCartao = Boolean.TRUE.equals(alteracao.removerCartao());
+        Cartao novoCartao = !removerCartao && alteracao.cartaoId() != null ? buscarCartao(alteracao.cartaoId(), usuarioId) : null;
+        Categoria novaCategoria = alteracao.categoriaId() != null ? buscarCategoria(alteracao.categoriaId(), usuarioId) : null;
+        
+        StringBuilder atribuicoes = new StringBuilder("t.dataAtualizacao = :agora");
+        Map<String, Object> valores = new HashMap<>();
+        valores.put("agora", LocalDateTime.now());
+        if (novaConta != null) {
+            atribuicoes.append(", t.conta = :novaConta");
+            valores.put("novaConta", novaConta);
+        }
+        if (removerCartao) {
+            atribuicoes.append(", t.cartao = NULL");
+        } else if (novoCartao != null) {
+            atribuicoes.append(", t.cartao = :novoCartao");
+            valores.put("novoCartao", novoCartao);
+        }
+        if (novaCategoria != null) {
+            atribuicoes.append(", t.categoria = :novaCategoria");
+            valores.put("novaCategoria", novaCategoria);
+        }
+        if (alteracao.tipo() != null) {
+            atribuicoes.append(", t.tipo = :novoTipo");
+            valores.put("novoTipo", alteracao.tipo());
+        }
+        if (alteracao.recorrente() != null) {
+            atribuicoes.append(", t.recorrente = :novoRecorrente");
+            valores.put("novoRecorrente", alteracao.recorrente());
+        }
+        if (valores.size() == 1 && !removerCartao) {
+            throw new RuntimeException("Nenhuma alteração informada");
+        }
+        // Conta, cartão e tipo fazem parte da impressão digital: as linhas são reindexadas no próximo uso
+        if (novaConta != null || removerCartao || novoCartao != null || alteracao.tipo() != null) {
+            atribuicoes.append(", t.impressaoDigital = NULL");
+        }
+        
+        // Deltas agrupados: o efeito antigo de cada grupo sai e o novo entra. O limite é convertido da moeda da
+        // conta para a do cartão antes de somar, porque um cartão recebe transações de contas de moedas diferentes
+        Map<Long, Long> saldos = new HashMap<>();
+        Map<Long, Long> limites = new HashMap<>();
+        ConversorMoedaBase.Conversao conversao = conversorMoedaBase.paraUsuario(usuarioId);
+        List<Object[]> grupos = agruparSelecao(usuarioId, filtro);
+        // Os valores estão na moeda da conta de origem: mover para outra moeda os reinterpretaria (100 USD viraria 100 BRL)
+        if (novaConta != null) {
+            for (Object[] grupo : grupos) {
+                if (!conversao.mesmaMoeda((Long) grupo[0], novaConta.getId())) {
+                    throw new RuntimeException("Não é possível mover transações para uma conta em outra moeda");
+                }
+            }
+        }
+        long selecionadas = 0;
+        for (Object[] grupo : grupos) {
+            Long contaId = (Long) grupo[0];
+            Long cartaoId = (Long) grupo[1];
+            TipoTransacao tipo = (TipoTransacao) grupo[2];
+            long centavos = centavosDaSoma(grupo[3]);
+            selecionadas += (Long) grupo[4];
+            
+            Long novaContaId = novaConta != null ? novaConta.getId() : contaId;
+            Long novoCartaoId = removerCartao ? null : novoCartao != null ? novoCartao.getId() : cartaoId;
+            TipoTransacao novoTipo = alteracao.tipo() != null ? alteracao.tipo() : tipo;
+            LocalDate data = (LocalDate) grupo[5];
+            acumular(saldos, contaId, -efeitoNoSaldo(tipo, centavos));
+            acumular(saldos, novaContaId, efeitoNoSaldo(novoTipo, centavos));
+            acumular(limites, cartaoId, -conversao.paraCartao(cartaoId, contaId, centavos, data));
+            acumular(limites, novoCartaoId, conversao.paraCartao(novoCartaoId, novaContaId, centavos, data));
+            publicadorEventos.transacoes(usuarioId, contaId, cartaoId, tipo, -centavos, data);
+            publicadorEventos.transacoes(usuarioId, novaContaId, novoCartaoId, novoTipo, centavos, data);
+        }
+        limitarEscopo(selecionadas);
+        
+        // Os contadores de gastos só mudam se a categoria, o tipo ou a conta (e com ela a moeda) mudar
+        if (novaCategoria != null || alteracao.tipo() != null || novaConta != null) {
+            ContadoresGastos.Deltas gastos = new ContadoresGastos.Deltas();
+            for (Object[] grupo : agruparPorCategoria(usuarioId, filtro)) {
+                Long categoriaId = (Long) grupo[0];
+                Long contaId = (Long) grupo[1];
+                TipoTransacao tipo = (TipoTransacao) grupo[2];
+                LocalDate data = (LocalDate) grupo[3];
+                long centavos = centavosDaSoma(grupo[4]);
+                long quantidade = (Long) grupo[5];
+                gastos.somar(usuarioId, categoriaId, contaId, tipo, data, -centavos, -quantidade);
+                gastos.somar(usuarioId, novaCategoria != null ? novaCategoria.getId() : categoriaId,
+                        novaConta != null ? novaConta.getId() : contaId,
+                        alteracao.tipo() != null ? alteracao.tipo() : tipo, data, centavos, quantidade);
+            }
+            contadoresGastos.aplicar(gastos);
+        }
+        
+        Query update = entityManager.createQuery("UPDATE Transacao t SET " + atribuicoes + " WHERE " + SELECAO_EM_MASSA);
+        valores.forEach(update::setParameter);
+        int afetadas = executarEmMassa(update, usuarioId, filtro);
+        return resultadoEmMassa(afetadas, saldos, limites);
+    }
+    
+    /**
+     * Exclui em um único DELETE as transações selecionadas e devolve os deltas de saldo por conta e de limite por cartão,
+     * na moeda de cada um
+     */
+    public Map<String, Object> excluirEmMassa(Long usuarioId, FiltroEmMassa filtro) {
+        validarSelecao(filtro);
+        Map<Long, Long> saldos = new HashMap<>();
+        Map<Long, Long> limites = new HashMap<>();
+        ConversorMoedaBase.Conversao conversao = conversorMoedaBase.paraUsuario(usuarioId);
+        long selecionadas = 0;
+        for (Object[] grupo : agruparSelecao(usuarioId, filtro)) {
+            long centavos = centavosDaSoma(grupo[3]);
+            selecionadas += (Long) grupo[4];
+            LocalDate data = (LocalDate) grupo[5];
+            acumular(saldos, (Long) grupo[0], -efeitoNoSaldo((TipoTransacao) grupo[2], centavos));
+            acumular(limites, (Long) grupo[1], -conversao.paraCartao((Long) grupo[1], (Long) grupo[0], centavos, data));
+            publicadorEventos.transacoes(usuarioId, (Long) grupo[0], (Long) grupo[1], (TipoTransacao) grupo[2],
+                    -centavos, data);
+        }
+        limitarEscopo(selecionadas);
+        
+        ContadoresGastos.Deltas gastos = new ContadoresGastos.Deltas();
+        for (Object[] grupo : agruparPorCategoria(usuarioId, filtro)) {
+            gastos.somar(usuarioId, (Long) grupo[0], (Long) grupo[1], (TipoTransacao) grupo[2], (LocalDate) grupo[3],
+                    -centavosDaSoma(grupo[4]), -(Long) grupo[5]);
+        }
+        contadoresGastos.aplicar(gastos);
+        
+        Query delete = entityManager.createQuery("DELETE FROM Transacao t WHERE " + SELECAO_EM_MASSA);
+        int afetadas = executarEmMassa(delete, usuarioId, filtro);
+        return resultadoEmMassa(afetadas, saldos, limites);
+    }
+    
+    /**
+     * Calcula o total de receitas (no período, se informado)
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal calcularTotalReceitas(Long usuarioId, LocalDate dataInicio, LocalDate dataFim) {
+        return totaisPorTipo(usuarioId, dataInicio, dataFim, moedaBase(usuarioId))[0].paraBigDecimal();
+    }
+    
+    /**
+     * Calcula o total de despesas (no período, se informado)
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal calcularTotalDespesas(Long usuarioId, LocalDate dataInicio, LocalDate dataFim) {
+        return totaisPorTipo(usuarioId, dataInicio, dataFim, moedaBase(usuarioId))[1].paraBigDecimal();
+    }
+    
+    /**
+     * Monta o resumo financeiro (receitas, despesas e saldo) do período, na moeda base do usuário
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> obterResumoFinanceiro(Long usuarioId, LocalDate dataInicio, LocalDate dataFim) {
+        String moeda = moedaBase(usuarioId);
+        Dinheiro[] totais = totaisPorTipo(usuarioId, dataInicio, dataFim, moeda);
+        Dinheiro totalReceitas = totais[0];
+        Dinheiro totalDespesas = totais[1];
+        
+        Map<String, Object> periodo = new HashMap<>();
+        periodo.put("inicio", dataInicio);
+        periodo.put("fim", dataFim);
+        
+        Map<String, Object> resumo = new HashMap<>();
+        resumo.put("totalReceitas", totalReceitas);
+        resumo.put("totalDespesas", totalDespesas);
+        resumo.put("saldo", totalReceitas.subtrair(totalDespesas));
+        resumo.put("moeda", moeda);
+        resumo.put("periodo", periodo);
+        return resumo;
+    }
+    
+    /**
+     * Agrupa receitas e despesas por dia, mês, tipo, conta ou cartão (cache analítico colunar), na moeda base
+     */
+    @Transactional(readOnly = true)
+    public List<Grupo> agruparTransacoes(Long usuarioId, Dimensao dimensao, LocalDate dataInicio, LocalDate dataFim) {
+        return cacheAnalitico.agrupar(usuarioId, dimensao, dataInicio, dataFim, moedaBase(usuarioId));
+    }
+    
+    /**
+     * Conta o número de transações de um usuário
+     */
+    @Transactional(readOnly = true)
+    public long contarTransacoesPorUsuario(Long usuarioId) {
+        return transacaoRepository.countByUsuarioId(usuarioId) + repositorioSegmentos.contar(usuarioId);
+    }
+    
+    /**
+     * Exporta as transações do período (quentes e arquivadas) em CSV
+     */
+    @Transactional(readOnly = true)
+    public String exportarTransacoesCsv(Long usuarioId, LocalDate dataInicio, LocalDate dataFim) {
+        List<Transacao> quentes = dataInicio != null && dataFim != null
+                ? transacaoRepository.findByUsuarioIdAndDataBetweenOrderByDataDescIdDesc(usuarioId, dataInicio, dataFim)
+                : transacaoRepository.findByUsuarioIdOrderByDataDescIdDesc(usuarioId);
+        List<Transacao> transacoes = comArquivo(quentes, repositorioSegmentos.ler(usuarioId, dataInicio, dataFim, a -> true));
+        
+        StringBuilder csv = new StringBuilder(64 * (transacoes.size() + 1));
+        csv.append("id;data;descricao;valor;tipo;recorrente;contaId;cartaoId;arquivada\n");
+        for (Transacao t : transacoes) {
+            csv.append(t.getId()).append(';')
+                    .append(t.getData()).append(';')
+                    .append('"').append(t.getDescricao().replace("\"", "\"\"")).append('"').append(';')
+                    .append(t.getValor().toPlainString()).append(';')
+                    .append(t.getTipo()).append(';')
+                    .append(t.getRecorrente()).append(';')
+                    .append(t.idDaConta()).append(';')
+                    .append(t.idDoCartao() != null ? t.idDoCartao() : "").append(';')
+                    .append(t.isArquivada()).append('\n');
+        }
+        return csv.toString();
+    }
+    
+    private void validarSelecao(FiltroEmMassa filtro) {
+        if (filtro == null || filtro.isVazio()) {
+            throw new RuntimeException("Informe ids ou ao menos um filtro");
+        }
+    }
+    
+    private void limitarEscopo(long selecionadas) {
+        if (selecionadas > maximoLinhasEmMassa) {
+            throw new RuntimeException("Operação em massa excede o limite de " + maximoLinhasEmMassa + " transações");
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private List<Object[]> agruparSelecao(Long usuarioId, FiltroEmMassa filtro) {
+        Query consulta = entityManager.createQuery("SELECT t.conta.id, t.cartao.id, t.tipo, SUM(t.valor), COUNT(t), " +
+                "t.data FROM Transacao t WHERE " + SELECAO_EM_MASSA + " GROUP BY t.conta.id, t.cartao.id, t.tipo, t.data");
+        return (List<Object[]>) selecionar(consulta, usuarioId, filtro).getResultList();
+    }
+    
+    /**
+     * Soma e quantidade da seleção por categoria, conta, tipo e data (para os contadores de gastos, na moeda da conta)
+     */
+    @SuppressWarnings("unchecked")
+    private List<Object[]> agruparPorCategoria(Long usuarioId, FiltroEmMassa filtro) {
+        Query consulta = entityManager.createQuery("SELECT t.categoria.id, t.conta.id, t.tipo, t.data, " +
+                "SUM(t.valor), COUNT(t) FROM Transacao t WHERE " + SELECAO_EM_MASSA +
+                " GROUP BY t.categoria.id, t.conta.id, t.tipo, t.data");
+        return (List<Object[]>) selecionar(consulta, usuarioId, filtro).getResultList();
+    }
+    
+    private int executarEmMassa(Query comando, Long usuarioId, FiltroEmMassa filtro) {
+        // Alterações pendentes vão antes do comando; entidades carregadas ficariam desatualizadas depois dele
+        entityManager.flush();
+        int afetadas = selecionar(comando, usuarioId, filtro).executeUpdate();
+        entityManager.clear();
+        cacheAnalitico.invalidar(usuarioId);
+        detectorDuplicatas.invalidar(usuarioId);
+        return afetadas;
+    }
+    
+    private static Query selecionar(Query consulta, Long usuarioId, FiltroEmMassa filtro) {
+        boolean todosIds = filtro.ids() == null || filtro.ids().isEmpty();
+        return consulta.setParameter("usuarioId", usuarioId)
+                .setParameter("todosIds", todosIds)
+                .setParameter("ids", todosIds ? List.of(-1L) : filtro.ids())
+                .setParameter("tipo", filtro.tipo())
+                .setParameter("contaId", filtro.contaId())
+                .setParameter("cartaoId", filtro.cartaoId())
+                .setParameter("dataInicio", filtro.dataInicio())
+                .setParameter("dataFim", filtro.dataFim())
+                .setParameter("recorrente", filtro.recorrente())
+                .setParameter("descricao", filtro.descricao() != null && !filtro.descricao().isBlank() ? filtro.descricao() : null);
+    }
+    
+    private static long centavosDaSoma(Object soma) {
+        return soma instanceof Dinheiro dinheiro ? dinheiro.getCentavos() : Dinheiro.centavosDe((BigDecimal) soma);
+    }
+    
+    private static long efeitoNoSaldo(TipoTransacao tipo, long centavos) {
+        return tipo == TipoTransacao.RECEITA ? centavos : -centavos;
+    }
+    
+    private static void acumular(Map<Long, Long> deltas, Long id, long centavos) {
+        if (id != null) {
+            deltas.merge(id, centavos, Dinheiro::somar);
+        }
+    }
+    
+    private static Map<String, Object> resultadoEmMassa(int afetadas, Map<Long, Long> saldos, Map<Long, Long> limites) {
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("afetadas", afetadas);
+        resultado.put("deltaSaldoPorConta", deltasNaoNulos(saldos));
+        resultado.put("deltaLimiteUtilizadoPorCartao", deltasNaoNulos(limites));
+        return resultado;
+    }
+    
+    private static Map<Long, Dinheiro> deltasNaoNulos(Map<Long, Long> deltas) {
+        Map<Long, Dinheiro> resultado = new LinkedHashMap<>();
+        deltas.forEach((id, centavos) -> {
+            if (centavos != 0) {
+                resultado.put(id, Dinheiro.deCentavos(centavos));
+            }
+        });
+        return resultado;
+    }
+    
+    private String moedaBase(Long usuarioId) {
+        return usuarioRepository.buscarMoedaBase(usuarioId)
+                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+    }
+    
+    private Dinheiro[] totaisPorTipo(Long usuarioId, LocalDate dataInicio, LocalDate dataFim, String moeda) {
+        long receitas = 0;
+        long despesas = 0;
+        for (Grupo grupo : cacheAnalitico.agrupar(usuarioId, Dimensao.TIPO, dataInicio, dataFim, moeda)) {
+            receitas = Dinheiro.somar(receitas, grupo.receitas().getCentavos());
+            despesas = Dinheiro.somar(despesas, grupo.despesas().getCentavos());
+        }
+        return new Dinheiro[]{Dinheiro.deCentavos(receitas), Dinheiro.deCentavos(despesas)};
+    }
+    
+    /**
+     * Intercala as transações quentes com as arquivadas (ambas em data/id decrescentes); em caso de id
+     * repetido (arquivamento interrompido antes da exclusão) vale a linha quente
+     */
+    private static List<Transacao> comArquivo(List<Transacao> quentes, List<TransacaoArquivada> arquivadas) {
+        if (arquivadas.isEmpty()) {
+            return quentes;
+        }
+        Set<Long> idsQuentes = new HashSet<>(quentes.size() * 2);
+        for (Transacao transacao : quentes) {
+            idsQuentes.add(transacao.getId());
+        }
+        List<Transacao> resultado = new ArrayList<>(quentes.size() + arquivadas.size());
+        int q = 0;
+        for (TransacaoArquivada arquivada : arquivadas) {
+            if (idsQuentes.contains(arquivada.id())) {
+                continue;
+            }
+            while (q < quentes.size() && vemAntes(quentes.get(q), arquivada)) {
+                resultado.add(quentes.get(q++));
+            }
+            resultado.add(arquivada.paraTransacao());
+        }
+        while (q < quentes.size()) {
+            resultado.add(quentes.get(q++));
+        }
+        return resultado;
+    }
+    
+    private static boolean vemAntes(Transacao quente, TransacaoArquivada arquivada) {
+        int comparacao = quente.getData().compareTo(arquivada.data());
+        return comparacao > 0 || (comparacao == 0 && quente.getId() > arquivada.id());
+    }
+    
+    /**
+     * Completa a página da tabela quente com as linhas arquivadas: a ordem é a da tabela quente seguida
+     * do arquivo, que só guarda datas anteriores ao corte de retenção
+     */
+    private Page<Transacao> paginarComArquivo(Page<Transacao> quentes, Pageable pageable, Long usuarioId,
+                                              LocalDate dataInicio, LocalDate dataFim,
+                                              Predicate<TransacaoArquivada> filtro) {
+        if (!repositorioSegmentos.possuiTransacoes(usuarioId)) {
+            return quentes;
+        }
+        List<TransacaoArquivada> arquivadas = repositorioSegmentos.ler(usuarioId, dataInicio, dataFim, filtro);
+        if (arquivadas.isEmpty()) {
+            return quentes;
+        }
+        long totalQuentes = quentes.getTotalElements();
+        List<Transacao> conteudo = new ArrayList<>(quentes.getContent());
+        long inicioArquivo = Math.max(0, pageable.getOffset() - totalQuentes);
+        for (long i = inicioArquivo; i < arquivadas.size() && conteudo.size() < pageable.getPageSize(); i++) {
+            conteudo.add(arquivadas.get((int) i).paraTransacao());
+        }
+        return new PageImpl<>(conteudo, pageable, totalQuentes + arquivadas.size());
+    }
+    
+    private Conta buscarConta(Long contaId, Long usuarioId) {
+        return contaRepository.findByIdAndUsuarioId(contaId, usuarioId)
+                .orElseThrow(() -> new RuntimeException("Conta não encontrada"));
+    }
+    
+    private Categoria buscarCategoria(Long categoriaId, Long usuarioId) {
+        return categoriaRepository.findByIdAndUsuarioId(categoriaId, usuarioId)
+                .orElseThrow(() -> new RuntimeException("Categoria não encontrada"));
+    }
+    
+    private Cartao buscarCartao(Long cartaoId, Long usuarioId) {
+        return cartaoRepository.findByIdAndUsuarioId(cartaoId, usuarioId)
+                .orElseThrow(() -> new RuntimeException("Cartão não encontrado"));
+    }
+}
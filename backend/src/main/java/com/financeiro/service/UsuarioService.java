@@ -1,9 +1,14 @@
 package com.financeiro.service;
 
+import com.financeiro.cambio.TabelaCambio;
 import com.financeiro.model.Usuario;
 import com.financeiro.model.enums.PerfilUsuario;
+import com.financeiro.orcamento.ContadoresGastos;
 import com.financeiro.repository.UsuarioRepository;
+import com.financeiro.unicidade.RestricaoUnica;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,6 +18,7 @@ import java.util.Optional;
 
 @Service
 @Transactional
+@Timed(value = "financeiro.service", histogram = true)
 public class UsuarioService {
     
     @Autowired
@@ -21,15 +27,16 @@ public class UsuarioService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private TabelaCambio tabelaCambio;
+    
+    @Autowired
+    private ContadoresGastos contadoresGastos;
+    
     /**
      * Cria um novo usuário
      */
     public Usuario criarUsuario(Usuario usuario) {
-        // Validar se o email já existe
-        if (usuarioRepository.existsByEmail(usuario.getEmail())) {
-            throw new RuntimeException("Email já está em uso");
-        }
-        
         // Criptografar a senha
         usuario.setSenha(passwordEncoder.encode(usuario.getSenha()));
         
@@ -38,10 +45,15 @@ public class UsuarioService {
             usuario.setPerfil(PerfilUsuario.USER);
         }
         
+        // Saldos e resumos na moeda de referência das cotações, se outra não for escolhida
+        usuario.setMoedaBase(tabelaCambio.validar(usuario.getMoedaBase() != null
+                ? usuario.getMoedaBase() : tabelaCambio.cotacoes().getReferencia()));
+        
         // Definir como ativo por padrão
         usuario.setAtivo(true);
         
-        return usuarioRepository.save(usuario);
+        // Email repetido (sem diferenciar maiúsculas) é barrado pelo índice único uk_usuarios_email
+        return salvar(usuario);
     }
     
     /**
@@ -50,23 +62,43 @@ public class UsuarioService {
     public Usuario atualizarUsuario(Long usuarioId, Usuario usuarioAtualizado) {
         Usuario usuario = buscarUsuarioPorId(usuarioId);
         
-        // Validar se o email já existe (excluindo o usuário atual)
-        if (!usuario.getEmail().equals(usuarioAtualizado.getEmail()) && 
-            usuarioRepository.existsByEmail(usuarioAtualizado.getEmail())) {
-            throw new RuntimeException("Email já está em uso");
-        }
-        
         usuario.setNome(usuarioAtualizado.getNome());
         usuario.setEmail(usuarioAtualizado.getEmail());
+        if (usuarioAtualizado.getMoedaBase() != null) {
+            usuario.setMoedaBase(tabelaCambio.validar(usuarioAtualizado.getMoedaBase()));
+        }
         
         // Atualizar senha apenas se fornecida
         if (usuarioAtualizado.getSenha() != null && !usuarioAtualizado.getSenha().isEmpty()) {
             usuario.setSenha(passwordEncoder.encode(usuarioAtualizado.getSenha()));
         }
         
+        return salvar(usuario);
+    }
+    
+    /**
+     * Altera a moeda em que saldos totais e resumos do usuário são apresentados (os contadores de gastos, guardados
+     * na moeda base, são convertidos)
+     */
+    public Usuario alterarMoedaBase(Long usuarioId, String moeda) {
+        Usuario usuario = buscarUsuarioPorId(usuarioId);
+        String anterior = usuario.getMoedaBase();
+        usuario.setMoedaBase(tabelaCambio.validar(moeda));
+        contadoresGastos.moedaBaseAlterada(usuarioId, anterior, usuario.getMoedaBase());
         return usuarioRepository.save(usuario);
     }
     
+    /**
+     * Grava já com flush para que a violação de unicidade do email apareça aqui como erro de domínio
+     */
+    private Usuario salvar(Usuario usuario) {
+        try {
+            return usuarioRepository.saveAndFlush(usuario);
+        } catch (DataIntegrityViolationException e) {
+            throw RestricaoUnica.EMAIL_USUARIO.traduzir(e);
+        }
+    }
+    
     /**
      * Busca um usuário por ID
      */
@@ -86,7 +118,10 @@ public class UsuarioService {
     
     /**
      * Lista todos os usuários ativos
+     *
+     * @deprecated carrega todos os usuários de uma vez; use {@link com.financeiro.diretorio.DiretorioUsuarios#listar}
      */
+    @Deprecated
     @Transactional(readOnly = true)
     public List<Usuario> listarUsuariosAtivos() {
         return usuarioRepository.findByAtivoOrderByNomeAsc(true);
@@ -94,7 +129,11 @@ public class UsuarioService {
     
     /**
      * Lista usuários por perfil
+     *
+     * @deprecated carrega todos os usuários do perfil de uma vez;
+     * use {@link com.financeiro.diretorio.DiretorioUsuarios#listar}
      */
+    @Deprecated
     @Transactional(readOnly = true)
     public List<Usuario> listarUsuariosPorPerfil(PerfilUsuario perfil) {
         return usuarioRepository.findByPerfilOrderByNomeAsc(perfil);
@@ -102,7 +141,11 @@ public class UsuarioService {
     
     /**
      * Busca usuários por nome parcial
+     *
+     * @deprecated LIKE '%nome%' percorre a tabela inteira;
+     * use o prefixo de {@link com.financeiro.diretorio.DiretorioUsuarios#listar}
      */
+    @Deprecated
     @Transactional(readOnly = true)
     public List<Usuario> buscarUsuariosPorNome(String nome) {
         return usuarioRepository.buscarPorNomeParcial(nome);
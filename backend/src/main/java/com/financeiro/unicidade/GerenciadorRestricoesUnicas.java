@@ -0,0 +1,49 @@
+package com.financeiro.unicidade;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cria as restrições de unicidade case-insensitive (nomes de contas, cartões e categorias por usuário, email de usuário).
+ *
+ * Roda depois que o Hibernate gera o esquema e antes do servidor aceitar requisições; os serviços gravam sem
+ * consultar antes e traduzem a violação no erro de domínio. Se já houver duplicatas no banco, a restrição não é
+ * criada e o erro é registrado até que sejam resolvidas.
+ */
+@Component
+@Lazy(false)
+@DependsOn("entityManagerFactory")
+public class GerenciadorRestricoesUnicas {
+
+    private static final Logger logger = LoggerFactory.getLogger(GerenciadorRestricoesUnicas.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void criar() {
+        String produto = jdbcTemplate.execute((ConnectionCallback<String>) conexao ->
+                conexao.getMetaData().getDatabaseProductName());
+        boolean postgres = "PostgreSQL".equalsIgnoreCase(produto);
+        for (RestricaoUnica restricao : RestricaoUnica.values()) {
+            try {
+                if (postgres) {
+                    jdbcTemplate.execute(restricao.ddlPostgres());
+                } else {
+                    for (String ddl : restricao.ddlH2()) {
+                        jdbcTemplate.execute(ddl);
+                    }
+                }
+            } catch (RuntimeException e) {
+                logger.error("Falha ao criar a restrição {} (há duplicatas a resolver?)", restricao.getNome(), e);
+            }
+        }
+    }
+}
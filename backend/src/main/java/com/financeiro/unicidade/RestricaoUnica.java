@@ -0,0 +1,112 @@
+package com.financeiro.unicidade;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * Unicidades case-insensitive garantidas pelo banco, com a mensagem de domínio de cada uma.
+ *
+ * No PostgreSQL são índices únicos funcionais; o H2 não indexa expressões, então lá a expressão vira uma coluna
+ * gerada (não mapeada no JPA) com índice único sobre ela.
+ */
+public enum RestricaoUnica {
+
+    NOME_CONTA("uk_contas_usuario_nome", "contas", "usuario_id", "LOWER(nome)", "nome_normalizado",
+            "Já existe uma conta com este nome"),
+
+    NOME_CARTAO("uk_cartoes_usuario_nome", "cartoes", "usuario_id", "LOWER(nome_do_cartao)", "nome_normalizado",
+            "Já existe um cartão com este nome"),
+
+    NOME_CATEGORIA("uk_categorias_usuario_nome", "categorias", "usuario_id", "LOWER(nome)", "nome_normalizado",
+            "Já existe uma categoria com este nome"),
+
+    EMAIL_USUARIO("uk_usuarios_email", "usuarios", null, "LOWER(email)", "email_normalizado",
+            "Email já está em uso", "usuarios(email", "(email)");
+
+    private final String nome;
+    private final String tabela;
+    private final String escopo;
+    private final String normalizacao;
+    private final String colunaGerada;
+    private final String mensagem;
+    private final String[] indicios;
+
+    /**
+     * @param escopo coluna que delimita a unicidade (null para unicidade global)
+     * @param normalizacao expressão indexada
+     * @param colunaGerada coluna que materializa a expressão no H2
+     * @param indiciosExtras trechos da mensagem do driver que também identificam a violação
+     */
+    RestricaoUnica(String nome, String tabela, String escopo, String normalizacao, String colunaGerada,
+                   String mensagem, String... indiciosExtras) {
+        this.nome = nome;
+        this.tabela = tabela;
+        this.escopo = escopo;
+        this.normalizacao = normalizacao;
+        this.colunaGerada = colunaGerada;
+        this.mensagem = mensagem;
+        this.indicios = new String[indiciosExtras.length + 1];
+        this.indicios[0] = nome;
+        System.arraycopy(indiciosExtras, 0, this.indicios, 1, indiciosExtras.length);
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public String getMensagem() {
+        return mensagem;
+    }
+
+    /**
+     * DDL idempotente da restrição no PostgreSQL
+     */
+    String ddlPostgres() {
+        return "CREATE UNIQUE INDEX IF NOT EXISTS " + nome + " ON " + tabela + " (" + colunas(normalizacao) + ")";
+    }
+
+    /**
+     * DDL idempotente da restrição no H2 (coluna gerada + índice único)
+     */
+    String[] ddlH2() {
+        return new String[]{
+                "ALTER TABLE " + tabela + " ADD COLUMN IF NOT EXISTS " + colunaGerada
+                        + " VARCHAR(150) GENERATED ALWAYS AS (" + normalizacao + ")",
+                "CREATE UNIQUE INDEX IF NOT EXISTS " + nome + " ON " + tabela + " (" + colunas(colunaGerada) + ")"
+        };
+    }
+
+    private String colunas(String chave) {
+        return escopo != null ? escopo + ", " + chave : chave;
+    }
+
+    /**
+     * Indica se a violação de integridade veio desta restrição
+     * (também reconhece a unicidade de coluna que o mapeamento JPA possa ter criado antes)
+     */
+    public boolean violadaPor(DataIntegrityViolationException e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof ConstraintViolationException violacao && violacao.getConstraintName() != null
+                    && violacao.getConstraintName().toLowerCase(Locale.ROOT).contains(nome)) {
+                return true;
+            }
+        }
+        Throwable raiz = e.getMostSpecificCause();
+        String texto = raiz.getMessage() != null ? raiz.getMessage().toLowerCase(Locale.ROOT) : "";
+        for (String indicio : indicios) {
+            if (texto.contains(indicio)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Converte a violação desta restrição no erro de domínio; outras violações seguem como estão
+     */
+    public RuntimeException traduzir(DataIntegrityViolationException e) {
+        return violadaPor(e) ? new RuntimeException(mensagem) : e;
+    }
+}
@@ -4,6 +4,10 @@ import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -12,6 +16,7 @@ import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
@@ -23,6 +28,29 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
     
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Timer parseTimer;
+    private Timer signTimer;
+    private Timer validateTimer;
+    
+    @PostConstruct
+    void registrarMetricas() {
+        this.parseTimer = Timer.builder("security.jwt.parse")
+                .description("Parse e verificação de assinatura do token")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.signTimer = Timer.builder("security.jwt.sign")
+                .description("Geração e assinatura do token")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.validateTimer = Timer.builder("security.jwt.validate")
+                .description("Validação completa do token contra o usuário")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+    
     private SecretKey getSigningKey() {
         return Keys.hmacShaKeyFor(secret.getBytes());
     }
@@ -53,11 +81,11 @@ public class JwtUtil {
      * Extrai todos os claims do token
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
+        return parseTimer.record(() -> Jwts.parser()
                 .verifyWith(getSigningKey())   // precisa ser SecretKey
                 .build()
                 .parseSignedClaims(token)
-                .getPayload();
+                .getPayload());
     }
 
     /**
@@ -84,24 +112,27 @@ public class JwtUtil {
     }
     
     /**
-     * Cria o token JWT
+     * Cria o token JWT (com jti único, usado pela lista de revogação)
      */
     private String createToken(Map<String, Object> claims, String subject) {
-        return Jwts.builder()
+        return signTimer.record(() -> Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
+                .compact());
     }
     
     /**
      * Valida o token
      */
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateTimer.record(() -> {
+            final String username = extractUsername(token);
+            return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        });
     }
     
     /**
@@ -0,0 +1,85 @@
+package com.financeiro.analise;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Gravações e remoções por id (localizadas pelo índice) conferidas contra um mapa de referência
+ */
+class InstantaneoColunarTest {
+
+    @Test
+    void gravarERemoverPorIdMantemOsTotais() {
+        Random aleatorio = new Random(42);
+        InstantaneoColunar instantaneo = new InstantaneoColunar(0);
+        Map<Long, long[]> referencia = new HashMap<>();
+
+        for (int operacao = 0; operacao < 200_000; operacao++) {
+            // Ids espalhados e repetidos: colisões no índice, substituições e remoções no meio das sequências
+            long id = aleatorio.nextInt(5_000) * 1_048_576L + 7;
+            if (aleatorio.nextInt(3) == 0) {
+                instantaneo.remover(id);
+                referencia.remove(id);
+            } else {
+                long centavos = aleatorio.nextInt(100_000);
+                byte tipo = aleatorio.nextBoolean() ? InstantaneoColunar.RECEITA : InstantaneoColunar.DESPESA;
+                instantaneo.gravar(id, 19_000 + aleatorio.nextInt(30), centavos, tipo, 1, InstantaneoColunar.SEM_CARTAO);
+                referencia.put(id, new long[]{centavos, tipo});
+            }
+        }
+
+        long receitas = 0;
+        long despesas = 0;
+        for (long[] linha : referencia.values()) {
+            if (linha[1] == InstantaneoColunar.RECEITA) {
+                receitas += linha[0];
+            } else {
+                despesas += linha[0];
+            }
+        }
+        List<Grupo> grupos = instantaneo.agrupar(Dimensao.CONTA, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        assertThat(instantaneo.getTamanho()).isEqualTo(referencia.size());
+        assertThat(grupos).hasSize(1);
+        assertThat(grupos.get(0).quantidade()).isEqualTo(referencia.size());
+        assertThat(grupos.get(0).receitas().getCentavos()).isEqualTo(receitas);
+        assertThat(grupos.get(0).despesas().getCentavos()).isEqualTo(despesas);
+    }
+
+    @Test
+    void removerIdAusenteNaoAlteraNada() {
+        InstantaneoColunar instantaneo = new InstantaneoColunar(4);
+        instantaneo.gravar(1, 19_000, 500, InstantaneoColunar.DESPESA, 1, InstantaneoColunar.SEM_CARTAO);
+        instantaneo.remover(2);
+        instantaneo.gravar(1, 19_000, 700, InstantaneoColunar.DESPESA, 1, InstantaneoColunar.SEM_CARTAO);
+
+        assertThat(instantaneo.getTamanho()).isEqualTo(1);
+        assertThat(instantaneo.agrupar(Dimensao.TIPO, Integer.MIN_VALUE, Integer.MAX_VALUE))
+                .singleElement().satisfies(grupo -> assertThat(grupo.despesas().getCentavos()).isEqualTo(700));
+    }
+
+    @Test
+    void idsDeContaECartaoAcimaDeIntAgrupamPeloIdOriginal() {
+        long contaGrande = 3_000_000_000L;
+        long cartaoGrande = (1L << 40) + 7;
+        InstantaneoColunar instantaneo = new InstantaneoColunar(4);
+        instantaneo.gravar(1, 19_000, 500, InstantaneoColunar.DESPESA, contaGrande, cartaoGrande);
+        instantaneo.gravar(2, 19_000, 300, InstantaneoColunar.RECEITA, 5, InstantaneoColunar.SEM_CARTAO);
+        instantaneo.gravar(3, 19_001, 200, InstantaneoColunar.DESPESA, contaGrande, InstantaneoColunar.SEM_CARTAO);
+        // Alteração move a linha 3 para o cartão grande
+        instantaneo.gravar(3, 19_001, 200, InstantaneoColunar.DESPESA, contaGrande, cartaoGrande);
+
+        assertThat(instantaneo.agrupar(Dimensao.CONTA, Integer.MIN_VALUE, Integer.MAX_VALUE))
+                .extracting(Grupo::chave, grupo -> grupo.despesas().getCentavos(), Grupo::quantidade)
+                .containsExactly(tuple("5", 0L, 1), tuple("3000000000", 700L, 2));
+        assertThat(instantaneo.agrupar(Dimensao.CARTAO, Integer.MIN_VALUE, Integer.MAX_VALUE))
+                .extracting(Grupo::chave, Grupo::quantidade)
+                .containsExactly(tuple(null, 1), tuple(String.valueOf(cartaoGrande), 2));
+    }
+}
@@ -0,0 +1,100 @@
+package com.financeiro.arquivo;
+
+import com.financeiro.model.enums.TipoTransacao;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Formato dos segmentos: a categoria sobrevive ao arquivamento e segmentos da versão 1 continuam legíveis
+ */
+class SegmentoTest {
+
+    private static final int DIA = (int) LocalDate.of(2020, 3, 15).toEpochDay();
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void gravaELeCategoria() {
+        List<TransacaoArquivada> linhas = List.of(
+                new TransacaoArquivada(1, DIA, 1250, TipoTransacao.DESPESA, false, 10, 0, 7, "Mercado"),
+                new TransacaoArquivada(2, DIA + 1, 500000, TipoTransacao.RECEITA, true, 10, 0, 0, "Salário"));
+        Segmento.Cabecalho cabecalho = Segmento.gravar(diretorio.resolve("segmento-000001.seg"), 1, linhas);
+
+        Segmento.Cabecalho lido = Segmento.lerCabecalho(cabecalho.arquivo(), 1);
+        assertEquals(Segmento.VERSAO, lido.versao());
+        List<TransacaoArquivada> destino = new ArrayList<>();
+        Segmento.ler(lido, DIA, DIA + 1, l -> true, destino);
+
+        assertEquals(linhas, destino);
+        assertEquals(7L, destino.get(0).paraTransacao().idDaCategoria());
+        assertNull(destino.get(1).paraTransacao().idDaCategoria());
+    }
+
+    @Test
+    void existeParaNaPrimeiraLinhaAceita() {
+        List<TransacaoArquivada> linhas = List.of(
+                new TransacaoArquivada(1, DIA, 100, TipoTransacao.DESPESA, false, 10, 0, 0, "A"),
+                new TransacaoArquivada(2, DIA, 200, TipoTransacao.DESPESA, false, 20, 0, 0, "B"),
+                new TransacaoArquivada(3, DIA, 300, TipoTransacao.DESPESA, false, 20, 0, 0, "C"));
+        Segmento.Cabecalho cabecalho = Segmento.gravar(diretorio.resolve("segmento-000001.seg"), 1, linhas);
+
+        List<Long> testadas = new ArrayList<>();
+        assertTrue(Segmento.existe(cabecalho, l -> testadas.add(l.id()) && l.contaId() == 20));
+        assertEquals(List.of(1L, 2L), testadas);
+        assertFalse(Segmento.existe(cabecalho, l -> l.contaId() == 30));
+    }
+
+    @Test
+    void leSegmentoDaVersaoSemCategoria() throws IOException {
+        ByteArrayOutputStream bruto = new ByteArrayOutputStream();
+        DataOutputStream saida = new DataOutputStream(bruto);
+        saida.writeLong(1);
+        saida.writeInt(DIA);
+        saida.writeLong(1250);
+        saida.writeByte(TipoTransacao.DESPESA.ordinal());
+        saida.writeBoolean(false);
+        saida.writeLong(10);
+        saida.writeLong(3);
+        saida.writeUTF("Mercado");
+        saida.flush();
+        byte[] original = bruto.toByteArray();
+
+        Deflater deflater = new Deflater();
+        deflater.setInput(original);
+        deflater.finish();
+        byte[] comprimido = new byte[original.length + 64];
+        int tamanho = deflater.deflate(comprimido);
+        deflater.end();
+
+        Path arquivo = diretorio.resolve("segmento-000001.seg");
+        ByteBuffer conteudo = ByteBuffer.allocate(Segmento.TAMANHO_CABECALHO + tamanho)
+                .putInt(Segmento.MAGICO).putInt(Segmento.VERSAO_SEM_CATEGORIA).putInt(DIA).putInt(DIA).putInt(1)
+                .putInt(tamanho).putInt(original.length).putInt(0)
+                .put(comprimido, 0, tamanho);
+        Files.write(arquivo, conteudo.array());
+
+        Segmento.Cabecalho cabecalho = Segmento.lerCabecalho(arquivo, 1);
+        List<TransacaoArquivada> destino = new ArrayList<>();
+        Segmento.ler(cabecalho, DIA, DIA, l -> true, destino);
+
+        assertEquals(List.of(new TransacaoArquivada(1, DIA, 1250, TipoTransacao.DESPESA, false, 10, 3, 0, "Mercado")),
+                destino);
+    }
+}
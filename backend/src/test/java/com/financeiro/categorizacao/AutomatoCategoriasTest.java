@@ -0,0 +1,109 @@
+package com.financeiro.categorizacao;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Aho-Corasick das regras de categoria: termos sobrepostos, prioridade, normalização e recompilação
+ */
+class AutomatoCategoriasTest {
+
+    private static final int GLOBAL = 0;
+    private static final int USUARIO = 1;
+
+    @Test
+    void termosSobrepostosVenceOMaisLongo() {
+        AutomatoCategorias automato = AutomatoCategorias.compilar(List.of(
+                regra("mercado", 1, USUARIO),
+                regra("supermercado", 2, USUARIO),
+                regra("cado", 3, USUARIO)));
+
+        assertThat(automato.categorizar("COMPRA SUPERMERCADO DIA")).isEqualTo(2);
+        assertThat(automato.categorizar("mercado livre")).isEqualTo(1);
+        assertThat(automato.categorizar("abacado")).isEqualTo(3);
+        assertThat(automato.categorizar("farmacia")).isEqualTo(AutomatoCategorias.SEM_CATEGORIA);
+    }
+
+    @Test
+    void termoQueComecaDentroDeOutroEhEncontradoPeloLinkDeFalha() {
+        // Ao ler "posto shell b", o caminho de "posto shell" não continua; a varredura cai em "shell " e segue
+        AutomatoCategorias automato = AutomatoCategorias.compilar(List.of(
+                regra("posto shell", 10, GLOBAL),
+                regra("shell box", 20, USUARIO)));
+
+        assertThat(automato.categorizar("posto shell box 123")).isEqualTo(20);
+        assertThat(automato.categorizar("posto shell centro")).isEqualTo(10);
+    }
+
+    @Test
+    void regraDoUsuarioVenceAGlobalMesmoMaisCurta() {
+        AutomatoCategorias automato = AutomatoCategorias.compilar(List.of(
+                regra("ifood restaurante", 9, GLOBAL),
+                regra("ifood", 5, USUARIO)));
+
+        assertThat(automato.categorizar("IFOOD RESTAURANTE SABOR")).isEqualTo(5);
+        // Mesmo termo nas duas: fica a do usuário
+        AutomatoCategorias repetido = AutomatoCategorias.compilar(List.of(
+                regra("uber", 9, GLOBAL),
+                regra("UBER", 5, USUARIO)));
+        assertThat(repetido.categorizar("uber trip")).isEqualTo(5);
+        assertThat(repetido.getRegras()).isEqualTo(2);
+    }
+
+    @Test
+    void ignoraAcentosMaiusculasEEspacosDoTermo() {
+        AutomatoCategorias automato = AutomatoCategorias.compilar(List.of(
+                regra("  Açougue São João ", 4, USUARIO),
+                regra("padaria", 7, USUARIO),
+                regra("   ", 8, USUARIO)));
+
+        assertThat(automato.categorizar("acougue sao joao ltda")).isEqualTo(4);
+        assertThat(automato.categorizar("AÇOUGUE SÃO JOÃO")).isEqualTo(4);
+        assertThat(automato.categorizar("Padaria Confiança")).isEqualTo(7);
+        assertThat(automato.categorizar(null)).isEqualTo(AutomatoCategorias.SEM_CATEGORIA);
+        // O termo em branco é descartado
+        assertThat(automato.getRegras()).isEqualTo(2);
+    }
+
+    @Test
+    void mudancaNaRegraRecompilaOAutomatoDoUsuario() {
+        List<AutomatoCategorias.Regra> regras = new ArrayList<>(List.of(regra("netflix", 1, USUARIO)));
+        CategorizadorTransacoes categorizador = new CategorizadorTransacoes();
+        ReflectionTestUtils.setField(categorizador, "properties", new CategorizacaoProperties());
+        ReflectionTestUtils.setField(categorizador, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(categorizador, "jdbcTemplate", new JdbcTemplate() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> List<T> query(String sql, RowMapper<T> mapeador, Object... argumentos) {
+                return (List<T>) List.copyOf(regras);
+            }
+        });
+        categorizador.registrarMetricas();
+
+        AutomatoCategorias anterior = categorizador.automato(42L);
+        assertThat(categorizador.categorizar(42L, "NETFLIX.COM")).isEqualTo(1L);
+
+        regras.set(0, regra("netflix", 2, USUARIO));
+        // Sem invalidar, o autômato em cache continua valendo
+        assertThat(categorizador.categorizar(42L, "NETFLIX.COM")).isEqualTo(1L);
+
+        // Fora de transação a invalidação é imediata
+        categorizador.invalidar(42L);
+        assertThat(categorizador.categorizar(42L, "NETFLIX.COM")).isEqualTo(2L);
+        assertThat(categorizador.automato(42L)).isNotSameAs(anterior);
+        // O autômato antigo é imutável: quem ainda o tem continua vendo a regra antiga
+        assertThat(anterior.categorizar("NETFLIX.COM")).isEqualTo(1L);
+    }
+
+    private static AutomatoCategorias.Regra regra(String termo, long categoriaId, int prioridade) {
+        return new AutomatoCategorias.Regra(termo, categoriaId, prioridade);
+    }
+}
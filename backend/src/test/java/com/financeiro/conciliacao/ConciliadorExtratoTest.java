@@ -0,0 +1,128 @@
+package com.financeiro.conciliacao;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Intercalação do extrato com as transações: janela de tolerância, desempate por descrição e dias, ambiguidades
+ */
+class ConciliadorExtratoTest {
+
+    private static final int DIA = (int) LocalDate.of(2026, 3, 10).toEpochDay();
+
+    private final ConciliadorExtrato conciliador = new ConciliadorExtrato(3, 0.05);
+
+    @Test
+    void linhaIgualCasaComATransacao() {
+        Movimentos extrato = movimentos();
+        extrato.adicionar(1, DIA, -5_000, "Mercado Central");
+        Movimentos sistema = movimentos();
+        sistema.adicionar(100, DIA, -5_000, "MERCADO CENTRAL");
+
+        ResultadoConciliacao resultado = conciliador.conciliar(extrato, sistema);
+
+        assertThat(resultado.conciliadas()).containsExactly(new ResultadoConciliacao.Par(1, 100, 0, 1.0));
+        assertThat(resultado.ambiguas()).isEmpty();
+        assertThat(resultado.extratoSemPar()).isEmpty();
+        assertThat(resultado.sistemaSemPar()).isEmpty();
+    }
+
+    @Test
+    void janelaDeToleranciaIncluiOsExtremos() {
+        Movimentos extrato = movimentos();
+        extrato.adicionar(1, DIA, -1_000, "Padaria");
+        extrato.adicionar(2, DIA, -2_000, "Farmácia");
+        extrato.adicionar(3, DIA, -3_000, "Posto");
+        Movimentos sistema = movimentos();
+        sistema.adicionar(100, DIA + 3, -1_000, "Padaria");
+        sistema.adicionar(200, DIA + 4, -2_000, "Farmácia");
+        sistema.adicionar(300, DIA - 3, -3_000, "Posto");
+
+        ResultadoConciliacao resultado = conciliador.conciliar(extrato, sistema);
+
+        assertThat(resultado.conciliadas()).extracting(ResultadoConciliacao.Par::extrato,
+                        ResultadoConciliacao.Par::sistema, ResultadoConciliacao.Par::diferencaDias)
+                .containsExactly(tuple(1L, 100L, 3), tuple(3L, 300L, -3));
+        assertThat(resultado.extratoSemPar()).containsExactly(2L);
+        assertThat(resultado.sistemaSemPar()).containsExactly(200L);
+    }
+
+    @Test
+    void empateEntreCandidatasDistinguiveisFicaAmbiguo() {
+        Movimentos extrato = movimentos();
+        extrato.adicionar(1, DIA, -5_000, "Pagamento");
+        Movimentos sistema = movimentos();
+        sistema.adicionar(100, DIA + 1, -5_000, "Pagamento A");
+        sistema.adicionar(200, DIA - 1, -5_000, "Pagamento B");
+
+        ResultadoConciliacao resultado = conciliador.conciliar(extrato, sistema);
+
+        assertThat(resultado.conciliadas()).isEmpty();
+        assertThat(resultado.ambiguas()).singleElement().satisfies(ambiguidade -> {
+            assertThat(ambiguidade.extrato()).isEqualTo(1L);
+            assertThat(ambiguidade.candidatos()).containsExactlyInAnyOrder(100L, 200L);
+        });
+        // A linha ambígua não consome nenhuma candidata
+        assertThat(resultado.sistemaSemPar()).containsExactly(100L, 200L);
+        assertThat(resultado.extratoSemPar()).isEmpty();
+    }
+
+    @Test
+    void empateEntreTransacoesIndistinguiveisEscolheUma() {
+        Movimentos extrato = movimentos();
+        extrato.adicionar(1, DIA, -5_000, "Pagamento");
+        Movimentos sistema = movimentos();
+        sistema.adicionar(100, DIA + 1, -5_000, "Pagamento A");
+        sistema.adicionar(200, DIA + 1, -5_000, " pagamento a ");
+
+        ResultadoConciliacao resultado = conciliador.conciliar(extrato, sistema);
+
+        assertThat(resultado.ambiguas()).isEmpty();
+        assertThat(resultado.conciliadas()).hasSize(1);
+        assertThat(resultado.sistemaSemPar()).hasSize(1);
+    }
+
+    @Test
+    void ambiguaSeResolveNaPassadaSeguinte() {
+        Movimentos extrato = movimentos();
+        // Primeira na ordem de dias: empata entre 100 e 200
+        extrato.adicionar(1, DIA, -5_000, "Pagamento");
+        // Depois dela, escolhe 200 pela descrição; na passada seguinte, a linha 1 só tem 100
+        extrato.adicionar(2, DIA + 2, -5_000, "Pagamento B");
+        Movimentos sistema = movimentos();
+        sistema.adicionar(100, DIA - 1, -5_000, "Pagamento A");
+        sistema.adicionar(200, DIA + 1, -5_000, "Pagamento B");
+
+        ResultadoConciliacao resultado = conciliador.conciliar(extrato, sistema);
+
+        assertThat(resultado.conciliadas()).extracting(ResultadoConciliacao.Par::extrato, ResultadoConciliacao.Par::sistema)
+                .containsExactly(tuple(1L, 100L), tuple(2L, 200L));
+        assertThat(resultado.ambiguas()).isEmpty();
+        assertThat(resultado.extratoSemPar()).isEmpty();
+        assertThat(resultado.sistemaSemPar()).isEmpty();
+    }
+
+    @Test
+    void valoresSemCorrespondenteFicamSemParDosDoisLados() {
+        Movimentos extrato = movimentos();
+        extrato.adicionar(1, DIA, -1_000, "Tarifa");
+        extrato.adicionar(2, DIA, 250_000, "Salário");
+        Movimentos sistema = movimentos();
+        sistema.adicionar(100, DIA, 250_000, "Salário");
+        sistema.adicionar(200, DIA, -7_500, "Restaurante");
+
+        ResultadoConciliacao resultado = conciliador.conciliar(extrato, sistema);
+
+        assertThat(resultado.conciliadas()).extracting(ResultadoConciliacao.Par::extrato).containsExactly(2L);
+        assertThat(resultado.extratoSemPar()).containsExactly(1L);
+        assertThat(resultado.sistemaSemPar()).containsExactly(200L);
+    }
+
+    private static Movimentos movimentos() {
+        return new Movimentos(4);
+    }
+}
@@ -0,0 +1,114 @@
+package com.financeiro.diretorio;
+
+import com.financeiro.model.Usuario;
+import com.financeiro.model.enums.PerfilUsuario;
+import com.financeiro.service.UsuarioService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Paginação por cursor do diretório: empates na chave, curingas do LIKE no prefixo, ordem por email e cursores
+ * malformados. Cada teste usa um prefixo próprio, então os usuários dos outros testes não entram nas páginas.
+ */
+@SpringBootTest
+class DiretorioUsuariosTest {
+
+    @Autowired
+    private DiretorioUsuarios diretorio;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Test
+    void nomesIguaisEmMinusculasSaoDesempatadosPeloId() {
+        List<Long> ids = new ArrayList<>();
+        for (String nome : List.of("Empate Diretório", "EMPATE DIRETÓRIO", "empate diretório", "Empate diretório",
+                "EMPATE Diretório")) {
+            ids.add(novoUsuario(nome, "empate" + ids.size() + "@diretorio.com").getId());
+        }
+        novoUsuario("Empate Diretórioz", "empate-depois@diretorio.com");
+
+        List<Long> lidos = new ArrayList<>();
+        List<Integer> tamanhos = new ArrayList<>();
+        String cursor = null;
+        do {
+            PaginaUsuarios pagina = diretorio.listar("empate diretório", null, null, null, cursor, 2);
+            pagina.usuarios().forEach(usuario -> lidos.add(usuario.id()));
+            tamanhos.add(pagina.usuarios().size());
+            cursor = pagina.proximo();
+        } while (cursor != null);
+
+        // Mesma chave em todos: a ordem é a dos ids, sem repetir nem pular ninguém entre as páginas
+        assertThat(lidos.subList(0, 5)).containsExactlyElementsOf(ids);
+        assertThat(lidos).hasSize(6);
+        assertThat(tamanhos).containsExactly(2, 2, 2);
+    }
+
+    @Test
+    void curingasDoPrefixoSaoLiterais() {
+        novoUsuario("Qz%Cem", "cem@curinga.com");
+        novoUsuario("QzXCem", "xcem@curinga.com");
+        novoUsuario("Qz_Sub", "sub@curinga.com");
+        novoUsuario("QzYSub", "ysub@curinga.com");
+        novoUsuario("Qz\\Barra", "barra@curinga.com");
+        novoUsuario("QzBarra", "semBarra@curinga.com");
+
+        assertThat(nomes(diretorio.listar("qz%", null, null, null, null, 10))).containsExactly("Qz%Cem");
+        assertThat(nomes(diretorio.listar("QZ_", null, null, null, null, 10))).containsExactly("Qz_Sub");
+        assertThat(nomes(diretorio.listar("qz\\", null, null, null, null, 10))).containsExactly("Qz\\Barra");
+        assertThat(nomes(diretorio.listar("  qz ", null, null, null, null, 10))).hasSize(6);
+    }
+
+    @Test
+    void prefixoDeEmailOrdenaPeloEmail() {
+        // Em ordem de nome seriam a, b, c; pelo email, c, b, a
+        novoUsuario("Ordem A", "ordem.c@diretorio.com");
+        novoUsuario("Ordem B", "Ordem.B@diretorio.com");
+        novoUsuario("Ordem C", "ordem.a@diretorio.com");
+
+        PaginaUsuarios primeira = diretorio.listar(null, "ORDEM.", null, null, null, 2);
+        assertThat(nomes(primeira)).containsExactly("Ordem C", "Ordem B");
+        assertThat(primeira.proximo()).isNotNull();
+
+        PaginaUsuarios segunda = diretorio.listar(null, "ordem.", null, null, primeira.proximo(), 2);
+        assertThat(nomes(segunda)).containsExactly("Ordem A");
+        assertThat(segunda.proximo()).isNull();
+
+        // Os dois prefixos juntos filtram pelos dois e ordenam pelo email
+        assertThat(nomes(diretorio.listar("ordem", "ordem.", null, null, null, 10)))
+                .containsExactly("Ordem C", "Ordem B", "Ordem A");
+    }
+
+    @Test
+    void cursorMalformadoELimiteForaDaFaixaSaoRejeitados() {
+        for (String cursor : List.of("não é base64!", base64("sem separador"), base64("abc:nome"))) {
+            assertThatThrownBy(() -> diretorio.listar(null, null, null, null, cursor, 10))
+                    .isExactlyInstanceOf(RuntimeException.class).hasMessage("Cursor inválido");
+        }
+        assertThatThrownBy(() -> diretorio.listar(null, null, null, null, null, 0))
+                .hasMessage("Limite deve estar entre 1 e " + DiretorioUsuarios.LIMITE_MAXIMO);
+        assertThatThrownBy(() -> diretorio.listar(null, null, null, null, null, DiretorioUsuarios.LIMITE_MAXIMO + 1))
+                .hasMessage("Limite deve estar entre 1 e " + DiretorioUsuarios.LIMITE_MAXIMO);
+    }
+
+    private Usuario novoUsuario(String nome, String email) {
+        return usuarioService.criarUsuario(new Usuario(nome, email, "senha123", PerfilUsuario.USER));
+    }
+
+    private static List<String> nomes(PaginaUsuarios pagina) {
+        return pagina.usuarios().stream().map(ResumoUsuario::nome).toList();
+    }
+
+    private static String base64(String texto) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,40 @@
+package com.financeiro.eventos;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Bilhete do stream SSE: vale uma única vez e só dentro da validade
+ */
+class BilhetesEventosTest {
+
+    @Test
+    void bilheteValeUmaVez() {
+        BilhetesEventos bilhetes = bilhetes(30_000);
+        String bilhete = bilhetes.emitir("ana@teste.com");
+
+        assertNotEquals(bilhete, bilhetes.emitir("ana@teste.com"));
+        assertEquals("ana@teste.com", bilhetes.resgatar(bilhete));
+        assertNull(bilhetes.resgatar(bilhete));
+        assertNull(bilhetes.resgatar("inventado"));
+        assertNull(bilhetes.resgatar(null));
+    }
+
+    @Test
+    void bilheteVencidoNaoVale() {
+        BilhetesEventos bilhetes = bilhetes(0);
+        assertNull(bilhetes.resgatar(bilhetes.emitir("ana@teste.com")));
+    }
+
+    private static BilhetesEventos bilhetes(long validadeMs) {
+        EventosProperties properties = new EventosProperties();
+        properties.setBilheteValidadeMs(validadeMs);
+        BilhetesEventos bilhetes = new BilhetesEventos();
+        ReflectionTestUtils.setField(bilhetes, "properties", properties);
+        return bilhetes;
+    }
+}
@@ -0,0 +1,81 @@
+package com.financeiro.lancamento;
+
+import com.financeiro.model.Transacao;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tempo esgotado na espera da confirmação: só responde erro quando o lançamento comprovadamente não será gravado.
+ */
+class EsperaLancamentoTest {
+
+    @Test
+    void desistenciaAntesDoLoteRetiraOLancamento() {
+        Lancamento lancamento = new Lancamento(new Transacao(), 1L, 1L, null, null);
+
+        assertThatThrownBy(() -> GravadorLotes.aguardar(lancamento, 20))
+                .hasMessageContaining("nada foi gravado");
+        // O gravador não consegue mais retirá-lo: fica fora de qualquer lote
+        assertThat(lancamento.retirar()).isFalse();
+    }
+
+    @Test
+    void lancamentoJaNoLoteEsperaOCommit() {
+        Lancamento lancamento = new Lancamento(new Transacao(), 1L, 1L, null, null);
+        assertThat(lancamento.retirar()).isTrue();
+        Transacao gravada = new Transacao();
+        CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS)
+                .execute(() -> lancamento.confirmacao().complete(gravada));
+
+        assertThat(GravadorLotes.aguardar(lancamento, 20)).isSameAs(gravada);
+    }
+
+    @Test
+    void erroDoLoteChegaAQuemJaEstavaNele() {
+        Lancamento lancamento = new Lancamento(new Transacao(), 1L, 1L, null, null);
+        assertThat(lancamento.retirar()).isTrue();
+        CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS)
+                .execute(() -> lancamento.confirmacao().completeExceptionally(new RuntimeException("Conta não encontrada")));
+
+        assertThatThrownBy(() -> GravadorLotes.aguardar(lancamento, 20)).hasMessage("Conta não encontrada");
+    }
+
+    @Test
+    void loteQueNaoTerminaEsperaNoMaximoOTempoDaTransacao() {
+        Lancamento lancamento = new Lancamento(new Transacao(), 1L, 1L, null, null);
+        assertThat(lancamento.retirar()).isTrue();
+
+        long inicio = System.nanoTime();
+        assertThatThrownBy(() -> GravadorLotes.aguardar(lancamento, 20))
+                .hasMessageContaining("pode ter sido gravado");
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio)).isLessThan(5_000);
+    }
+
+    @Test
+    void errorNoLoteRespondeTodosOsLancamentos() {
+        GravadorLotes gravador = new GravadorLotes();
+        ReflectionTestUtils.setField(gravador, "transactionTemplate", new TransactionTemplate() {
+            @Override
+            public <T> T execute(TransactionCallback<T> acao) {
+                throw new StackOverflowError();
+            }
+        });
+        Lancamento primeiro = new Lancamento(new Transacao(), 1L, 1L, null, null);
+        Lancamento segundo = new Lancamento(new Transacao(), 1L, 2L, null, null);
+
+        gravador.gravar(SequenciadorContas.MODO, List.of(primeiro, segundo));
+
+        assertThat(primeiro.confirmacao()).isCompletedExceptionally();
+        assertThat(segundo.confirmacao()).isCompletedExceptionally();
+        assertThatThrownBy(() -> GravadorLotes.aguardar(primeiro, 20)).hasMessage("Falha ao gravar o lançamento");
+    }
+}
@@ -0,0 +1,109 @@
+package com.financeiro.metrics;
+
+import com.financeiro.model.Conta;
+import com.financeiro.model.Usuario;
+import com.financeiro.model.enums.PerfilUsuario;
+import com.financeiro.model.enums.TipoConta;
+import com.financeiro.service.ContaService;
+import com.financeiro.service.UsuarioService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Modo FALHAR: a requisição que estoura o orçamento falha antes de a resposta ser enviada
+ */
+@SpringBootTest(properties = {
+        "financeiro.sql.orcamento.modo=FALHAR",
+        "financeiro.sql.orcamento.endpoints[/contas/saldo-total]=10",
+        "financeiro.sql.orcamento.endpoints[/contas/{id}]=0",
+        "management.server.port=-1"
+})
+@AutoConfigureMockMvc
+@WithMockUser
+class OrcamentoSqlFalharTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private ContaService contaService;
+
+    @Autowired
+    private EstatisticasRequisicaoFilter filtro;
+
+    @Test
+    void requisicaoDentroDoOrcamentoEntregaOCorpo() throws Exception {
+        Long usuarioId = novoUsuario("dentro@orcamento.com");
+        contaService.criarConta(new Conta("Corrente", TipoConta.CORRENTE, new BigDecimal("12.50"), "Banco", null), usuarioId);
+
+        mockMvc.perform(get("/contas/saldo-total").param("usuarioId", usuarioId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").value(12.5));
+    }
+
+    @Test
+    void requisicaoForaDoOrcamentoFalhaNoTeste() {
+        Long usuarioId = novoUsuario("fora@orcamento.com");
+        Long contaId = contaService.criarConta(
+                new Conta("Poupança", TipoConta.POUPANCA, BigDecimal.ONE, "Banco", null), usuarioId).getId();
+
+        assertThatThrownBy(() -> mockMvc.perform(get("/contas/{id}", contaId).param("usuarioId", usuarioId.toString())))
+                .isInstanceOf(OrcamentoSqlExcedidoException.class)
+                .hasMessageContaining("/contas/{id}");
+    }
+
+    @Test
+    void respostaRetidaNaoEhEnviadaQuandoOOrcamentoEstoura() {
+        MockHttpServletRequest requisicao = new MockHttpServletRequest("GET", "/contas/1");
+        MockHttpServletResponse resposta = new MockHttpServletResponse();
+
+        assertThatThrownBy(() -> filtro.doFilter(requisicao, resposta, (req, resp) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/contas/{id}");
+            EstatisticasRequisicao.registrarInstrucao("select * from contas where id = 1");
+            resp.getWriter().write("{\"id\":1}");
+            resp.flushBuffer();
+        })).isInstanceOf(OrcamentoSqlExcedidoException.class);
+
+        assertThat(resposta.isCommitted()).isFalse();
+        assertThat(resposta.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void estouroDoTotalTrazAPilhaDaPrimeiraInstrucaoAcimaDoOrcamento() {
+        MockHttpServletRequest requisicao = new MockHttpServletRequest("GET", "/contas/saldo-total");
+
+        // Antes do mapeamento o orçamento do endpoint não é conhecido: a instrução conta, mas não é capturada
+        assertThatThrownBy(() -> filtro.doFilter(requisicao, new MockHttpServletResponse(), (req, resp) -> {
+            EstatisticasRequisicao.registrarInstrucao("select * from usuarios where email = 'a@b.com'");
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/contas/saldo-total");
+            for (int i = 0; i < 11; i++) {
+                // Instruções distintas: nenhuma repetição acima do limite, só o total estoura
+                EstatisticasRequisicao.registrarInstrucao("select * from tabela" + i);
+            }
+        })).isInstanceOf(OrcamentoSqlExcedidoException.class)
+                .hasMessageContaining("12 instruções (orçamento 10)")
+                .cause().hasMessageContaining("Instrução 11 acima do orçamento").hasMessageContaining("tabela9");
+    }
+
+    private Long novoUsuario(String email) {
+        return usuarioService.criarUsuario(new Usuario("Orçamento SQL", email, "senha123", PerfilUsuario.USER)).getId();
+    }
+}
@@ -0,0 +1,33 @@
+package com.financeiro.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Entrada de valores: até 2 casas decimais, nunca arredondados
+ */
+class DinheiroTest {
+
+    @Test
+    void recusaMaisDeDuasCasas() {
+        IllegalArgumentException erro = assertThrows(IllegalArgumentException.class,
+                () -> Dinheiro.de(new BigDecimal("10.005")));
+        assertEquals("Valor com mais de 2 casas decimais: 10.005", erro.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> Dinheiro.centavosDe(new BigDecimal("-0.001")));
+    }
+
+    @Test
+    void aceitaZerosADireitaEEscalasMenores() {
+        assertEquals(1050, Dinheiro.de(new BigDecimal("10.500")).getCentavos());
+        assertEquals(1000, Dinheiro.de(new BigDecimal("10")).getCentavos());
+        assertEquals(100000, Dinheiro.centavosDe(new BigDecimal("1E+3")));
+        assertEquals(-1, Dinheiro.centavosDe(new BigDecimal("-0.01")));
+        assertNull(Dinheiro.de(null));
+        assertEquals(0, Dinheiro.centavosDe(null));
+    }
+}
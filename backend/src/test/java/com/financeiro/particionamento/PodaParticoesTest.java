@@ -0,0 +1,92 @@
+package com.financeiro.particionamento;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Poda de partições conferida com EXPLAIN sobre o SQL real dos repositórios, em um PostgreSQL de verdade
+ * (ignorado quando não há Docker disponível).
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class PodaParticoesTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.driver-class-name", POSTGRES::getDriverClassName);
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.properties.hibernate.hbm2ddl.extra_physical_table_types", () -> "PARTITIONED TABLE");
+        registry.add("financeiro.particionamento.habilitado", () -> "true");
+        registry.add("financeiro.particionamento.granularidade", () -> "MENSAL");
+        registry.add("financeiro.particionamento.migrar", () -> "true");
+    }
+
+    @Autowired
+    private GerenciadorParticoes gerenciadorParticoes;
+
+    @BeforeEach
+    void criarParticoesDe2024() {
+        for (LocalDate inicio = LocalDate.of(2024, 1, 1); inicio.getYear() == 2024; inicio = inicio.plusMonths(1)) {
+            String nome = "transacoes_p" + Granularidade.MENSAL.sufixo(inicio);
+            boolean existe = gerenciadorParticoes.listarParticoes().stream()
+                    .map(particao -> particao.get("nome"))
+                    .anyMatch(nome::equals);
+            if (!existe) {
+                gerenciadorParticoes.criarParticao(inicio);
+            }
+        }
+    }
+
+    @Test
+    void tabelaJaEstaParticionadaQuandoOContextoSobe() {
+        assertThat(gerenciadorParticoes.isParticionada()).isTrue();
+        assertThat(gerenciadorParticoes.listarParticoes()).extracting(particao -> (String) particao.get("nome"))
+                .contains(GerenciadorParticoes.PADRAO);
+    }
+
+    @Test
+    void extratoDoMesLeSoAParticaoDoMes() {
+        assertThat(gerenciadorParticoes.particoesConsultadas(ConsultaPeriodo.EXTRATO, 1L,
+                LocalDate.of(2024, 3, 5), LocalDate.of(2024, 3, 20)))
+                .containsExactly("transacoes_p2024_03");
+    }
+
+    @Test
+    void receitasEntreDoisMesesLeemAsDuasParticoes() {
+        assertThat(gerenciadorParticoes.particoesConsultadas(ConsultaPeriodo.RECEITAS, 1L,
+                LocalDate.of(2024, 1, 15), LocalDate.of(2024, 2, 10)))
+                .containsExactlyInAnyOrder("transacoes_p2024_01", "transacoes_p2024_02");
+    }
+
+    @Test
+    void periodoSemParticaoPropriaLeSoAPadrao() {
+        assertThat(gerenciadorParticoes.particoesConsultadas(ConsultaPeriodo.DESPESAS, 1L,
+                LocalDate.of(2019, 6, 1), LocalDate.of(2019, 6, 30)))
+                .containsExactly(GerenciadorParticoes.PADRAO);
+    }
+
+    @Test
+    void periodoDoAnoInteiroNaoLeAPadrao() {
+        assertThat(gerenciadorParticoes.particoesConsultadas(ConsultaPeriodo.EXTRATO, 1L,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)))
+                .hasSize(12)
+                .allMatch(nome -> nome.startsWith("transacoes_p2024_"));
+    }
+}
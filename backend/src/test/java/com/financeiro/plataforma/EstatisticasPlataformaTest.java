@@ -0,0 +1,125 @@
+package com.financeiro.plataforma;
+
+import com.financeiro.cambio.Cotacoes;
+import com.financeiro.cambio.TabelaCambio;
+import com.financeiro.repository.UsuarioRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cache por faixa de usuários: uma escrita marca só a faixa do usuário, e só ela é relida no cálculo seguinte
+ */
+class EstatisticasPlataformaTest {
+
+    private static final int USUARIOS_POR_FAIXA = 10;
+    private static final LocalDate INICIO = LocalDate.of(2026, 3, 1);
+    private static final LocalDate FIM = LocalDate.of(2026, 3, 31);
+
+    // Primeiro usuário de cada faixa lida na tabela de transações
+    private final List<Long> faixasLidas = new CopyOnWriteArrayList<>();
+
+    private EstatisticasPlataforma estatisticas;
+
+    @BeforeEach
+    void preparar() {
+        PlataformaProperties properties = new PlataformaProperties();
+        properties.setUsuariosPorFaixa(USUARIOS_POR_FAIXA);
+        properties.setParalelismo(2);
+
+        TabelaCambio tabelaCambio = new TabelaCambio();
+        ReflectionTestUtils.setField(tabelaCambio, "cotacoes", Cotacoes.somente("BRL"));
+
+        estatisticas = new EstatisticasPlataforma();
+        ReflectionTestUtils.setField(estatisticas, "properties", properties);
+        ReflectionTestUtils.setField(estatisticas, "jdbcTemplate", new JdbcTemplate() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T queryForObject(String sql, Class<T> tipo) {
+                // 35 usuários: faixas 1-10, 11-20, 21-30 e 31-35
+                return (T) Long.valueOf(35);
+            }
+
+            @Override
+            public void query(String sql, RowCallbackHandler leitor, Object... argumentos) {
+                if (sql.contains("FROM transacoes")) {
+                    faixasLidas.add((Long) argumentos[0]);
+                }
+            }
+        });
+        ReflectionTestUtils.setField(estatisticas, "tabelaCambio", tabelaCambio);
+        ReflectionTestUtils.setField(estatisticas, "usuarioRepository", usuarios());
+        ReflectionTestUtils.setField(estatisticas, "meterRegistry", new SimpleMeterRegistry());
+        estatisticas.iniciar();
+    }
+
+    @AfterEach
+    void encerrar() {
+        estatisticas.encerrar();
+    }
+
+    @Test
+    void primeiroCalculoLeTodasAsFaixasESegundoNenhuma() {
+        assertThat(estatisticas.calcular(INICIO, FIM)).containsEntry("faixas", 4).containsEntry("faixasRelidas", 4);
+        assertThat(faixasLidas).containsExactlyInAnyOrder(1L, 11L, 21L, 31L);
+
+        faixasLidas.clear();
+        assertThat(estatisticas.calcular(INICIO, FIM)).containsEntry("faixasRelidas", 0);
+        assertThat(faixasLidas).isEmpty();
+    }
+
+    @Test
+    void escritaReleSoAFaixaDoUsuario() {
+        estatisticas.calcular(INICIO, FIM);
+
+        faixasLidas.clear();
+        estatisticas.usuarioAlterado(23L);
+        assertThat(estatisticas.calcular(INICIO, FIM)).containsEntry("faixasRelidas", 1);
+        assertThat(faixasLidas).containsExactly(21L);
+
+        // Extremos da faixa: 10 ainda é da primeira, 11 já é da segunda
+        faixasLidas.clear();
+        estatisticas.usuarioAlterado(10L);
+        estatisticas.usuarioAlterado(11L);
+        assertThat(estatisticas.calcular(INICIO, FIM)).containsEntry("faixasRelidas", 2);
+        assertThat(faixasLidas).containsExactlyInAnyOrder(1L, 11L);
+    }
+
+    @Test
+    void cadaPeriodoTemSeuCache() {
+        estatisticas.calcular(INICIO, FIM);
+        estatisticas.usuarioAlterado(35L);
+
+        faixasLidas.clear();
+        // Período novo lê tudo; o anterior só a faixa alterada
+        assertThat(estatisticas.calcular(INICIO, INICIO)).containsEntry("faixasRelidas", 4);
+        assertThat(estatisticas.calcular(INICIO, FIM)).containsEntry("faixasRelidas", 1);
+    }
+
+    /**
+     * Repositório só com as contagens que o cálculo pede
+     */
+    private static UsuarioRepository usuarios() {
+        Map<String, Long> contagens = Map.of("count", 35L, "countByAtivo", 30L, "countByPerfil", 1L);
+        return (UsuarioRepository) Proxy.newProxyInstance(UsuarioRepository.class.getClassLoader(),
+                new Class<?>[]{UsuarioRepository.class}, (proxy, metodo, argumentos) -> {
+                    Long contagem = contagens.get(metodo.getName());
+                    if (contagem == null) {
+                        throw new UnsupportedOperationException(metodo.getName());
+                    }
+                    return contagem;
+                });
+    }
+}
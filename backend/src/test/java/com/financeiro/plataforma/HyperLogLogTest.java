@@ -0,0 +1,64 @@
+package com.financeiro.plataforma;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Contagem de distintos: erro dentro do limite da precisão e mescla igual a um esboço único
+ */
+class HyperLogLogTest {
+
+    private static final int PRECISAO = 14;
+
+    @Test
+    void estimativaFicaDentroDoErroPadrao() {
+        // Erro padrão 1,04 / sqrt(2^14) = 0,8%; três erros padrão de folga
+        double limite = 3 * 1.04 / Math.sqrt(1 << PRECISAO);
+        for (int distintos : new int[]{1_000, 50_000, 1_000_000}) {
+            HyperLogLog esboco = new HyperLogLog(PRECISAO);
+            for (int i = 0; i < distintos; i++) {
+                esboco.adicionar(HyperLogLog.hash("instituicao" + i));
+            }
+            assertThat((double) esboco.estimativa()).isCloseTo(distintos, within(distintos * limite));
+        }
+    }
+
+    @Test
+    void repetidosNaoMudamAEstimativa() {
+        HyperLogLog esboco = new HyperLogLog(PRECISAO);
+        for (int vez = 0; vez < 5; vez++) {
+            for (int i = 0; i < 100; i++) {
+                esboco.adicionar(HyperLogLog.hash("banco" + i));
+            }
+        }
+        // Poucos elementos caem na contagem linear, que é quase exata
+        assertThat(esboco.estimativa()).isBetween(99L, 101L);
+        assertThat(new HyperLogLog(PRECISAO).estimativa()).isZero();
+    }
+
+    @Test
+    void esbocosMescladosIgualamUmEsbocoUnico() {
+        HyperLogLog unico = new HyperLogLog(PRECISAO);
+        HyperLogLog[] partes = new HyperLogLog[4];
+        for (int p = 0; p < partes.length; p++) {
+            partes[p] = new HyperLogLog(PRECISAO);
+        }
+        // Partes com elementos em comum, como instituições repetidas entre faixas de usuários
+        for (int i = 0; i < 200_000; i++) {
+            long hash = HyperLogLog.hash("instituicao" + (i % 120_000));
+            unico.adicionar(hash);
+            partes[i % partes.length].adicionar(hash);
+        }
+
+        HyperLogLog mesclado = partes[0].copia();
+        for (int p = 1; p < partes.length; p++) {
+            mesclado.mesclar(partes[p]);
+        }
+
+        assertThat(mesclado.estimativa()).isEqualTo(unico.estimativa());
+        // A cópia é independente: a mescla não alterou a parte de origem
+        assertThat(partes[0].estimativa()).isLessThan(mesclado.estimativa());
+    }
+}
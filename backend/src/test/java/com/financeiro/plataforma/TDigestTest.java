@@ -0,0 +1,100 @@
+package com.financeiro.plataforma;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Quantis do t-digest: precisão por posição, caudas mais finas que o meio, e a mesma precisão após mesclar
+ */
+class TDigestTest {
+
+    private static final double COMPRESSAO = 100;
+    private static final int VALORES = 100_000;
+
+    @Test
+    void quantisDeUmEsbocoUnico() {
+        double[] valores = valores(new SplittableRandom(7));
+        TDigest esboco = new TDigest(COMPRESSAO);
+        for (double valor : valores) {
+            esboco.adicionar(valor);
+        }
+        conferirQuantis(esboco, ordenados(valores));
+    }
+
+    @Test
+    void quantisAposMesclarPartesComDistribuicoesDiferentes() {
+        double[] valores = valores(new SplittableRandom(11));
+        double[] ordenados = ordenados(valores);
+        // Cada parte fica com um trecho contíguo dos valores (pior caso: as faixas não se parecem entre si)
+        TDigest[] partes = new TDigest[8];
+        for (int p = 0; p < partes.length; p++) {
+            partes[p] = new TDigest(COMPRESSAO);
+        }
+        for (int i = 0; i < ordenados.length; i++) {
+            partes[i * partes.length / ordenados.length].adicionar(ordenados[i]);
+        }
+        for (TDigest parte : partes) {
+            parte.compactar();
+        }
+
+        // Mescla aos pares, como as faixas na volta da recursão
+        while (partes.length > 1) {
+            TDigest[] metade = new TDigest[partes.length / 2];
+            for (int p = 0; p < metade.length; p++) {
+                metade[p] = partes[2 * p].copia();
+                metade[p].mesclar(partes[2 * p + 1]);
+            }
+            partes = metade;
+        }
+        conferirQuantis(partes[0], ordenados);
+    }
+
+    @Test
+    void semValoresDevolveNaN() {
+        TDigest esboco = new TDigest(COMPRESSAO);
+        assertThat(esboco.quantil(0.5)).isNaN();
+        esboco.mesclar(new TDigest(COMPRESSAO));
+        assertThat(esboco.quantil(0.99)).isNaN();
+
+        esboco.adicionar(4_250);
+        assertThat(esboco.quantil(0.01)).isEqualTo(4_250);
+        assertThat(esboco.quantil(0.99)).isEqualTo(4_250);
+    }
+
+    /**
+     * Confere a posição do valor devolvido entre os valores ordenados: até 1% no meio e 0,1% no p99
+     */
+    private static void conferirQuantis(TDigest esboco, double[] ordenados) {
+        assertThat(posicao(ordenados, esboco.quantil(0.5))).isCloseTo(0.5, within(0.01));
+        assertThat(posicao(ordenados, esboco.quantil(0.9))).isCloseTo(0.9, within(0.005));
+        assertThat(posicao(ordenados, esboco.quantil(0.99))).isCloseTo(0.99, within(0.001));
+    }
+
+    private static double posicao(double[] ordenados, double valor) {
+        int indice = Arrays.binarySearch(ordenados, valor);
+        return (double) (indice >= 0 ? indice : -indice - 1) / ordenados.length;
+    }
+
+    /**
+     * Centavos com cauda longa, como valores de transações: log-normal
+     */
+    private static double[] valores(SplittableRandom random) {
+        double[] valores = new double[VALORES];
+        for (int i = 0; i < valores.length; i++) {
+            double normal = Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+            valores[i] = Math.exp(9 + 1.2 * normal);
+        }
+        return valores;
+    }
+
+    private static double[] ordenados(double[] valores) {
+        double[] ordenados = valores.clone();
+        Arrays.sort(ordenados);
+        return ordenados;
+    }
+}
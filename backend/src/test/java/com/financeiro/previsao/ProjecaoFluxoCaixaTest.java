@@ -0,0 +1,76 @@
+package com.financeiro.previsao;
+
+import com.financeiro.model.enums.TipoTransacao;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Projeção em memória: contas sem eventos, faturas de cartão e recorrências
+ */
+class ProjecaoFluxoCaixaTest {
+
+    private static final LocalDate HOJE = LocalDate.of(2026, 1, 10);
+
+    @Test
+    void contaSemEventosNoPeriodoFicaComOSaldoDePartida() {
+        ProjecaoFluxoCaixa projecao = new ProjecaoFluxoCaixa(HOJE, 2);
+        projecao.conta(1, "Parada", "BRL", 50_000);
+        projecao.conta(2, "Movimentada", "BRL", 0);
+        projecao.lancamento(2, 0, HOJE.plusDays(3), TipoTransacao.RECEITA, 1_000);
+        // Lançamento antigo vai para a partida e não aloca o vetor de deltas
+        projecao.lancamento(1, 0, HOJE.minusDays(5), TipoTransacao.DESPESA, 10_000);
+
+        Previsao previsao = projecao.projetar();
+
+        PrevisaoConta parada = previsao.contas().get(0);
+        long[] esperado = new long[previsao.dias()];
+        Arrays.fill(esperado, 40_000);
+        assertEquals(59, previsao.dias());
+        assertArrayEquals(esperado, parada.saldosDiariosEmCentavos());
+        assertEquals(0, parada.lancamentosPrevistos());
+        assertEquals(40_000, parada.saldoFinal().getCentavos());
+        assertEquals(40_000, parada.menorSaldo().getCentavos());
+        assertNull(parada.primeiraDataNegativa());
+        assertEquals(1_000, previsao.contas().get(1).saldoFinal().getCentavos());
+    }
+
+    @Test
+    void faturaRecorrenciaEPrimeiroDiaNegativo() {
+        ProjecaoFluxoCaixa projecao = new ProjecaoFluxoCaixa(HOJE, 2);
+        projecao.conta(1, "Corrente", "BRL", 100_000);
+        projecao.conta(2, "Reserva", "BRL", 10_000);
+        projecao.cartao(7, 5, 15);
+        // Compra depois do fechamento (dia 5): fatura de fevereiro, vence em 15/02
+        projecao.lancamento(1, 7, LocalDate.of(2026, 1, 6), TipoTransacao.DESPESA, 30_000);
+        // Salário recorrente: a ocorrência mais recente (20/12) repete em 20/01 e 20/02
+        projecao.recorrente("Salário", 1, 0, TipoTransacao.RECEITA, 50_000, LocalDate.of(2025, 11, 20));
+        projecao.recorrente("SALÁRIO", 1, 0, TipoTransacao.RECEITA, 50_000, LocalDate.of(2025, 12, 20));
+        projecao.lancamento(2, 0, LocalDate.of(2026, 1, 12), TipoTransacao.DESPESA, 20_000);
+
+        Previsao previsao = projecao.projetar();
+
+        long[] saldos = previsao.contas().get(0).saldosDiariosEmCentavos();
+        assertEquals(100_000, saldos[dia(LocalDate.of(2026, 1, 19))]);
+        assertEquals(150_000, saldos[dia(LocalDate.of(2026, 1, 20))]);
+        assertEquals(150_000, saldos[dia(LocalDate.of(2026, 2, 14))]);
+        assertEquals(120_000, saldos[dia(LocalDate.of(2026, 2, 15))]);
+        assertEquals(170_000, saldos[dia(LocalDate.of(2026, 2, 20))]);
+        assertEquals(3, previsao.contas().get(0).lancamentosPrevistos());
+        assertEquals(1, previsao.recorrencias());
+
+        PrevisaoConta reserva = previsao.contas().get(1);
+        assertEquals(LocalDate.of(2026, 1, 12), reserva.primeiraDataNegativa());
+        assertEquals(-10_000, reserva.menorSaldo().getCentavos());
+        assertEquals(1, previsao.contasNegativas());
+    }
+
+    private static int dia(LocalDate data) {
+        return (int) (data.toEpochDay() - HOJE.toEpochDay());
+    }
+}
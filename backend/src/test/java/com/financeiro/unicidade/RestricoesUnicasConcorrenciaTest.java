@@ -0,0 +1,128 @@
+package com.financeiro.unicidade;
+
+import com.financeiro.model.Cartao;
+import com.financeiro.model.Conta;
+import com.financeiro.model.Usuario;
+import com.financeiro.model.enums.PerfilUsuario;
+import com.financeiro.model.enums.TipoConta;
+import com.financeiro.service.CartaoService;
+import com.financeiro.service.ContaService;
+import com.financeiro.service.UsuarioService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Criações simultâneas com a mesma chave: uma grava, as demais recebem o erro de domínio da restrição
+ * (nunca a violação de integridade crua, que chegaria ao cliente como 500).
+ */
+@SpringBootTest
+class RestricoesUnicasConcorrenciaTest {
+
+    private static final int CRIACOES = 100;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private ContaService contaService;
+
+    @Autowired
+    private CartaoService cartaoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void nomeDeContaRepetidoGravaUmaVez() throws Exception {
+        Long usuarioId = novoUsuario("contas@concorrencia.com").getId();
+
+        List<Throwable> erros = criarAoMesmoTempo(i -> () -> contaService.criarConta(
+                new Conta(i % 2 == 0 ? "Corrente" : "CORRENTE", TipoConta.CORRENTE, BigDecimal.TEN, "Banco", null),
+                usuarioId));
+
+        assertThat(erros).hasSize(CRIACOES - 1)
+                .allSatisfy(erro -> assertErroDeDominio(erro, RestricaoUnica.NOME_CONTA));
+        assertThat(contar("SELECT COUNT(*) FROM contas WHERE usuario_id = ?", usuarioId)).isEqualTo(1);
+    }
+
+    @Test
+    void nomeDeCartaoRepetidoGravaUmaVez() throws Exception {
+        Long usuarioId = novoUsuario("cartoes@concorrencia.com").getId();
+
+        List<Throwable> erros = criarAoMesmoTempo(i -> () -> cartaoService.criarCartao(
+                new Cartao(i % 2 == 0 ? "Platinum" : "platinum", "VISA", new BigDecimal("5000"), 5, 15, null),
+                usuarioId));
+
+        assertThat(erros).hasSize(CRIACOES - 1)
+                .allSatisfy(erro -> assertErroDeDominio(erro, RestricaoUnica.NOME_CARTAO));
+        assertThat(contar("SELECT COUNT(*) FROM cartoes WHERE usuario_id = ?", usuarioId)).isEqualTo(1);
+    }
+
+    @Test
+    void emailRepetidoGravaUmaVez() throws Exception {
+        List<Throwable> erros = criarAoMesmoTempo(i -> () ->
+                novoUsuario(i % 2 == 0 ? "repetido@concorrencia.com" : "REPETIDO@concorrencia.com"));
+
+        assertThat(erros).hasSize(CRIACOES - 1)
+                .allSatisfy(erro -> assertErroDeDominio(erro, RestricaoUnica.EMAIL_USUARIO));
+        assertThat(contar("SELECT COUNT(*) FROM usuarios WHERE LOWER(email) = ?", "repetido@concorrencia.com"))
+                .isEqualTo(1);
+    }
+
+    private Usuario novoUsuario(String email) {
+        return usuarioService.criarUsuario(new Usuario("Usuário Concorrência", email, "senha123", PerfilUsuario.USER));
+    }
+
+    /**
+     * Dispara as criações juntas (todas as threads liberadas pelo mesmo sinal) e devolve os erros
+     */
+    private List<Throwable> criarAoMesmoTempo(IntFunction<Runnable> criacao) throws Exception {
+        ExecutorService threads = Executors.newFixedThreadPool(CRIACOES);
+        try {
+            CountDownLatch largada = new CountDownLatch(1);
+            List<Future<?>> criacoes = new ArrayList<>(CRIACOES);
+            for (int i = 0; i < CRIACOES; i++) {
+                Runnable tarefa = criacao.apply(i);
+                criacoes.add(threads.submit(() -> {
+                    largada.await();
+                    tarefa.run();
+                    return null;
+                }));
+            }
+            largada.countDown();
+
+            List<Throwable> erros = new ArrayList<>();
+            for (Future<?> futura : criacoes) {
+                try {
+                    futura.get();
+                } catch (java.util.concurrent.ExecutionException e) {
+                    erros.add(e.getCause());
+                }
+            }
+            return erros;
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    private static void assertErroDeDominio(Throwable erro, RestricaoUnica restricao) {
+        assertThat(erro).isExactlyInstanceOf(RuntimeException.class).hasMessage(restricao.getMensagem());
+    }
+
+    private long contar(String sql, Object parametro) {
+        return jdbcTemplate.queryForObject(sql, Long.class, parametro);
+    }
+}